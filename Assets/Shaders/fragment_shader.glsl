@@ -2,12 +2,17 @@
 varying vec4 out_vertexColor;
 varying vec4 out_shadowColor;
 varying vec2 out_textureCoord;
+// per draw parameters of batched draws
+varying vec4 out_textureSubspace;
+varying vec3 out_circleInfo;
+varying vec2 out_flags;
 
 // uniforms
+// whether per draw parameters come from vertex data instead of the uniforms below
+uniform bool un_batched;
 uniform vec4 un_globalColor;
 
 uniform bool un_useLights;
-uniform int un_lightCount;
 
 struct CircleInfo {
 	float minRadius;
@@ -24,21 +29,26 @@ struct TextureInfo {
 };
 uniform TextureInfo un_textureInfo;
 
-struct LightInfo {
-	vec4 position;
-	vec4 color;
-
-	float power;
-	float cutoff;
-};
-const int MAX_LIGHTS = 64;
-uniform LightInfo un_Lights[MAX_LIGHTS];
+// summed color of ambient lights
+uniform vec4 un_ambientLight;
+// two texels per light, (x, y, power, radius) and color
+uniform sampler2D un_lightData;
+uniform vec2 un_lightDataSize;
+// one texel per tile of un_lightTileSize pixels, (first index, count) into un_lightIndices
+uniform sampler2D un_lightTiles;
+uniform vec2 un_lightTileCount;
+uniform float un_lightTileSize;
+// light indices of all tiles, one after another
+uniform sampler2D un_lightIndices;
+uniform vec2 un_lightIndicesSize;
 
 bool checkCircle() {
+	vec3 circleInfo = un_batched ? out_circleInfo : vec3(un_circleInfo.minRadius, un_circleInfo.maxRadius, un_circleInfo.maxAngle);
+
 	vec2 circlePos = out_textureCoord - vec2(0.5, 0.5);
 	float th = circlePos.x != 0.0 ? atan(circlePos.y, circlePos.x) : 3.1415;
 	float distance = length(circlePos);
-	if (th > un_circleInfo.maxAngle || !(distance >= un_circleInfo.minRadius && distance <= un_circleInfo.maxRadius)) {
+	if (th > circleInfo.z || !(distance >= circleInfo.x && distance <= circleInfo.y)) {
 		return false;
 	}
 
@@ -46,11 +56,14 @@ bool checkCircle() {
 }
 
 vec4 calcTextureColor() {
-	vec4 currentColor = out_vertexColor * un_globalColor;
-	vec2 textureCoord = vec2(un_textureInfo.textureSubspace.x + un_textureInfo.textureSubspace.z * out_textureCoord.s,
-							un_textureInfo.textureSubspace.y + un_textureInfo.textureSubspace.w * out_textureCoord.t);
+	vec4 currentColor = un_batched ? out_vertexColor : out_vertexColor * un_globalColor;
+	vec4 textureSubspace = un_batched ? out_textureSubspace : un_textureInfo.textureSubspace;
+	bool overrideColor = un_batched ? out_flags.x > 0.5 : un_textureInfo.overrideColor;
+
+	vec2 textureCoord = vec2(textureSubspace.x + textureSubspace.z * out_textureCoord.s,
+							textureSubspace.y + textureSubspace.w * out_textureCoord.t);
 	vec4 finalColor = texture2D(un_textureInfo.tex, textureCoord);
-	if (un_textureInfo.overrideColor) {
+	if (overrideColor) {
 		finalColor = vec4(currentColor.xyz, finalColor.w * currentColor.w);
 	} else {
 		finalColor = finalColor * currentColor;
@@ -59,28 +72,33 @@ vec4 calcTextureColor() {
 	return finalColor;
 }
 
+// texel at index of a texture read row by row
+vec4 fetchTexel(sampler2D tex, vec2 size, float index) {
+	float row = floor((index + 0.5) / size.x);
+	float column = index - row * size.x;
+
+	return texture2D(tex, (vec2(column, row) + 0.5) / size);
+}
+
 vec4 calcLightColor() {
-    if (!un_useLights)
+    if (un_batched ? out_flags.y < 0.5 : !un_useLights)
         return vec4(1.0, 1.0, 1.0, 1.0);
 
-	vec4 lightColor = vec4(0.0, 0.0, 0.0, 0.0);
-	int numLights = min(un_lightCount, MAX_LIGHTS);
+	vec4 lightColor = un_ambientLight;
 
-	for (int i = 0; i < numLights; i++) {
-	    vec4 lColor = un_Lights[i].color;
-	    // lights with power <= 0 are ambient
-	    if (un_Lights[i].power > 0.0) {
-	        float distance = length(un_Lights[i].position - gl_FragCoord);
+	vec2 tile = min(floor(gl_FragCoord.xy / un_lightTileSize), un_lightTileCount - 1.0);
+	vec4 tileInfo = texture2D(un_lightTiles, (tile + 0.5) / un_lightTileCount);
+	int count = int(tileInfo.y + 0.5);
 
-	        if (un_Lights[i].cutoff <= 0.0 || distance <= un_Lights[i].cutoff) {
-                float attenuation = un_Lights[i].power / distance;
-                lColor *= vec4(attenuation, attenuation, attenuation, pow(attenuation, 3.0));
-		    } else {
-		        continue;
-		    }
-	    }
+	for (int i = 0; i < count; i++) {
+		float lightIndex = fetchTexel(un_lightIndices, un_lightIndicesSize, tileInfo.x + float(i)).x;
+		vec4 light = fetchTexel(un_lightData, un_lightDataSize, lightIndex * 2.0);
 
-		lightColor += lColor;
+		float distance = length(light.xy - gl_FragCoord.xy);
+		if (distance <= light.w) {
+			float attenuation = light.z / distance;
+			lightColor += fetchTexel(un_lightData, un_lightDataSize, lightIndex * 2.0 + 1.0) * vec4(attenuation, attenuation, attenuation, pow(attenuation, 3.0));
+		}
 	}
 
 	return lightColor;
@@ -2,18 +2,35 @@
 attribute vec4 in_Position;
 attribute vec4 in_VertexColor;
 attribute vec2 in_TextureCoord;
+// only used by batched draws, which pass per draw parameters as vertex data
+attribute vec4 in_TextureSubspace;
+attribute vec3 in_CircleInfo;
+attribute vec2 in_Flags;
+// only used by instanced draws, identity for all others
+attribute vec4 in_InstanceAxes;
+attribute vec2 in_InstanceOffset;
+
+// projection and model view, computed on the CPU
+uniform mat3 un_transform;
 
 // passed to frag
 varying vec4 out_vertexColor;
 varying vec4 out_shadowColor;
 varying vec2 out_textureCoord;
+varying vec4 out_textureSubspace;
+varying vec3 out_circleInfo;
+varying vec2 out_flags;
 
 void main() {
-	gl_Position = gl_ModelViewProjectionMatrix * in_Position;
+	vec2 position = mat2(in_InstanceAxes.xy, in_InstanceAxes.zw) * in_Position.xy + in_InstanceOffset;
+	gl_Position = vec4((un_transform * vec3(position, 1.0)).xy, in_Position.z, 1.0);
 
 	// for fragment
 	out_vertexColor = in_VertexColor;
 	out_shadowColor = vec4(1.0, 1.0, 1.0, 1.0);
 
 	out_textureCoord = in_TextureCoord;
+	out_textureSubspace = in_TextureSubspace;
+	out_circleInfo = in_CircleInfo;
+	out_flags = in_Flags;
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.edwardium.RPGEngine.Control.SceneController;
+
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameCharacter.GameCharacter;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameItemGun.GunPistol;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameProjectile.BouncyBallProjectile;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameProjectile.PistolBullet;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameWall;
+import com.edwardium.RPGEngine.IO.Input;
+import com.edwardium.RPGEngine.Utility.Rectangle;
+import com.edwardium.RPGEngine.Utility.Vector2D;
+
+import java.util.Random;
+
+/**
+ * Builds play scenes for benchmarks. Scenes have no window, no renderer and use the default config.
+ *
+ * Objects are spread over a square that grows with the object count, so the density of the scene stays the same.
+ * A tenth of the objects are walls, a fifth characters, a tenth items lying around and the rest are projectiles.
+ */
+final class BenchmarkScenes {
+	// average area per object, in pixels
+	private static final float AREA_PER_OBJECT = 60 * 60;
+
+	private BenchmarkScenes() {
+
+	}
+
+	/**
+	 * @return Empty scene.
+	 */
+	static PlaySceneController create() {
+		return new PlaySceneController(new Input() { });
+	}
+
+	/**
+	 * @param objectCount Number of objects.
+	 * @param seed Seed of the random generator used to place objects.
+	 * @return Scene with objectCount objects.
+	 */
+	static PlaySceneController create(int objectCount, long seed) {
+		PlaySceneController scene = create();
+		Random random = new Random(seed);
+		float halfSize = getHalfSize(objectCount);
+
+		for (int i = 0; i < objectCount; i++) {
+			int kind = i % 10;
+			GameObject object;
+			if (kind == 0)
+				object = createWall(random, halfSize);
+			else if (kind <= 2)
+				object = createCharacter(random, halfSize);
+			else if (kind == 3)
+				object = new GunPistol(randomPosition(random, halfSize));
+			else
+				object = createProjectile(random, halfSize);
+
+			scene.registerGameObject(object);
+		}
+
+		return scene;
+	}
+
+	/**
+	 * Replaces removed objects with new projectiles, so the scene does not empty out as projectiles expire.
+	 *
+	 * @param scene Scene created by {@code create(objectCount, seed)}.
+	 * @param objectCount Number of objects the scene was created with.
+	 * @param random Random generator to place the projectiles with.
+	 */
+	static void refill(PlaySceneController scene, int objectCount, Random random) {
+		float halfSize = getHalfSize(objectCount);
+		while (scene.gameObjects.size() < objectCount) {
+			scene.registerGameObject(createProjectile(random, halfSize));
+		}
+	}
+
+	private static float getHalfSize(int objectCount) {
+		return (float)Math.sqrt(objectCount * AREA_PER_OBJECT) / 2;
+	}
+
+	private static Vector2D randomPosition(Random random, float halfSize) {
+		return new Vector2D((random.nextFloat() * 2 - 1) * halfSize, (random.nextFloat() * 2 - 1) * halfSize);
+	}
+
+	private static GameObject createWall(Random random, float halfSize) {
+		float halfWidth = 5 + random.nextInt(40);
+		float halfHeight = 5 + random.nextInt(40);
+		return new GameWall(randomPosition(random, halfSize), new Rectangle(new Vector2D(-halfWidth, -halfHeight), new Vector2D(halfWidth, halfHeight)))
+				.rotateBy(random.nextFloat() * 3, true);
+	}
+
+	private static GameObject createCharacter(Random random, float halfSize) {
+		GameCharacter character = new GameCharacter(randomPosition(random, halfSize), "Benchmark", 2);
+		// projectiles should not empty the scene of characters
+		character.health = Float.MAX_VALUE;
+		character.factionFlag = GameCharacter.CharacterFaction.addFaction(character.factionFlag,
+				random.nextBoolean() ? GameCharacter.CharacterFaction.TRIANGLEHEADS : GameCharacter.CharacterFaction.BUBBLENOSES);
+		character.walkTowards(new Vector2D(random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1));
+
+		return character;
+	}
+
+	private static GameObject createProjectile(Random random, float halfSize) {
+		Vector2D position = randomPosition(random, halfSize);
+		Vector2D velocity = new Vector2D(random.nextFloat() * 1200 - 600, random.nextFloat() * 1200 - 600);
+
+		return random.nextBoolean() ? new BouncyBallProjectile(position, velocity) : new PistolBullet(position, velocity);
+	}
+}
@@ -0,0 +1,50 @@
+package com.edwardium.RPGEngine.Control.SceneController;
+
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameCharacter.GameCharacter;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
+import com.edwardium.RPGEngine.Utility.Vector2D;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closest character queries, which enemy AI runs for every character in every update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClosestCharacterBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int objectCount;
+
+	private PlaySceneController scene;
+	private GameCharacter me;
+	private Vector2D position;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		scene = BenchmarkScenes.create(objectCount, 42);
+		position = new Vector2D(0, 0);
+
+		for (GameObject object : scene.gameObjects) {
+			if (object instanceof GameCharacter) {
+				me = (GameCharacter) object;
+				break;
+			}
+		}
+	}
+
+	@Benchmark
+	public GameCharacter closestToPosition() {
+		return scene.getClosestCharacter(position);
+	}
+
+	@Benchmark
+	public GameCharacter closestEnemy() {
+		return scene.getClosestCharacter(me, GameCharacter.CharacterRelationship.ENEMY);
+	}
+}
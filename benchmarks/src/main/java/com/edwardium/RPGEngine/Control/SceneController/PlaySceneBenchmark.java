@@ -0,0 +1,40 @@
+package com.edwardium.RPGEngine.Control.SceneController;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One fixed update of a play scene: scheduling, integration, broadphase and collision callbacks.
+ *
+ * Expired projectiles are replaced after every update, so the measured scene stays the same size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaySceneBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int objectCount;
+
+	private PlaySceneController scene;
+	private Random random;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		scene = BenchmarkScenes.create(objectCount, 42);
+		random = new Random(43);
+	}
+
+	@Benchmark
+	public int updateGame() {
+		scene.updateGame(GameSceneController.UPDATE_STEP_TIME, 0, 0);
+		BenchmarkScenes.refill(scene, objectCount, random);
+
+		return scene.gameObjects.size();
+	}
+}
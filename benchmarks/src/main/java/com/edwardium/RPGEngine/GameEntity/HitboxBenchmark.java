@@ -0,0 +1,84 @@
+package com.edwardium.RPGEngine.GameEntity;
+
+import com.edwardium.RPGEngine.Utility.Rectangle;
+import com.edwardium.RPGEngine.Utility.Vector2D;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Narrow phase collision checks for every pair of hitbox shapes.
+ *
+ * "overlap" places the hitboxes so that they collide, "near" so that they do not collide, but pairs with a polygon
+ * still pass the broad check and run the full separating axis test.
+ * With "moving" positions the hitbox is moved by a tiny bit before every check, so the world space cache
+ * of polygon hitboxes is always recomputed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitboxBenchmark {
+
+	@Param({ "overlap", "near" })
+	public String layout;
+
+	@Param({ "static", "moving" })
+	public String positions;
+
+	private GameHitbox circle;
+	private GameHitbox otherCircle;
+	private GameHitbox box;
+	private GameHitbox otherBox;
+
+	private Vector2D position;
+	private Vector2D otherPosition;
+	private Vector2D velocity;
+	private boolean moving;
+	private float nudge = 0.001f;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		circle = new GameHitbox(20f);
+		otherCircle = new GameHitbox(20f);
+		box = new GameHitbox(new Rectangle(new Vector2D(-20, -10), new Vector2D(20, 10)));
+		otherBox = new GameHitbox(new Rectangle(new Vector2D(-20, -10), new Vector2D(20, 10)));
+
+		position = new Vector2D(0, 0);
+		// broad radius of the box is about 22.4, but it is only 10 tall
+		otherPosition = layout.equals("overlap") ? new Vector2D(30, 5) : new Vector2D(0, 41);
+		velocity = new Vector2D(100, 0);
+		moving = positions.equals("moving");
+	}
+
+	private Vector2D nextPosition() {
+		if (moving) {
+			nudge = -nudge;
+			position.add(nudge, 0);
+		}
+
+		return position;
+	}
+
+	@Benchmark
+	public GameHitbox.CollisionInfo circleCircle() {
+		return circle.checkCollision(nextPosition(), velocity, 0f, otherCircle, otherPosition, velocity, 0f);
+	}
+
+	@Benchmark
+	public GameHitbox.CollisionInfo convexCircle() {
+		return box.checkCollision(nextPosition(), velocity, 0.3f, otherCircle, otherPosition, velocity, 0f);
+	}
+
+	@Benchmark
+	public GameHitbox.CollisionInfo circleConvex() {
+		return circle.checkCollision(nextPosition(), velocity, 0f, otherBox, otherPosition, velocity, 0.3f);
+	}
+
+	@Benchmark
+	public GameHitbox.CollisionInfo convexConvex() {
+		return box.checkCollision(nextPosition(), velocity, 0.3f, otherBox, otherPosition, velocity, -0.2f);
+	}
+}
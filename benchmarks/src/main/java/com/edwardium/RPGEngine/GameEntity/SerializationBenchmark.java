@@ -0,0 +1,65 @@
+package com.edwardium.RPGEngine.GameEntity;
+
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameCharacter.GameCharacter;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameItemGun.GunPistol;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameProjectile.BouncyBallProjectile;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameWall;
+import com.edwardium.RPGEngine.Utility.Rectangle;
+import com.edwardium.RPGEngine.Utility.Vector2D;
+import org.openjdk.jmh.annotations.*;
+
+import javax.json.JsonObject;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving objects to JSON and loading them back, as done by save files.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param({ "character", "wall", "projectile" })
+	public String kind;
+
+	private GameObject object;
+	private JsonObject json;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		switch (kind) {
+			case "character":
+				GameCharacter character = new GameCharacter(new Vector2D(10, 20), "Benchmark", 4);
+				character.inventory.insertItem(new GunPistol(new Vector2D()));
+				object = character;
+				break;
+			case "wall":
+				object = new GameWall(new Vector2D(-50, 250), new Rectangle(new Vector2D(-5, -30), new Vector2D(5, 30))).rotateBy(0.8f, true);
+				break;
+			default:
+				object = new BouncyBallProjectile(new Vector2D(5, 5), new Vector2D(300, -200));
+				break;
+		}
+
+		json = object.toJSON();
+	}
+
+	@Benchmark
+	public JsonObject toJSON() {
+		return object.toJSON();
+	}
+
+	@Benchmark
+	public GameObject fromJSON() {
+		return GameObject.fromJSON(json);
+	}
+
+	@Benchmark
+	public GameObject roundTrip() {
+		return GameObject.fromJSON(object.toJSON());
+	}
+}
@@ -0,0 +1,100 @@
+package com.edwardium.RPGEngine.Utility;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vector arithmetic used by physics, in the allocating and the allocation free variants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Vector2DBenchmark {
+
+	private Vector2D a;
+	private Vector2D b;
+	private Vector2D out;
+	private float factor;
+	private float angle;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		a = new Vector2D(3.5f, -12.25f);
+		b = new Vector2D(-7f, 4.75f);
+		out = new Vector2D();
+		factor = 1 / 120f;
+		angle = 0.7f;
+	}
+
+	@Benchmark
+	public Vector2D addNew() {
+		return Vector2D.add(a, b);
+	}
+
+	@Benchmark
+	public Vector2D addOut() {
+		return Vector2D.add(a, b, out);
+	}
+
+	@Benchmark
+	public Vector2D scaleNew() {
+		return Vector2D.scale(a, factor);
+	}
+
+	@Benchmark
+	public Vector2D scaleOut() {
+		return Vector2D.scale(a, factor, out);
+	}
+
+	@Benchmark
+	public Vector2D normalizeNew() {
+		return Vector2D.normalize(a);
+	}
+
+	@Benchmark
+	public Vector2D normalizeOut() {
+		return Vector2D.normalize(a, out);
+	}
+
+	@Benchmark
+	public Vector2D rotatedByNew() {
+		return Vector2D.rotatedBy(a, angle);
+	}
+
+	@Benchmark
+	public Vector2D rotatedByOut() {
+		return Vector2D.rotatedBy(a, angle, out);
+	}
+
+	@Benchmark
+	public Vector2D rejectionNew() {
+		return a.rejection(b);
+	}
+
+	@Benchmark
+	public Vector2D rejectionOut() {
+		return Vector2D.rejection(a, b, out);
+	}
+
+	@Benchmark
+	public float distance() {
+		return a.distance(b);
+	}
+
+	@Benchmark
+	public float angleBetween() {
+		return a.angleBetween(b);
+	}
+
+	@Benchmark
+	public void pooledScope(Blackhole blackhole) {
+		try (VectorPool pool = VectorPool.open()) {
+			blackhole.consume(Vector2D.subtract(a, b, pool.take()).scale(factor));
+		}
+	}
+}
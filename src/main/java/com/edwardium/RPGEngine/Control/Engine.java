@@ -11,12 +11,15 @@ import com.edwardium.RPGEngine.Renderer.Animation.ColorAnimation;
 import com.edwardium.RPGEngine.Renderer.Animation.FusedAnimation;
 import com.edwardium.RPGEngine.Renderer.Color;
 import com.edwardium.RPGEngine.Renderer.OpenGL.OpenGLRenderer;
+import com.edwardium.RPGEngine.Renderer.RecordingRenderer;
 import com.edwardium.RPGEngine.Renderer.Renderer;
+import com.edwardium.RPGEngine.Renderer.TextMesh;
 import com.edwardium.RPGEngine.Renderer.TextureInfo;
-import com.edwardium.RPGEngine.Utility.FPSCounter;
 
+import java.util.Map;
 import java.util.Random;
 
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_F3;
 import static org.lwjgl.glfw.GLFW.GLFW_KEY_G;
 
 public class Engine implements Runnable {
@@ -24,11 +27,16 @@ public class Engine implements Runnable {
 
 	// in seconds
 	public static final float UPDATE_CAP = 1.0f / 60.0f;
+	// maximum number of fixed updates per frame
+	public static final int DEFAULT_MAX_CATCH_UP = 5;
 	// nanoseconds * NANO_TIME_MULT = seconds
 	public static final double NANO_TIME_MULT = 1e-9;
 
 	public static final float PIXEL_TO_METER = 1.0f / 50.0f;
 
+	private static final Metrics.Timer renderTimer = Metrics.timer("render submit");
+	private static final Metrics.Timer swapTimer = Metrics.timer("swap");
+
 	public static Engine gameEngine = new Engine();
 
 	public Random randomGenerator;
@@ -40,9 +48,23 @@ public class Engine implements Runnable {
 	private Config gameConfig;
 
 	private boolean running = false;
+
+	// fixed step loop settings
+	private boolean fixedStep;
+	private int updateRate;
+	private int maxCatchUp;
+	// 0 means no cap
+	private int fpsCap;
+	// simulates play scenes in the fixed step loop, null if disabled
+	private SimulationThread simulationThread = null;
+	// headless runs record and replay play scenes like the simulation thread does, but on the same thread
+	private RecordingRenderer headlessSnapshot = null;
 	private SceneController lastSceneController = null;
 	private SceneController currentSceneController;
 
+	// updated in place every frame
+	private TextMesh fpsText = null;
+
 	private Engine() {
 		if (gameEngine != null)
 			gameEngine.cleanup();
@@ -65,22 +87,32 @@ public class Engine implements Runnable {
 			return;
 		}
 
-		FPSCounter.init(50);
-
 		// load config
 		gameConfig = new Config("config.ini");
+		startMetricsTrace();
 
 		// initialize game renderer based on config values
 		switch (gameConfig.getString("renderer", "opengl").toLowerCase()) {
 			default: // OpenGL
-				gameRenderer = new OpenGLRenderer(gameConfig.getString("window-title", "RPGEngine"),
+				OpenGLRenderer openGLRenderer = new OpenGLRenderer(gameConfig.getString("window-title", "RPGEngine"),
 						gameConfig.getInt("window-width", 800),
 						gameConfig.getInt("window-height", 600));
+				openGLRenderer.setBatching(gameConfig.getString("render-batching", "on").equalsIgnoreCase("on"));
+				gameRenderer = openGLRenderer;
 				break;
 		}
 
+		fixedStep = !gameConfig.getString("loop", "fixed").equalsIgnoreCase("unsynced");
+		updateRate = Math.max(1, gameConfig.getInt("update-rate", Math.round(1 / UPDATE_CAP)));
+		maxCatchUp = Math.max(1, gameConfig.getInt("max-catch-up", DEFAULT_MAX_CATCH_UP));
+		fpsCap = Math.max(0, gameConfig.getInt("fps-cap", 0));
+
+		if (fixedStep && gameConfig.getString("simulation-thread", "on").equalsIgnoreCase("on"))
+			simulationThread = new SimulationThread(gameRenderer);
+
 		gameInput = new Input(gameRenderer.getWindowHandle());
 		gameInput.watchKey(GLFW_KEY_G);
+		gameInput.watchKey(GLFW_KEY_F3);
 
 		gameInput.setGameCursorCenter(gameRenderer.getWindowSize().divide(2));
 
@@ -94,7 +126,10 @@ public class Engine implements Runnable {
 
 		// start game loop
 		running = true;
-		loopUnsynced();
+		if (fixedStep)
+			loop();
+		else
+			loopUnsynced();
 
 //		if (currentSceneController instanceof PlaySceneController) {
 //			((PlaySceneController) currentSceneController).saveState("save.json");
@@ -104,63 +139,186 @@ public class Engine implements Runnable {
 		cleanup();
 	}
 
-	// TODO: Integrate FPS cap
-//	private void loop() {
-//		// whether to render this tick or skip rendering because nothing has updated
-//		boolean doRender = false;
-//
-//		// time that is now
-//		double nowTime;
-//		// last time the loop was run
-//		double lastTime = System.nanoTime();
-//		// how much time has elapsed since last time
-//		// divide by UPDATE_CAP to see how many updates we have missed
-//		double unprocessedTime = 0;
-//
-//		while (running) {
-//			if (gameRenderer.shouldClose()) {
-//				running = false;
-//				break;
-//			}
-//
-//			nowTime = System.nanoTime();
-//
-//			double timeSinceLastFrame = nowTime - lastTime;
-//			unprocessedTime += timeSinceLastFrame;
-//
-//			lastTime = nowTime;
-//
-//			// only updatePhysics input once, even if we do more game updates
-//			if (unprocessedTime >= UPDATE_CAP / NANO_TIME_MULT) {
-//				FPSCounter.updatePhysics(unprocessedTime);
-//				updateInput(unprocessedTime / 2);
-//				System.err.println(unprocessedTime);
-//			}
-//
-//			// updatePhysics while we are all caught up
-//			while (unprocessedTime >= UPDATE_CAP / NANO_TIME_MULT) {
-//				if (gameRenderer.shouldClose())
-//					break;
-//
-//				updatePhysics(UPDATE_CAP * timeFactor);
-//				unprocessedTime -= UPDATE_CAP / NANO_TIME_MULT;
-//
-//				// Since we updated, we also want to render
-//				doRender = true;
-//			}
-//
-//			if (doRender) {
-//				render();
-//			} else {
-//				// sleep for a millisecond, catch interrupts and do literally nothing with them just 'cause
-//				try {
-//					Thread.sleep(1);
-//				} catch (InterruptedException ignored) {
-//
-//				}
-//			}
-//		}
-//	}
+	/**
+	 * Sets the engine up to run without a window, see {@code HeadlessRunner}. Config is read but never saved.
+	 *
+	 * @param renderer Renderer to use, should not need a window.
+	 * @param input Input to use, should not need a window.
+	 * @param configOverrides Config values to use instead of the ones in config.ini.
+	 * @param savePath Save to start the play scene from.
+	 * @return Whether the save could be loaded.
+	 */
+	boolean initHeadless(Renderer renderer, Input input, Map<String, String> configOverrides, String savePath) {
+		gameConfig = new Config("config.ini");
+		for (Map.Entry<String, String> entry : configOverrides.entrySet()) {
+			gameConfig.setString(entry.getKey(), entry.getValue());
+		}
+
+		updateRate = Math.max(1, gameConfig.getInt("update-rate", Math.round(1 / UPDATE_CAP)));
+		startMetricsTrace();
+
+		gameRenderer = renderer;
+		if (gameConfig.getString("simulation-thread", "on").equalsIgnoreCase("on"))
+			headlessSnapshot = new RecordingRenderer(gameRenderer);
+
+		gameInput = input;
+		gameInput.watchKey(GLFW_KEY_G);
+		gameInput.watchKey(GLFW_KEY_F3);
+		gameInput.setGameCursorCenter(gameRenderer.getWindowSize().divide(2));
+
+		PlaySceneController scene = new PlaySceneController(gameInput);
+		currentSceneController = scene;
+
+		running = true;
+		return scene.loadScene(savePath);
+	}
+
+	/**
+	 * @return Time of one fixed update. In nanoseconds.
+	 */
+	double getUpdateStep() {
+		return 1 / (double)updateRate / NANO_TIME_MULT;
+	}
+
+	/**
+	 * One fixed update of the headless run, optionally followed by rendering.
+	 *
+	 * @return Whether the game is still running, false if it has been quit.
+	 */
+	boolean updateHeadless(boolean render) {
+		double updateStep = getUpdateStep();
+		update(updateStep, updateStep);
+
+		if (render && running) {
+			if (headlessSnapshot != null && currentSceneController instanceof PlaySceneController)
+				renderRecorded(headlessSnapshot, 1f);
+			else
+				render(1f);
+		}
+
+		return running;
+	}
+
+	/**
+	 * Fixed step loop. The scene is updated in steps of exactly updateStep and rendered in between,
+	 * with interpolation alpha telling how far the frame is between the last two updates.
+	 */
+	private void loop() {
+		double updateStep = 1 / (double)updateRate / NANO_TIME_MULT;
+
+		// time that is now
+		long nowTime;
+		// last time the loop was run
+		long lastTime = System.nanoTime();
+		// last time input was processed
+		long lastInputTime = lastTime;
+		// time that has not been simulated yet
+		double accumulator = 0;
+
+		while (running) {
+			if (gameRenderer.shouldClose()) {
+				running = false;
+				break;
+			}
+
+			nowTime = System.nanoTime();
+			double frameTime = nowTime - lastTime;
+			lastTime = nowTime;
+
+			gameInput.setGameCursorCenter(gameRenderer.getWindowSize().divide(2));
+
+			// when we fall behind, drop the time we cannot catch up with instead of stalling render
+			accumulator = Math.min(accumulator + frameTime, maxCatchUp * updateStep);
+
+			int updates = 0;
+			while (accumulator >= updateStep) {
+				accumulator -= updateStep;
+				updates++;
+			}
+			float alpha = (float)(accumulator / updateStep);
+
+			// input is processed only by the first update of a frame
+			long inputTime = nowTime - lastInputTime;
+			if (updates > 0)
+				lastInputTime = nowTime;
+
+			if (simulationThread != null && currentSceneController instanceof PlaySceneController) {
+				frameThreaded((PlaySceneController) currentSceneController, frameTime, updates, inputTime, updateStep, alpha);
+			} else {
+				Metrics.endFrame(frameTime);
+
+				for (int i = 0; i < updates && running; i++) {
+					update(i == 0 ? inputTime : 0, updateStep);
+				}
+
+				render(alpha);
+			}
+
+			waitForFrame(nowTime);
+		}
+	}
+
+	/**
+	 * One frame of the fixed step loop with the scene simulated on the simulation thread.
+	 * Draws the snapshot of the last simulated frame while the next one is computed.
+	 */
+	private void frameThreaded(PlaySceneController scene, double frameTime, int updates, long inputTime, double updateStep, float alpha) {
+		// simulation is idle from here until submit
+		RecordingRenderer snapshot = simulationThread.awaitSnapshot(scene);
+		Metrics.endFrame(frameTime);
+
+		boolean simulate = true;
+		if (updates > 0) {
+			updateDebugKeys(inputTime);
+			simulate = scene.processInput(inputTime) && currentSceneController == scene;
+		}
+
+		if (!simulate) {
+			// scene has been left
+			render(alpha);
+			return;
+		}
+
+		simulationThread.submit(scene, updates, updateStep, alpha);
+		if (snapshot == null) {
+			// nothing to draw yet, wait for the first snapshot
+			snapshot = simulationThread.awaitSnapshot(scene);
+			if (snapshot == null)
+				return;
+		}
+
+		renderTimer.start();
+		gameRenderer.beforeLoop();
+		snapshot.replay();
+		renderTimer.stop();
+
+		swapTimer.start();
+		gameRenderer.afterLoop();
+		swapTimer.stop();
+	}
+
+	/**
+	 * Sleeps until the minimum frame time given by FPS cap has passed since frameStart.
+	 */
+	private void waitForFrame(long frameStart) {
+		if (fpsCap <= 0)
+			return;
+
+		long frameEnd = frameStart + (long)(1 / (double)fpsCap / NANO_TIME_MULT);
+		long remaining;
+		while ((remaining = frameEnd - System.nanoTime()) > 0) {
+			// sleep is not precise, yield for the last few milliseconds
+			if (remaining > 2_000_000) {
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException ignored) {
+
+				}
+			} else {
+				Thread.yield();
+			}
+		}
+	}
 
 	private void loopUnsynced() {
 		// time that is now
@@ -180,41 +338,111 @@ public class Engine implements Runnable {
 			unprocessedTime = nowTime - lastTime;
 			lastTime = nowTime;
 
-			FPSCounter.update(unprocessedTime);
-			// System.err.println(FPSCounter.getFPS());
+			Metrics.endFrame(unprocessedTime);
 
 			gameInput.setGameCursorCenter(gameRenderer.getWindowSize().divide(2));
 
 			update(unprocessedTime);
 			render();
+
+			waitForFrame((long)nowTime);
 		}
 	}
 
 	private void update(double unprocessedTime) {
-		if (gameInput.getWatchedKeyJustPressed(GLFW_KEY_G, unprocessedTime)) {
-			Engine.gameEngine.toggleVSync();
-		}
+		updateDebugKeys(unprocessedTime);
 
 		currentSceneController.update(unprocessedTime);
 	}
 
+	private void update(double inputTime, double stepTime) {
+		updateDebugKeys(inputTime);
+
+		currentSceneController.update(inputTime, stepTime);
+	}
+
+	/**
+	 * Toggles vsync on G and the metrics overlay on F3.
+	 */
+	private void updateDebugKeys(double inputTime) {
+		if (gameInput.getWatchedKeyJustPressed(GLFW_KEY_G, inputTime)) {
+			Engine.gameEngine.toggleVSync();
+		}
+		if (gameInput.getWatchedKeyJustPressed(GLFW_KEY_F3, inputTime)) {
+			Metrics.toggleOverlay();
+		}
+	}
+
 	private void render() {
 		UI.resetCorners(gameRenderer.getWindowSize());
 
+		renderTimer.start();
 		gameRenderer.beforeLoop();
 
 		currentSceneController.render(gameRenderer);
+		renderTimer.stop();
 
+		swapTimer.start();
 		gameRenderer.afterLoop();
+		swapTimer.stop();
+	}
+
+	/**
+	 * @param alpha How far the frame is between the last two fixed updates.
+	 */
+	private void render(float alpha) {
+		UI.resetCorners(gameRenderer.getWindowSize());
+
+		renderTimer.start();
+		gameRenderer.beforeLoop();
+
+		currentSceneController.render(gameRenderer, alpha);
+		renderTimer.stop();
+
+		swapTimer.start();
+		gameRenderer.afterLoop();
+		swapTimer.stop();
+	}
+
+	/**
+	 * Records the scene into snapshot and replays it, the same as a frame with the simulation thread.
+	 */
+	private void renderRecorded(RecordingRenderer snapshot, float alpha) {
+		renderTimer.start();
+		snapshot.clear();
+		UI.resetCorners(snapshot.getWindowSize());
+		currentSceneController.render(snapshot, alpha);
+
+		gameRenderer.beforeLoop();
+		snapshot.replay();
+		renderTimer.stop();
+
+		swapTimer.start();
+		gameRenderer.afterLoop();
+		swapTimer.stop();
+	}
+
+	/**
+	 * Starts tracing metrics to the file given by config, if there is any.
+	 */
+	private void startMetricsTrace() {
+		String tracePath = gameConfig.getString("metrics-trace", "");
+		if (!tracePath.isEmpty())
+			Metrics.startTrace(tracePath);
 	}
 
 	/**
 	 * Draws default corner string common for the whole game.
-	 * This is vsync status and FPS.
+	 * This is vsync status and FPS, and the metrics overlay if it is on.
 	 */
-	public void drawDefaultCornerStrings() {
-		UI.drawCornerString(gameRenderer, UI.Corner.BOTTOMLEFT, String.format("FPS: %.1f", FPSCounter.getFPS()), Color.CYAN);
-		UI.drawCornerString(gameRenderer, UI.Corner.BOTTOMLEFT, "VSYNC: " + (gameRenderer.getVSync() ? "ON" : "OFF"));
+	public void drawDefaultCornerStrings(Renderer renderer) {
+		if (fpsText == null || fpsText.getFont() != renderer.basicFont)
+			fpsText = new TextMesh(renderer.basicFont);
+		UI.drawCornerText(renderer, UI.Corner.BOTTOMLEFT, fpsText.clear().append("FPS: ").append(Metrics.getFPS(), 1), Color.CYAN);
+		UI.drawCornerString(renderer, UI.Corner.BOTTOMLEFT, "VSYNC: " + (renderer.getVSync() ? "ON" : "OFF"));
+
+		if (Metrics.getDrawOverlay())
+			Metrics.drawOverlay(renderer);
 	}
 
 	public boolean getVSync() {
@@ -225,6 +453,10 @@ public class Engine implements Runnable {
 		gameRenderer.setVSync(!currentVSync);
 	}
 
+	public Config getConfig() {
+		return gameConfig;
+	}
+
 	public PlaySceneController getCurrentPlayController() {
 		if (currentSceneController instanceof PlaySceneController)
 			return (PlaySceneController) currentSceneController;
@@ -280,12 +512,16 @@ public class Engine implements Runnable {
 
 	// dispose of all created instances and stuff
 	private void cleanup() {
+		if (simulationThread != null)
+			simulationThread.stop();
+
 		currentSceneController.cleanup();
 		if (lastSceneController != null)
 			lastSceneController.cleanup();
 
 		gameRenderer.cleanup();
 
+		Metrics.stopTrace();
 		gameConfig.saveConfig(true);
 	}
 }
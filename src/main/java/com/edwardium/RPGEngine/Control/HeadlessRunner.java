@@ -0,0 +1,322 @@
+package com.edwardium.RPGEngine.Control;
+
+import com.edwardium.RPGEngine.Control.SceneController.PlaySceneController;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
+import com.edwardium.RPGEngine.IO.JsonBuilder;
+import com.edwardium.RPGEngine.IO.ScriptedInput;
+import com.edwardium.RPGEngine.Renderer.NullRenderer;
+
+import javax.json.Json;
+import javax.json.JsonWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the game without a window or GPU, for soak and throughput testing.
+ *
+ * The play scene is loaded from a save and updated in fixed steps as fast as possible, with input replayed
+ * from a {@code ScriptedInput}. Scenes can be rendered into a {@code NullRenderer} after each update to include
+ * the CPU side of rendering. Each tick is one frame for {@code Metrics}, so metrics can be traced like in the game.
+ */
+public class HeadlessRunner {
+	/**
+	 * Result of a headless run.
+	 */
+	public static class Report {
+		public int ticks;
+		// in seconds
+		public double simulatedTime;
+		public double wallTime;
+
+		// -1 if allocations cannot be measured on this JVM
+		public long allocatedBytes;
+		public long gcCount;
+		// in milliseconds
+		public long gcTime;
+		public long drawCalls;
+		public long stateChanges;
+		// in milliseconds
+		public double tickTimeP50;
+		public double tickTimeP95;
+		public double tickTimeP99;
+		// percentiles of all metrics over the last ticks
+		public JsonBuilder metrics;
+
+		public int startObjectCount;
+		public final TreeMap<String, Integer> objectCounts = new TreeMap<>();
+
+		public double getTicksPerSecond() {
+			return ticks / wallTime;
+		}
+
+		public int getObjectCount() {
+			int count = 0;
+			for (int classCount : objectCounts.values()) {
+				count += classCount;
+			}
+
+			return count;
+		}
+
+		public JsonBuilder toJSON() {
+			JsonBuilder objects = new JsonBuilder();
+			for (Map.Entry<String, Integer> entry : objectCounts.entrySet()) {
+				objects.add(entry.getKey(), entry.getValue());
+			}
+
+			return new JsonBuilder()
+					.add("ticks", ticks)
+					.add("simulatedTime", simulatedTime)
+					.add("wallTime", wallTime)
+					.add("ticksPerSecond", getTicksPerSecond())
+					.add("allocatedBytes", allocatedBytes)
+					.add("gcCount", gcCount)
+					.add("gcTime", gcTime)
+					.add("drawCalls", drawCalls)
+					.add("stateChanges", stateChanges)
+					.add("tickTimeP50", tickTimeP50)
+					.add("tickTimeP95", tickTimeP95)
+					.add("tickTimeP99", tickTimeP99)
+					.add("startObjectCount", startObjectCount)
+					.add("objectCount", getObjectCount())
+					.add("objects", objects)
+					.add("metrics", metrics != null ? metrics : new JsonBuilder());
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder();
+			builder.append(String.format("Ticks: %d (%.1f s simulated) in %.3f s%n", ticks, simulatedTime, wallTime));
+			builder.append(String.format("Ticks per second: %.1f (%.1fx real time)%n", getTicksPerSecond(), simulatedTime / wallTime));
+			builder.append(String.format("Tick time: p50 %.3f ms, p95 %.3f ms, p99 %.3f ms%n", tickTimeP50, tickTimeP95, tickTimeP99));
+			if (allocatedBytes >= 0) {
+				builder.append(String.format("Allocated: %.1f MB (%.1f KB per tick, %.1f MB/s)%n",
+						allocatedBytes / 1e6, allocatedBytes / 1e3 / Math.max(1, ticks), allocatedBytes / 1e6 / wallTime));
+			}
+			builder.append(String.format("GC: %d collections, %d ms%n", gcCount, gcTime));
+			if (drawCalls > 0) {
+				builder.append(String.format("Draw calls: %d (%.1f per tick)%n", drawCalls, drawCalls / (double)Math.max(1, ticks)));
+				builder.append(String.format("State changes: %d (%.1f per tick)%n", stateChanges, stateChanges / (double)Math.max(1, ticks)));
+			}
+
+			builder.append(String.format("Objects: %d -> %d%n", startObjectCount, getObjectCount()));
+			for (Map.Entry<String, Integer> entry : objectCounts.entrySet()) {
+				builder.append(String.format("  %s: %d%n", entry.getKey(), entry.getValue()));
+			}
+
+			return builder.toString();
+		}
+	}
+
+	private final String savePath;
+	private final int ticks;
+	private final ScriptedInput input;
+
+	public boolean render = false;
+	public final HashMap<String, String> configOverrides = new HashMap<>();
+
+	/**
+	 * @param savePath Save to load the play scene from.
+	 * @param ticks Number of fixed updates to run.
+	 * @param input Input to replay. If null, nothing is pressed.
+	 */
+	public HeadlessRunner(String savePath, int ticks, ScriptedInput input) {
+		this.savePath = savePath;
+		this.ticks = ticks;
+		this.input = input != null ? input : new ScriptedInput();
+	}
+
+	/**
+	 * Runs the headless game with command line arguments:
+	 * {@code <save> [--ticks N] [--script file] [--render] [--set key=value]... [--report file.json]}
+	 *
+	 * @param args Arguments.
+	 * @return Exit code.
+	 */
+	public static int runFromArgs(String[] args) {
+		String savePath = null;
+		int ticks = 6000;
+		String scriptPath = null;
+		String reportPath = null;
+		boolean render = false;
+		HashMap<String, String> configOverrides = new HashMap<>();
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--ticks":
+						ticks = Integer.parseInt(args[++i]);
+						break;
+					case "--script":
+						scriptPath = args[++i];
+						break;
+					case "--report":
+						reportPath = args[++i];
+						break;
+					case "--render":
+						render = true;
+						break;
+					case "--set":
+						String[] split = args[++i].split("=", 2);
+						if (split.length != 2)
+							throw new IllegalArgumentException("Expected key=value: " + args[i]);
+						configOverrides.put(split[0].trim(), split[1].trim());
+						break;
+					default:
+						if (args[i].startsWith("--") || savePath != null)
+							throw new IllegalArgumentException("Unknown argument: " + args[i]);
+						savePath = args[i];
+						break;
+				}
+			}
+
+			if (savePath == null)
+				throw new IllegalArgumentException("No save given");
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+			System.err.println("Error: " + ex.getMessage());
+			System.err.println("Usage: --headless <save> [--ticks N] [--script file] [--render] [--set key=value]... [--report file.json]");
+			return 2;
+		}
+
+		ScriptedInput input = null;
+		if (scriptPath != null) {
+			input = ScriptedInput.fromFile(scriptPath);
+			if (input == null)
+				return 1;
+		}
+
+		HeadlessRunner runner = new HeadlessRunner(savePath, ticks, input);
+		runner.render = render;
+		runner.configOverrides.putAll(configOverrides);
+
+		Report report = runner.run();
+		if (report == null) {
+			System.err.println("Error: Could not load save " + savePath);
+			return 1;
+		}
+
+		System.out.print(report);
+
+		if (reportPath != null) {
+			try (JsonWriter writer = Json.createWriter(new FileWriter(reportPath))) {
+				writer.writeObject(report.toJSON().build());
+			} catch (IOException ex) {
+				System.err.println("Error: " + ex.getMessage());
+				return 1;
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Loads the save and runs the updates.
+	 *
+	 * @return Report of the run, null if the save could not be loaded.
+	 */
+	public Report run() {
+		Engine engine = Engine.gameEngine;
+		NullRenderer renderer = new NullRenderer(800, 600);
+		if (!engine.initHeadless(renderer, input, configOverrides, savePath))
+			return null;
+
+		Report report = new Report();
+		report.startObjectCount = engine.getCurrentPlayController().getGameObjects().size();
+
+		long stepTime = (long)engine.getUpdateStep();
+		long startAllocated = allocatedBytes();
+		long startGcCount = gcCount();
+		long startGcTime = gcTime();
+		long startTime = System.nanoTime();
+
+		// percentiles are over the whole run, unlike the metrics
+		Metrics.Histogram tickTimes = new Metrics.Histogram(Math.max(1, ticks));
+
+		int tick = 0;
+		while (tick < ticks) {
+			long tickStart = System.nanoTime();
+			input.advance(stepTime);
+			tick++;
+
+			boolean running = engine.updateHeadless(render);
+
+			long tickTime = System.nanoTime() - tickStart;
+			tickTimes.record(tickTime);
+			Metrics.endFrame(tickTime);
+
+			if (!running)
+				break;
+		}
+
+		report.wallTime = (System.nanoTime() - startTime) * Engine.NANO_TIME_MULT;
+		long endAllocated = allocatedBytes();
+		report.allocatedBytes = startAllocated >= 0 && endAllocated >= 0 ? endAllocated - startAllocated : -1;
+		report.gcCount = gcCount() - startGcCount;
+		report.gcTime = gcTime() - startGcTime;
+
+		report.ticks = tick;
+		report.simulatedTime = tick * engine.getUpdateStep() * Engine.NANO_TIME_MULT;
+		report.drawCalls = renderer.getDrawCalls();
+		report.stateChanges = renderer.getStateChanges();
+		report.tickTimeP50 = tickTimes.getPercentile(50) / 1e6;
+		report.tickTimeP95 = tickTimes.getPercentile(95) / 1e6;
+		report.tickTimeP99 = tickTimes.getPercentile(99) / 1e6;
+		report.metrics = Metrics.toJSON();
+		Metrics.stopTrace();
+
+		PlaySceneController scene = engine.getCurrentPlayController();
+		if (scene != null) {
+			for (GameObject object : scene.getGameObjects()) {
+				report.objectCounts.merge(object.getClass().getSimpleName(), 1, Integer::sum);
+			}
+		}
+
+		return report;
+	}
+
+	/**
+	 * @return Bytes allocated by all live threads, -1 if not supported. Allocations of threads that have ended are not included.
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (!(threadBean instanceof com.sun.management.ThreadMXBean))
+			return -1;
+
+		com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+		if (!sunThreadBean.isThreadAllocatedMemorySupported() || !sunThreadBean.isThreadAllocatedMemoryEnabled())
+			return -1;
+
+		long total = 0;
+		for (long allocated : sunThreadBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+			// -1 for threads that have ended in the meantime
+			if (allocated > 0)
+				total += allocated;
+		}
+
+		return total;
+	}
+
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gcBean.getCollectionCount());
+		}
+
+		return count;
+	}
+
+	private static long gcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, gcBean.getCollectionTime());
+		}
+
+		return time;
+	}
+}
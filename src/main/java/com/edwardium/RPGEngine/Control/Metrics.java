@@ -0,0 +1,320 @@
+package com.edwardium.RPGEngine.Control;
+
+import com.edwardium.RPGEngine.IO.JsonBuilder;
+import com.edwardium.RPGEngine.Renderer.Color;
+import com.edwardium.RPGEngine.Renderer.Renderer;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Static registry of per frame metrics: counters, timers and the frame time itself.
+ *
+ * Counters and timers accumulate during a frame and are rolled over into their histograms by {@code endFrame},
+ * so updating them is only an addition. Each counter should only be updated from one thread and {@code endFrame}
+ * has to be called when that thread is not updating it.
+ *
+ * Values of the last frames can be drawn as an overlay and every frame can be traced to a CSV or JSON lines file.
+ */
+public class Metrics {
+	/**
+	 * Ring of the last values with percentiles.
+	 */
+	public static class Histogram {
+		private final double[] values;
+		private final double[] sorted;
+		private int count = 0;
+		private int head = 0;
+		private boolean sortedValid = false;
+
+		public Histogram(int length) {
+			values = new double[length];
+			sorted = new double[length];
+		}
+
+		public void record(double value) {
+			values[head] = value;
+			head = (head + 1) % values.length;
+			count = Math.min(count + 1, values.length);
+			sortedValid = false;
+		}
+
+		/**
+		 * @param percentile Percentile in range [0; 100].
+		 * @return The percentile of recorded values, 0 if there are none.
+		 */
+		public double getPercentile(double percentile) {
+			if (count == 0)
+				return 0;
+
+			if (!sortedValid) {
+				System.arraycopy(values, 0, sorted, 0, count);
+				Arrays.sort(sorted, 0, count);
+				sortedValid = true;
+			}
+
+			int index = (int)Math.ceil(percentile / 100 * count) - 1;
+			return sorted[Math.max(0, Math.min(count - 1, index))];
+		}
+
+		/**
+		 * @return Average of recorded values, 0 if there are none.
+		 */
+		public double getMean() {
+			if (count == 0)
+				return 0;
+
+			double sum = 0;
+			for (int i = 0; i < count; i++) {
+				sum += values[i];
+			}
+
+			return sum / count;
+		}
+	}
+
+	/**
+	 * Sum of values added during a frame.
+	 */
+	public static class Counter {
+		public final String name;
+		public final Histogram histogram = new Histogram(HISTORY_LENGTH);
+
+		protected long value = 0;
+		private long lastValue = 0;
+
+		private Counter(String name) {
+			this.name = name;
+		}
+
+		public void add(long amount) {
+			value += amount;
+		}
+
+		public void increment() {
+			value++;
+		}
+
+		/**
+		 * @return Value of the last finished frame.
+		 */
+		public long getLast() {
+			return lastValue;
+		}
+
+		private void endFrame() {
+			lastValue = value;
+			histogram.record(value);
+			value = 0;
+		}
+
+		protected String format(double value) {
+			return String.format("%.0f", value);
+		}
+	}
+
+	/**
+	 * Time spent in a section of code during a frame, in nanoseconds. Sections timed by one timer must not be nested.
+	 */
+	public static class Timer extends Counter {
+		private long startTime;
+
+		private Timer(String name) {
+			super(name);
+		}
+
+		public void start() {
+			startTime = System.nanoTime();
+		}
+
+		public void stop() {
+			value += System.nanoTime() - startTime;
+		}
+
+		@Override
+		protected String format(double value) {
+			return String.format("%.2f", value / 1e6);
+		}
+	}
+
+	// number of frames kept in histograms
+	public static final int HISTORY_LENGTH = 128;
+
+	private static final LinkedHashMap<String, Counter> counters = new LinkedHashMap<>();
+
+	private static final Histogram frameTimes = new Histogram(HISTORY_LENGTH);
+	private static double lastFrameTime = 0;
+	private static long frameNumber = 0;
+
+	private static boolean drawOverlay = false;
+
+	private static BufferedWriter traceWriter = null;
+	private static boolean traceJSON;
+
+	private Metrics() {}
+
+	/**
+	 * @param name Name of the counter.
+	 * @return Counter called name, registered if there is none yet.
+	 */
+	public static synchronized Counter counter(String name) {
+		return counters.computeIfAbsent(name, Counter::new);
+	}
+
+	/**
+	 * @param name Name of the timer.
+	 * @return Timer called name, registered if there is none yet.
+	 */
+	public static synchronized Timer timer(String name) {
+		Counter counter = counters.computeIfAbsent(name, Timer::new);
+		if (!(counter instanceof Timer))
+			throw new IllegalArgumentException("Metric " + name + " is not a timer!");
+
+		return (Timer) counter;
+	}
+
+	/**
+	 * Rolls all counters over to the next frame and writes the finished frame to the trace.
+	 *
+	 * @param frameTime Time of the finished frame. In nanoseconds.
+	 */
+	public static synchronized void endFrame(double frameTime) {
+		lastFrameTime = frameTime;
+		frameTimes.record(frameTime);
+		for (Counter counter : counters.values()) {
+			counter.endFrame();
+		}
+		frameNumber++;
+
+		if (traceWriter != null)
+			writeTrace(frameTime);
+	}
+
+	/**
+	 * @return Average FPS over the last frames.
+	 */
+	public static float getFPS() {
+		double mean = frameTimes.getMean();
+		return mean > 0 ? (float)(1e9 / mean) : 0;
+	}
+
+	public static Histogram getFrameTimes() {
+		return frameTimes;
+	}
+
+	public static boolean getDrawOverlay() {
+		return drawOverlay;
+	}
+	public static void toggleOverlay() {
+		drawOverlay = !drawOverlay;
+	}
+
+	/**
+	 * Draws frame time and all metrics, last value and p50/p95/p99 of the last frames, into the top left corner.
+	 * Timers are in milliseconds.
+	 */
+	public static synchronized void drawOverlay(Renderer renderer) {
+		UI.drawCornerString(renderer, UI.Corner.TOPLEFT, String.format("Frame: %.2f (%.2f / %.2f / %.2f) ms",
+				lastFrameTime / 1e6,
+				frameTimes.getPercentile(50) / 1e6, frameTimes.getPercentile(95) / 1e6, frameTimes.getPercentile(99) / 1e6), Color.CYAN);
+
+		for (Counter counter : counters.values()) {
+			Histogram histogram = counter.histogram;
+			UI.drawCornerString(renderer, UI.Corner.TOPLEFT, String.format("%s: %s (%s / %s / %s)", counter.name, counter.format(counter.getLast()),
+					counter.format(histogram.getPercentile(50)), counter.format(histogram.getPercentile(95)), counter.format(histogram.getPercentile(99))));
+		}
+	}
+
+	/**
+	 * Starts writing every frame to path. Files ending with .json get one JSON object per frame and line,
+	 * other files get CSV rows of frame, metric name and value. Timers are in milliseconds.
+	 *
+	 * @param path Path to the trace file.
+	 * @return Whether the file could be opened.
+	 */
+	public static synchronized boolean startTrace(String path) {
+		stopTrace();
+
+		try {
+			traceWriter = new BufferedWriter(new FileWriter(path));
+			traceJSON = path.toLowerCase().endsWith(".json");
+			if (!traceJSON) {
+				traceWriter.write("frame,metric,value");
+				traceWriter.newLine();
+			}
+
+			return true;
+		} catch (IOException ex) {
+			System.err.println("Error: " + ex.getMessage());
+			traceWriter = null;
+			return false;
+		}
+	}
+
+	public static synchronized void stopTrace() {
+		if (traceWriter == null)
+			return;
+
+		try {
+			traceWriter.close();
+		} catch (IOException ex) {
+			System.err.println("Error: " + ex.getMessage());
+		}
+		traceWriter = null;
+	}
+
+	/**
+	 * @return Percentiles of frame time and all metrics over the last frames. Timers are in milliseconds.
+	 */
+	public static synchronized JsonBuilder toJSON() {
+		JsonBuilder builder = new JsonBuilder();
+		builder.add("frame", percentilesToJSON(frameTimes, 1e-6));
+		for (Counter counter : counters.values()) {
+			builder.add(counter.name, percentilesToJSON(counter.histogram, counter instanceof Timer ? 1e-6 : 1));
+		}
+
+		return builder;
+	}
+
+	private static JsonBuilder percentilesToJSON(Histogram histogram, double scale) {
+		return new JsonBuilder()
+				.add("mean", histogram.getMean() * scale)
+				.add("p50", histogram.getPercentile(50) * scale)
+				.add("p95", histogram.getPercentile(95) * scale)
+				.add("p99", histogram.getPercentile(99) * scale);
+	}
+
+	private static void writeTrace(double frameTime) {
+		try {
+			if (traceJSON) {
+				JsonBuilder builder = new JsonBuilder().add("frame", frameNumber).add("frameTime", frameTime / 1e6);
+				for (Counter counter : counters.values()) {
+					if (counter instanceof Timer)
+						builder.add(counter.name, counter.getLast() / 1e6);
+					else
+						builder.add(counter.name, counter.getLast());
+				}
+				traceWriter.write(builder.build().toString());
+				traceWriter.newLine();
+			} else {
+				writeTraceRow("frameTime", String.valueOf(frameTime / 1e6));
+				for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+					Counter counter = entry.getValue();
+					writeTraceRow(entry.getKey(), counter instanceof Timer ? String.valueOf(counter.getLast() / 1e6) : String.valueOf(counter.getLast()));
+				}
+			}
+		} catch (IOException ex) {
+			System.err.println("Error: " + ex.getMessage());
+			stopTrace();
+		}
+	}
+
+	private static void writeTraceRow(String name, String value) throws IOException {
+		traceWriter.write(frameNumber + "," + name + "," + value);
+		traceWriter.newLine();
+	}
+}
@@ -280,7 +280,7 @@ public class EditorSceneController extends GameSceneController {
 
 		super.renderEnd(renderer);
 
-		Engine.gameEngine.drawDefaultCornerStrings();
+		Engine.gameEngine.drawDefaultCornerStrings(renderer);
 		UI.drawCornerString(renderer, UI.Corner.BOTTOMLEFT, "Camera position: " + cameraPos, Color.WHITE, 5);
 		UI.drawCornerString(renderer, UI.Corner.BOTTOMLEFT, "Cursor position: " + cursorPos);
 		UI.drawCornerString(renderer, UI.Corner.TOPLEFT, "Tool: " + TOOLS[toolIndex].name, Color.YELLOW);
@@ -1,14 +1,20 @@
 package com.edwardium.RPGEngine.Control.SceneController;
 
 import com.edwardium.RPGEngine.Control.Engine;
+import com.edwardium.RPGEngine.Control.Metrics;
+import com.edwardium.RPGEngine.GameEntity.GameBroadphase.GameBroadphase;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameCharacter.GameCharacter;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameItem;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameProjectile.GameProjectile;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.IGameActivableItem;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.IGameUsableItem;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameWall;
+import com.edwardium.RPGEngine.IO.Config;
 import com.edwardium.RPGEngine.IO.Input;
 import com.edwardium.RPGEngine.IO.JsonBuilder;
 import com.edwardium.RPGEngine.Renderer.Color;
+import com.edwardium.RPGEngine.Renderer.InstanceBatch;
 import com.edwardium.RPGEngine.Renderer.Renderer;
 import com.edwardium.RPGEngine.Utility.Vector2D;
 
@@ -18,6 +24,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 
 import static com.edwardium.RPGEngine.Control.Engine.NANO_TIME_MULT;
 import static org.lwjgl.glfw.GLFW.GLFW_KEY_ESCAPE;
@@ -26,16 +33,45 @@ public abstract class GameSceneController extends SceneController {
 
 	public enum ItemFilter { PICKUPABLE, ACTIVABLE, USABLE }
 
-	protected static final float UPDATE_STEP_TIME = 1 / 600f;
+	protected static final float UPDATE_STEP_TIME = 1 / 120f;
+	// fixed updates that are a whole number of steps long should not get an extra step because of rounding
+	private static final float STEP_COUNT_EPSILON = 1e-3f;
 	protected static boolean d_drawHitboxes = false;
 	public static final Color R_HIGHLIGHT_COLOR = Color.YELLOW;
 
+	// render layers of the world, see Renderer.setLayer
+	public static final int LAYER_WALLS = 1;
+	public static final int LAYER_OBJECTS = 2;
+	public static final int LAYER_PROJECTILES = 3;
+	public static final int LAYER_LABELS = 4;
+	// anything drawn after the objects until renderEnd
+	public static final int LAYER_OVERLAY = 5;
+
+	private static final Metrics.Timer inputTimer = Metrics.timer("input");
+	private static final Metrics.Counter drawnObjectCounter = Metrics.counter("drawn objects");
+	private static final Metrics.Counter culledObjectCounter = Metrics.counter("culled objects");
+
+	// objects can draw a bit past their bounds (held items, textures bigger than the hitbox)
+	private static final float CULLING_MARGIN = 64f;
+
 	public Vector2D cameraPos;
 	public Vector2D cursorPos;
 
 	protected ArrayList<GameObject> gameObjects;
 	protected GameCharacter player;
 
+	protected GameBroadphase broadphase;
+	protected StepScheduler stepScheduler;
+
+	// how far the rendered frame is between the last two updates, NaN if objects are drawn at their positions
+	private float renderAlpha = Float.NaN;
+	private final Vector2D renderPosition = new Vector2D();
+
+	// walls are drawn from static meshes before all other objects
+	private final StaticWallChunks wallChunks = new StaticWallChunks();
+	// projectiles of each class are collected and drawn with one call after all other objects
+	private final LinkedHashMap<Class<? extends GameProjectile>, InstanceBatch> projectileBatches = new LinkedHashMap<>();
+
 	protected GameSceneController(Input gameInput) {
 		super(gameInput);
 
@@ -43,18 +79,62 @@ public abstract class GameSceneController extends SceneController {
 		cursorPos = new Vector2D();
 
 		gameObjects = new ArrayList<>();
+		Config config = Engine.gameEngine.getConfig();
+		broadphase = GameBroadphase.fromName(config != null ? config.getString("broadphase", "grid") : null);
+		stepScheduler = new StepScheduler();
 
 		restore();
 	}
 
 	@Override
 	public void update(double unprocessedTime) {
-		if (updateInput(unprocessedTime)) {
-			float remainingTime = (float)(unprocessedTime * NANO_TIME_MULT);
-			int numUpdates = (int)Math.ceil(remainingTime / UPDATE_STEP_TIME);
-			for (int i = 0; i < numUpdates; i++) {
-				updateGame(UPDATE_STEP_TIME, i, numUpdates - 1);
-			}
+		if (timedUpdateInput(unprocessedTime)) {
+			simulate(unprocessedTime);
+		}
+	}
+
+	@Override
+	public void update(double inputTime, double stepTime) {
+		if (processInput(inputTime)) {
+			step(stepTime);
+		}
+	}
+
+	/**
+	 * Input part of the fixed update, for when the simulation runs separately.
+	 *
+	 * @param inputTime Time since input was last processed. In nanoseconds.
+	 * @return Whether the scene should be simulated, false if it has been left.
+	 */
+	public boolean processInput(double inputTime) {
+		return timedUpdateInput(inputTime);
+	}
+
+	/**
+	 * Simulation part of the fixed update. Remembers positions of objects before the update for interpolation.
+	 *
+	 * @param stepTime Time to simulate. In nanoseconds.
+	 */
+	public void step(double stepTime) {
+		for (GameObject object : gameObjects) {
+			if (object.previousPosition == null)
+				object.previousPosition = new Vector2D(object.position);
+			else
+				object.previousPosition.set(object.position);
+		}
+
+		simulate(stepTime);
+	}
+
+	/**
+	 * @param unprocessedTime Time to simulate. In nanoseconds.
+	 */
+	private void simulate(double unprocessedTime) {
+		float remainingTime = (float)(unprocessedTime * NANO_TIME_MULT);
+		int numUpdates = Math.max(1, (int)Math.ceil(remainingTime / UPDATE_STEP_TIME - STEP_COUNT_EPSILON));
+		stepScheduler.beginFrame();
+		for (int i = 0; i < numUpdates; i++) {
+			updateGame(UPDATE_STEP_TIME, i, numUpdates - 1);
 		}
 	}
 
@@ -68,6 +148,14 @@ public abstract class GameSceneController extends SceneController {
 		gameInput.watchKey(GLFW_KEY_ESCAPE);
 	}
 
+	private boolean timedUpdateInput(double unprocessedTime) {
+		inputTimer.start();
+		boolean result = updateInput(unprocessedTime);
+		inputTimer.stop();
+
+		return result;
+	}
+
 	protected boolean updateInput(double unprocessedTime) {
 		if (gameInput.getWatchedKeyJustPressed(GLFW_KEY_ESCAPE, unprocessedTime)) {
 			if (!Engine.gameEngine.restoreLastSceneController()) {
@@ -82,14 +170,96 @@ public abstract class GameSceneController extends SceneController {
 
 	@Override
 	public void render(Renderer renderer) {
+		// world region in the viewport, objects are drawn with the camera translation
+		Vector2D windowSize = renderer.getWindowSize();
+		float viewMinX = -cameraPos.getX() - windowSize.getX() / 2 - CULLING_MARGIN;
+		float viewMinY = -cameraPos.getY() - windowSize.getY() / 2 - CULLING_MARGIN;
+		float viewMaxX = -cameraPos.getX() + windowSize.getX() / 2 + CULLING_MARGIN;
+		float viewMaxY = -cameraPos.getY() + windowSize.getY() / 2 + CULLING_MARGIN;
+
+		// walls
+		renderer.setLayer(LAYER_WALLS, false);
+		wallChunks.begin();
+		for (GameObject gameObject : gameObjects) {
+			if (gameObject instanceof GameWall)
+				wallChunks.add((GameWall) gameObject);
+		}
+		wallChunks.draw(renderer, viewMinX, viewMinY, viewMaxX, viewMaxY);
+
 		// objects
+		renderer.setLayer(LAYER_OBJECTS, true);
+		int culled = 0;
 		for (GameObject gameObject : gameObjects) {
-			gameObject.render(renderer);
+			// same bounds as in the broadphase, but at the rendered position which can be interpolated
+			Vector2D position = getRenderPosition(gameObject, renderPosition);
+			float radius = GameBroadphase.getBoundsRadius(gameObject) + gameObject.getRenderMargin();
+			float x = position.getX();
+			float y = position.getY();
+			if (x + radius < viewMinX || x - radius > viewMaxX || y + radius < viewMinY || y - radius > viewMaxY) {
+				culled++;
+				continue;
+			}
+
+			if (gameObject instanceof GameWall) {
+				// already drawn
+			} else if (gameObject instanceof GameProjectile) {
+				GameProjectile projectile = (GameProjectile) gameObject;
+				InstanceBatch batch = projectileBatches.get(projectile.getClass());
+				if (batch == null) {
+					batch = projectile.createInstanceBatch();
+					projectileBatches.put(projectile.getClass(), batch);
+				}
+				projectile.addInstance(batch, position);
+			} else {
+				gameObject.render(renderer, position);
+			}
 
 			if (d_drawHitboxes) {
-				gameObject.renderHitbox(renderer);
+				gameObject.renderHitbox(renderer, position);
 			}
 		}
+
+		renderer.setLayer(LAYER_PROJECTILES, false);
+		for (InstanceBatch batch : projectileBatches.values()) {
+			if (batch.size() > 0)
+				renderer.drawInstances(batch);
+			batch.clear();
+		}
+
+		renderer.setLayer(LAYER_OVERLAY, true);
+
+		culledObjectCounter.add(culled);
+		drawnObjectCounter.add(gameObjects.size() - culled);
+	}
+
+	/**
+	 * Renders objects at positions interpolated between the last two fixed updates.
+	 */
+	@Override
+	public void render(Renderer renderer, float alpha) {
+		renderAlpha = alpha;
+		try {
+			render(renderer);
+		} finally {
+			renderAlpha = Float.NaN;
+		}
+	}
+
+	/**
+	 * @param object Object to get the position of.
+	 * @param result Vector to write the position to.
+	 * @return result set to the position object is drawn at in the frame being rendered, interpolated between the last
+	 * two updates if the frame is between them.
+	 */
+	protected Vector2D getRenderPosition(GameObject object, Vector2D result) {
+		Vector2D previous = object.previousPosition;
+		if (Float.isNaN(renderAlpha) || previous == null)
+			return result.set(object.position);
+
+		return result.set(
+				previous.getX() + (object.position.getX() - previous.getX()) * renderAlpha,
+				previous.getY() + (object.position.getY() - previous.getY()) * renderAlpha
+		);
 	}
 
 	protected void renderBegin(Renderer renderer) {
@@ -98,6 +268,7 @@ public abstract class GameSceneController extends SceneController {
 	}
 
 	protected void renderEnd(Renderer renderer) {
+		renderer.setLayer(Renderer.DEFAULT_LAYER, true);
 		renderer.popTransformMatrix();
 	}
 
@@ -181,7 +352,13 @@ public abstract class GameSceneController extends SceneController {
 		if (object == null || gameObjects.contains(object))
 			return false;
 
+		// time spent outside of the scene (for example in an inventory) is not simulated
+		object.pendingStepTime = 0;
+		object.scheduledSubsteps = 0;
+		object.previousPosition = null;
+
 		gameObjects.add(object);
+		broadphase.insert(object);
 
 		return true;
 	}
@@ -191,7 +368,25 @@ public abstract class GameSceneController extends SceneController {
 	 * @return Whether the object was unregistered. Can be false if the object was not registered or if it is null.
 	 */
 	public boolean unregisterGameObject(GameObject object) {
-		return gameObjects.remove(object);
+		if (gameObjects.remove(object)) {
+			broadphase.remove(object);
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Replaces the broadphase used to find collision candidates.
+	 *
+	 * @param broadphase New broadphase. Must not be null.
+	 */
+	public void setBroadphase(GameBroadphase broadphase) {
+		broadphase.clear();
+		broadphase.sync(gameObjects);
+
+		this.broadphase.clear();
+		this.broadphase = broadphase;
 	}
 
 	/**
@@ -214,7 +214,7 @@ public class MenuSceneController extends SceneController {
 					Renderer.StringAlignment.CENTER);
 		}
 
-		Engine.gameEngine.drawDefaultCornerStrings();
+		Engine.gameEngine.drawDefaultCornerStrings(renderer);
 	}
 
 	@Override
@@ -0,0 +1,145 @@
+package com.edwardium.RPGEngine.Control.SceneController;
+
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
+import com.edwardium.RPGEngine.GameEntity.PhysicsStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Integrates objects concurrently on a fork/join pool. Objects are split into batches which idle workers steal from each other.
+ *
+ * Only objects that can be updated concurrently ({@code GameObject.canUpdateConcurrently}) can be added. Each of them only
+ * touches its own state, so the result does not depend on the number of threads or on the order batches are run in.
+ *
+ * Objects with a physics store slot are integrated by the store instead of their own {@code updatePhysics}.
+ */
+class ParallelIntegrator {
+	// batches smaller than this are not split any further
+	private static final int BATCH_SIZE = 64;
+
+	private static class Batch extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final ParallelIntegrator integrator;
+		private final int from;
+		private final int to;
+
+		Batch(ParallelIntegrator integrator, int from, int to) {
+			this.integrator = integrator;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= BATCH_SIZE) {
+				integrator.integrateRange(from, to);
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			invokeAll(new Batch(integrator, from, middle), new Batch(integrator, middle, to));
+		}
+	}
+
+	// null if everything runs on the calling thread
+	private final ForkJoinPool pool;
+	// null if not used
+	private final PhysicsStore store;
+
+	private final ArrayList<GameObject> objects = new ArrayList<>();
+	private float[] stepTimes = new float[BATCH_SIZE];
+
+	private final ArrayList<GameObject> storeObjects = new ArrayList<>();
+	private float[] storeStepTimes = new float[BATCH_SIZE];
+	private int[] storeSlots = new int[BATCH_SIZE];
+
+	private float environmentDensity;
+
+	/**
+	 * @param parallelism Number of worker threads.
+	 * @param store Store to integrate objects with a physics slot with. Can be null.
+	 */
+	ParallelIntegrator(int parallelism, PhysicsStore store) {
+		this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		this.store = store;
+	}
+
+	int getParallelism() {
+		return pool != null ? pool.getParallelism() : 1;
+	}
+
+	/**
+	 * @param object Object to integrate in the next {@code integrate} call.
+	 * @param stepTime Time to integrate the object by.
+	 */
+	void add(GameObject object, float stepTime) {
+		if (store != null && object.physicsSlot >= 0) {
+			int index = storeObjects.size();
+			if (index == storeStepTimes.length) {
+				storeStepTimes = Arrays.copyOf(storeStepTimes, index * 2);
+				storeSlots = Arrays.copyOf(storeSlots, index * 2);
+			}
+
+			storeStepTimes[index] = stepTime;
+			storeSlots[index] = object.physicsSlot;
+			storeObjects.add(object);
+		} else {
+			if (objects.size() == stepTimes.length)
+				stepTimes = Arrays.copyOf(stepTimes, stepTimes.length * 2);
+
+			stepTimes[objects.size()] = stepTime;
+			objects.add(object);
+		}
+	}
+
+	/**
+	 * Integrates all added objects and waits for it to finish. Clears the added objects.
+	 */
+	void integrate(float environmentDensity) {
+		this.environmentDensity = environmentDensity;
+
+		// store objects are indexed after the others
+		int count = objects.size() + storeObjects.size();
+		if (pool == null || count <= BATCH_SIZE)
+			integrateRange(0, count);
+		else
+			pool.invoke(new Batch(this, 0, count));
+
+		objects.clear();
+		storeObjects.clear();
+	}
+
+	void shutdown() {
+		if (pool != null)
+			pool.shutdown();
+	}
+
+	private void integrateRange(int from, int to) {
+		int objectCount = objects.size();
+
+		for (int i = from; i < Math.min(to, objectCount); i++) {
+			objects.get(i).updatePhysics(stepTimes[i], environmentDensity);
+		}
+
+		int storeFrom = Math.max(from, objectCount) - objectCount;
+		int storeTo = to - objectCount;
+		if (storeFrom >= storeTo)
+			return;
+
+		for (int i = storeFrom; i < storeTo; i++) {
+			GameObject object = storeObjects.get(i);
+			object.beforeIntegration(storeStepTimes[i]);
+			store.sync(storeSlots[i], object);
+		}
+
+		store.integrate(storeSlots, storeStepTimes, storeFrom, storeTo, environmentDensity);
+
+		for (int i = storeFrom; i < storeTo; i++) {
+			store.save(storeSlots[i], storeObjects.get(i));
+		}
+	}
+}
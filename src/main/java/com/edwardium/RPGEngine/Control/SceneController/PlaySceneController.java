@@ -1,11 +1,13 @@
 package com.edwardium.RPGEngine.Control.SceneController;
 
 import com.edwardium.RPGEngine.Control.Engine;
+import com.edwardium.RPGEngine.Control.Metrics;
 import com.edwardium.RPGEngine.Control.UI;
 import com.edwardium.RPGEngine.GameEntity.GameAI.PlayerAI;
 import com.edwardium.RPGEngine.GameEntity.GameAI.SimpleEnemyAI;
 import com.edwardium.RPGEngine.GameEntity.GameHitbox;
 import com.edwardium.RPGEngine.GameEntity.GameInventory;
+import com.edwardium.RPGEngine.GameEntity.PhysicsStore;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameCharacter.GameCharacter;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameItem;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameItemGun.GunBouncyBall;
@@ -15,6 +17,7 @@ import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameItemGun.GunSMG
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameProjectile.GameProjectile;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameWall;
+import com.edwardium.RPGEngine.IO.Config;
 import com.edwardium.RPGEngine.IO.Input;
 import com.edwardium.RPGEngine.IO.JsonBuilder;
 import com.edwardium.RPGEngine.Renderer.Color;
@@ -25,7 +28,11 @@ import com.edwardium.RPGEngine.Utility.Vector2D;
 
 import javax.json.JsonObject;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 
 import static org.lwjgl.glfw.GLFW.*;
 
@@ -65,6 +72,12 @@ public class PlaySceneController extends GameSceneController {
 
 	private Light[] currentLights;
 	private int currentLightsSize = 0;
+	// object that registered each light and its position at that time, lights follow their object when it is
+	// drawn at an interpolated position
+	private GameObject[] currentLightOwners;
+	private float[] currentLightOwnerPositions;
+	private GameObject lightOwner = null;
+	private final Vector2D lightOwnerPosition = new Vector2D();
 	private static final Light ambientLight = new Light(new Vector2D(), Color.GREY, -1f, 0f);
 
 	// air density
@@ -78,10 +91,44 @@ public class PlaySceneController extends GameSceneController {
 	// maximum items (that are not already in a different category) spawned at once
 	private static final SpawnLimit itemLimit = new SpawnLimit(1024);
 
+	// how far (in pixels) are swept objects moved into the object they hit
+	private static final float SWEEP_PENETRATION = 0.5f;
+
+	private static final Metrics.Timer physicsTimer = Metrics.timer("physics");
+	private static final Metrics.Counter physicsStepCounter = Metrics.counter("physics steps");
+	private static final Metrics.Timer integrationTimer = Metrics.timer("integration");
+	private static final Metrics.Counter substepCounter = Metrics.counter("substeps");
+	private static final Metrics.Counter broadphasePairCounter = Metrics.counter("broadphase pairs");
+	private static final Metrics.Counter narrowHitCounter = Metrics.counter("narrow hits");
+
+	// reused between updates
+	private final ArrayList<GameObject> collisionCandidates = new ArrayList<>();
+	private final ArrayList<GameObject> sweepCandidates = new ArrayList<>();
+	private final Vector2D sweepStart = new Vector2D();
+
+	// integrates objects concurrently in the two phase update, null if objects are updated one by one
+	private ParallelIntegrator parallelIntegrator = null;
+	// keeps physics state of objects that use the default integration, null if not used
+	private PhysicsStore physicsStore = null;
+	private final ArrayList<GameObject> steppedObjects = new ArrayList<>();
+	private final ArrayList<Vector2D> steppedSweepStarts = new ArrayList<>();
+	private final ArrayList<GameObject> roundObjects = new ArrayList<>();
+
 	public PlaySceneController(Input gameInput) {
 		super(gameInput);
 
 		currentLights = new Light[Renderer.MAX_LIGHTS - 1];
+		currentLightOwners = new GameObject[currentLights.length];
+		currentLightOwnerPositions = new float[currentLights.length * 2];
+
+		Config config = Engine.gameEngine.getConfig();
+		int physicsThreads = config != null ? config.getInt("physics-threads", 1) : 1;
+		if (physicsThreads <= 0)
+			physicsThreads = Runtime.getRuntime().availableProcessors();
+		if (config != null && config.getString("physics-store", "objects").equalsIgnoreCase("soa"))
+			physicsStore = new PhysicsStore();
+		if (physicsThreads > 1 || physicsStore != null)
+			parallelIntegrator = new ParallelIntegrator(physicsThreads, physicsStore);
 	}
 
 	@Override
@@ -109,11 +156,10 @@ public class PlaySceneController extends GameSceneController {
 	}
 
 	public void reloadScene() {
-		gameObjects.clear();
+		clearGameObjects();
 
 		// init player
-		player = new GameCharacter(new Vector2D(550, 0), "player", 10);
-		player.factionFlag = GameCharacter.CharacterFaction.addFaction(player.factionFlag, GameCharacter.CharacterFaction.PLAYER);
+		player = createPlayer();
 
 		if (!loadState("Saves/exitsave.json")) {
 			GameItem pistol = new GunPistol(new Vector2D(player.position));
@@ -166,6 +212,47 @@ public class PlaySceneController extends GameSceneController {
 		gameObjects.add(player);
 	}
 
+	/**
+	 * Replaces the scene with the one saved at loadPath. Unlike {@code reloadScene} there is no default scene to fall back to.
+	 *
+	 * @param loadPath Path to the save.
+	 * @return Whether the save could be loaded. If not, only the player is left in the scene.
+	 */
+	public boolean loadScene(String loadPath) {
+		clearGameObjects();
+
+		// player from the save replaces this one, if there is any
+		player = createPlayer();
+		boolean loaded = loadState(loadPath);
+
+		gameObjects.add(player);
+		return loaded;
+	}
+
+	/**
+	 * Removes all objects from the scene at once, releasing what they hold like {@code unregisterGameObject} does.
+	 */
+	private void clearGameObjects() {
+		for (GameObject object : gameObjects) {
+			freePhysicsSlot(object);
+		}
+		gameObjects.clear();
+	}
+
+	private void freePhysicsSlot(GameObject object) {
+		if (physicsStore != null && object.physicsSlot >= 0) {
+			physicsStore.freeSlot(object.physicsSlot);
+			object.physicsSlot = -1;
+		}
+	}
+
+	private static GameCharacter createPlayer() {
+		GameCharacter player = new GameCharacter(new Vector2D(550, 0), "player", 10);
+		player.factionFlag = GameCharacter.CharacterFaction.addFaction(player.factionFlag, GameCharacter.CharacterFaction.PLAYER);
+
+		return player;
+	}
+
 	@Override
 	protected boolean updateInput(double unprocessedTime) {
 		if (!super.updateInput(unprocessedTime))
@@ -208,40 +295,259 @@ public class PlaySceneController extends GameSceneController {
 
 	@Override
 	protected void updateGame(float elapsedTime, int currentUpdateIndex, int maxUpdateIndex) {
+		physicsTimer.start();
+		physicsStepCounter.increment();
+
 		elapsedTime *= timeFactor;
 		boolean updateWalk = currentUpdateIndex == 0;
 		boolean updateLights = currentUpdateIndex == maxUpdateIndex;
+		if (updateLights) {
+			// lights of the last update are drawn until this one registers new ones, also in frames without an update
+			Arrays.fill(currentLightOwners, 0, currentLightsSize, null);
+			currentLightsSize = 0;
+		}
 
 		ArrayList<GameObject> toRemove = new ArrayList<>();
 
+		broadphase.sync(gameObjects);
+
+		// decide which objects are stepped and how finely
+		stepScheduler.beginUpdate();
 		for (int i = 0; i < gameObjects.size(); i++) {
 			GameObject currentObject = gameObjects.get(i);
 
 			if (updateWalk && currentObject instanceof GameCharacter) {
 				((GameCharacter) currentObject).updateWalk();
 			}
-			currentObject.updatePhysics(elapsedTime, environmentDensity);
 
-			// collisions
-			for (int j = i + 1; j < gameObjects.size(); j++) {
-				GameObject currentObjectCollision = gameObjects.get(j);
+			int substeps = stepScheduler.schedule(currentObject, i, elapsedTime);
+			broadphase.setPassive(currentObject, substeps == 0);
+		}
 
-				GameHitbox.CollisionInfo collisionInfo = currentObject.checkCollision(currentObjectCollision);
-				if (collisionInfo != null && collisionInfo.doesCollide) {
-					currentObject.collideWith(currentObjectCollision, collisionInfo.ASurfaceNormal, collisionInfo.BSurfaceNormal);
-					currentObjectCollision.collideWith(currentObject, collisionInfo.BSurfaceNormal, collisionInfo.ASurfaceNormal);
+		if (parallelIntegrator != null)
+			stepObjectsInPhases();
+
+		for (int i = 0; i < gameObjects.size(); i++) {
+			GameObject currentObject = gameObjects.get(i);
+
+			int substeps = currentObject.scheduledSubsteps;
+			if (substeps > 0) {
+				float stepTime = currentObject.pendingStepTime / substeps;
+				currentObject.pendingStepTime = 0;
+				currentObject.scheduledSubsteps = 0;
+
+				for (int step = 0; step < substeps && !currentObject.toDelete; step++) {
+					stepObject(currentObject, stepTime);
 				}
 			}
 
 			if (currentObject.toDelete)
 				toRemove.add(currentObject);
-			else if (updateLights)
+			else if (updateLights) {
+				lightOwner = currentObject;
 				currentObject.updateLights(this);
+				lightOwner = null;
+			}
 		}
 
 		for (GameObject gameObject : toRemove) {
 			unregisterGameObject(gameObject);
 		}
+
+		physicsTimer.stop();
+	}
+
+	/**
+	 * Integrates object by stepTime and resolves its collisions.
+	 */
+	private void stepObject(GameObject object, float stepTime) {
+		boolean sweep = isSwept(object);
+		if (sweep)
+			sweepStart.set(object.position);
+
+		integrationTimer.start();
+		object.updatePhysics(stepTime, environmentDensity);
+		integrationTimer.stop();
+		substepCounter.increment();
+
+		resolveStep(object, sweep ? sweepStart : null);
+	}
+
+	/**
+	 * Steps all scheduled objects in rounds, one substep per round. Each round has two phases:
+	 *
+	 * Integration: objects that cannot be updated concurrently are updated one by one in scene order,
+	 * then the rest is integrated concurrently by the parallel integrator.
+	 * Collisions: bounds of all integrated objects are updated, then collisions are resolved object by object in scene order,
+	 * so collision callbacks are called in a stable order no matter how many threads integrated the objects.
+	 *
+	 * Stepped objects have their scheduled substeps cleared, so they are skipped by the regular one by one stepping.
+	 */
+	private void stepObjectsInPhases() {
+		steppedObjects.clear();
+		int maxSubsteps = 0;
+		for (GameObject object : gameObjects) {
+			if (object.scheduledSubsteps > 0) {
+				steppedObjects.add(object);
+				maxSubsteps = Math.max(maxSubsteps, object.scheduledSubsteps);
+
+				// pending time now holds the time of one substep
+				object.pendingStepTime /= object.scheduledSubsteps;
+			}
+		}
+
+		while (steppedSweepStarts.size() < steppedObjects.size()) {
+			steppedSweepStarts.add(new Vector2D());
+		}
+
+		for (int round = 0; round < maxSubsteps; round++) {
+			roundObjects.clear();
+
+			integrationTimer.start();
+			for (int i = 0; i < steppedObjects.size(); i++) {
+				GameObject object = steppedObjects.get(i);
+				if (object.scheduledSubsteps <= round || object.toDelete)
+					continue;
+
+				roundObjects.add(object);
+				steppedSweepStarts.get(i).set(object.position);
+
+				if (object.canUpdateConcurrently())
+					parallelIntegrator.add(object, object.pendingStepTime);
+				else
+					object.updatePhysics(object.pendingStepTime, environmentDensity);
+			}
+			parallelIntegrator.integrate(environmentDensity);
+			integrationTimer.stop();
+			substepCounter.add(roundObjects.size());
+
+			for (GameObject object : roundObjects) {
+				broadphase.update(object);
+			}
+
+			for (int i = 0, j = 0; i < steppedObjects.size(); i++) {
+				GameObject object = steppedObjects.get(i);
+				if (j >= roundObjects.size() || roundObjects.get(j) != object)
+					continue;
+				j++;
+
+				resolveStep(object, isSwept(object) ? steppedSweepStarts.get(i) : null);
+			}
+		}
+
+		for (GameObject object : steppedObjects) {
+			object.pendingStepTime = 0;
+			object.scheduledSubsteps = 0;
+		}
+		steppedObjects.clear();
+		roundObjects.clear();
+	}
+
+	private static boolean isSwept(GameObject object) {
+		return object.continuousCollision && object.doesCollide && object.hitbox != null;
+	}
+
+	/**
+	 * Resolves collisions of object after it has been integrated.
+	 *
+	 * @param object Integrated object.
+	 * @param start Position of object before integration, if its path should be swept. Otherwise null.
+	 */
+	private void resolveStep(GameObject object, Vector2D start) {
+		GameObject sweepHit = start != null ? sweepPath(object, start) : null;
+		broadphase.update(object);
+
+		// collisions
+		broadphase.queryCandidates(object, collisionCandidates);
+		if (sweepHit != null && !collisionCandidates.contains(sweepHit) && collide(object, sweepHit)) {
+			// object that was hit is not checked later, it comes before this one
+			broadphase.update(object);
+			broadphase.queryCandidates(object, collisionCandidates);
+		}
+		broadphasePairCounter.add(collisionCandidates.size());
+
+		for (int j = 0; j < collisionCandidates.size(); j++) {
+			GameObject otherObject = collisionCandidates.get(j);
+
+			if (collide(object, otherObject) && broadphase.update(object)) {
+				// we got pushed around, objects after this one might be in reach now
+				broadphase.queryCandidates(object, otherObject, collisionCandidates);
+				broadphasePairCounter.add(collisionCandidates.size());
+				j = -1;
+			}
+		}
+
+		object.updateSleep();
+	}
+
+	/**
+	 * Checks collision between a and b and calls collision callbacks on both of them.
+	 *
+	 * @return Whether a and b have collided.
+	 */
+	private boolean collide(GameObject a, GameObject b) {
+		GameHitbox.CollisionInfo collisionInfo = a.checkCollision(b);
+		if (collisionInfo == null || !collisionInfo.doesCollide)
+			return false;
+		narrowHitCounter.increment();
+
+		// a is the one being stepped, so it is awake
+		if (b.isSleeping())
+			b.wakeUp();
+
+		a.collideWith(b, collisionInfo.ASurfaceNormal, collisionInfo.BSurfaceNormal);
+		b.collideWith(a, collisionInfo.BSurfaceNormal, collisionInfo.ASurfaceNormal);
+
+		broadphase.update(b);
+		return true;
+	}
+
+	/**
+	 * @return Objects in the scene. Cannot be modified, use {@code registerGameObject} and {@code unregisterGameObject}.
+	 */
+	public List<GameObject> getGameObjects() {
+		return Collections.unmodifiableList(gameObjects);
+	}
+
+	/**
+	 * Sweeps object along its path from start to its current position and moves it back to the first impact, if there is any.
+	 * The object is left slightly overlapping the object it hit, so the collision is picked up by the regular check.
+	 *
+	 * @param object Object with continuous collision.
+	 * @param start Position of object before the update.
+	 * @return Object that was hit first or null.
+	 */
+	private GameObject sweepPath(GameObject object, Vector2D start) {
+		Vector2D end = object.position;
+		float distance = start.distance(end);
+		if (distance == 0)
+			return null;
+
+		float radius = object.hitbox.getBroadRadius();
+		broadphase.queryRegion(Math.min(start.getX(), end.getX()) - radius, Math.min(start.getY(), end.getY()) - radius,
+				Math.max(start.getX(), end.getX()) + radius, Math.max(start.getY(), end.getY()) + radius, sweepCandidates);
+
+		float firstImpact = 1;
+		GameObject firstHit = null;
+		for (GameObject other : sweepCandidates) {
+			if (other == object || !other.doesCollide || other.hitbox == null || !object.sweepsAgainst(other))
+				continue;
+
+			float impact = object.hitbox.sweepTimeOfImpact(start, end, object.getRotation(), other.hitbox, other.position, other.getRotation());
+			// objects touching at the start are handled by the regular check
+			if (impact > 0 && impact < firstImpact) {
+				firstImpact = impact;
+				firstHit = other;
+			}
+		}
+
+		if (firstHit == null)
+			return null;
+
+		float t = Math.min(1, firstImpact + SWEEP_PENETRATION / distance);
+		end.set(start.getX() + (end.getX() - start.getX()) * t, start.getY() + (end.getY() - start.getY()) * t);
+
+		return firstHit;
 	}
 
 	private void applyLights(Renderer renderer) {
@@ -257,10 +563,19 @@ public class PlaySceneController extends GameSceneController {
 
 		for (int i = 0; i < numLights; i++) {
 			Light light = currentLights[i];
-			if (Rectangle.pointCollision(viewportRectangle, light.position, light.cutoff != 0 ? light.cutoff : light.power * Light.DEFAULT_CUTOFF_MULT)) {
+			Vector2D lightPosition = new Vector2D(light.position);
+			GameObject owner = currentLightOwners[i];
+			if (owner != null) {
+				// follow the owner to its interpolated position
+				Vector2D ownerPosition = getRenderPosition(owner, lightOwnerPosition);
+				lightPosition.add(ownerPosition.getX() - currentLightOwnerPositions[i * 2],
+						ownerPosition.getY() - currentLightOwnerPositions[i * 2 + 1]);
+			}
+
+			if (Rectangle.pointCollision(viewportRectangle, lightPosition, light.getRadius())) {
 				// shader coords are bottom-left based
-				float xScreen = light.position.getX() + cameraPos.getX() + halfViewport.getX();
-				float yScreen = -(light.position.getY() + cameraPos.getY() - halfViewport.getY());
+				float xScreen = lightPosition.getX() + cameraPos.getX() + halfViewport.getX();
+				float yScreen = -(lightPosition.getY() + cameraPos.getY() - halfViewport.getY());
 				Vector2D newLightPosition = new Vector2D(xScreen, yScreen);
 
 				renderer.setLight(currentLightIndex, new Light(newLightPosition, light.color, light.power, light.cutoff));
@@ -268,7 +583,6 @@ public class PlaySceneController extends GameSceneController {
 			}
 		}
 		renderer.setLightCount(currentLightIndex);
-		currentLightsSize = 0;
 
 //		registerLight(new Light(new Vector2D((float)Math.sin(tmp * 2f) * 150f, (float)Math.cos(tmp * 2f) * 150f), new Color(0f, 0f, 1f), 20f, 0f));
 //		registerLight(new Light(player.position, new Color(1f, 0f, 0f), 15f));
@@ -278,7 +592,7 @@ public class PlaySceneController extends GameSceneController {
 
 	@Override
 	public void render(Renderer renderer) {
-		cameraPos = Vector2D.inverse(player.position);
+		cameraPos = getRenderPosition(player, new Vector2D()).inverse();
 		applyLights(renderer);
 
 		super.renderBegin(renderer);
@@ -294,15 +608,23 @@ public class PlaySceneController extends GameSceneController {
 			itemToHighlight = getClosestItem(cursorPos, EnumSet.of(ItemFilter.ACTIVABLE), player.pickupRange, player.position);
 		}
 		if (itemToHighlight != null) {
-			itemToHighlight.renderHitbox(renderer, R_HIGHLIGHT_COLOR);
+			itemToHighlight.renderHitbox(renderer, getRenderPosition(itemToHighlight, new Vector2D()), R_HIGHLIGHT_COLOR);
 		}
 
 		super.renderEnd(renderer);
 
 		GameInventory.renderInventory(player.inventory, renderer, renderer.getWindowSize().divide(2).inverse(), new Vector2D(1, 1));
 
-		Engine.gameEngine.drawDefaultCornerStrings();
+		Engine.gameEngine.drawDefaultCornerStrings(renderer);
 		UI.drawCornerString(renderer, UI.Corner.BOTTOMLEFT, String.format("Time factor: %.2f", this.timeFactor));
+
+		if (d_drawHitboxes) {
+			int physicsThreads = parallelIntegrator != null ? parallelIntegrator.getParallelism() : 1;
+			UI.drawCornerString(renderer, UI.Corner.TOPRIGHT, String.format("Integration: %.3f ms (%d threads)", integrationTimer.getLast() / 1e6, physicsThreads));
+			for (Map.Entry<String, Integer> entry : stepScheduler.getLastFrameSubsteps().entrySet()) {
+				UI.drawCornerString(renderer, UI.Corner.TOPRIGHT, "Substeps " + entry.getKey() + ": " + entry.getValue());
+			}
+		}
 	}
 
 	@Override
@@ -316,6 +638,9 @@ public class PlaySceneController extends GameSceneController {
 
 		gameInput.unwatchKey(GLFW_KEY_H);
 
+		if (parallelIntegrator != null)
+			parallelIntegrator.shutdown();
+
 		super.cleanup();
 	}
 
@@ -394,6 +719,11 @@ public class PlaySceneController extends GameSceneController {
 			// bump up spawn limit
 			updateSpawnLimits(object, 1);
 
+			if (physicsStore != null && PhysicsStore.canIntegrate(object)) {
+				object.physicsSlot = physicsStore.allocateSlot();
+				physicsStore.load(object.physicsSlot, object);
+			}
+
 			return true;
 		}
 
@@ -406,6 +736,8 @@ public class PlaySceneController extends GameSceneController {
 			// bump down spawn limit
 			updateSpawnLimits(object, -1);
 
+			freePhysicsSlot(object);
+
 			return true;
 		}
 
@@ -415,6 +747,11 @@ public class PlaySceneController extends GameSceneController {
 	public boolean registerLight(Light light) {
 		if (currentLightsSize < currentLights.length) {
 			currentLights[currentLightsSize] = light;
+			currentLightOwners[currentLightsSize] = lightOwner;
+			if (lightOwner != null) {
+				currentLightOwnerPositions[currentLightsSize * 2] = lightOwner.position.getX();
+				currentLightOwnerPositions[currentLightsSize * 2 + 1] = lightOwner.position.getY();
+			}
 			currentLightsSize++;
 			return true;
 		}
@@ -15,11 +15,31 @@ public abstract class SceneController {
 	 */
 	public abstract void update(double unprocessedTime);
 
+	/**
+	 * Update with a fixed simulation step. By default this is a regular update by stepTime.
+	 *
+	 * @param inputTime Time since input was last processed. In nanoseconds. Zero if input has already been processed this frame.
+	 * @param stepTime Time to simulate. In nanoseconds.
+	 */
+	public void update(double inputTime, double stepTime) {
+		update(stepTime);
+	}
+
 	/**
 	 * @param renderer Renderer to render the scene with.
 	 */
 	public abstract void render(Renderer renderer);
 
+	/**
+	 * Render between two fixed updates. By default alpha is ignored.
+	 *
+	 * @param renderer Renderer to render the scene with.
+	 * @param alpha How far the rendered frame is between the last two updates, from 0 to 1.
+	 */
+	public void render(Renderer renderer, float alpha) {
+		render(renderer);
+	}
+
 	/**
 	 * Called when current scene controller changes but this one is kept in case we want to return to it.
 	 */
@@ -0,0 +1,199 @@
+package com.edwardium.RPGEngine.Control.SceneController;
+
+import com.edwardium.RPGEngine.GameEntity.GameBroadphase.GameBroadphase;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameWall;
+import com.edwardium.RPGEngine.Renderer.Color;
+import com.edwardium.RPGEngine.Renderer.Renderer;
+import com.edwardium.RPGEngine.Renderer.StaticMesh;
+import com.edwardium.RPGEngine.Renderer.TextureInfo;
+import com.edwardium.RPGEngine.Renderer.Vertex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+/**
+ * Walls of a scene baked into one static mesh per square chunk of the world, so that all walls in view are drawn
+ * with a draw call per chunk and their vertices are not uploaded every frame.
+ *
+ * Walls are tracked by the scene passing all of them every frame. A chunk is only rebuilt when a wall in it is added,
+ * removed, moved, rotated or hidden, which in practice only happens in the editor and when a level is loaded.
+ */
+class StaticWallChunks {
+	private static class BakedWall {
+		final GameWall wall;
+		float x, y, rotation;
+		boolean drawn;
+
+		Chunk chunk;
+		int seenStamp;
+
+		BakedWall(GameWall wall) {
+			this.wall = wall;
+		}
+	}
+
+	private static class Chunk {
+		final ArrayList<BakedWall> walls = new ArrayList<>();
+		boolean dirty = true;
+
+		StaticMesh mesh = null;
+		float minX, minY, maxX, maxY;
+	}
+
+	// size of a chunk in pixels, walls belong to the chunk their position is in
+	private static final float CHUNK_SIZE = 1024f;
+
+	private static final Renderer.RenderInfo RENDER_INFO = new Renderer.RenderInfo(null, 1f, 0f, new TextureInfo("default", new Color()), true);
+
+	private final IdentityHashMap<GameWall, BakedWall> walls = new IdentityHashMap<>();
+	private final HashMap<Long, Chunk> chunks = new HashMap<>();
+
+	private int stamp = 0;
+
+	/**
+	 * Starts a new frame. Every wall of the scene has to be passed to {@code add} before {@code draw}.
+	 */
+	void begin() {
+		stamp++;
+	}
+
+	void add(GameWall wall) {
+		BakedWall baked = walls.get(wall);
+		if (baked == null) {
+			baked = new BakedWall(wall);
+			walls.put(wall, baked);
+		} else if (baked.x == wall.position.getX() && baked.y == wall.position.getY()
+				&& baked.rotation == wall.getRotation() && baked.drawn == wall.isDrawn) {
+			baked.seenStamp = stamp;
+			return;
+		}
+
+		baked.x = wall.position.getX();
+		baked.y = wall.position.getY();
+		baked.rotation = wall.getRotation();
+		baked.drawn = wall.isDrawn;
+		baked.seenStamp = stamp;
+
+		Chunk chunk = getChunk(baked.x, baked.y);
+		if (baked.chunk != chunk) {
+			if (baked.chunk != null)
+				removeFromChunk(baked);
+
+			baked.chunk = chunk;
+			chunk.walls.add(baked);
+		}
+		chunk.dirty = true;
+	}
+
+	/**
+	 * Removes walls that were not passed since {@code begin}, rebuilds changed chunks and draws the chunks
+	 * that overlap the region.
+	 */
+	void draw(Renderer renderer, float minX, float minY, float maxX, float maxY) {
+		if (walls.size() > 0) {
+			Iterator<BakedWall> iterator = walls.values().iterator();
+			while (iterator.hasNext()) {
+				BakedWall baked = iterator.next();
+				if (baked.seenStamp != stamp) {
+					removeFromChunk(baked);
+					iterator.remove();
+				}
+			}
+		}
+
+		Iterator<Chunk> iterator = chunks.values().iterator();
+		while (iterator.hasNext()) {
+			Chunk chunk = iterator.next();
+			if (chunk.walls.isEmpty()) {
+				iterator.remove();
+				continue;
+			}
+
+			if (chunk.dirty)
+				bake(chunk);
+
+			if (chunk.mesh != null && chunk.minX <= maxX && chunk.maxX >= minX && chunk.minY <= maxY && chunk.maxY >= minY)
+				renderer.drawStaticMesh(chunk.mesh, RENDER_INFO);
+		}
+	}
+
+	private Chunk getChunk(float x, float y) {
+		long key = ((long)(int)Math.floor(x / CHUNK_SIZE) << 32) | ((int)Math.floor(y / CHUNK_SIZE) & 0xFFFFFFFFL);
+
+		Chunk chunk = chunks.get(key);
+		if (chunk == null) {
+			chunk = new Chunk();
+			chunks.put(key, chunk);
+		}
+
+		return chunk;
+	}
+
+	private static void removeFromChunk(BakedWall baked) {
+		baked.chunk.walls.remove(baked);
+		baked.chunk.dirty = true;
+		baked.chunk = null;
+	}
+
+	/**
+	 * Builds the mesh of chunk from its walls, with each wall's triangle fan split into triangles in world space.
+	 */
+	private static void bake(Chunk chunk) {
+		int vertexCount = 0;
+		for (BakedWall baked : chunk.walls) {
+			if (baked.drawn)
+				vertexCount += Math.max(0, baked.wall.getVertices().length - 2) * 3;
+		}
+
+		float[] elements = new float[vertexCount * Vertex.elementCount];
+		int offset = 0;
+
+		chunk.minX = chunk.minY = Float.POSITIVE_INFINITY;
+		chunk.maxX = chunk.maxY = Float.NEGATIVE_INFINITY;
+		for (BakedWall baked : chunk.walls) {
+			if (!baked.drawn)
+				continue;
+
+			float radius = GameBroadphase.getBoundsRadius(baked.wall);
+			chunk.minX = Math.min(chunk.minX, baked.x - radius);
+			chunk.minY = Math.min(chunk.minY, baked.y - radius);
+			chunk.maxX = Math.max(chunk.maxX, baked.x + radius);
+			chunk.maxY = Math.max(chunk.maxY, baked.y + radius);
+
+			Vertex[] vertices = baked.wall.getVertices();
+			for (int i = 1; i < vertices.length - 1; i++) {
+				offset = putVertex(elements, offset, vertices[0], baked);
+				offset = putVertex(elements, offset, vertices[i], baked);
+				offset = putVertex(elements, offset, vertices[i + 1], baked);
+			}
+		}
+
+		chunk.mesh = vertexCount > 0 ? new StaticMesh(elements, vertexCount) : null;
+		chunk.dirty = false;
+	}
+
+	private static int putVertex(float[] elements, int offset, Vertex vertex, BakedWall baked) {
+		float[] source = vertex.getElements();
+
+		// same as translating and rotating the wall when it is drawn on its own
+		float cos = (float)Math.cos(baked.rotation);
+		float sin = (float)Math.sin(baked.rotation);
+		elements[offset++] = baked.x + cos * source[0] - sin * source[1];
+		elements[offset++] = baked.y + sin * source[0] + cos * source[1];
+		elements[offset++] = source[2];
+		elements[offset++] = source[3];
+
+		Color color = GameWall.R_COLOR;
+		elements[offset++] = source[4] * color.R();
+		elements[offset++] = source[5] * color.G();
+		elements[offset++] = source[6] * color.B();
+		elements[offset++] = source[7] * color.A();
+
+		elements[offset++] = source[8];
+		elements[offset++] = source[9];
+
+		return offset;
+	}
+}
@@ -0,0 +1,107 @@
+package com.edwardium.RPGEngine.Control.SceneController;
+
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Decides how each object is stepped in a scene update.
+ *
+ * Static and sleeping objects are not integrated at all. Slow objects are integrated only every few updates, with all the time
+ * accumulated since. Fast objects without continuous collision are split into substeps so that they never move more than
+ * {@code MAX_STEP_DISTANCE} in one substep.
+ *
+ * Objects that are not integrated in an update are passive. They do not look for collisions themselves, but active objects
+ * still check against them.
+ */
+public class StepScheduler {
+	// maximum distance (in pixels) an object without continuous collision should move in one substep
+	public static final float MAX_STEP_DISTANCE = 4f;
+	public static final int MAX_SUBSTEPS = 16;
+
+	// objects slower than this (in pixels per second) are stepped coarsely
+	public static final float SLOW_SPEED = 5f;
+	// slow objects are integrated once every this many updates
+	public static final int COARSE_INTERVAL = 4;
+
+	private int updateCounter = 0;
+
+	private TreeMap<String, Integer> currentFrameSubsteps = new TreeMap<>();
+	private TreeMap<String, Integer> lastFrameSubsteps = new TreeMap<>();
+
+	/**
+	 * Called before first update of a frame.
+	 */
+	public void beginFrame() {
+		TreeMap<String, Integer> swap = lastFrameSubsteps;
+		lastFrameSubsteps = currentFrameSubsteps;
+		currentFrameSubsteps = swap;
+		currentFrameSubsteps.clear();
+	}
+
+	/**
+	 * Called before scheduling objects of an update.
+	 */
+	public void beginUpdate() {
+		updateCounter++;
+	}
+
+	/**
+	 * Adds elapsedTime to the pending step time of object and sets its scheduled substeps.
+	 *
+	 * @param object Object to schedule.
+	 * @param index Index of the object in the scene, used to spread slow objects across updates.
+	 * @param elapsedTime Time of this update.
+	 * @return Number of substeps object is integrated with in this update, 0 if it is passive.
+	 */
+	public int schedule(GameObject object, int index, float elapsedTime) {
+		object.pendingStepTime += elapsedTime;
+
+		int substeps = computeSubsteps(object, index);
+		object.scheduledSubsteps = substeps;
+
+		if (substeps > 0) {
+			String className = object.getClass().getSimpleName();
+			currentFrameSubsteps.merge(className, substeps, Integer::sum);
+		}
+
+		return substeps;
+	}
+
+	private int computeSubsteps(GameObject object, int index) {
+		// sleeping and resting objects do not accumulate time, so woken objects only integrate time since they woke up
+		if (object.isSleeping()) {
+			object.pendingStepTime = 0;
+			return 0;
+		}
+
+		float speed = object.velocity.getMagnitude();
+
+		if (object.mass == Float.POSITIVE_INFINITY && speed == 0) {
+			object.pendingStepTime = 0;
+			return 0;
+		}
+
+		if (speed < SLOW_SPEED) {
+			if ((updateCounter + index) % COARSE_INTERVAL != 0)
+				return 0;
+
+			return 1;
+		}
+
+		if (object.continuousCollision)
+			return 1;
+
+		int substeps = (int)Math.ceil(speed * object.pendingStepTime / MAX_STEP_DISTANCE);
+		return Math.max(1, Math.min(MAX_SUBSTEPS, substeps));
+	}
+
+	/**
+	 * @return Number of substeps each object class received in the last frame, keyed by simple class name.
+	 */
+	public Map<String, Integer> getLastFrameSubsteps() {
+		return Collections.unmodifiableMap(lastFrameSubsteps);
+	}
+}
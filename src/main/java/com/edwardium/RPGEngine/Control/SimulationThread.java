@@ -0,0 +1,176 @@
+package com.edwardium.RPGEngine.Control;
+
+import com.edwardium.RPGEngine.Control.SceneController.GameSceneController;
+import com.edwardium.RPGEngine.Renderer.RecordingRenderer;
+import com.edwardium.RPGEngine.Renderer.Renderer;
+
+/**
+ * Runs fixed updates of a game scene on its own thread.
+ *
+ * After the updates of a frame the scene is rendered into a recording, which is the snapshot the GL thread draws
+ * while the next frame is being simulated. Recordings are double buffered: the simulation records into the back one
+ * and the two are swapped in {@code awaitSnapshot}, when neither thread is using them.
+ *
+ * The GL thread only touches the scene between {@code awaitSnapshot} and {@code submit}, so input processing
+ * and scene changes never run concurrently with the simulation.
+ */
+class SimulationThread implements Runnable {
+	private static final Metrics.Timer recordTimer = Metrics.timer("render record");
+
+	private final Thread thread;
+
+	private RecordingRenderer frontSnapshot;
+	private RecordingRenderer backSnapshot;
+	// scene the front snapshot was recorded from
+	private GameSceneController frontScene = null;
+	private GameSceneController backScene = null;
+	private boolean backReady = false;
+
+	// current job, guarded by this
+	private GameSceneController jobScene = null;
+	private int jobUpdates;
+	private double jobStepTime;
+	private float jobAlpha;
+	private boolean busy = false;
+	private boolean running = true;
+	// anything thrown by the last job, rethrown on the GL thread
+	private Throwable failure = null;
+
+	/**
+	 * @param target Renderer snapshots are replayed on.
+	 */
+	SimulationThread(Renderer target) {
+		frontSnapshot = new RecordingRenderer(target);
+		backSnapshot = new RecordingRenderer(target);
+
+		thread = new Thread(this, "Simulation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Starts simulating updates of scene and recording a snapshot of it.
+	 *
+	 * @param scene Scene to update.
+	 * @param updates Number of fixed updates to run.
+	 * @param stepTime Time of one update. In nanoseconds.
+	 * @param alpha Interpolation alpha to render the snapshot with.
+	 */
+	synchronized void submit(GameSceneController scene, int updates, double stepTime, float alpha) {
+		awaitIdle();
+
+		jobScene = scene;
+		jobUpdates = updates;
+		jobStepTime = stepTime;
+		jobAlpha = alpha;
+		busy = true;
+		notifyAll();
+	}
+
+	/**
+	 * Waits for the running job to finish.
+	 *
+	 * @param scene Scene to get the snapshot of.
+	 * @return The latest snapshot of scene, null if there is none.
+	 */
+	synchronized RecordingRenderer awaitSnapshot(GameSceneController scene) {
+		awaitIdle();
+
+		if (backReady) {
+			RecordingRenderer swap = frontSnapshot;
+			frontSnapshot = backSnapshot;
+			backSnapshot = swap;
+			frontScene = backScene;
+			backReady = false;
+		}
+
+		return frontScene == scene ? frontSnapshot : null;
+	}
+
+	/**
+	 * Stops the thread after the running job.
+	 */
+	void stop() {
+		synchronized (this) {
+			running = false;
+			notifyAll();
+		}
+
+		try {
+			thread.join();
+		} catch (InterruptedException ignored) {
+
+		}
+	}
+
+	private void awaitIdle() {
+		while (busy) {
+			try {
+				wait();
+			} catch (InterruptedException ignored) {
+
+			}
+		}
+
+		if (failure != null) {
+			Throwable e = failure;
+			failure = null;
+			if (e instanceof Error)
+				throw new Error("Simulation thread failed!", e);
+			throw new RuntimeException("Simulation thread failed!", e);
+		}
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			GameSceneController scene;
+			int updates;
+			double stepTime;
+			float alpha;
+
+			synchronized (this) {
+				while (running && !busy) {
+					try {
+						wait();
+					} catch (InterruptedException ignored) {
+
+					}
+				}
+
+				if (!running)
+					return;
+
+				scene = jobScene;
+				updates = jobUpdates;
+				stepTime = jobStepTime;
+				alpha = jobAlpha;
+			}
+
+			Throwable jobFailure = null;
+			try {
+				for (int i = 0; i < updates; i++) {
+					scene.step(stepTime);
+				}
+
+				recordTimer.start();
+				backSnapshot.clear();
+				UI.resetCorners(backSnapshot.getWindowSize());
+				scene.render(backSnapshot, alpha);
+				recordTimer.stop();
+			} catch (Throwable e) {
+				// errors too, the GL thread would wait for this job forever otherwise
+				jobFailure = e;
+			} finally {
+				synchronized (this) {
+					backScene = scene;
+					backReady = jobFailure == null;
+					failure = jobFailure;
+					jobScene = null;
+					busy = false;
+					notifyAll();
+				}
+			}
+		}
+	}
+}
@@ -2,6 +2,7 @@ package com.edwardium.RPGEngine.Control;
 
 import com.edwardium.RPGEngine.Renderer.Color;
 import com.edwardium.RPGEngine.Renderer.Renderer;
+import com.edwardium.RPGEngine.Renderer.TextMesh;
 import com.edwardium.RPGEngine.Utility.Vector2D;
 
 /**
@@ -52,13 +53,34 @@ public class UI {
 	 * @param margin Margin between the last corner line and this one.
 	 */
 	public static void drawCornerString(Renderer renderer, Corner alignment, String text, Color color, float margin) {
-		int signMult = (int)(-Math.signum(alignment.yMult));
+		Vector2D posVector = nextCornerPosition(alignment, margin);
+		renderer.drawString(renderer.basicFont, text, new Renderer.RenderInfo(posVector, 1f, 0f, color, false), alignment.stringAlignment);
+		advanceCorner(alignment);
+	}
 
-		Vector2D posVector = cornerStringNextPos[alignment.index];
-		posVector.add(0f, signMult * margin);
+	/**
+	 * Same as {@code drawCornerString}, but with text that is updated in place, for lines that change every frame.
+	 * @see UI#drawCornerString(Renderer, Corner, String, Color, float)
+	 *
+	 * @param renderer Renderer to use.
+	 * @param alignment Corner alignment.
+	 * @param text Text to draw.
+	 * @param color Color of the text.
+	 */
+	public static void drawCornerText(Renderer renderer, Corner alignment, TextMesh text, Color color) {
+		Vector2D posVector = nextCornerPosition(alignment, 0);
+		renderer.drawText(text, new Renderer.RenderInfo(posVector, 1f, 0f, color, false), alignment.stringAlignment);
+		advanceCorner(alignment);
+	}
 
-		renderer.drawString(renderer.basicFont, text, new Renderer.RenderInfo(posVector, 1f, 0f, color, false), alignment.stringAlignment);
-		posVector.add(0f, signMult * 15f);
+	private static Vector2D nextCornerPosition(Corner alignment, float margin) {
+		int signMult = (int)(-Math.signum(alignment.yMult));
+		return cornerStringNextPos[alignment.index].add(0f, signMult * margin);
+	}
+
+	private static void advanceCorner(Corner alignment) {
+		int signMult = (int)(-Math.signum(alignment.yMult));
+		cornerStringNextPos[alignment.index].add(0f, signMult * 15f);
 	}
 
 	/**
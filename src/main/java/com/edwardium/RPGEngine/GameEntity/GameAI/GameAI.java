@@ -51,6 +51,13 @@ public abstract class GameAI implements GameSerializable {
 		return currentState == CharacterState.IDLE;
 	}
 
+	/**
+	 * @return Whether the character can be put to sleep, that is this AI does not need updates when the character is not moving.
+	 */
+	public boolean canSleep() {
+		return currentState != CharacterState.CHARGING;
+	}
+
 	public void onUpdate(float elapsedTime) {
 		if (currentState == CharacterState.CHARGING && character.velocity.getMagnitude() != 0)
 			this.currentState = CharacterState.IDLE;
@@ -25,6 +25,12 @@ public class PlayerAI extends GameAI {
 		super.onUpdate(elapsedTime);
 	}
 
+	@Override
+	public boolean canSleep() {
+		// input is read every frame and has to be applied even when the player is standing still
+		return false;
+	}
+
 	public void updateInput(Input gameInput, double unprocessedTime) {
 		PlaySceneController gsc = Engine.gameEngine.getCurrentPlayController();
 		if (gsc == null)
@@ -16,6 +16,12 @@ public class SimpleEnemyAI extends GameAI {
 		super(character, sourceObj);
 	}
 
+	@Override
+	public boolean canSleep() {
+		// keeps looking for enemies until dead
+		return currentState == CharacterState.LOCKED;
+	}
+
 	@Override
 	public void onUpdate(float elapsedTime) {
 		PlaySceneController gsc = Engine.gameEngine.getCurrentPlayController();
@@ -0,0 +1,352 @@
+package com.edwardium.RPGEngine.GameEntity.GameBroadphase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Dynamic bounding volume tree of axis aligned boxes. Leaves hold user data, inner nodes hold the union of their children.
+ * Nodes are stored in primitive arrays and addressed by index, the tree is kept balanced with rotations.
+ *
+ * Based on the dynamic tree from Box2D.
+ */
+class AABBTree {
+	private static final int NULL_NODE = -1;
+
+	private float[] minX;
+	private float[] minY;
+	private float[] maxX;
+	private float[] maxY;
+
+	private int[] parent;
+	private int[] child1;
+	private int[] child2;
+	// leaf = 0, free node = -1
+	private int[] height;
+	private Object[] userData;
+
+	private int root = NULL_NODE;
+	private int nodeCount = 0;
+	private int freeList;
+
+	private int[] queryStack = new int[64];
+
+	AABBTree() {
+		this(16);
+	}
+
+	AABBTree(int initialCapacity) {
+		allocate(Math.max(initialCapacity, 1));
+	}
+
+	/**
+	 * @return Id of the new leaf.
+	 */
+	int insert(float minX, float minY, float maxX, float maxY, Object data) {
+		int leaf = allocateNode();
+		setBounds(leaf, minX, minY, maxX, maxY);
+		this.userData[leaf] = data;
+		this.height[leaf] = 0;
+
+		insertLeaf(leaf);
+		return leaf;
+	}
+
+	void remove(int leaf) {
+		removeLeaf(leaf);
+		freeNode(leaf);
+	}
+
+	/**
+	 * Moves leaf to new bounds.
+	 */
+	void move(int leaf, float minX, float minY, float maxX, float maxY) {
+		removeLeaf(leaf);
+		setBounds(leaf, minX, minY, maxX, maxY);
+		insertLeaf(leaf);
+	}
+
+	@SuppressWarnings("unchecked")
+	<T> void query(float minX, float minY, float maxX, float maxY, ArrayList<T> out) {
+		if (root == NULL_NODE)
+			return;
+
+		int stackSize = 0;
+		queryStack[stackSize++] = root;
+
+		while (stackSize > 0) {
+			int node = queryStack[--stackSize];
+
+			if (this.minX[node] > maxX || this.maxX[node] < minX || this.minY[node] > maxY || this.maxY[node] < minY)
+				continue;
+
+			if (height[node] == 0) {
+				out.add((T) userData[node]);
+			} else {
+				if (stackSize + 2 > queryStack.length)
+					queryStack = Arrays.copyOf(queryStack, queryStack.length * 2);
+
+				queryStack[stackSize++] = child1[node];
+				queryStack[stackSize++] = child2[node];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		minX = new float[capacity];
+		minY = new float[capacity];
+		maxX = new float[capacity];
+		maxY = new float[capacity];
+
+		parent = new int[capacity];
+		child1 = new int[capacity];
+		child2 = new int[capacity];
+		height = new int[capacity];
+		userData = new Object[capacity];
+
+		for (int i = 0; i < capacity; i++) {
+			parent[i] = i + 1 < capacity ? i + 1 : NULL_NODE;
+			height[i] = -1;
+		}
+		freeList = 0;
+	}
+
+	private int allocateNode() {
+		if (freeList == NULL_NODE) {
+			int oldCapacity = minX.length;
+			int capacity = oldCapacity * 2;
+
+			minX = Arrays.copyOf(minX, capacity);
+			minY = Arrays.copyOf(minY, capacity);
+			maxX = Arrays.copyOf(maxX, capacity);
+			maxY = Arrays.copyOf(maxY, capacity);
+
+			parent = Arrays.copyOf(parent, capacity);
+			child1 = Arrays.copyOf(child1, capacity);
+			child2 = Arrays.copyOf(child2, capacity);
+			height = Arrays.copyOf(height, capacity);
+			userData = Arrays.copyOf(userData, capacity);
+
+			// free list continues in parent array
+			for (int i = oldCapacity; i < capacity; i++) {
+				parent[i] = i + 1 < capacity ? i + 1 : NULL_NODE;
+				height[i] = -1;
+			}
+			freeList = oldCapacity;
+		}
+
+		int node = freeList;
+		freeList = parent[node];
+
+		parent[node] = NULL_NODE;
+		child1[node] = NULL_NODE;
+		child2[node] = NULL_NODE;
+		height[node] = 0;
+		userData[node] = null;
+		nodeCount++;
+
+		return node;
+	}
+
+	private void freeNode(int node) {
+		parent[node] = freeList;
+		height[node] = -1;
+		userData[node] = null;
+		freeList = node;
+		nodeCount--;
+	}
+
+	private void setBounds(int node, float minX, float minY, float maxX, float maxY) {
+		this.minX[node] = minX;
+		this.minY[node] = minY;
+		this.maxX[node] = maxX;
+		this.maxY[node] = maxY;
+	}
+
+	private void setUnion(int node, int a, int b) {
+		setBounds(node, Math.min(minX[a], minX[b]), Math.min(minY[a], minY[b]), Math.max(maxX[a], maxX[b]), Math.max(maxY[a], maxY[b]));
+	}
+
+	private float perimeter(int node) {
+		return 2 * ((maxX[node] - minX[node]) + (maxY[node] - minY[node]));
+	}
+
+	private float unionPerimeter(int a, int b) {
+		float width = Math.max(maxX[a], maxX[b]) - Math.min(minX[a], minX[b]);
+		float height = Math.max(maxY[a], maxY[b]) - Math.min(minY[a], minY[b]);
+		return 2 * (width + height);
+	}
+
+	private void insertLeaf(int leaf) {
+		if (root == NULL_NODE) {
+			root = leaf;
+			parent[root] = NULL_NODE;
+			return;
+		}
+
+		// find the best sibling using the surface area heuristic
+		int index = root;
+		while (height[index] != 0) {
+			int left = child1[index];
+			int right = child2[index];
+
+			float area = perimeter(index);
+			float combinedArea = unionPerimeter(index, leaf);
+
+			// cost of creating a new parent for this node and the new leaf
+			float cost = 2 * combinedArea;
+			// minimum cost of pushing the leaf further down the tree
+			float inheritanceCost = 2 * (combinedArea - area);
+
+			float costLeft = unionPerimeter(leaf, left) + inheritanceCost;
+			if (height[left] != 0)
+				costLeft -= perimeter(left);
+
+			float costRight = unionPerimeter(leaf, right) + inheritanceCost;
+			if (height[right] != 0)
+				costRight -= perimeter(right);
+
+			if (cost < costLeft && cost < costRight)
+				break;
+
+			index = costLeft < costRight ? left : right;
+		}
+
+		int sibling = index;
+
+		// create a new parent
+		int oldParent = parent[sibling];
+		int newParent = allocateNode();
+		parent[newParent] = oldParent;
+		setUnion(newParent, leaf, sibling);
+		height[newParent] = height[sibling] + 1;
+
+		if (oldParent != NULL_NODE) {
+			if (child1[oldParent] == sibling)
+				child1[oldParent] = newParent;
+			else
+				child2[oldParent] = newParent;
+		} else {
+			root = newParent;
+		}
+
+		child1[newParent] = sibling;
+		child2[newParent] = leaf;
+		parent[sibling] = newParent;
+		parent[leaf] = newParent;
+
+		fixUpwards(parent[leaf]);
+	}
+
+	private void removeLeaf(int leaf) {
+		if (leaf == root) {
+			root = NULL_NODE;
+			return;
+		}
+
+		int leafParent = parent[leaf];
+		int grandParent = parent[leafParent];
+		int sibling = child1[leafParent] == leaf ? child2[leafParent] : child1[leafParent];
+
+		if (grandParent != NULL_NODE) {
+			// destroy parent and connect sibling to grand parent
+			if (child1[grandParent] == leafParent)
+				child1[grandParent] = sibling;
+			else
+				child2[grandParent] = sibling;
+			parent[sibling] = grandParent;
+			freeNode(leafParent);
+
+			fixUpwards(grandParent);
+		} else {
+			root = sibling;
+			parent[sibling] = NULL_NODE;
+			freeNode(leafParent);
+		}
+	}
+
+	private void fixUpwards(int index) {
+		while (index != NULL_NODE) {
+			index = balance(index);
+
+			int left = child1[index];
+			int right = child2[index];
+
+			height[index] = 1 + Math.max(height[left], height[right]);
+			setUnion(index, left, right);
+
+			index = parent[index];
+		}
+	}
+
+	/**
+	 * Performs a left or right rotation if node a is imbalanced.
+	 *
+	 * @return The new root of the subtree.
+	 */
+	private int balance(int a) {
+		if (height[a] < 2)
+			return a;
+
+		int b = child1[a];
+		int c = child2[a];
+
+		int balance = height[c] - height[b];
+
+		// rotate c up
+		if (balance > 1) {
+			rotateUp(a, c, b, true);
+			return c;
+		}
+
+		// rotate b up
+		if (balance < -1) {
+			rotateUp(a, b, c, false);
+			return b;
+		}
+
+		return a;
+	}
+
+	/**
+	 * @param a Imbalanced node.
+	 * @param up Child of a that is being rotated up.
+	 * @param other The other child of a.
+	 * @param upIsSecond Whether up is child2 of a.
+	 */
+	private void rotateUp(int a, int up, int other, boolean upIsSecond) {
+		int f = child1[up];
+		int g = child2[up];
+
+		// swap a and up
+		child1[up] = a;
+		parent[up] = parent[a];
+		parent[a] = up;
+
+		// a's old parent should point to up
+		if (parent[up] != NULL_NODE) {
+			if (child1[parent[up]] == a)
+				child1[parent[up]] = up;
+			else
+				child2[parent[up]] = up;
+		} else {
+			root = up;
+		}
+
+		// keep the higher grandchild under up, move the other one under a
+		int keep = height[f] > height[g] ? f : g;
+		int move = keep == f ? g : f;
+
+		child2[up] = keep;
+		if (upIsSecond)
+			child2[a] = move;
+		else
+			child1[a] = move;
+		parent[move] = a;
+
+		setUnion(a, other, move);
+		setUnion(up, a, keep);
+
+		height[a] = 1 + Math.max(height[other], height[move]);
+		height[up] = 1 + Math.max(height[a], height[keep]);
+	}
+}
@@ -0,0 +1,294 @@
+package com.edwardium.RPGEngine.GameEntity.GameBroadphase;
+
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+/**
+ * Broadphase using dynamic AABB trees.
+ *
+ * Static objects (infinite mass, such as walls) are kept in their own tree. Their bounds are stored exactly and the tree is
+ * only touched when a static object is inserted, removed or moved (editor). Dynamic objects are stored with fattened bounds
+ * (margin plus velocity look-ahead), so they only have to be reinserted once they leave them.
+ *
+ * Static objects overlapping the fat bounds of a dynamic object are cached per object and reused until the object
+ * leaves its fat bounds, so big static geometry is not queried for every moving object on every step.
+ *
+ * Dynamic objects can be kept in a sweep-and-prune list sorted on the x axis instead of a tree.
+ * This is usually faster for many small objects of similar size.
+ */
+public class AABBTreeBroadphase extends GameBroadphase {
+
+	public enum DynamicMode { TREE, SWEEP_AND_PRUNE }
+
+	private static class TreeProxy extends Proxy {
+		boolean isStatic;
+
+		// leaf in static or dynamic tree, -1 if none
+		int leaf = -1;
+		// index in the sweep list, -1 if none
+		int sweepIndex = -1;
+
+		// fat bounds of dynamic proxies
+		float fatMinX;
+		float fatMinY;
+		float fatMaxX;
+		float fatMaxY;
+
+		TreeProxy(GameObject object) {
+			super(object);
+		}
+	}
+
+	// how much are dynamic bounds fattened in every direction
+	private static final float FAT_MARGIN = 4f;
+	// how far ahead (in seconds) are dynamic bounds extended in the direction of velocity
+	private static final float VELOCITY_LOOKAHEAD = 1 / 30f;
+
+	private final DynamicMode dynamicMode;
+
+	private final AABBTree staticTree = new AABBTree();
+	private final AABBTree dynamicTree = new AABBTree();
+
+	// dynamic proxies sorted by minX
+	private final ArrayList<TreeProxy> sweepList = new ArrayList<>();
+	// upper bound of the width of any proxy in sweep list
+	private float sweepMaxWidth = 0;
+
+	// static proxies overlapping the fat bounds of a dynamic object
+	private final IdentityHashMap<GameObject, ArrayList<TreeProxy>> staticPairCache = new IdentityHashMap<>();
+	private final ArrayList<ArrayList<TreeProxy>> pairListPool = new ArrayList<>();
+
+	public AABBTreeBroadphase() {
+		this(DynamicMode.TREE);
+	}
+
+	public AABBTreeBroadphase(DynamicMode dynamicMode) {
+		this.dynamicMode = dynamicMode;
+	}
+
+	public DynamicMode getDynamicMode() {
+		return dynamicMode;
+	}
+
+	/**
+	 * @param object Object to check.
+	 * @return Whether object is treated as static geometry.
+	 */
+	public static boolean isStatic(GameObject object) {
+		return object.mass == Float.POSITIVE_INFINITY;
+	}
+
+	@Override
+	protected Proxy createProxy(GameObject object) {
+		return new TreeProxy(object);
+	}
+
+	@Override
+	protected void onInsert(Proxy proxy) {
+		TreeProxy treeProxy = (TreeProxy) proxy;
+		treeProxy.isStatic = isStatic(proxy.object);
+
+		if (treeProxy.isStatic) {
+			treeProxy.leaf = staticTree.insert(proxy.minX, proxy.minY, proxy.maxX, proxy.maxY, treeProxy);
+			invalidateStaticPairs();
+		} else {
+			computeFatBounds(treeProxy);
+			if (dynamicMode == DynamicMode.TREE) {
+				treeProxy.leaf = dynamicTree.insert(treeProxy.fatMinX, treeProxy.fatMinY, treeProxy.fatMaxX, treeProxy.fatMaxY, treeProxy);
+			} else {
+				sweepInsert(treeProxy);
+			}
+		}
+	}
+
+	@Override
+	protected void onRemove(Proxy proxy) {
+		TreeProxy treeProxy = (TreeProxy) proxy;
+
+		if (treeProxy.isStatic) {
+			staticTree.remove(treeProxy.leaf);
+			invalidateStaticPairs();
+		} else {
+			if (dynamicMode == DynamicMode.TREE) {
+				dynamicTree.remove(treeProxy.leaf);
+			} else {
+				sweepRemove(treeProxy);
+			}
+			releaseStaticPairs(proxy.object);
+		}
+		treeProxy.leaf = -1;
+	}
+
+	@Override
+	protected void onUpdate(Proxy proxy) {
+		TreeProxy treeProxy = (TreeProxy) proxy;
+
+		if (treeProxy.isStatic != isStatic(proxy.object)) {
+			// mass has changed, move to the other structure
+			onRemove(proxy);
+			onInsert(proxy);
+			return;
+		}
+
+		if (treeProxy.isStatic) {
+			// static geometry was moved, most likely by the editor
+			staticTree.move(treeProxy.leaf, proxy.minX, proxy.minY, proxy.maxX, proxy.maxY);
+			invalidateStaticPairs();
+			return;
+		}
+
+		if (dynamicMode == DynamicMode.SWEEP_AND_PRUNE)
+			sweepUpdate(treeProxy);
+
+		if (proxy.minX >= treeProxy.fatMinX && proxy.minY >= treeProxy.fatMinY
+				&& proxy.maxX <= treeProxy.fatMaxX && proxy.maxY <= treeProxy.fatMaxY)
+			return;
+
+		// left fat bounds
+		computeFatBounds(treeProxy);
+		if (dynamicMode == DynamicMode.TREE)
+			dynamicTree.move(treeProxy.leaf, treeProxy.fatMinX, treeProxy.fatMinY, treeProxy.fatMaxX, treeProxy.fatMaxY);
+		releaseStaticPairs(proxy.object);
+	}
+
+	@Override
+	protected void collectCandidates(Proxy proxy, ArrayList<Proxy> out) {
+		TreeProxy treeProxy = (TreeProxy) proxy;
+		if (treeProxy.isStatic != isStatic(proxy.object))
+			onUpdate(proxy);
+
+		if (dynamicMode == DynamicMode.TREE) {
+			dynamicTree.query(proxy.minX, proxy.minY, proxy.maxX, proxy.maxY, out);
+		} else {
+			sweepQuery(proxy.minX, proxy.maxX, out);
+		}
+
+		if (treeProxy.isStatic) {
+			staticTree.query(proxy.minX, proxy.minY, proxy.maxX, proxy.maxY, out);
+		} else {
+			out.addAll(getStaticPairs(treeProxy));
+		}
+	}
+
+	@Override
+	protected void collectCandidates(float minX, float minY, float maxX, float maxY, ArrayList<Proxy> out) {
+		if (dynamicMode == DynamicMode.TREE) {
+			dynamicTree.query(minX, minY, maxX, maxY, out);
+		} else {
+			sweepQuery(minX, maxX, out);
+		}
+
+		staticTree.query(minX, minY, maxX, maxY, out);
+	}
+
+	private static void computeFatBounds(TreeProxy proxy) {
+		float lookaheadX = proxy.object.velocity.getX() * VELOCITY_LOOKAHEAD;
+		float lookaheadY = proxy.object.velocity.getY() * VELOCITY_LOOKAHEAD;
+
+		proxy.fatMinX = proxy.minX - FAT_MARGIN + Math.min(lookaheadX, 0);
+		proxy.fatMinY = proxy.minY - FAT_MARGIN + Math.min(lookaheadY, 0);
+		proxy.fatMaxX = proxy.maxX + FAT_MARGIN + Math.max(lookaheadX, 0);
+		proxy.fatMaxY = proxy.maxY + FAT_MARGIN + Math.max(lookaheadY, 0);
+	}
+
+	private ArrayList<TreeProxy> getStaticPairs(TreeProxy proxy) {
+		ArrayList<TreeProxy> pairs = staticPairCache.get(proxy.object);
+		if (pairs == null) {
+			pairs = pairListPool.isEmpty() ? new ArrayList<>() : pairListPool.remove(pairListPool.size() - 1);
+			staticTree.query(proxy.fatMinX, proxy.fatMinY, proxy.fatMaxX, proxy.fatMaxY, pairs);
+			staticPairCache.put(proxy.object, pairs);
+		}
+
+		return pairs;
+	}
+
+	private void releaseStaticPairs(GameObject object) {
+		ArrayList<TreeProxy> pairs = staticPairCache.remove(object);
+		if (pairs != null) {
+			pairs.clear();
+			pairListPool.add(pairs);
+		}
+	}
+
+	private void invalidateStaticPairs() {
+		for (ArrayList<TreeProxy> pairs : staticPairCache.values()) {
+			pairs.clear();
+			pairListPool.add(pairs);
+		}
+		staticPairCache.clear();
+	}
+
+	private void sweepInsert(TreeProxy proxy) {
+		int index = sweepLowerBound(proxy.minX);
+		sweepList.add(index, proxy);
+		for (int i = index; i < sweepList.size(); i++) {
+			sweepList.get(i).sweepIndex = i;
+		}
+
+		sweepMaxWidth = Math.max(sweepMaxWidth, proxy.maxX - proxy.minX);
+	}
+
+	private void sweepRemove(TreeProxy proxy) {
+		int index = proxy.sweepIndex;
+		sweepList.remove(index);
+		for (int i = index; i < sweepList.size(); i++) {
+			sweepList.get(i).sweepIndex = i;
+		}
+		proxy.sweepIndex = -1;
+
+		if (sweepList.isEmpty())
+			sweepMaxWidth = 0;
+	}
+
+	private void sweepUpdate(TreeProxy proxy) {
+		sweepMaxWidth = Math.max(sweepMaxWidth, proxy.maxX - proxy.minX);
+
+		// objects move only a little between steps, so a few insertion sort swaps are enough
+		int index = proxy.sweepIndex;
+		while (index > 0 && sweepList.get(index - 1).minX > proxy.minX) {
+			TreeProxy other = sweepList.get(index - 1);
+			sweepList.set(index, other);
+			other.sweepIndex = index;
+			index--;
+		}
+		while (index < sweepList.size() - 1 && sweepList.get(index + 1).minX < proxy.minX) {
+			TreeProxy other = sweepList.get(index + 1);
+			sweepList.set(index, other);
+			other.sweepIndex = index;
+			index++;
+		}
+		sweepList.set(index, proxy);
+		proxy.sweepIndex = index;
+	}
+
+	private void sweepQuery(float minX, float maxX, ArrayList<Proxy> out) {
+		// nothing starting before this can reach minX
+		for (int i = sweepLowerBound(minX - sweepMaxWidth); i < sweepList.size(); i++) {
+			TreeProxy other = sweepList.get(i);
+			if (other.minX > maxX)
+				break;
+
+			if (other.maxX >= minX)
+				out.add(other);
+		}
+	}
+
+	/**
+	 * @return Index of the first proxy in sweep list with minX not less than value.
+	 */
+	private int sweepLowerBound(float value) {
+		int low = 0;
+		int high = sweepList.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sweepList.get(middle).minX < value)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+
+		return low;
+	}
+}
@@ -0,0 +1,348 @@
+package com.edwardium.RPGEngine.GameEntity.GameBroadphase;
+
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Broadphase collision stage. Keeps track of object bounds and produces candidate pairs that are then
+ * passed to the narrow phase ({@code GameObject.checkCollision}).
+ *
+ * Bounds of an object are a square around its position with half size equal to hitbox broad radius, which means
+ * that every pair that passes the hitbox broad check also has overlapping bounds.
+ *
+ * Candidates are returned in the same order the objects have in the scene object list, so the collision callbacks
+ * are called in the same order as when checking every object against every later object.
+ *
+ * Passive objects do not look for collisions themselves in the current update. They are returned as candidates
+ * of every active object regardless of order and come before active candidates.
+ */
+public abstract class GameBroadphase {
+
+	protected static class Proxy {
+		public final GameObject object;
+
+		// position of the object in the scene list, only relative order matters
+		public int order;
+		public boolean passive = false;
+
+		// tight bounds
+		public float minX;
+		public float minY;
+		public float maxX;
+		public float maxY;
+
+		int syncStamp = 0;
+		int queryStamp = 0;
+
+		protected Proxy(GameObject object) {
+			this.object = object;
+		}
+
+		public boolean overlaps(float minX, float minY, float maxX, float maxY) {
+			return this.minX <= maxX && this.maxX >= minX && this.minY <= maxY && this.maxY >= minY;
+		}
+	}
+
+	// padding so that float rounding never makes bounds stricter than the hitbox broad check
+	private static final float BOUNDS_MARGIN = 0.01f;
+
+	private static final Comparator<Proxy> ORDER_COMPARATOR = (a, b) -> {
+		if (a.passive != b.passive)
+			return a.passive ? -1 : 1;
+		return Integer.compare(a.order, b.order);
+	};
+
+	// GameObject does not override equals, so this is keyed by object identity
+	private final HashMap<GameObject, Proxy> proxies = new HashMap<>();
+	// proxies inserted since the last sync, their objects are often repositioned right after registration
+	private final ArrayList<Proxy> freshProxies = new ArrayList<>();
+
+	private final ArrayList<Proxy> candidateBuffer = new ArrayList<>();
+
+	private int nextOrder = 0;
+	private int syncStamp = 0;
+	private int queryStamp = 0;
+
+	protected GameBroadphase() {
+
+	}
+
+	/**
+	 * Creates broadphase by name.
+	 *
+	 * @param name One of "grid", "tree" or "sap". Anything else means grid.
+	 * @return New broadphase.
+	 */
+	public static GameBroadphase fromName(String name) {
+		switch (name != null ? name.toLowerCase() : "") {
+			case "tree":
+				return new AABBTreeBroadphase(AABBTreeBroadphase.DynamicMode.TREE);
+			case "sap":
+				return new AABBTreeBroadphase(AABBTreeBroadphase.DynamicMode.SWEEP_AND_PRUNE);
+			default:
+				return new GridBroadphase();
+		}
+	}
+
+	/**
+	 * Brings the broadphase in line with objects. Inserts missing objects, removes objects that are not in the list anymore,
+	 * updates bounds and order of the rest. Bounds of sleeping objects are not updated, they are not supposed to move.
+	 *
+	 * @param objects Scene objects, in update order.
+	 */
+	public void sync(List<GameObject> objects) {
+		syncStamp++;
+		for (int i = 0; i < objects.size(); i++) {
+			GameObject object = objects.get(i);
+
+			Proxy proxy = proxies.get(object);
+			if (proxy == null) {
+				proxy = createProxy(object);
+				proxies.put(object, proxy);
+				computeBounds(proxy);
+				onInsert(proxy);
+			} else if (!object.isSleeping()) {
+				updateProxy(proxy);
+			}
+			proxy.order = i;
+			proxy.syncStamp = syncStamp;
+		}
+		nextOrder = objects.size();
+
+		if (proxies.size() > objects.size()) {
+			ArrayList<Proxy> stale = new ArrayList<>();
+			for (Proxy proxy : proxies.values()) {
+				if (proxy.syncStamp != syncStamp)
+					stale.add(proxy);
+			}
+			for (Proxy proxy : stale) {
+				proxies.remove(proxy.object);
+				onRemove(proxy);
+			}
+		}
+
+		freshProxies.clear();
+	}
+
+	/**
+	 * @param object Object to insert. It is ordered after every object already inserted.
+	 */
+	public void insert(GameObject object) {
+		if (object == null || proxies.containsKey(object))
+			return;
+
+		Proxy proxy = createProxy(object);
+		proxy.order = nextOrder++;
+		proxies.put(object, proxy);
+		computeBounds(proxy);
+		onInsert(proxy);
+
+		freshProxies.add(proxy);
+	}
+
+	/**
+	 * @param object Object to remove.
+	 */
+	public void remove(GameObject object) {
+		Proxy proxy = proxies.remove(object);
+		if (proxy != null) {
+			freshProxies.remove(proxy);
+			onRemove(proxy);
+		}
+	}
+
+	/**
+	 * Removes all objects.
+	 */
+	public void clear() {
+		for (Proxy proxy : proxies.values()) {
+			onRemove(proxy);
+		}
+		proxies.clear();
+		freshProxies.clear();
+		nextOrder = 0;
+	}
+
+	/**
+	 * Updates bounds of object after it has moved.
+	 *
+	 * @param object Object to update.
+	 * @return Whether the bounds of the object have changed, which means the candidates for it could have changed too.
+	 */
+	public boolean update(GameObject object) {
+		Proxy proxy = proxies.get(object);
+		return proxy != null && updateProxy(proxy);
+	}
+
+	/**
+	 * @param object Object to change.
+	 * @param passive Whether the object is passive in the current update.
+	 */
+	public void setPassive(GameObject object, boolean passive) {
+		Proxy proxy = proxies.get(object);
+		if (proxy != null)
+			proxy.passive = passive;
+	}
+
+	/**
+	 * Equivalent to calling {@code queryCandidates(object, null, candidates)}
+	 * @see GameBroadphase#queryCandidates(GameObject, GameObject, List)
+	 *
+	 * @param object Object to find candidates for.
+	 * @param candidates List to fill with candidates. Cleared first.
+	 */
+	public void queryCandidates(GameObject object, List<GameObject> candidates) {
+		queryCandidates(object, null, candidates);
+	}
+
+	/**
+	 * @param object Object to find candidates for.
+	 * @param after Only candidates ordered after this one are returned. If null or object, all candidates are returned.
+	 * @param candidates List to fill with candidates, passive first, then sorted by order. Cleared first.
+	 */
+	public void queryCandidates(GameObject object, GameObject after, List<GameObject> candidates) {
+		candidates.clear();
+
+		Proxy proxy = proxies.get(object);
+		if (proxy == null)
+			return;
+
+		Proxy afterProxy = after != null && after != object ? proxies.get(after) : null;
+
+		for (Proxy fresh : freshProxies) {
+			updateProxy(fresh);
+		}
+
+		queryStamp++;
+		proxy.queryStamp = queryStamp;
+
+		candidateBuffer.clear();
+		collectCandidates(proxy, candidateBuffer);
+		filterCandidates(proxy.minX, proxy.minY, proxy.maxX, proxy.maxY, proxy, afterProxy, candidates);
+	}
+
+	/**
+	 * @param minX Minimum x coordinate of the region.
+	 * @param minY Minimum y coordinate of the region.
+	 * @param maxX Maximum x coordinate of the region.
+	 * @param maxY Maximum y coordinate of the region.
+	 * @param objects List to fill with objects whose bounds overlap the region, sorted by order. Cleared first.
+	 */
+	public void queryRegion(float minX, float minY, float maxX, float maxY, List<GameObject> objects) {
+		objects.clear();
+
+		for (Proxy fresh : freshProxies) {
+			updateProxy(fresh);
+		}
+
+		queryStamp++;
+
+		candidateBuffer.clear();
+		collectCandidates(minX, minY, maxX, maxY, candidateBuffer);
+		filterCandidates(minX, minY, maxX, maxY, null, null, objects);
+	}
+
+	/**
+	 * Moves candidates from candidateBuffer that overlap the region and come after afterProxy into objects.
+	 * If proxy is not null, only candidates that are passive or ordered after it are accepted.
+	 */
+	private void filterCandidates(float minX, float minY, float maxX, float maxY, Proxy proxy, Proxy afterProxy, List<GameObject> objects) {
+		int writeIndex = 0;
+		for (int i = 0; i < candidateBuffer.size(); i++) {
+			Proxy candidate = candidateBuffer.get(i);
+			if (candidate.queryStamp != queryStamp
+					&& (proxy == null || candidate.passive || candidate.order > proxy.order)
+					&& (afterProxy == null || ORDER_COMPARATOR.compare(candidate, afterProxy) > 0)
+					&& candidate.overlaps(minX, minY, maxX, maxY)) {
+				candidate.queryStamp = queryStamp;
+				candidateBuffer.set(writeIndex++, candidate);
+			}
+		}
+
+		List<Proxy> filtered = candidateBuffer.subList(0, writeIndex);
+		filtered.sort(ORDER_COMPARATOR);
+		for (Proxy candidate : filtered) {
+			objects.add(candidate.object);
+		}
+		candidateBuffer.clear();
+	}
+
+	/**
+	 * @param object Object to get the bounds of.
+	 * @return Half size of the square bounds around the position of object, the same as the ones kept by a broadphase.
+	 */
+	public static float getBoundsRadius(GameObject object) {
+		return (object.hitbox != null ? object.hitbox.getBroadRadius() : 0) + BOUNDS_MARGIN;
+	}
+
+	/**
+	 * @return Number of objects in this broadphase.
+	 */
+	public int size() {
+		return proxies.size();
+	}
+
+	protected Collection<Proxy> getProxies() {
+		return proxies.values();
+	}
+
+	protected Proxy createProxy(GameObject object) {
+		return new Proxy(object);
+	}
+
+	/**
+	 * @param proxy Proxy to compute tight bounds for.
+	 */
+	protected static void computeBounds(Proxy proxy) {
+		GameObject object = proxy.object;
+		float radius = getBoundsRadius(object);
+
+		proxy.minX = object.position.getX() - radius;
+		proxy.minY = object.position.getY() - radius;
+		proxy.maxX = object.position.getX() + radius;
+		proxy.maxY = object.position.getY() + radius;
+	}
+
+	private boolean updateProxy(Proxy proxy) {
+		float minX = proxy.minX, minY = proxy.minY, maxX = proxy.maxX, maxY = proxy.maxY;
+		computeBounds(proxy);
+
+		if (minX == proxy.minX && minY == proxy.minY && maxX == proxy.maxX && maxY == proxy.maxY)
+			return false;
+
+		onUpdate(proxy);
+		return true;
+	}
+
+	/**
+	 * Called after the proxy has been created and its bounds computed.
+	 */
+	protected abstract void onInsert(Proxy proxy);
+
+	/**
+	 * Called after the proxy has been removed.
+	 */
+	protected abstract void onRemove(Proxy proxy);
+
+	/**
+	 * Called after the tight bounds of the proxy have changed.
+	 */
+	protected abstract void onUpdate(Proxy proxy);
+
+	/**
+	 * Adds every proxy that might overlap with proxy into out. Duplicates, the proxy itself, proxies ordered
+	 * before it and proxies whose bounds do not overlap are filtered by the caller.
+	 */
+	protected abstract void collectCandidates(Proxy proxy, ArrayList<Proxy> out);
+
+	/**
+	 * Adds every proxy that might overlap with the region into out. Duplicates and proxies whose bounds
+	 * do not overlap are filtered by the caller.
+	 */
+	protected abstract void collectCandidates(float minX, float minY, float maxX, float maxY, ArrayList<Proxy> out);
+}
@@ -0,0 +1,192 @@
+package com.edwardium.RPGEngine.GameEntity.GameBroadphase;
+
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Uniform grid (spatial hash) broadphase. Each object is stored in every cell its bounds touch and
+ * only objects sharing a cell are returned as candidates.
+ *
+ * Objects that would span too many cells are kept in a separate list and are tested against everything.
+ */
+public class GridBroadphase extends GameBroadphase {
+
+	private static class GridProxy extends Proxy {
+		// inclusive cell range
+		int minCellX;
+		int minCellY;
+		int maxCellX;
+		int maxCellY;
+
+		boolean oversized = false;
+
+		GridProxy(GameObject object) {
+			super(object);
+		}
+	}
+
+	public static final float DEFAULT_CELL_SIZE = 64f;
+	// objects spanning more cells than this are not hashed
+	private static final int MAX_PROXY_CELLS = 256;
+
+	private final float cellSize;
+	private final float inverseCellSize;
+
+	private final HashMap<Long, ArrayList<GridProxy>> cells = new HashMap<>();
+	private final ArrayList<GridProxy> oversizedProxies = new ArrayList<>();
+
+	public GridBroadphase() {
+		this(DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * @param cellSize Size of one grid cell. Ideally a bit larger than the diameter of a common object.
+	 */
+	public GridBroadphase(float cellSize) {
+		if (cellSize <= 0)
+			throw new IllegalArgumentException("Cell size must be positive!");
+
+		this.cellSize = cellSize;
+		this.inverseCellSize = 1f / cellSize;
+	}
+
+	public float getCellSize() {
+		return cellSize;
+	}
+
+	@Override
+	protected Proxy createProxy(GameObject object) {
+		return new GridProxy(object);
+	}
+
+	@Override
+	protected void onInsert(Proxy proxy) {
+		GridProxy gridProxy = (GridProxy) proxy;
+		computeCells(gridProxy);
+		addToCells(gridProxy);
+	}
+
+	@Override
+	protected void onRemove(Proxy proxy) {
+		removeFromCells((GridProxy) proxy);
+	}
+
+	@Override
+	protected void onUpdate(Proxy proxy) {
+		GridProxy gridProxy = (GridProxy) proxy;
+
+		int minCellX = cellCoordinate(gridProxy.minX);
+		int minCellY = cellCoordinate(gridProxy.minY);
+		int maxCellX = cellCoordinate(gridProxy.maxX);
+		int maxCellY = cellCoordinate(gridProxy.maxY);
+
+		if (minCellX == gridProxy.minCellX && minCellY == gridProxy.minCellY
+				&& maxCellX == gridProxy.maxCellX && maxCellY == gridProxy.maxCellY)
+			return;
+
+		// moved to different cells
+		removeFromCells(gridProxy);
+		setCells(gridProxy, minCellX, minCellY, maxCellX, maxCellY);
+		addToCells(gridProxy);
+	}
+
+	@Override
+	protected void collectCandidates(Proxy proxy, ArrayList<Proxy> out) {
+		GridProxy gridProxy = (GridProxy) proxy;
+
+		if (gridProxy.oversized) {
+			out.addAll(getProxies());
+			return;
+		}
+
+		for (int x = gridProxy.minCellX; x <= gridProxy.maxCellX; x++) {
+			for (int y = gridProxy.minCellY; y <= gridProxy.maxCellY; y++) {
+				ArrayList<GridProxy> cell = cells.get(cellKey(x, y));
+				if (cell != null)
+					out.addAll(cell);
+			}
+		}
+
+		out.addAll(oversizedProxies);
+	}
+
+	@Override
+	protected void collectCandidates(float minX, float minY, float maxX, float maxY, ArrayList<Proxy> out) {
+		int minCellX = cellCoordinate(minX);
+		int minCellY = cellCoordinate(minY);
+		int maxCellX = cellCoordinate(maxX);
+		int maxCellY = cellCoordinate(maxY);
+
+		long cellCount = (long)(maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+		if (cellCount > MAX_PROXY_CELLS) {
+			out.addAll(getProxies());
+			return;
+		}
+
+		for (int x = minCellX; x <= maxCellX; x++) {
+			for (int y = minCellY; y <= maxCellY; y++) {
+				ArrayList<GridProxy> cell = cells.get(cellKey(x, y));
+				if (cell != null)
+					out.addAll(cell);
+			}
+		}
+
+		out.addAll(oversizedProxies);
+	}
+
+	private void computeCells(GridProxy proxy) {
+		setCells(proxy, cellCoordinate(proxy.minX), cellCoordinate(proxy.minY), cellCoordinate(proxy.maxX), cellCoordinate(proxy.maxY));
+	}
+
+	private static void setCells(GridProxy proxy, int minCellX, int minCellY, int maxCellX, int maxCellY) {
+		proxy.minCellX = minCellX;
+		proxy.minCellY = minCellY;
+		proxy.maxCellX = maxCellX;
+		proxy.maxCellY = maxCellY;
+
+		long cellCount = (long)(maxCellX - minCellX + 1) * (maxCellY - minCellY + 1);
+		proxy.oversized = cellCount > MAX_PROXY_CELLS;
+	}
+
+	private int cellCoordinate(float coordinate) {
+		return (int)Math.floor(coordinate * inverseCellSize);
+	}
+
+	private void addToCells(GridProxy proxy) {
+		if (proxy.oversized) {
+			oversizedProxies.add(proxy);
+			return;
+		}
+
+		for (int x = proxy.minCellX; x <= proxy.maxCellX; x++) {
+			for (int y = proxy.minCellY; y <= proxy.maxCellY; y++) {
+				cells.computeIfAbsent(cellKey(x, y), k -> new ArrayList<>()).add(proxy);
+			}
+		}
+	}
+
+	private void removeFromCells(GridProxy proxy) {
+		if (proxy.oversized) {
+			oversizedProxies.remove(proxy);
+			return;
+		}
+
+		for (int x = proxy.minCellX; x <= proxy.maxCellX; x++) {
+			for (int y = proxy.minCellY; y <= proxy.maxCellY; y++) {
+				long key = cellKey(x, y);
+				ArrayList<GridProxy> cell = cells.get(key);
+				if (cell != null) {
+					cell.remove(proxy);
+					if (cell.isEmpty())
+						cells.remove(key);
+				}
+			}
+		}
+	}
+
+	private static long cellKey(int x, int y) {
+		return ((long)x << 32) | (y & 0xFFFFFFFFL);
+	}
+}
@@ -13,16 +13,6 @@ import javax.json.JsonObject;
 
 public class GameHitbox implements GameSerializable {
 
-	private static class SATDistanceInfo {
-		public final Vector2D outsideNormal;
-		public final float distance;
-
-		public SATDistanceInfo(Vector2D outsideNormal, float distance) {
-			this.outsideNormal = outsideNormal;
-			this.distance = distance;
-		}
-	}
-
 	public static class CollisionInfo {
 		public final boolean doesCollide;
 		// this is the normal of the side of A into which B has collided
@@ -42,11 +32,40 @@ public class GameHitbox implements GameSerializable {
 		}
 	}
 
+	private static final CollisionInfo NO_COLLISION = new CollisionInfo();
+	private static final CollisionInfo CIRCLE_COLLISION = new CollisionInfo(true, null, null);
+	// returned from findMinimumOverlapSide when a separating axis exists
+	private static final int SIDE_SEPARATED = -2;
+
 	private Vector2D[] points;
 
 	private Float radius = null;
 	private float broadRadius;
 
+	// narrow phase cache of polygon hitboxes
+	// points rotated by cachedRotation
+	private float[] rotatedX;
+	private float[] rotatedY;
+	private float cachedRotation = Float.NaN;
+	// points rotated by cachedRotation and shifted by cached position
+	private float[] worldX;
+	private float[] worldY;
+	private float cachedPositionX = Float.NaN;
+	private float cachedPositionY = Float.NaN;
+	// normal of side (i - 1, i) of the world points, its magnitude and projection of the world points onto it
+	private float[] normalX;
+	private float[] normalY;
+	private float[] normalMagnitude;
+	private float[] sideProjectionMin;
+	private float[] sideProjectionMax;
+	// whether the side normals point out of the polygon, depends on winding of points
+	private boolean normalsOutward;
+
+	// scratch values of the narrow phase
+	private float projectionMin;
+	private float projectionMax;
+	private float minimumOverlap;
+
 	public GameHitbox(float radius) {
 		this(radius, new Vector2D(0, 0));
 	}
@@ -64,6 +83,11 @@ public class GameHitbox implements GameSerializable {
 			this.broadRadius = Math.max(this.broadRadius, point.getMagnitude());
 		}
 	}
+	private GameHitbox(GameHitbox copy) {
+		this.points = copy.points;
+		this.radius = copy.radius;
+		this.broadRadius = copy.broadRadius;
+	}
 	public GameHitbox(Rectangle rectangle) {
 		this(new Vector2D[] {
 				rectangle.getTopLeft(),
@@ -73,170 +97,519 @@ public class GameHitbox implements GameSerializable {
 		});
 	}
 
+	/**
+	 * @return Radius around the owner position that contains the whole hitbox. Used for broad collision checks.
+	 */
+	public float getBroadRadius() {
+		return broadRadius;
+	}
+
+	/**
+	 * Checks collision of this hitbox against other hitbox.
+	 *
+	 * World space points and side normals of polygon hitboxes are cached and only recomputed when position or rotation changes.
+	 * Because of that, the check is not thread safe for the same hitbox.
+	 *
+	 * @return Collision info. Instances without surface normals may be shared and must not be modified.
+	 */
 	public CollisionInfo checkCollision(Vector2D myPosition, Vector2D myVelocity, float myRotation, GameHitbox other, Vector2D otherPosition, Vector2D otherVelocity, float otherRotation) {
-		return checkBroad(myPosition, other, otherPosition) ? checkNarrow(myPosition, myRotation, other, otherPosition, otherRotation) : new CollisionInfo();
+		return checkBroad(myPosition, other, otherPosition) ? checkNarrow(myPosition, myRotation, other, otherPosition, otherRotation) : NO_COLLISION;
 	}
 	public float calculateCrossSection(Vector2D normal) {
-		float[] projection;
+		// axis is the normal of normal
+		float axisX = normal.getY();
+		float axisY = -normal.getX();
+		float axisMagnitude = (float)Math.sqrt(axisX * axisX + axisY * axisY);
+
 		if (this.radius != null) {
-			projection = calculateMinMaxProjectionCircle(radius, points[0], normal.getNormal());
+			projectCircle(radius, points[0].getX(), points[0].getY(), axisX, axisY, axisMagnitude);
 		} else {
-			projection = calculateMinMaxProjectionConvex(points, normal.getNormal());
+			if (points.length == 0)
+				return 0;
+
+			float min = 0;
+			float max = 0;
+			for (int i = 0; i < points.length; i++) {
+				float projection = (points[i].getX() * axisX + points[i].getY() * axisY) / axisMagnitude;
+				if (i == 0 || projection < min)
+					min = projection;
+				if (i == 0 || projection > max)
+					max = projection;
+			}
+			projectionMin = min;
+			projectionMax = max;
 		}
 
-		return (projection[1] - projection[0]) * Engine.PIXEL_TO_METER;
+		return (projectionMax - projectionMin) * Engine.PIXEL_TO_METER;
+	}
+
+	/**
+	 * Computes time of impact of this hitbox moving in a straight line from myStart to myEnd against other hitbox, which is not moving.
+	 * Rotations are considered constant during the movement.
+	 *
+	 * @return Fraction of the movement at which the hitboxes first touch, 0 if they already touch at myStart or -1 if they do not touch at all.
+	 */
+	public float sweepTimeOfImpact(Vector2D myStart, Vector2D myEnd, float myRotation, GameHitbox other, Vector2D otherPosition, float otherRotation) {
+		if (other == null)
+			return -1;
+
+		// the cache can only hold one transformation
+		if (other == this)
+			other = new GameHitbox(this);
+
+		float moveX = myEnd.getX() - myStart.getX();
+		float moveY = myEnd.getY() - myStart.getY();
+
+		if (this.radius != null) {
+			float centerX = myStart.getX() + this.points[0].getX();
+			float centerY = myStart.getY() + this.points[0].getY();
+
+			if (other.radius != null) {
+				float otherCenterX = otherPosition.getX() + other.points[0].getX();
+				float otherCenterY = otherPosition.getY() + other.points[0].getY();
+				return sweepPointCircle(centerX, centerY, moveX, moveY, otherCenterX, otherCenterY, this.radius + other.radius);
+			} else {
+				if (other.points.length < 2)
+					return -1;
+
+				other.updateWorldCache(otherPosition, otherRotation);
+				return other.sweepCircleConvex(centerX, centerY, moveX, moveY, this.radius);
+			}
+		} else {
+			if (this.points.length < 2)
+				return -1;
+
+			updateWorldCache(myStart, myRotation);
+			if (other.radius != null) {
+				// same as the circle moving the opposite way
+				float otherCenterX = otherPosition.getX() + other.points[0].getX();
+				float otherCenterY = otherPosition.getY() + other.points[0].getY();
+				return sweepCircleConvex(otherCenterX, otherCenterY, -moveX, -moveY, other.radius);
+			} else {
+				if (other.points.length < 2)
+					return -1;
+
+				other.updateWorldCache(otherPosition, otherRotation);
+				return sweepConvexConvex(other, moveX, moveY);
+			}
+		}
 	}
 
 	private boolean checkBroad(Vector2D myPosition, GameHitbox other, Vector2D otherPosition) {
 		if (other == null)
 			return false;
-		return Vector2D.distance(myPosition, otherPosition) <= this.broadRadius + other.broadRadius;
+
+		float distanceX = myPosition.getX() - otherPosition.getX();
+		float distanceY = myPosition.getY() - otherPosition.getY();
+		return (float)Math.sqrt(distanceX * distanceX + distanceY * distanceY) <= this.broadRadius + other.broadRadius;
 	}
 
 	private CollisionInfo checkNarrow(Vector2D myPosition, float myRotation, GameHitbox other, Vector2D otherPosition, float otherRotation) {
 		if (other == null)
-			return new CollisionInfo();
+			return NO_COLLISION;
+
+		// the cache can only hold one transformation
+		if (other == this)
+			other = new GameHitbox(this);
 
 		// collision checks done using SAT algorithm
 		// more info: https://www.sevenson.com.au/actionscript/sat/
 		if (this.radius != null) {
+			float centerX = myPosition.getX() + this.points[0].getX();
+			float centerY = myPosition.getY() + this.points[0].getY();
+
 			if (other.radius != null) {
 				// distance from center to center less than or equal to sum of radii
-				float distance = Vector2D.add(myPosition, points[0]).distance(Vector2D.add(otherPosition, other.points[0]));
-				return new CollisionInfo(distance <= this.radius + other.radius, null, null);
+				float distanceX = centerX - (otherPosition.getX() + other.points[0].getX());
+				float distanceY = centerY - (otherPosition.getY() + other.points[0].getY());
+				float distance = (float)Math.sqrt(distanceX * distanceX + distanceY * distanceY);
+				return distance <= this.radius + other.radius ? CIRCLE_COLLISION : NO_COLLISION;
 			} else {
-				return checkConvexCircle(other.points, otherPosition, otherRotation, this.radius, Vector2D.add(myPosition, this.points[0]));
+				return other.checkConvexCircle(otherPosition, otherRotation, this.radius, centerX, centerY, false);
 			}
 		} else {
 			if (other.radius != null) {
-				CollisionInfo ci =  checkConvexCircle(this.points, myPosition, myRotation, other.radius, Vector2D.add(otherPosition, other.points[0]));
-				// we need to switch ci.ASurfaceNormal and ci.BSurfaceNormal
-				return new CollisionInfo(ci.doesCollide, ci.BSurfaceNormal, ci.ASurfaceNormal);
+				float centerX = otherPosition.getX() + other.points[0].getX();
+				float centerY = otherPosition.getY() + other.points[0].getY();
+
+				// polygon is A here, so surface normals have to be switched
+				return checkConvexCircle(myPosition, myRotation, other.radius, centerX, centerY, true);
 			} else {
-				return checkConvexConvex(this.points, myPosition, myRotation, other.points, otherPosition, otherRotation);
+				return checkConvexConvex(myPosition, myRotation, other, otherPosition, otherRotation);
 			}
 		}
 	}
 
-	private static CollisionInfo checkConvexConvex(Vector2D[] a, Vector2D aShift, float aRotation, Vector2D[] b, Vector2D bShift, float bRotation) {
-		if (a.length < 2 || b.length < 2)
-			return new CollisionInfo();
+	private CollisionInfo checkConvexConvex(Vector2D myPosition, float myRotation, GameHitbox other, Vector2D otherPosition, float otherRotation) {
+		if (this.points.length < 2 || other.points.length < 2)
+			return NO_COLLISION;
 
-		// first shift all vectors
-		Vector2D[] aShifted = Vector2D.add(Vector2D.rotatedBy(a, aRotation), aShift);
-		Vector2D[] bShifted = Vector2D.add(Vector2D.rotatedBy(b, bRotation), bShift);
+		updateWorldCache(myPosition, myRotation);
+		other.updateWorldCache(otherPosition, otherRotation);
 
-		// normal of the side of A that B is colliding into
-		SATDistanceInfo minimumAtoB = checkSAT(aShifted, bShifted, 0);
+		// side of A that B is colliding into
+		int minimumAtoB = this.findMinimumOverlapSide(other.worldX, other.worldY, 0, 0, 0);
 		// the other way around
-		SATDistanceInfo minimumBtoA = checkSAT(bShifted, aShifted, 0);
+		int minimumBtoA = other.findMinimumOverlapSide(this.worldX, this.worldY, 0, 0, 0);
+
+		boolean doesCollide = minimumAtoB != SIDE_SEPARATED && minimumBtoA != SIDE_SEPARATED;
+		if (!doesCollide && minimumAtoB < 0 && minimumBtoA < 0)
+			return NO_COLLISION;
 
-		boolean doesCollide = minimumAtoB != null && minimumBtoA != null;
-		return new CollisionInfo(doesCollide, minimumBtoA != null ? minimumBtoA.outsideNormal : null, minimumAtoB != null ? minimumAtoB.outsideNormal : null);
+		return new CollisionInfo(doesCollide, other.getOutsideNormal(minimumBtoA), this.getOutsideNormal(minimumAtoB));
 	}
-	private static CollisionInfo checkConvexCircle(Vector2D[] a, Vector2D aShift, float aRotation, float circleRadius, Vector2D circleCenter) {
-		if (a.length < 2)
-			return new CollisionInfo();
+	private CollisionInfo checkConvexCircle(Vector2D myPosition, float myRotation, float circleRadius, float circleX, float circleY, boolean circleIsB) {
+		if (this.points.length < 2)
+			return NO_COLLISION;
 
-		Vector2D[] aShifted = Vector2D.add(Vector2D.rotatedBy(a, aRotation), aShift);
+		updateWorldCache(myPosition, myRotation);
 
 		// check circle against all polygon sides
-		SATDistanceInfo minimumBtoA = checkSAT(aShifted, new Vector2D[] { circleCenter }, circleRadius);
+		int minimumBtoA = findMinimumOverlapSide(null, null, circleX, circleY, circleRadius);
 
 		// now check polygon against circle
-		Vector2D closesPoint = null;
-		for (Vector2D v : aShifted) {
-			if (closesPoint == null || circleCenter.distance(v) < circleCenter.distance(closesPoint)) {
-				closesPoint = v;
+		int closestPoint = 0;
+		float closestDistance = 0;
+		for (int i = 0; i < worldX.length; i++) {
+			float distanceX = circleX - worldX[i];
+			float distanceY = circleY - worldY[i];
+			float distance = (float)Math.sqrt(distanceX * distanceX + distanceY * distanceY);
+			if (i == 0 || distance < closestDistance) {
+				closestPoint = i;
+				closestDistance = distance;
 			}
 		}
 
 		// circle center to closes point axis
-		Vector2D normalAxis = Vector2D.subtract(closesPoint, circleCenter);
+		float axisX = worldX[closestPoint] - circleX;
+		float axisY = worldY[closestPoint] - circleY;
+		float axisMagnitude = (float)Math.sqrt(axisX * axisX + axisY * axisY);
+
+		projectConvex(worldX, worldY, axisX, axisY, axisMagnitude);
+		float polygonMin = projectionMin;
+		float polygonMax = projectionMax;
+		projectCircle(circleRadius, circleX, circleY, axisX, axisY, axisMagnitude);
 
-		float[] projectionA = calculateMinMaxProjectionConvex(aShifted, normalAxis);
-		float[] projectionCircle = calculateMinMaxProjectionCircle(circleRadius, circleCenter, normalAxis);
+		boolean projectionsDontIntersect = polygonMax < projectionMin || projectionMax < polygonMin;
+		boolean doesCollide = !projectionsDontIntersect && minimumBtoA != SIDE_SEPARATED;
+		Vector2D outsideNormal = getOutsideNormal(minimumBtoA);
 
-		boolean doesCollide = !projectionsDontIntersect(projectionA, projectionCircle) && minimumBtoA != null;
-		return new CollisionInfo(doesCollide, null, minimumBtoA != null ? minimumBtoA.outsideNormal : null);
+		if (!doesCollide && outsideNormal == null)
+			return NO_COLLISION;
+
+		return circleIsB ? new CollisionInfo(doesCollide, outsideNormal, null) : new CollisionInfo(doesCollide, null, outsideNormal);
 	}
-	private static SATDistanceInfo checkSAT(Vector2D[] shapeA, Vector2D[] shapeB, float shapeBRadiusIfCircle) {
-		Vector2D minimumNormal = null;
-		float minProjectionOverlap = Float.NEGATIVE_INFINITY;
 
-		// check all projection on normal axes of sides of shapeA against projections of shapeB
-		for (int i = 0; i < shapeA.length; i++) {
-			// take a side
+	/**
+	 * Swept separating axis test of world points of this moving by (moveX, moveY) against world points of other.
+	 * Exact for convex polygons that do not rotate.
+	 */
+	private float sweepConvexConvex(GameHitbox other, float moveX, float moveY) {
+		float enter = Float.NEGATIVE_INFINITY;
+		float exit = Float.POSITIVE_INFINITY;
+
+		for (int i = 0; i < worldX.length + other.worldX.length; i++) {
+			float axisX, axisY, axisMagnitude;
+			float minA, maxA;
+			if (i < worldX.length) {
+				axisX = normalX[i];
+				axisY = normalY[i];
+				axisMagnitude = normalMagnitude[i];
+				minA = sideProjectionMin[i];
+				maxA = sideProjectionMax[i];
+			} else {
+				int j = i - worldX.length;
+				axisX = other.normalX[j];
+				axisY = other.normalY[j];
+				axisMagnitude = other.normalMagnitude[j];
+				projectConvex(worldX, worldY, axisX, axisY, axisMagnitude);
+				minA = projectionMin;
+				maxA = projectionMax;
+			}
+
+			if (axisMagnitude == 0)
+				continue;
+
+			projectConvex(other.worldX, other.worldY, axisX, axisY, axisMagnitude);
+			float minB = projectionMin;
+			float maxB = projectionMax;
+
+			// speed of A along the axis
+			float speed = (moveX * axisX + moveY * axisY) / axisMagnitude;
+			if (speed == 0) {
+				if (maxA < minB || maxB < minA)
+					return -1;
+				continue;
+			}
+
+			float axisEnter = speed > 0 ? (minB - maxA) / speed : (maxB - minA) / speed;
+			float axisExit = speed > 0 ? (maxB - minA) / speed : (minB - maxA) / speed;
+
+			enter = Math.max(enter, axisEnter);
+			exit = Math.min(exit, axisExit);
+			if (enter > exit)
+				return -1;
+		}
+
+		if (exit < 0 || enter > 1)
+			return -1;
+
+		return Math.max(enter, 0);
+	}
+
+	/**
+	 * Sweeps circle against world points of this. The polygon grown by radius is intersected with the ray of the circle center.
+	 */
+	private float sweepCircleConvex(float centerX, float centerY, float moveX, float moveY, float circleRadius) {
+		int count = worldX.length;
+
+		// already touching
+		boolean inside = true;
+		float minimumDistance = Float.POSITIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
 			int previousIndex = i - 1;
 			if (previousIndex < 0)
-				previousIndex += shapeA.length;
-			Vector2D sideA = shapeA[previousIndex];
-			Vector2D sideB = shapeA[i];
+				previousIndex += count;
 
-			// normal axis for this side
-			Vector2D normalAxis = Vector2D.subtract(sideA, sideB).getNormal();
+			minimumDistance = Math.min(minimumDistance, distanceToSide(centerX, centerY, previousIndex, i));
+			if (normalMagnitude[i] != 0 && (centerX - worldX[i]) * normalX[i] + (centerY - worldY[i]) * normalY[i] > 0 == normalsOutward)
+				inside = false;
+		}
+		if (inside || minimumDistance <= circleRadius)
+			return 0;
+
+		float impact = -1;
+		for (int i = 0; i < count; i++) {
+			int previousIndex = i - 1;
+			if (previousIndex < 0)
+				previousIndex += count;
+
+			// rounded corner
+			float cornerImpact = sweepPointCircle(centerX, centerY, moveX, moveY, worldX[i], worldY[i], circleRadius);
+			if (cornerImpact >= 0 && (impact < 0 || cornerImpact < impact))
+				impact = cornerImpact;
+
+			if (normalMagnitude[i] == 0)
+				continue;
+
+			// side pushed out by radius
+			float outward = normalsOutward ? 1f / normalMagnitude[i] : -1f / normalMagnitude[i];
+			float unitNormalX = normalX[i] * outward;
+			float unitNormalY = normalY[i] * outward;
+
+			float approachSpeed = moveX * unitNormalX + moveY * unitNormalY;
+			if (approachSpeed >= 0)
+				continue;
+
+			float sideDistance = (centerX - worldX[i]) * unitNormalX + (centerY - worldY[i]) * unitNormalY - circleRadius;
+			float sideImpact = -sideDistance / approachSpeed;
+			if (sideImpact < 0 || sideImpact > 1)
+				continue;
+
+			// the hit point has to lie within the side
+			float hitX = centerX + moveX * sideImpact - worldX[i];
+			float hitY = centerY + moveY * sideImpact - worldY[i];
+			float sideX = worldX[previousIndex] - worldX[i];
+			float sideY = worldY[previousIndex] - worldY[i];
+			float along = hitX * sideX + hitY * sideY;
+			if (along >= 0 && along <= sideX * sideX + sideY * sideY && (impact < 0 || sideImpact < impact))
+				impact = sideImpact;
+		}
 
-			// projection of a onto the normal axis
-			float[] projectionA = calculateMinMaxProjectionConvex(shapeA, normalAxis);
+		return impact;
+	}
 
-			float[] projectionB;
-			if (shapeBRadiusIfCircle > 0) {
-				projectionB = calculateMinMaxProjectionCircle(shapeBRadiusIfCircle, shapeB[0], normalAxis);
+	private float distanceToSide(float pointX, float pointY, int from, int to) {
+		float sideX = worldX[to] - worldX[from];
+		float sideY = worldY[to] - worldY[from];
+		float lengthSquared = sideX * sideX + sideY * sideY;
+
+		float t = 0;
+		if (lengthSquared > 0)
+			t = Math.max(0, Math.min(1, ((pointX - worldX[from]) * sideX + (pointY - worldY[from]) * sideY) / lengthSquared));
+
+		float distanceX = pointX - (worldX[from] + sideX * t);
+		float distanceY = pointY - (worldY[from] + sideY * t);
+		return (float)Math.sqrt(distanceX * distanceX + distanceY * distanceY);
+	}
+
+	/**
+	 * @return Time of impact of point moving by (moveX, moveY) against circle, 0 if it starts inside or -1 if it misses.
+	 */
+	private static float sweepPointCircle(float pointX, float pointY, float moveX, float moveY, float circleX, float circleY, float circleRadius) {
+		float offsetX = pointX - circleX;
+		float offsetY = pointY - circleY;
+
+		float c = offsetX * offsetX + offsetY * offsetY - circleRadius * circleRadius;
+		if (c <= 0)
+			return 0;
+
+		float a = moveX * moveX + moveY * moveY;
+		float b = 2 * (offsetX * moveX + offsetY * moveY);
+		if (a == 0 || b >= 0)
+			return -1;
+
+		float discriminant = b * b - 4 * a * c;
+		if (discriminant < 0)
+			return -1;
+
+		float impact = (float)((-b - Math.sqrt(discriminant)) / (2 * a));
+		return impact <= 1 ? impact : -1;
+	}
+
+	/**
+	 * Checks all projections on normal axes of sides of this hitbox against projections of shape. The overlap of the returned side is stored in minimumOverlap.
+	 *
+	 * @param shapeX World x coordinates of the other shape or null if the other shape is a circle.
+	 * @param shapeY World y coordinates of the other shape or null if the other shape is a circle.
+	 * @param circleX Center of the other shape if it is a circle.
+	 * @param circleY Center of the other shape if it is a circle.
+	 * @param shapeRadiusIfCircle Radius if the other shape is a circle. Circles with non-positive radius are treated as a point.
+	 * @return Index of the side with the smallest overlap, -1 if there is no such side or SIDE_SEPARATED if some side separates the shapes.
+	 */
+	private int findMinimumOverlapSide(float[] shapeX, float[] shapeY, float circleX, float circleY, float shapeRadiusIfCircle) {
+		int minimumSide = -1;
+		float minProjectionOverlap = Float.NEGATIVE_INFINITY;
+
+		for (int i = 0; i < worldX.length; i++) {
+			if (shapeX != null) {
+				projectConvex(shapeX, shapeY, normalX[i], normalY[i], normalMagnitude[i]);
+			} else if (shapeRadiusIfCircle > 0) {
+				projectCircle(shapeRadiusIfCircle, circleX, circleY, normalX[i], normalY[i], normalMagnitude[i]);
 			} else {
-				projectionB = calculateMinMaxProjectionConvex(shapeB, normalAxis);
+				projectionMin = (circleX * normalX[i] + circleY * normalY[i]) / normalMagnitude[i];
+				projectionMax = projectionMin;
 			}
 
-			float projectionOverlap = projectionOverlap(projectionA, projectionB);
+			float projectionOverlap = projectionOverlap(sideProjectionMin[i], sideProjectionMax[i], projectionMin, projectionMax);
 			if (projectionOverlap == 0) {
-				return null;
+				return SIDE_SEPARATED;
 			} else if (Math.abs(projectionOverlap) < Math.abs(minProjectionOverlap)) {
 				minProjectionOverlap = projectionOverlap;
-				minimumNormal = normalAxis.setMagnitude(projectionOverlap);
+				minimumSide = i;
 			}
 		}
 
-		return new SATDistanceInfo(minimumNormal, minProjectionOverlap);
+		minimumOverlap = minProjectionOverlap;
+		return minimumSide;
 	}
 
-	private static float[] calculateMinMaxProjectionConvex(Vector2D[] points, Vector2D axis) {
-		// projection of a onto the normal axis
-		Float projectionAMin = null;
-		Float projectionAMax = null;
-		for (Vector2D point : points) {
-			float projection = point.dot(axis) / axis.getMagnitude();
-			if (projectionAMin == null || projection < projectionAMin)
-				projectionAMin = projection;
-			if (projectionAMax == null || projection > projectionAMax)
-				projectionAMax = projection;
+	/**
+	 * @param side Side index returned from findMinimumOverlapSide.
+	 * @return New normal of side with magnitude of the minimum overlap or null if there is no such side.
+	 */
+	private Vector2D getOutsideNormal(int side) {
+		if (side < 0)
+			return null;
+
+		return new Vector2D(normalX[side], normalY[side]).setMagnitude(minimumOverlap);
+	}
+
+	/**
+	 * Recomputes world points and side normals if position or rotation has changed since the last call.
+	 */
+	private void updateWorldCache(Vector2D position, float rotation) {
+		boolean rotationChanged = worldX == null;
+		if (worldX == null) {
+			rotatedX = new float[points.length];
+			rotatedY = new float[points.length];
+			worldX = new float[points.length];
+			worldY = new float[points.length];
+			normalX = new float[points.length];
+			normalY = new float[points.length];
+			normalMagnitude = new float[points.length];
+			sideProjectionMin = new float[points.length];
+			sideProjectionMax = new float[points.length];
+
+			// normal of side (a, b) is (ay - by, bx - ax), which points out for clockwise points, that is negative area
+			float doubleArea = 0;
+			for (int i = 0; i < points.length; i++) {
+				Vector2D a = points[i > 0 ? i - 1 : points.length - 1];
+				Vector2D b = points[i];
+				doubleArea += a.getX() * b.getY() - b.getX() * a.getY();
+			}
+			normalsOutward = doubleArea < 0;
 		}
 
-		if (projectionAMin != null) {
-			return new float[] { projectionAMin, projectionAMax };
+		// compared bitwise, so that the cache never returns anything else than a fresh computation would
+		rotationChanged |= Float.compare(rotation, cachedRotation) != 0;
+		if (rotationChanged) {
+			// same as Vector2D.rotateBy
+			for (int i = 0; i < points.length; i++) {
+				float angle = points[i].getAngle() + rotation;
+				float magnitude = points[i].getMagnitude();
+				rotatedX[i] = (float)(Math.cos(angle) * magnitude);
+				rotatedY[i] = (float)(Math.sin(angle) * magnitude);
+			}
+			cachedRotation = rotation;
 		}
 
-		return null;
+		if (!rotationChanged && Float.compare(position.getX(), cachedPositionX) == 0 && Float.compare(position.getY(), cachedPositionY) == 0)
+			return;
+
+		cachedPositionX = position.getX();
+		cachedPositionY = position.getY();
+		for (int i = 0; i < points.length; i++) {
+			worldX[i] = rotatedX[i] + cachedPositionX;
+			worldY[i] = rotatedY[i] + cachedPositionY;
+		}
+
+		for (int i = 0; i < points.length; i++) {
+			// take a side
+			int previousIndex = i - 1;
+			if (previousIndex < 0)
+				previousIndex += points.length;
+
+			// normal axis for this side
+			float sideX = worldX[previousIndex] - worldX[i];
+			float sideY = worldY[previousIndex] - worldY[i];
+			normalX[i] = sideY;
+			normalY[i] = -sideX;
+			normalMagnitude[i] = (float)Math.sqrt(normalX[i] * normalX[i] + normalY[i] * normalY[i]);
+
+			// projection of this onto the normal axis
+			projectConvex(worldX, worldY, normalX[i], normalY[i], normalMagnitude[i]);
+			sideProjectionMin[i] = projectionMin;
+			sideProjectionMax[i] = projectionMax;
+		}
+	}
+
+	/**
+	 * Stores the projection into projectionMin and projectionMax.
+	 */
+	private void projectConvex(float[] x, float[] y, float axisX, float axisY, float axisMagnitude) {
+		float min = (x[0] * axisX + y[0] * axisY) / axisMagnitude;
+		float max = min;
+		for (int i = 1; i < x.length; i++) {
+			float projection = (x[i] * axisX + y[i] * axisY) / axisMagnitude;
+			if (projection < min)
+				min = projection;
+			if (projection > max)
+				max = projection;
+		}
+
+		projectionMin = min;
+		projectionMax = max;
 	}
-	private static float[] calculateMinMaxProjectionCircle(float radius, Vector2D center, Vector2D axis) {
+	/**
+	 * Stores the projection into projectionMin and projectionMax.
+	 */
+	private void projectCircle(float radius, float centerX, float centerY, float axisX, float axisY, float axisMagnitude) {
 		// circle projection is calculated by projection the center point of the circle onto the axis and then
 		// adding and subtracting radius to obtain the edge points
-		float projection = center.dot(axis) / axis.getMagnitude();
-		return new float[] {
-				Math.min(projection - radius, projection + radius),
-				Math.max(projection + radius, projection - radius)
-		};
+		float projection = (centerX * axisX + centerY * axisY) / axisMagnitude;
+		projectionMin = Math.min(projection - radius, projection + radius);
+		projectionMax = Math.max(projection + radius, projection - radius);
 	}
 
-	private static boolean projectionsDontIntersect(float[] projA, float[] projB) {
-		return (projA[1] < projB[0] || projB[1] < projA[0]);
-	}
-	private static float projectionOverlap(float[] projA, float[] projB) {
+	private static float projectionOverlap(float minA, float maxA, float minB, float maxB) {
 		// --A---A---B---B-- returns zero
 		// --A---B-A-----B-- returns negative distance
 		// --B-----A-B---A-- returns positive distance
 		// --B---B---A---A-- returns zero
 
-		float distBminAmax = projB[0] - projA[1];
-		float distAminBmax = projA[0] - projB[1];
+		float distBminAmax = minB - maxA;
+		float distAminBmax = minA - maxB;
 
 		if (distBminAmax > 0 || distAminBmax > 0)
 			return 0;
@@ -5,6 +5,7 @@ import com.edwardium.RPGEngine.Control.SceneController.PlaySceneController;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameCharacter.GameCharacter;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameItem;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.IGameUsableItem;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
 import com.edwardium.RPGEngine.IO.JsonBuilder;
 import com.edwardium.RPGEngine.Renderer.Color;
 import com.edwardium.RPGEngine.Renderer.Renderer;
@@ -21,6 +22,9 @@ public class GameInventory implements GameSerializable {
 
 	private int activeIndex = 0;
 
+	// woken up when the inventory changes
+	private GameObject owner = null;
+
 	public GameInventory(int size) {
 		items = new GameItem[size];
 	}
@@ -55,6 +59,27 @@ public class GameInventory implements GameSerializable {
 		}
 	}
 
+	public void setOwner(GameObject owner) {
+		this.owner = owner;
+	}
+
+	private void onChange() {
+		if (owner != null)
+			owner.wakeUp();
+	}
+
+	/**
+	 * @return Whether all items can be put to sleep.
+	 */
+	public boolean canSleep() {
+		for (GameItem item : items) {
+			if (item != null && !item.canSleep())
+				return false;
+		}
+
+		return true;
+	}
+
 	public GameItem getActiveItem() {
 		return items.length > 0 ? items[activeIndex] : null;
 	}
@@ -69,6 +94,8 @@ public class GameInventory implements GameSerializable {
 		this.activeIndex = index % items.length;
 		while (this.activeIndex < 0)
 			this.activeIndex += items.length;
+
+		onChange();
 	}
 	public void shiftActiveIndex(int shift) {
 		setActiveIndex(this.activeIndex + shift);
@@ -124,6 +151,7 @@ public class GameInventory implements GameSerializable {
 			item.isDrawn = false;
 			item.doesCollide = false;
 
+			onChange();
 			return true;
 		} else {
 			return false;
@@ -159,6 +187,7 @@ public class GameInventory implements GameSerializable {
 		item.isDrawn = false;
 		item.doesCollide = false;
 
+		onChange();
 		return lastItem;
 	}
 	public GameItem removeActiveItem() {
@@ -169,6 +198,7 @@ public class GameInventory implements GameSerializable {
 		items[activeIndex] = null;
 		item.isDrawn = true;
 		item.doesCollide = true;
+		onChange();
 
 		PlaySceneController gsc = Engine.gameEngine.getCurrentPlayController();
 		if (gsc != null)
@@ -1,5 +1,6 @@
 package com.edwardium.RPGEngine.GameEntity.GameObject.GameCharacter;
 
+import com.edwardium.RPGEngine.Control.SceneController.GameSceneController;
 import com.edwardium.RPGEngine.Control.SceneController.PlaySceneController;
 import com.edwardium.RPGEngine.GameEntity.GameAI.GameAI;
 import com.edwardium.RPGEngine.GameEntity.GameAI.PlayerAI;
@@ -9,8 +10,10 @@ import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.IGameUsableItem;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
 import com.edwardium.RPGEngine.Renderer.Color;
 import com.edwardium.RPGEngine.Renderer.Renderer;
+import com.edwardium.RPGEngine.Renderer.TextMesh;
 import com.edwardium.RPGEngine.Renderer.TextureInfo;
 import com.edwardium.RPGEngine.Utility.Vector2D;
+import com.edwardium.RPGEngine.Utility.VectorPool;
 
 import javax.json.JsonObject;
 
@@ -107,6 +110,8 @@ public class GameCharacter extends GameObject {
 
 	public float maxWalkSpeed = 350f;
 	private Vector2D walkVector = new Vector2D(0, 0);
+	// whether the last updateWalk walked anywhere, walkVector is already cleared when sleep is checked
+	private boolean walking = false;
 
 	public GameInventory inventory;
 	public GameAI ai;
@@ -117,6 +122,11 @@ public class GameCharacter extends GameObject {
 
 	public float pickupRange = 50f;
 
+	// health line, updated in place when rendering
+	private TextMesh healthText = null;
+	// how far name and HP reach past the body
+	private static final float R_LABEL_MARGIN = 200f;
+
 	public GameCharacter() {
 		this(new Vector2D(0, 0));
 	}
@@ -128,6 +138,7 @@ public class GameCharacter extends GameObject {
 
 		this.name = name;
 		this.inventory = new GameInventory(inventorySize);
+		this.inventory.setOwner(this);
 		this.ai = new PlayerAI(this);
 	}
 	public GameCharacter(JsonObject sourceObj) {
@@ -140,6 +151,7 @@ public class GameCharacter extends GameObject {
 
 		walkVector = Vector2D.fromJSON(sourceObj.getJsonObject("walkVector"));
 		inventory = new GameInventory(sourceObj.getJsonObject("inventory"));
+		inventory.setOwner(this);
 		ai = GameAI.fromJSON(sourceObj.getJsonObject("ai"), this);
 
 		try {
@@ -185,39 +197,46 @@ public class GameCharacter extends GameObject {
 	}
 
 	public void walkTo(Vector2D target) {
-		this.walkVector = Vector2D.subtract(target, this.position).limit(maxWalkSpeed);
+		Vector2D.subtract(target, this.position, this.walkVector).limit(maxWalkSpeed);
+		if (this.walkVector.getMagnitude() != 0)
+			wakeUp();
 	}
 
 	public void walkTowards(Vector2D direction) {
-		this.walkVector = new Vector2D(direction).setMagnitude(maxWalkSpeed);
+		this.walkVector.set(direction).setMagnitude(maxWalkSpeed);
+		if (this.walkVector.getMagnitude() != 0)
+			wakeUp();
 	}
 
 	public void updateWalk() {
 		// if we aren't walking anywhere, we might want to, like, you know, stop.
 		// ...if we can.
+		walking = this.walkVector.getMagnitude() != 0;
 		if (this.walkVector.getMagnitude() == 0 || (!ai.canWalk() && ai.canWalkStop())) {
-			this.walkVector = new Vector2D(this.velocity).inverse().limit(maxWalkSpeed);
+			Vector2D.inverse(this.velocity, this.walkVector).limit(maxWalkSpeed);
 
 			if (ai.canWalkStop())
 				this.applyForce(this.walkVector);
 		} else if (ai.canWalk()) {
 			// when walking, we want to first cancel out all the velocity we have that is *not* in the right direction
 			// before adding force in that direction
-			float remainingWalkSpeed = this.maxWalkSpeed;
-			Vector2D walkVectorRejection = this.velocity.rejection(this.walkVector);
+			try (VectorPool pool = VectorPool.open()) {
+				float remainingWalkSpeed = this.maxWalkSpeed;
+				Vector2D walkVectorRejection = Vector2D.rejection(this.velocity, this.walkVector, pool.take());
 
-			walkVectorRejection.limit(remainingWalkSpeed).inverse();
-			remainingWalkSpeed -= walkVectorRejection.getMagnitude();
+				walkVectorRejection.limit(remainingWalkSpeed).inverse();
+				remainingWalkSpeed -= walkVectorRejection.getMagnitude();
 
-			this.applyForce(walkVectorRejection);
+				this.applyForce(walkVectorRejection);
 
-			// also we can't walk faster than maxWalkSpeed globally
-			float currentSpeedInWalkDirection = this.velocity.projection(this.walkVector).getMagnitude();
-			float maxAllowedWalkSpeed = Math.max(0, remainingWalkSpeed - currentSpeedInWalkDirection);
+				// also we can't walk faster than maxWalkSpeed globally
+				float currentSpeedInWalkDirection = Vector2D.projection(this.velocity, this.walkVector, pool.take()).getMagnitude();
+				float maxAllowedWalkSpeed = Math.max(0, remainingWalkSpeed - currentSpeedInWalkDirection);
 
-			this.walkVector.limit(maxAllowedWalkSpeed);
+				this.walkVector.limit(maxAllowedWalkSpeed);
 
-			this.applyForce(this.walkVector);
+				this.applyForce(this.walkVector);
+			}
 		}
 		this.walkVector.set(0, 0);
 	}
@@ -228,7 +247,11 @@ public class GameCharacter extends GameObject {
 
 		GameItem activeItem = inventory.getActiveItem();
 		if (activeItem != null && activeItem instanceof IGameUsableItem) {
-			return ((IGameUsableItem)activeItem).use(this, to, at);
+			if (((IGameUsableItem)activeItem).use(this, to, at)) {
+				// the item needs updates now
+				wakeUp();
+				return true;
+			}
 		}
 
 		return false;
@@ -248,6 +271,17 @@ public class GameCharacter extends GameObject {
 		return true;
 	}
 
+	@Override
+	public boolean canUpdateConcurrently() {
+		// AI looks at other objects and items can spawn projectiles
+		return false;
+	}
+
+	@Override
+	public boolean canSleep() {
+		return !walking && ai.canSleep() && inventory.canSleep();
+	}
+
 	@Override
 	public void updateLights(PlaySceneController gsc) {
 		this.inventory.onUpdate(this, 0f, 0f, true, gsc);
@@ -263,34 +297,48 @@ public class GameCharacter extends GameObject {
 	}
 
 	@Override
-	public void render(Renderer gameRenderer) {
+	public void render(Renderer gameRenderer, Vector2D position) {
 		if (isDrawn) {
 			// shadow
 			//gameRenderer.drawCircle(new Renderer.RenderInfo(this.position, 25f, null, new Color(0f, 0f, 0f, 0.3f), true));
 
 			// body
-			gameRenderer.drawRectangle(new Renderer.RenderInfo(this.position, new Vector2D(15, 25), this.getFacingDirection().getAngle(), Color.YELLOW, true));
+			gameRenderer.drawRectangle(new Renderer.RenderInfo(position, new Vector2D(15, 25), this.getFacingDirection().getAngle(), Color.YELLOW, true));
 
 			// facing direction
-			gameRenderer.drawLine( Vector2D.add(this.position, this.getFacingDirection().setMagnitude(30)), new Renderer.RenderInfo(this.position, 2f, null, Color.RED, true));
+			gameRenderer.drawLine( Vector2D.add(position, this.getFacingDirection().setMagnitude(30)), new Renderer.RenderInfo(position, 2f, null, Color.RED, true));
 
 			// draw held item
 			GameItem activeItem = this.inventory.getActiveItem();
 			if (activeItem != null) {
 				TextureInfo activeItemTexture = activeItem.getHeldTexture();
 				if (activeItemTexture != null) {
-					gameRenderer.drawRectangle(new Renderer.RenderInfo(Vector2D.add(this.position, this.getFacingDirection().setMagnitude(30)), activeItem.getHeldSize(), this.rotation, activeItemTexture, true));
+					gameRenderer.drawRectangle(new Renderer.RenderInfo(Vector2D.add(position, this.getFacingDirection().setMagnitude(30)), activeItem.getHeldSize(), this.rotation, activeItemTexture, true));
 				}
 			}
 
-			// name and HP
-			gameRenderer.drawString(gameRenderer.basicFont, this.name, new Renderer.RenderInfo(new Vector2D(30, -30).add(this.position), 1f, 0f, Color.GREEN, false));
+			// name and HP, over all objects so that text of all characters can be drawn together
+			int layer = gameRenderer.getLayer();
+			boolean layerOrdered = gameRenderer.isLayerOrdered();
+			gameRenderer.setLayer(GameSceneController.LAYER_LABELS, false);
+
+			gameRenderer.drawString(gameRenderer.basicFont, this.name, new Renderer.RenderInfo(new Vector2D(30, -30).add(position), 1f, 0f, Color.GREEN, false));
 
-			String healthString = Math.round(health) + " / " + Math.round(maxHeath);
-			gameRenderer.drawString(gameRenderer.basicFont, healthString, new Renderer.RenderInfo(new Vector2D(50, -10).add(this.position), 1f, 0f, Color.GREEN, false));
+			if (healthText == null || healthText.getFont() != gameRenderer.basicFont)
+				healthText = new TextMesh(gameRenderer.basicFont);
+			healthText.clear().append(Math.round(health)).append(" / ").append(Math.round(maxHeath));
+			gameRenderer.drawText(healthText, new Renderer.RenderInfo(new Vector2D(50, -10).add(position), 1f, 0f, Color.GREEN, false), Renderer.StringAlignment.BOTTOMLEFT);
+
+			gameRenderer.setLayer(layer, layerOrdered);
 		}
 
-		super.render(gameRenderer);
+		super.render(gameRenderer, position);
+	}
+
+	@Override
+	public float getRenderMargin() {
+		// name and HP are drawn next to the body
+		return R_LABEL_MARGIN;
 	}
 
 	@Override
@@ -8,6 +8,7 @@ import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
 import com.edwardium.RPGEngine.IO.JsonBuilder;
 import com.edwardium.RPGEngine.Renderer.Animation.TextureAnimation;
 import com.edwardium.RPGEngine.Utility.Vector2D;
+import com.edwardium.RPGEngine.Utility.VectorPool;
 
 import javax.json.JsonObject;
 
@@ -48,7 +49,10 @@ public abstract class GameItemGun extends GameItem implements IGameUsableItem {
 		boolean returnBool = true;
 
 		if (to != null) {
-			float diffAngle = by.getFacingDirection().angleBetween(Vector2D.subtract(to, by.position));
+			float diffAngle;
+			try (VectorPool pool = VectorPool.open()) {
+				diffAngle = by.getFacingDirection(pool.take()).angleBetween(Vector2D.subtract(to, by.position, pool.take()));
+			}
 			returnBool = returnBool && diffAngle <= 0.01f;
 		}
 		return returnBool && this.cooldown == 0;
@@ -82,6 +86,17 @@ public abstract class GameItemGun extends GameItem implements IGameUsableItem {
 		return maxChargeup;
 	}
 
+	@Override
+	public boolean canUpdateConcurrently() {
+		// charging depends on the state of the user and firing spawns projectiles
+		return false;
+	}
+
+	@Override
+	public boolean canSleep() {
+		return cooldown == 0 && (fireAnimation == null || !fireAnimation.isRunning()) && super.canSleep();
+	}
+
 	@Override
 	public void updatePhysics(float elapsedTime, float environmentDensity) {
 		if (this.fireAnimation != null)
@@ -83,12 +83,12 @@ public class GunBouncyBall extends GameItemGun {
 	}
 
 	@Override
-	public void render(Renderer gameRenderer) {
+	public void render(Renderer gameRenderer, Vector2D position) {
 		if (isDrawn) {
-			gameRenderer.drawRectangle(new Renderer.RenderInfo(this.position, 32f, this.rotation,
+			gameRenderer.drawRectangle(new Renderer.RenderInfo(position, 32f, this.rotation,
 					getInventoryTexture(), true));
 		}
-		super.render(gameRenderer);
+		super.render(gameRenderer, position);
 	}
 
 	public JsonObject toJSON() {
@@ -6,9 +6,10 @@ import com.edwardium.RPGEngine.GameEntity.GameObject.GameCharacter.GameCharacter
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameWall;
 import com.edwardium.RPGEngine.Renderer.Color;
+import com.edwardium.RPGEngine.Renderer.InstanceBatch;
 import com.edwardium.RPGEngine.Renderer.Light;
-import com.edwardium.RPGEngine.Renderer.Renderer;
 import com.edwardium.RPGEngine.Utility.Vector2D;
+import com.edwardium.RPGEngine.Utility.VectorPool;
 
 import javax.json.JsonObject;
 
@@ -32,11 +33,6 @@ public class BouncyBallProjectile extends GameProjectile {
 		super.membersFromJson(sourceObj);
 	}
 
-	@Override
-	protected Vector2D calculateResistanceForce(float environmentDensity) {
-		return new Vector2D();
-	}
-
 	@Override
 	public void collideWith(GameObject other, Vector2D mySideNormal, Vector2D otherSideNormal) {
 		if (other instanceof GameWall || other instanceof GameCharacter) {
@@ -52,9 +48,11 @@ public class BouncyBallProjectile extends GameProjectile {
 				if (otherSideNormal == null){
 					this.velocity.inverse();
 				} else {
-					Vector2D collideSide = otherSideNormal.getNormal();
-					Vector2D rejection = this.velocity.rejection(collideSide);
-					this.velocity.subtract(rejection.scale(2));
+					try (VectorPool pool = VectorPool.open()) {
+						Vector2D collideSide = otherSideNormal.getNormal(pool.take());
+						Vector2D rejection = Vector2D.rejection(this.velocity, collideSide, pool.take());
+						this.velocity.subtract(rejection.scale(2));
+					}
 				}
 			}
 		}
@@ -68,11 +66,15 @@ public class BouncyBallProjectile extends GameProjectile {
 	}
 
 	@Override
-	public void render(Renderer gameRenderer) {
+	public InstanceBatch createInstanceBatch() {
+		return new InstanceBatch(InstanceBatch.Primitive.CIRCLE, "default", true);
+	}
+
+	@Override
+	public void addInstance(InstanceBatch batch, Vector2D position) {
 		if (isDrawn) {
-			gameRenderer.drawCircle(new Renderer.RenderInfo(this.position, 15f, 0f,  currentColor, true));
+			batch.add(position.getX(), position.getY(), 0f, 15f, 15f, currentColor);
 		}
-		super.render(gameRenderer);
 	}
 
 	public JsonObject toJSON() {
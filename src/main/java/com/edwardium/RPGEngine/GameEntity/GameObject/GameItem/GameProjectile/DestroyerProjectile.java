@@ -5,8 +5,8 @@ import com.edwardium.RPGEngine.GameEntity.GameHitbox;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameWall;
 import com.edwardium.RPGEngine.Renderer.Color;
+import com.edwardium.RPGEngine.Renderer.InstanceBatch;
 import com.edwardium.RPGEngine.Renderer.Light;
-import com.edwardium.RPGEngine.Renderer.Renderer;
 import com.edwardium.RPGEngine.Utility.Rectangle;
 import com.edwardium.RPGEngine.Utility.Vector2D;
 
@@ -29,11 +29,6 @@ public class DestroyerProjectile extends GameProjectile {
 		super.membersFromJson(sourceObj);
 	}
 
-	@Override
-	protected Vector2D calculateResistanceForce(float environmentDensity) {
-		return new Vector2D();
-	}
-
 	@Override
 	public void collideWith(GameObject other, Vector2D mySideNormal, Vector2D otherSideNormal) {
 		super.collideWith(other, mySideNormal, otherSideNormal);
@@ -43,11 +38,6 @@ public class DestroyerProjectile extends GameProjectile {
 		}
 	}
 
-	@Override
-	public void updatePhysics(float elapsedTime, float environmentDensity) {
-		super.updatePhysics(elapsedTime, environmentDensity);
-	}
-
 	@Override
 	public void updateLights(PlaySceneController gsc) {
 		gsc.registerLight(new Light(this.position, color, 25f, 0f));
@@ -55,12 +45,15 @@ public class DestroyerProjectile extends GameProjectile {
 	}
 
 	@Override
-	public void render(Renderer gameRenderer) {
+	public InstanceBatch createInstanceBatch() {
+		return new InstanceBatch(InstanceBatch.Primitive.RECTANGLE, "default", true);
+	}
+
+	@Override
+	public void addInstance(InstanceBatch batch, Vector2D position) {
 		if (isDrawn) {
-			gameRenderer.drawRectangle(new Renderer.RenderInfo(this.position, new Vector2D(23f, 9f), this.velocity.getAngle(),
-					color, true));
+			batch.add(position.getX(), position.getY(), this.velocity.getAngle(), 23f, 9f, color);
 		}
-		super.render(gameRenderer);
 	}
 
 	public JsonObject toJSON() {
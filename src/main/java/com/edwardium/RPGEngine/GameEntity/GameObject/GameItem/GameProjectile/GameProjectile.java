@@ -3,7 +3,10 @@ package com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameProjectile;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameCharacter.GameCharacter;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameItem.GameItem;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameWall;
 import com.edwardium.RPGEngine.IO.JsonBuilder;
+import com.edwardium.RPGEngine.Renderer.InstanceBatch;
+import com.edwardium.RPGEngine.Renderer.Renderer;
 import com.edwardium.RPGEngine.Renderer.TextureInfo;
 import com.edwardium.RPGEngine.Utility.Vector2D;
 
@@ -25,6 +28,9 @@ public abstract class GameProjectile extends GameItem {
 
 		this.velocity = velocity;
 		this.mass = 0.008f;
+		// not slowed down by air
+		this.dragCoefficient = 0;
+		this.continuousCollision = true;
 	}
 
 	@Override
@@ -42,6 +48,30 @@ public abstract class GameProjectile extends GameItem {
 		return null;
 	}
 
+	/**
+	 * Projectiles are drawn together with all others of the same class by one {@code Renderer.drawInstances} call.
+	 *
+	 * @return New empty batch for projectiles of this class.
+	 */
+	public abstract InstanceBatch createInstanceBatch();
+
+	/**
+	 * Adds this projectile at position to a batch created by {@code createInstanceBatch} of the same class.
+	 */
+	public abstract void addInstance(InstanceBatch batch, Vector2D position);
+
+	/**
+	 * Draws this projectile alone, scenes draw projectiles in batches with {@code addInstance} instead.
+	 */
+	@Override
+	public void render(Renderer gameRenderer, Vector2D position) {
+		InstanceBatch batch = createInstanceBatch();
+		addInstance(batch, position);
+		gameRenderer.drawInstances(batch);
+
+		super.render(gameRenderer, position);
+	}
+
 	@Override
 	public void collideWith(GameObject other, Vector2D mySideNormal, Vector2D otherSideNormal) {
 		if (other instanceof GameCharacter) {
@@ -51,7 +81,12 @@ public abstract class GameProjectile extends GameItem {
 	}
 
 	@Override
-	public void updatePhysics(float elapsedTime, float environmentDensity) {
+	public boolean sweepsAgainst(GameObject other) {
+		return other instanceof GameWall || other instanceof GameCharacter;
+	}
+
+	@Override
+	public void beforeIntegration(float elapsedTime) {
 		this.distanceTravelled += this.velocity.getMagnitude() * elapsedTime;
 		this.timeTravelled += elapsedTime;
 
@@ -62,7 +97,7 @@ public abstract class GameProjectile extends GameItem {
 			this.toDelete = true;
 		}
 
-		super.updatePhysics(elapsedTime, environmentDensity);
+		super.beforeIntegration(elapsedTime);
 	}
 
 	@Override
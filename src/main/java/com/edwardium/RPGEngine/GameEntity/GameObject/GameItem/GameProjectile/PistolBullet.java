@@ -5,7 +5,7 @@ import com.edwardium.RPGEngine.GameEntity.GameHitbox;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
 import com.edwardium.RPGEngine.GameEntity.GameObject.GameWall;
 import com.edwardium.RPGEngine.Renderer.Color;
-import com.edwardium.RPGEngine.Renderer.Renderer;
+import com.edwardium.RPGEngine.Renderer.InstanceBatch;
 import com.edwardium.RPGEngine.Utility.Rectangle;
 import com.edwardium.RPGEngine.Utility.Vector2D;
 
@@ -27,11 +27,6 @@ public class PistolBullet extends GameProjectile {
 		super.membersFromJson(sourceObj);
 	}
 
-	@Override
-	protected Vector2D calculateResistanceForce(float environmentDensity) {
-		return new Vector2D();
-	}
-
 	@Override
 	public void collideWith(GameObject other, Vector2D mySideNormal, Vector2D otherSideNormal) {
 		super.collideWith(other, mySideNormal, otherSideNormal);
@@ -48,11 +43,15 @@ public class PistolBullet extends GameProjectile {
 	}
 
 	@Override
-	public void render(Renderer gameRenderer) {
+	public InstanceBatch createInstanceBatch() {
+		return new InstanceBatch(InstanceBatch.Primitive.RECTANGLE, "default", true);
+	}
+
+	@Override
+	public void addInstance(InstanceBatch batch, Vector2D position) {
 		if (isDrawn) {
-			gameRenderer.drawRectangle(new Renderer.RenderInfo(this.position, new Vector2D(10f, 4.5f), this.velocity.getAngle(), Color.DARKGREY, true));
+			batch.add(position.getX(), position.getY(), this.velocity.getAngle(), 10f, 4.5f, Color.DARKGREY);
 		}
-		super.render(gameRenderer);
 	}
 
 	public JsonObject toJSON() {
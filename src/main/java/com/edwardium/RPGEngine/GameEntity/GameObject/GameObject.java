@@ -7,14 +7,20 @@ import com.edwardium.RPGEngine.Renderer.Color;
 import com.edwardium.RPGEngine.Renderer.Renderer;
 import com.edwardium.RPGEngine.Utility.GameSerializable;
 import com.edwardium.RPGEngine.Utility.Vector2D;
+import com.edwardium.RPGEngine.Utility.VectorPool;
 
 import javax.json.JsonObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 
 public abstract class GameObject implements GameSerializable {
+	// objects slower than this (in pixels per second) for SLEEP_STEPS steps in a row are put to sleep
+	public static final float SLEEP_SPEED = 2f;
+	public static final int SLEEP_STEPS = 30;
 
 	public Vector2D position;
+	// position before the last fixed update, rendering interpolates from it, null if not known yet
+	public Vector2D previousPosition = null;
 	public String name;
 
 	public float maxRotationSpeed = -0.1f;
@@ -24,12 +30,23 @@ public abstract class GameObject implements GameSerializable {
 	public Vector2D velocity;
 
 	public boolean doesCollide = true;
+	// whether the path of this object is swept for collisions, for fast moving objects that could pass through thin walls
+	public boolean continuousCollision = false;
 	public GameHitbox hitbox = new GameHitbox(20f);
 	public float dragCoefficient = 0.1f;
 
 	public boolean isDrawn = true;
 	public boolean toDelete = false;
 
+	// set by the scene step scheduler, time that has not been integrated yet and substeps for the current update
+	public float pendingStepTime = 0;
+	public int scheduledSubsteps = 0;
+	// slot in the scene physics store, -1 if none
+	public int physicsSlot = -1;
+
+	private boolean sleeping = false;
+	private int restingSteps = 0;
+
 	protected GameObject() {
 		this(new Vector2D(0, 0));
 	}
@@ -45,29 +62,64 @@ public abstract class GameObject implements GameSerializable {
 	}
 
 	public void updatePhysics(float elapsedTime, float environmentDensity) {
-		this.applyForce(calculateResistanceForce(environmentDensity).scale(elapsedTime));
-		this.position.add(Vector2D.scale(this.velocity, elapsedTime));
+		beforeIntegration(elapsedTime);
+
+		try (VectorPool pool = VectorPool.open()) {
+			this.applyForce(calculateResistanceForce(environmentDensity, pool.take()).scale(elapsedTime));
+			this.position.add(Vector2D.scale(this.velocity, elapsedTime, pool.take()));
+		}
+	}
+	/**
+	 * Called by {@code updatePhysics} before the object is integrated. Logic that only touches this object should
+	 * override this rather than {@code updatePhysics}, so the object can still be integrated by {@code PhysicsStore}.
+	 */
+	public void beforeIntegration(float elapsedTime) {
+
 	}
+
 	public void updateLights(PlaySceneController gsc) {
 
 	}
 
 	public void render(Renderer gameRenderer) {
+		render(gameRenderer, this.position);
+	}
+	/**
+	 * Draws the object at position, which is not the same as {@code position} when the scene interpolates between updates.
+	 */
+	public void render(Renderer gameRenderer, Vector2D position) {
 
+	}
+	/**
+	 * @return How far past its broadphase bounds the object draws, used to cull objects outside of the viewport.
+	 */
+	public float getRenderMargin() {
+		return 0f;
 	}
 	public void renderHitbox(Renderer gameRenderer) {
+		renderHitbox(gameRenderer, this.position);
+	}
+	public void renderHitbox(Renderer gameRenderer, Vector2D position) {
 		if (isDrawn && this.hitbox != null) {
-			GameHitbox.renderHitbox(gameRenderer, this.position, this.rotation, this.hitbox);
+			GameHitbox.renderHitbox(gameRenderer, position, this.rotation, this.hitbox);
 		}
 	}
 	public void renderHitbox(Renderer gameRenderer, Color color) {
+		renderHitbox(gameRenderer, this.position, color);
+	}
+	public void renderHitbox(Renderer gameRenderer, Vector2D position, Color color) {
 		if (isDrawn && this.hitbox != null) {
-			GameHitbox.renderHitbox(gameRenderer, this.position, this.rotation, this.hitbox, color);
+			GameHitbox.renderHitbox(gameRenderer, position, this.rotation, this.hitbox, color);
 		}
 	}
 
 	public GameObject applyForce(Vector2D force) {
-		this.velocity.add(Vector2D.divide(force, this.mass));
+		try (VectorPool pool = VectorPool.open()) {
+			this.velocity.add(Vector2D.divide(force, this.mass, pool.take()));
+		}
+
+		if (sleeping && (force.getX() != 0 || force.getY() != 0))
+			wakeUp();
 
 		return this;
 	}
@@ -78,7 +130,12 @@ public abstract class GameObject implements GameSerializable {
 
 		return this;
 	}
-	protected Vector2D calculateResistanceForce(float environmentDensity) {
+	/**
+	 * @param environmentDensity Density of the environment.
+	 * @param out Vector to store the force in.
+	 * @return out set to the drag force acting on this object.
+	 */
+	protected Vector2D calculateResistanceForce(float environmentDensity, Vector2D out) {
 		// we are going to use a modified drag equation
 		// Fd = 1/2 * p * v^2 * Cd * A
 		// p is density, v is speed, Cd is drag coefficient and A is cross section area
@@ -87,15 +144,15 @@ public abstract class GameObject implements GameSerializable {
 		// which bullets tend to be
 		// so yeah, fml
 
-		if (this.velocity.getMagnitude() == 0)
-			return new Vector2D();
+		if (this.velocity.getMagnitude() == 0 || this.dragCoefficient == 0)
+			return out.set(0, 0);
 
 		float crossSection = this.hitbox.calculateCrossSection(this.velocity);
 		float dragForce = (float)(1.0 / 2.0 * environmentDensity * Math.pow(velocity.getMagnitude(), 2) * dragCoefficient * crossSection);
 		if (dragForce > velocity.getMagnitude())
 			dragForce = velocity.getMagnitude();
 
-		return new Vector2D(velocity).inverse().setMagnitude(dragForce);
+		return out.set(velocity).inverse().setMagnitude(dragForce);
 	}
 
 	public GameHitbox.CollisionInfo checkCollision(GameObject other) {
@@ -110,8 +167,66 @@ public abstract class GameObject implements GameSerializable {
 
 	}
 
+	/**
+	 * Sleeping objects are not integrated and do not look for collisions, until they are woken up.
+	 *
+	 * @return Whether this object is sleeping.
+	 */
+	public boolean isSleeping() {
+		return sleeping;
+	}
+
+	public void wakeUp() {
+		this.sleeping = false;
+		this.restingSteps = 0;
+	}
+
+	/**
+	 * Counts steps spent resting and puts this object to sleep after {@code SLEEP_STEPS} of them. Called after each step.
+	 */
+	public void updateSleep() {
+		if (this.velocity.getMagnitude() < SLEEP_SPEED && canSleep()) {
+			restingSteps++;
+			if (restingSteps >= SLEEP_STEPS) {
+				this.sleeping = true;
+				this.velocity.set(0, 0);
+			}
+		} else {
+			restingSteps = 0;
+		}
+	}
+
+	/**
+	 * @return Whether {@code updatePhysics} of this object only touches the state of this object, so it can run concurrently with other objects.
+	 */
+	public boolean canUpdateConcurrently() {
+		return true;
+	}
+
+	/**
+	 * @return Whether this object can be put to sleep right now. Objects that need updates even when not moving should return false.
+	 */
+	public boolean canSleep() {
+		return true;
+	}
+
+	/**
+	 * @param other Object in the path of this object.
+	 * @return Whether this object should stop at other when continuous collision is enabled.
+	 */
+	public boolean sweepsAgainst(GameObject other) {
+		return true;
+	}
+
 	public Vector2D getFacingDirection() {
-		return new Vector2D(1, 0).setAngle(this.rotation);
+		return getFacingDirection(new Vector2D());
+	}
+	/**
+	 * @param out Vector to store the direction in.
+	 * @return out set to unit vector in the direction this object is facing.
+	 */
+	public Vector2D getFacingDirection(Vector2D out) {
+		return out.set(1, 0).setAngle(this.rotation);
 	}
 
 	/**
@@ -169,8 +284,11 @@ public abstract class GameObject implements GameSerializable {
 	 * @return This reference.
 	 */
 	public GameObject rotateTo(float angle, boolean force) {
-		Vector2D angledVector = Vector2D.fromAM(angle, 1);
-		float rotationDelta = angledVector.angleBetween(Vector2D.fromAM(this.rotation, 1));
+		float rotationDelta;
+		try (VectorPool pool = VectorPool.open()) {
+			Vector2D angledVector = Vector2D.fromAM(angle, 1, pool.take());
+			rotationDelta = angledVector.angleBetween(Vector2D.fromAM(this.rotation, 1, pool.take()));
+		}
 		return rotateBy(rotationDelta, force);
 	}
 
@@ -192,7 +310,10 @@ public abstract class GameObject implements GameSerializable {
 	 * @return This reference.
 	 */
 	public GameObject rotateToward(boolean left) {
-		float rotationDelta = new Vector2D(1, 0).setAngle(this.rotation + (left ? 1 : -1)).angleBetween(new Vector2D(1, 0).setAngle(this.rotation));
+		float rotationDelta;
+		try (VectorPool pool = VectorPool.open()) {
+			rotationDelta = pool.take(1, 0).setAngle(this.rotation + (left ? 1 : -1)).angleBetween(getFacingDirection(pool.take()));
+		}
 		if (maxRotationSpeed >= 0) {
 			rotationDelta = maxRotationSpeed * Math.signum(rotationDelta);
 		}
@@ -207,11 +328,16 @@ public abstract class GameObject implements GameSerializable {
 	 * @return Whether this object is facing the target point within threshold.
 	 */
 	public boolean rotateToPoint(Vector2D target, boolean force, float threshold) {
-		float rotationDelta = Vector2D.subtract(target, this.position).angleBetween(Vector2D.fromAM(this.rotation, 1));
-		rotateBy(rotationDelta, force);
+		try (VectorPool pool = VectorPool.open()) {
+			Vector2D toTarget = pool.take();
+			Vector2D facing = pool.take();
+
+			float rotationDelta = Vector2D.subtract(target, this.position, toTarget).angleBetween(Vector2D.fromAM(this.rotation, 1, facing));
+			rotateBy(rotationDelta, force);
 
-		rotationDelta = Vector2D.subtract(target, this.position).angleBetween(Vector2D.fromAM(this.rotation, 1));
-		return rotationDelta <= threshold;
+			rotationDelta = Vector2D.subtract(target, this.position, toTarget).angleBetween(Vector2D.fromAM(this.rotation, 1, facing));
+			return rotationDelta <= threshold;
+		}
 	}
 
 	/**
@@ -11,6 +11,7 @@ import javax.json.JsonArray;
 import javax.json.JsonObject;
 
 public class GameWall extends GameObject {
+	public static final Color R_COLOR = new Color(0.3f, 0.3f, 0.3f, 1f);
 
 	private Vector2D[] shape;
 
@@ -40,11 +41,18 @@ public class GameWall extends GameObject {
 	}
 
 	@Override
-	public void render(Renderer gameRenderer) {
+	public void render(Renderer gameRenderer, Vector2D position) {
 		if (isDrawn) {
-			gameRenderer.drawShape(vertices, new Renderer.RenderInfo(this.position, 1f, this.rotation, new Color(0.3f, 0.3f, 0.3f, 1f), true));
+			gameRenderer.drawShape(vertices, new Renderer.RenderInfo(position, 1f, this.rotation, R_COLOR, true));
 		}
-		super.render(gameRenderer);
+		super.render(gameRenderer, position);
+	}
+
+	/**
+	 * @return Vertices of the shape relative to the position, drawn as a triangle fan.
+	 */
+	public Vertex[] getVertices() {
+		return vertices;
 	}
 
 	@Override
@@ -0,0 +1,205 @@
+package com.edwardium.RPGEngine.GameEntity;
+
+import com.edwardium.RPGEngine.GameEntity.GameObject.GameObject;
+import com.edwardium.RPGEngine.Utility.Vector2D;
+
+import java.util.Arrays;
+
+/**
+ * Structure of arrays store of physics state. Position, velocity, mass and drag of objects are kept in primitive columns
+ * indexed by a slot, which an object keeps for as long as it is in the store.
+ *
+ * Objects are loaded into their slots once, the columns stay authoritative across steps. Before a step the slot is
+ * synced, which only copies state the rest of the engine changed on the object since the last save. Slots are then
+ * integrated by a single loop over the columns and their position and velocity are saved back, because the rest of the
+ * engine reads them from the object. This gives the same result as {@code GameObject.updatePhysics}, bit for bit.
+ * Only objects that use the default integration can be integrated this way, see {@code canIntegrate}.
+ */
+public class PhysicsStore {
+	private static final int NO_SLOT = -1;
+
+	// whether updatePhysics, calculateResistanceForce and applyForce of a class are the ones from GameObject
+	private static final ClassValue<Boolean> DEFAULT_INTEGRATION = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return isDeclaredByGameObject(type, "updatePhysics", float.class, float.class)
+					&& isDeclaredByGameObject(type, "calculateResistanceForce", float.class, Vector2D.class)
+					&& isDeclaredByGameObject(type, "applyForce", Vector2D.class);
+		}
+	};
+
+	public float[] x;
+	public float[] y;
+	public float[] velocityX;
+	public float[] velocityY;
+	public float[] mass;
+	public float[] dragCoefficient;
+	// cross section in the direction of velocity, only valid for moving objects with drag, NaN when it has to be recomputed
+	public float[] crossSection;
+
+	private int[] nextFree;
+	private int firstFree = NO_SLOT;
+	private int size = 0;
+
+	public PhysicsStore() {
+		this(64);
+	}
+
+	public PhysicsStore(int initialCapacity) {
+		allocate(Math.max(initialCapacity, 1));
+	}
+
+	/**
+	 * @param object Object to check.
+	 * @return Whether object can be integrated by the store.
+	 */
+	public static boolean canIntegrate(GameObject object) {
+		return DEFAULT_INTEGRATION.get(object.getClass());
+	}
+
+	/**
+	 * @return New slot.
+	 */
+	public int allocateSlot() {
+		if (firstFree != NO_SLOT) {
+			int slot = firstFree;
+			firstFree = nextFree[slot];
+			return slot;
+		}
+
+		if (size == x.length)
+			allocate(x.length * 2);
+
+		return size++;
+	}
+
+	/**
+	 * @param slot Slot that is not used anymore.
+	 */
+	public void freeSlot(int slot) {
+		nextFree[slot] = firstFree;
+		firstFree = slot;
+	}
+
+	/**
+	 * Copies physics state of object into slot. Call when the slot is allocated.
+	 */
+	public void load(int slot, GameObject object) {
+		x[slot] = object.position.getX();
+		y[slot] = object.position.getY();
+		velocityX[slot] = object.velocity.getX();
+		velocityY[slot] = object.velocity.getY();
+		mass[slot] = object.mass;
+		dragCoefficient[slot] = object.dragCoefficient;
+		crossSection[slot] = Float.NaN;
+	}
+
+	/**
+	 * Copies physics state that was changed on object since the last save into slot.
+	 * The hitbox of object is expected not to be replaced while it has a slot.
+	 */
+	public void sync(int slot, GameObject object) {
+		Vector2D position = object.position;
+		if (differs(position.getX(), x[slot]) || differs(position.getY(), y[slot])) {
+			x[slot] = position.getX();
+			y[slot] = position.getY();
+		}
+
+		Vector2D velocity = object.velocity;
+		boolean changed = differs(velocity.getX(), velocityX[slot]) || differs(velocity.getY(), velocityY[slot]);
+		if (changed) {
+			velocityX[slot] = velocity.getX();
+			velocityY[slot] = velocity.getY();
+		}
+
+		mass[slot] = object.mass;
+		if (differs(object.dragCoefficient, dragCoefficient[slot])) {
+			dragCoefficient[slot] = object.dragCoefficient;
+			changed = true;
+		}
+
+		if ((changed || Float.isNaN(crossSection[slot])) && object.dragCoefficient != 0 && velocity.getMagnitude() != 0)
+			crossSection[slot] = object.hitbox.calculateCrossSection(velocity);
+	}
+
+	/**
+	 * Copies position and velocity in slot back to object.
+	 */
+	public void save(int slot, GameObject object) {
+		object.position.set(x[slot], y[slot]);
+		object.velocity.set(velocityX[slot], velocityY[slot]);
+	}
+
+	/**
+	 * Applies drag and integrates positions of slots[from] to slots[to - 1], each by its step time.
+	 * Mirrors {@code GameObject.updatePhysics} operation by operation.
+	 */
+	public void integrate(int[] slots, float[] stepTimes, int from, int to, float environmentDensity) {
+		for (int i = from; i < to; i++) {
+			int slot = slots[i];
+			float elapsedTime = stepTimes[i];
+
+			float vx = velocityX[slot];
+			float vy = velocityY[slot];
+
+			float forceX = 0;
+			float forceY = 0;
+
+			float speed = (float)Math.sqrt(vx * vx + vy * vy);
+			if (speed != 0 && dragCoefficient[slot] != 0) {
+				float dragForce = (float)(1.0 / 2.0 * environmentDensity * Math.pow(speed, 2) * dragCoefficient[slot] * crossSection[slot]);
+				if (dragForce > speed)
+					dragForce = speed;
+
+				// against velocity
+				float angle = (float)Math.atan2(vy * -1, vx * -1);
+				forceX = (float)(Math.cos(angle) * dragForce);
+				forceY = (float)(Math.sin(angle) * dragForce);
+
+				// velocity changes its magnitude, cross section is computed for the exact vector
+				crossSection[slot] = Float.NaN;
+			}
+
+			float inverseMass = 1 / mass[slot];
+			vx += forceX * elapsedTime * inverseMass;
+			vy += forceY * elapsedTime * inverseMass;
+
+			velocityX[slot] = vx;
+			velocityY[slot] = vy;
+			x[slot] += vx * elapsedTime;
+			y[slot] += vy * elapsedTime;
+		}
+	}
+
+	private void allocate(int capacity) {
+		x = grow(x, capacity);
+		y = grow(y, capacity);
+		velocityX = grow(velocityX, capacity);
+		velocityY = grow(velocityY, capacity);
+		mass = grow(mass, capacity);
+		dragCoefficient = grow(dragCoefficient, capacity);
+		crossSection = grow(crossSection, capacity);
+
+		nextFree = nextFree == null ? new int[capacity] : Arrays.copyOf(nextFree, capacity);
+	}
+
+	// compares bits, so that a changed sign of zero is copied as well
+	private static boolean differs(float value, float stored) {
+		return Float.floatToRawIntBits(value) != Float.floatToRawIntBits(stored);
+	}
+
+	private static float[] grow(float[] array, int capacity) {
+		return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+	}
+
+	private static boolean isDeclaredByGameObject(Class<?> type, String name, Class<?>... parameterTypes) {
+		for (Class<?> current = type; current != null && current != GameObject.class; current = current.getSuperclass()) {
+			try {
+				current.getDeclaredMethod(name, parameterTypes);
+				return false;
+			} catch (NoSuchMethodException ignored) { }
+		}
+
+		return true;
+	}
+}
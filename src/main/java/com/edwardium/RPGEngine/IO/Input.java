@@ -27,7 +27,7 @@ public class Input {
 		}
 
 		public double timeSince() {
-			return System.nanoTime() - actionTime;
+			return getTime() - actionTime;
 		}
 
 		public boolean inTime(double threshold) {
@@ -131,6 +131,9 @@ public class Input {
 		}
 	}
 
+	// window handle of input that is not connected to any window
+	private static final long NO_WINDOW = 0;
+
 	private final long window;
 
 	private Vector2D gameCursorCenter = new Vector2D();
@@ -143,6 +146,15 @@ public class Input {
 
 	private Set<Integer> keyLock;
 
+	/**
+	 * Creates input that is not connected to any window, for running without one. Nothing is ever pressed and the cursor
+	 * stays at (0, 0), unless a subclass overrides {@code getKeyState}, {@code getMouseState} and {@code getCursorPos}
+	 * and feeds events to {@code onKey}, {@code onMouseButton} and {@code onScroll}.
+	 */
+	protected Input() {
+		this(NO_WINDOW);
+	}
+
 	/**
 	 * @param window Window handle to collect events from.
 	 */
@@ -154,21 +166,19 @@ public class Input {
 		mouse1History = new ActionHistory<>(new MouseState(), new MouseState());
 		mouse2History = new ActionHistory<>(new MouseState(), new MouseState());
 
+		if (window == NO_WINDOW)
+			return;
+
 		// setup callbacks
 		// window key callback
 		glfwSetKeyCallback(window, new GLFWKeyCallback() {
 			@Override
 			public void invoke(long window, int key, int scancode, int action, int mods) {
-			// Bind the release of Ctrl+Q to window close
+				// Bind the release of Ctrl+Q to window close
 				if (key == GLFW_KEY_Q && ((mods & GLFW_MOD_CONTROL) != 0) && action == GLFW_RELEASE) {
 					glfwSetWindowShouldClose(window, true);
-				} else if (watchedKeys.containsKey(key)) {
-					if (action == GLFW_RELEASE) {
-						checkLock(key, false);
-						watchedKeys.get(key).lastRelease.set(key, scancode, action, mods, System.nanoTime());
-					} else if (action == GLFW_PRESS) {
-						watchedKeys.get(key).lastPress.set(key, scancode, action, mods, System.nanoTime());
-					}
+				} else {
+					onKey(key, scancode, action, mods);
 				}
 			}
 		});
@@ -176,21 +186,7 @@ public class Input {
 		glfwSetMouseButtonCallback(window, new GLFWMouseButtonCallback() {
 			@Override
 			public void invoke(long window, int button, int action, int mods) {
-				if (button == GLFW_MOUSE_BUTTON_1) {
-					if (action == GLFW_RELEASE) {
-						checkLock(button, false);
-						mouse1History.lastRelease.set(button, action, mods, getCursorPos(), System.nanoTime());
-					} else if (action == GLFW_PRESS) {
-						mouse1History.lastPress.set(button, action, mods, getCursorPos(), System.nanoTime());
-					}
-				} else if (button == GLFW_MOUSE_BUTTON_2) {
-					if (action == GLFW_RELEASE) {
-						checkLock(button, false);
-						mouse2History.lastRelease.set(button, action, mods, getCursorPos(), System.nanoTime());
-					} else if (action == GLFW_PRESS) {
-						mouse2History.lastPress.set(button, action, mods, getCursorPos(), System.nanoTime());
-					}
-				}
+				onMouseButton(button, action, mods);
 			}
 		});
 
@@ -206,11 +202,72 @@ public class Input {
 		glfwSetScrollCallback(window, new GLFWScrollCallback() {
 			@Override
 			public void invoke(long window, double offsetX, double offsetY) {
-				scrollState.set(offsetX, offsetY, System.nanoTime());
+				onScroll(offsetX, offsetY);
 			}
 		});
 	}
 
+	/**
+	 * @return Current time, events are stamped with it. In nanoseconds.
+	 */
+	protected long getTime() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records a key event.
+	 *
+	 * @param key Key code.
+	 * @param scancode Platform specific scancode.
+	 * @param action GLFW_PRESS, GLFW_RELEASE or GLFW_REPEAT.
+	 * @param mods Modifier bits.
+	 */
+	protected void onKey(int key, int scancode, int action, int mods) {
+		if (watchedKeys.containsKey(key)) {
+			if (action == GLFW_RELEASE) {
+				checkLock(key, false);
+				watchedKeys.get(key).lastRelease.set(key, scancode, action, mods, getTime());
+			} else if (action == GLFW_PRESS) {
+				watchedKeys.get(key).lastPress.set(key, scancode, action, mods, getTime());
+			}
+		}
+	}
+
+	/**
+	 * Records a mouse button event.
+	 *
+	 * @param button Mouse button code.
+	 * @param action GLFW_PRESS or GLFW_RELEASE.
+	 * @param mods Modifier bits.
+	 */
+	protected void onMouseButton(int button, int action, int mods) {
+		if (button == GLFW_MOUSE_BUTTON_1) {
+			if (action == GLFW_RELEASE) {
+				checkLock(button, false);
+				mouse1History.lastRelease.set(button, action, mods, getCursorPos(), getTime());
+			} else if (action == GLFW_PRESS) {
+				mouse1History.lastPress.set(button, action, mods, getCursorPos(), getTime());
+			}
+		} else if (button == GLFW_MOUSE_BUTTON_2) {
+			if (action == GLFW_RELEASE) {
+				checkLock(button, false);
+				mouse2History.lastRelease.set(button, action, mods, getCursorPos(), getTime());
+			} else if (action == GLFW_PRESS) {
+				mouse2History.lastPress.set(button, action, mods, getCursorPos(), getTime());
+			}
+		}
+	}
+
+	/**
+	 * Records a scroll event.
+	 *
+	 * @param offsetX Horizontal scroll offset.
+	 * @param offsetY Vertical scroll offset.
+	 */
+	protected void onScroll(double offsetX, double offsetY) {
+		scrollState.set(offsetX, offsetY, getTime());
+	}
+
 	/**
 	 * Starts storing last press and last release for given key.
 	 * Watching a key is useful if you need to check the last time the key was pressed, to detect double taps or long presses.
@@ -232,10 +289,24 @@ public class Input {
 		watchedKeys.remove(key);
 	}
 
-	private int getKeyState(int code) {
+	/**
+	 * @param code Key code.
+	 * @return GLFW_PRESS or GLFW_RELEASE.
+	 */
+	protected int getKeyState(int code) {
+		if (window == NO_WINDOW)
+			return GLFW_RELEASE;
+
 		return glfwGetKey(window, code);
 	}
-	private int getMouseState(int code) {
+	/**
+	 * @param code Mouse button code.
+	 * @return GLFW_PRESS or GLFW_RELEASE.
+	 */
+	protected int getMouseState(int code) {
+		if (window == NO_WINDOW)
+			return GLFW_RELEASE;
+
 		return glfwGetMouseButton(window, code);
 	}
 
@@ -405,7 +476,13 @@ public class Input {
 		}
 	}
 
-	private Vector2D getCursorPos() {
+	/**
+	 * @return Cursor position in window coordinates.
+	 */
+	protected Vector2D getCursorPos() {
+		if (window == NO_WINDOW)
+			return new Vector2D();
+
 		double[] xpos = {0};
 		double[] ypos = {0};
 		glfwGetCursorPos(window, xpos, ypos);
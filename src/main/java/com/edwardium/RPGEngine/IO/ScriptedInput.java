@@ -0,0 +1,270 @@
+package com.edwardium.RPGEngine.IO;
+
+import com.edwardium.RPGEngine.Utility.Vector2D;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.lwjgl.glfw.GLFW.*;
+
+/**
+ * Input that is not connected to any window and replays events from a script instead, on a simulated clock
+ * that advances by one update step each tick.
+ *
+ * Each line of a script is one event that happens before the update of the given tick, ';' starts a comment:
+ * <pre>
+ * 0 key W press        ; key by name or GLFW key code
+ * 120 key W release
+ * 120 cursor 400 150   ; cursor position in window coordinates
+ * 130 mouse 1 press    ; mouse button 1 or 2
+ * 131 mouse 1 release
+ * 200 scroll -1
+ * </pre>
+ */
+public class ScriptedInput extends Input {
+	private static class Event {
+		final int tick;
+		final String[] args;
+
+		Event(int tick, String[] args) {
+			this.tick = tick;
+			this.args = args;
+		}
+	}
+
+	private static final HashMap<String, Integer> KEY_NAMES = new HashMap<>();
+	static {
+		for (char c = 'A'; c <= 'Z'; c++)
+			KEY_NAMES.put(String.valueOf(c), (int) c);
+		for (char c = '0'; c <= '9'; c++)
+			KEY_NAMES.put(String.valueOf(c), (int) c);
+
+		KEY_NAMES.put("SPACE", GLFW_KEY_SPACE);
+		KEY_NAMES.put("ESCAPE", GLFW_KEY_ESCAPE);
+		KEY_NAMES.put("ENTER", GLFW_KEY_ENTER);
+		KEY_NAMES.put("TAB", GLFW_KEY_TAB);
+		KEY_NAMES.put("UP", GLFW_KEY_UP);
+		KEY_NAMES.put("DOWN", GLFW_KEY_DOWN);
+		KEY_NAMES.put("LEFT", GLFW_KEY_LEFT);
+		KEY_NAMES.put("RIGHT", GLFW_KEY_RIGHT);
+		KEY_NAMES.put("KP_ADD", GLFW_KEY_KP_ADD);
+		KEY_NAMES.put("KP_SUBTRACT", GLFW_KEY_KP_SUBTRACT);
+		KEY_NAMES.put("LEFT_SHIFT", GLFW_KEY_LEFT_SHIFT);
+		KEY_NAMES.put("LEFT_CONTROL", GLFW_KEY_LEFT_CONTROL);
+	}
+
+	// the clock starts far from zero so that actions that never happened (at time 0) are never recent
+	private static final long START_TIME = 1_000_000_000_000L;
+
+	private final ArrayList<Event> events = new ArrayList<>();
+	private int nextEvent = 0;
+
+	private int tick = 0;
+	private long time = START_TIME;
+
+	private final Set<Integer> pressedKeys = new HashSet<>();
+	private final Set<Integer> pressedButtons = new HashSet<>();
+	private Vector2D cursorPos = new Vector2D();
+
+	/**
+	 * Creates input with no events.
+	 */
+	public ScriptedInput() {
+		super();
+	}
+
+	/**
+	 * @param path Path to the script.
+	 * @return Input replaying the script at path, null if it could not be read. Malformed lines are reported and skipped.
+	 */
+	public static ScriptedInput fromFile(String path) {
+		ScriptedInput input = new ScriptedInput();
+
+		try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+			int lineNumber = 0;
+			String line;
+			while ((line = br.readLine()) != null) {
+				lineNumber++;
+
+				String[] split = line.split(";", 2)[0].trim().split("\\s+");
+				if (split.length == 1 && split[0].isEmpty())
+					continue;
+
+				if (!input.addEvent(split)) {
+					System.err.println("Error: Invalid input script line " + lineNumber + ": " + line);
+				}
+			}
+		} catch (IOException ex) {
+			System.err.println("Error: " + ex.getMessage());
+			return null;
+		}
+
+		return input;
+	}
+
+	/**
+	 * Adds an event to the script. Events have to be added in order of their ticks.
+	 *
+	 * @param args Tick, event type and its arguments, as on a script line.
+	 * @return Whether the event is valid and was added.
+	 */
+	public boolean addEvent(String... args) {
+		int eventTick;
+		try {
+			eventTick = Integer.parseInt(args[0]);
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException ignored) {
+			return false;
+		}
+
+		if (eventTick < tick || (!events.isEmpty() && eventTick < events.get(events.size() - 1).tick))
+			return false;
+
+		Event event = new Event(eventTick, args);
+		if (!isValid(event))
+			return false;
+
+		events.add(event);
+		return true;
+	}
+
+	/**
+	 * Fires events of the current tick and advances the clock by stepTime. Has to be called once before each update.
+	 *
+	 * @param stepTime Time of one update. In nanoseconds.
+	 */
+	public void advance(long stepTime) {
+		while (nextEvent < events.size() && events.get(nextEvent).tick <= tick) {
+			fire(events.get(nextEvent));
+			nextEvent++;
+		}
+
+		tick++;
+		time += stepTime;
+	}
+
+	/**
+	 * @return Number of ticks advanced so far.
+	 */
+	public int getTick() {
+		return tick;
+	}
+
+	@Override
+	protected long getTime() {
+		return time;
+	}
+
+	@Override
+	protected int getKeyState(int code) {
+		return pressedKeys.contains(code) ? GLFW_PRESS : GLFW_RELEASE;
+	}
+
+	@Override
+	protected int getMouseState(int code) {
+		return pressedButtons.contains(code) ? GLFW_PRESS : GLFW_RELEASE;
+	}
+
+	@Override
+	protected Vector2D getCursorPos() {
+		return new Vector2D(cursorPos);
+	}
+
+	private boolean isValid(Event event) {
+		String[] args = event.args;
+		if (args.length < 2)
+			return false;
+
+		try {
+			switch (args[1].toLowerCase()) {
+				case "key":
+					return args.length == 4 && parseKey(args[2]) != null && parseAction(args[3]) != null;
+				case "mouse":
+					return args.length == 4 && parseButton(args[2]) != null && parseAction(args[3]) != null;
+				case "cursor":
+					Float.parseFloat(args[2]);
+					Float.parseFloat(args[3]);
+					return args.length == 4;
+				case "scroll":
+					Double.parseDouble(args[2]);
+					return args.length == 3;
+				default:
+					return false;
+			}
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException ignored) {
+			return false;
+		}
+	}
+
+	private void fire(Event event) {
+		String[] args = event.args;
+		switch (args[1].toLowerCase()) {
+			case "key": {
+				int key = parseKey(args[2]);
+				int action = parseAction(args[3]);
+				if (action == GLFW_PRESS)
+					pressedKeys.add(key);
+				else
+					pressedKeys.remove(key);
+
+				onKey(key, 0, action, 0);
+				break;
+			}
+			case "mouse": {
+				int button = parseButton(args[2]);
+				int action = parseAction(args[3]);
+				if (action == GLFW_PRESS)
+					pressedButtons.add(button);
+				else
+					pressedButtons.remove(button);
+
+				onMouseButton(button, action, 0);
+				break;
+			}
+			case "cursor":
+				cursorPos = new Vector2D(Float.parseFloat(args[2]), Float.parseFloat(args[3]));
+				break;
+			case "scroll":
+				onScroll(0, Double.parseDouble(args[2]));
+				break;
+		}
+	}
+
+	private static Integer parseKey(String name) {
+		Integer key = KEY_NAMES.get(name.toUpperCase());
+		if (key != null)
+			return key;
+
+		try {
+			return Integer.parseInt(name);
+		} catch (NumberFormatException ignored) {
+			return null;
+		}
+	}
+
+	private static Integer parseButton(String name) {
+		switch (name) {
+			case "1":
+				return GLFW_MOUSE_BUTTON_1;
+			case "2":
+				return GLFW_MOUSE_BUTTON_2;
+			default:
+				return null;
+		}
+	}
+
+	private static Integer parseAction(String name) {
+		switch (name.toLowerCase()) {
+			case "press":
+				return GLFW_PRESS;
+			case "release":
+				return GLFW_RELEASE;
+			default:
+				return null;
+		}
+	}
+}
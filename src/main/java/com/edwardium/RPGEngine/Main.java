@@ -1,9 +1,20 @@
 package com.edwardium.RPGEngine;
 
 import com.edwardium.RPGEngine.Control.Engine;
+import com.edwardium.RPGEngine.Control.HeadlessRunner;
+import com.edwardium.RPGEngine.Renderer.RecordingRendererCheck;
+
+import java.util.Arrays;
 
 public class Main {
 	public static void main(String[] args) {
+		if (args.length > 0 && args[0].equals("--headless")) {
+			System.exit(HeadlessRunner.runFromArgs(Arrays.copyOfRange(args, 1, args.length)));
+		}
+		if (args.length > 0 && args[0].equals("--check-recorder")) {
+			System.exit(RecordingRendererCheck.run());
+		}
+
 		Engine.gameEngine.start(); //vroom vroooom
 	}
 }
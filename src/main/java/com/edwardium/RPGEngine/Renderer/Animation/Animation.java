@@ -22,6 +22,10 @@ public abstract class Animation {
 		this.running = false;
 	}
 
+	public boolean isRunning() {
+		return running;
+	}
+
 	public void jumpToStart() {
 		this.currentTime = 0;
 	}
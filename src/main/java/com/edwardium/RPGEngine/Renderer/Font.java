@@ -4,6 +4,8 @@ import com.edwardium.RPGEngine.Renderer.OpenGL.OpenGLFont;
 import com.edwardium.RPGEngine.Utility.Vector2D;
 
 import java.nio.IntBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public abstract class Font {
 	public class FontVertices {
@@ -18,10 +20,48 @@ public abstract class Font {
 		}
 	}
 
+	// number of laid out strings kept by getTextMesh
+	private static final int TEXT_CACHE_SIZE = 256;
+
+	// least recently used strings are dropped first
+	private final LinkedHashMap<String, TextMesh> textCache = new LinkedHashMap<String, TextMesh>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, TextMesh> eldest) {
+			return size() > TEXT_CACHE_SIZE;
+		}
+	};
+
 	protected Font() {
 
 	}
 
+	/**
+	 * Computes the quad of one character, like {@code stbtt_GetBakedQuad} with the pen at (penX, 0).
+	 *
+	 * @param codePoint Character.
+	 * @param penX Pen position.
+	 * @param quad Array of 8 floats the quad is written to as (x0, y0, x1, y1, s0, t0, s1, t1).
+	 * @return How far to advance the pen.
+	 */
+	public abstract float getGlyph(int codePoint, float penX, float[] quad);
+
+	/**
+	 * Returns text laid out with this font from a cache of recently drawn strings.
+	 * Layout does not depend on scale, that is applied when drawing. Not thread safe.
+	 *
+	 * @param text Text to lay out.
+	 * @return Laid out text. It must not be changed.
+	 */
+	public TextMesh getTextMesh(String text) {
+		TextMesh mesh = textCache.get(text);
+		if (mesh == null) {
+			mesh = new TextMesh(this, text);
+			textCache.put(text, mesh);
+		}
+
+		return mesh;
+	}
+
 	public abstract void bakeBuffer(int bitmap_width, int bitmap_height);
 	public abstract int getBakedTextureID();
 
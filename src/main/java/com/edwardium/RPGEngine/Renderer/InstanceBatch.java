@@ -0,0 +1,121 @@
+package com.edwardium.RPGEngine.Renderer;
+
+import com.edwardium.RPGEngine.Utility.Vector2D;
+
+import java.util.Arrays;
+
+/**
+ * Many instances of one primitive with the same texture, drawn with {@code Renderer.drawInstances} in one call.
+ *
+ * Instances are kept in one float array, so a batch can be cleared and refilled every frame without allocating.
+ */
+public class InstanceBatch {
+	public enum Primitive { RECTANGLE, CIRCLE }
+
+	/**
+	 * Floats per instance: x, y, rotation, scale x, scale y, color, texture offset, texture size.
+	 * Texture size is negative if the instance uses the texture from the offset to the end.
+	 */
+	public static final int INSTANCE_FLOATS = 2 + 1 + 2 + 4 + 2 + 2;
+
+	public final Primitive primitive;
+	public final String textureName;
+	public final boolean useLights;
+
+	private float[] data;
+	private int count = 0;
+
+	public InstanceBatch(Primitive primitive, String textureName, boolean useLights) {
+		this.primitive = primitive;
+		this.textureName = textureName != null ? textureName : "default";
+		this.useLights = useLights;
+
+		this.data = new float[INSTANCE_FLOATS * 16];
+	}
+
+	/**
+	 * Replaces the instances with the instances of other, reusing the memory of this batch if there is enough.
+	 * Both batches have to have the same primitive, texture and lights.
+	 *
+	 * @return This reference.
+	 */
+	public InstanceBatch copyFrom(InstanceBatch other) {
+		if (other.primitive != primitive || !other.textureName.equals(textureName) || other.useLights != useLights)
+			throw new IllegalArgumentException("Instance batches have to use the same primitive, texture and lights!");
+
+		if (data.length < other.count * INSTANCE_FLOATS)
+			data = new float[other.data.length];
+		System.arraycopy(other.data, 0, data, 0, other.count * INSTANCE_FLOATS);
+		count = other.count;
+
+		return this;
+	}
+
+	/**
+	 * Adds an instance using the whole texture.
+	 *
+	 * @param scaleX Width of a rectangle or horizontal radius of a circle, like in {@code drawRectangle} and {@code drawCircle}.
+	 * @param scaleY Height of a rectangle or vertical radius of a circle.
+	 * @param color Color of the instance, white if null.
+	 * @return This reference.
+	 */
+	public InstanceBatch add(float x, float y, float rotation, float scaleX, float scaleY, Color color) {
+		return add(x, y, rotation, scaleX, scaleY, color, 0, 0, -1, -1);
+	}
+
+	/**
+	 * Adds an instance using a part of the texture, in the same coordinates as {@code TextureInfo}.
+	 *
+	 * @return This reference.
+	 */
+	public InstanceBatch add(float x, float y, float rotation, float scaleX, float scaleY, Color color, Vector2D textureOffset, Vector2D textureSize) {
+		return add(x, y, rotation, scaleX, scaleY, color,
+				textureOffset != null ? textureOffset.getX() : 0, textureOffset != null ? textureOffset.getY() : 0,
+				textureSize != null ? textureSize.getX() : -1, textureSize != null ? textureSize.getY() : -1);
+	}
+
+	private InstanceBatch add(float x, float y, float rotation, float scaleX, float scaleY, Color color,
+							  float textureX, float textureY, float textureWidth, float textureHeight) {
+		if ((count + 1) * INSTANCE_FLOATS > data.length)
+			data = Arrays.copyOf(data, data.length * 2);
+
+		int offset = count * INSTANCE_FLOATS;
+		data[offset++] = x;
+		data[offset++] = y;
+		data[offset++] = rotation;
+		data[offset++] = scaleX;
+		data[offset++] = scaleY;
+
+		data[offset++] = color != null ? color.R() : 1;
+		data[offset++] = color != null ? color.G() : 1;
+		data[offset++] = color != null ? color.B() : 1;
+		data[offset++] = color != null ? color.A() : 1;
+
+		data[offset++] = textureX;
+		data[offset++] = textureY;
+		data[offset++] = textureWidth;
+		data[offset] = textureHeight;
+
+		count++;
+
+		return this;
+	}
+
+	/**
+	 * Removes all instances, keeping the memory for the next ones.
+	 */
+	public void clear() {
+		count = 0;
+	}
+
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @return Instance data, {@code INSTANCE_FLOATS} per instance. Only the first {@code size() * INSTANCE_FLOATS} floats are valid.
+	 */
+	public float[] getData() {
+		return data;
+	}
+}
@@ -3,13 +3,14 @@ package com.edwardium.RPGEngine.Renderer;
 import com.edwardium.RPGEngine.Utility.Vector2D;
 
 public class Light {
-	public static final float DEFAULT_CUTOFF_MULT = 10f;
+	// attenuation is power / distance, past power * 255 a light adds less than one step of an 8 bit color channel
+	public static final float DEFAULT_CUTOFF_MULT = 255f;
 
 	public Vector2D position;
 	public final Color color;
 
-	public final float power;
-	public final float cutoff;
+	public float power;
+	public float cutoff;
 
 	public Light(Vector2D position, Color color, Float power) {
 		this(position, color, power, null);
@@ -20,4 +21,11 @@ public class Light {
 		this.power = power == null ? 0f : power;
 		this.cutoff = cutoff == null ? 0f : cutoff;
 	}
+
+	/**
+	 * @return Distance past which the light is not applied, the cutoff if it is set, otherwise power * DEFAULT_CUTOFF_MULT.
+	 */
+	public float getRadius() {
+		return cutoff > 0 ? cutoff : power * DEFAULT_CUTOFF_MULT;
+	}
 }
@@ -0,0 +1,196 @@
+package com.edwardium.RPGEngine.Renderer;
+
+import com.edwardium.RPGEngine.Utility.Rectangle;
+import com.edwardium.RPGEngine.Utility.Vector2D;
+
+import java.util.Objects;
+
+/**
+ * Renderer without a window that discards everything drawn into it, for running the game headless.
+ * Only counts the draw calls and how often the draw state changes between them.
+ */
+public class NullRenderer extends Renderer {
+	// kinds of draws that need different state, quads are batched together by the OpenGL renderer
+	private static final int KIND_QUAD = 0;
+	private static final int KIND_TEXT = 1;
+	private static final int KIND_SHAPE = 2;
+	private static final int KIND_INSTANCES = 3;
+	private static final int KIND_STATIC_MESH = 4;
+
+	private boolean vSync = false;
+	private long drawCalls = 0;
+	private long stateChanges = 0;
+
+	private int lastKind = -1;
+	private String lastTextureName = null;
+	private boolean lastUseLights = false;
+
+	public NullRenderer(int width, int height) {
+		super("Headless", width, height);
+	}
+
+	/**
+	 * @return Number of draw calls since creation.
+	 */
+	public long getDrawCalls() {
+		return drawCalls;
+	}
+
+	/**
+	 * @return Number of draw calls since creation that used a different kind of draw, texture or lights
+	 * than the previous one.
+	 */
+	public long getStateChanges() {
+		return stateChanges;
+	}
+
+	private void draw(int kind, RenderInfo info) {
+		draw(kind, info != null ? info.textureInfo.textureName : null, info == null || info.useLights);
+	}
+
+	private void draw(int kind, String textureName, boolean useLights) {
+		drawCalls++;
+
+		if (kind != lastKind || !Objects.equals(textureName, lastTextureName) || useLights != lastUseLights) {
+			stateChanges++;
+			lastKind = kind;
+			lastTextureName = textureName;
+			lastUseLights = useLights;
+		}
+	}
+
+	@Override
+	protected void init() {
+
+	}
+
+	@Override
+	public long getWindowHandle() {
+		return 0;
+	}
+
+	@Override
+	public Vector2D getWindowSize() {
+		return new Vector2D(windowWidth, windowHeight);
+	}
+
+	@Override
+	public void show() {
+
+	}
+
+	@Override
+	public void hide() {
+
+	}
+
+	@Override
+	public boolean getVSync() {
+		return vSync;
+	}
+
+	@Override
+	public void setVSync(boolean value) {
+		vSync = value;
+	}
+
+	@Override
+	public void beforeLoop() {
+
+	}
+
+	@Override
+	public void afterLoop() {
+
+	}
+
+	@Override
+	public void pushTransformMatrix() {
+
+	}
+
+	@Override
+	public void applyTransformMatrix(Vector2D scale, Float rotation, Vector2D translation) {
+
+	}
+
+	@Override
+	public void popTransformMatrix() {
+
+	}
+
+	@Override
+	public void drawLine(Vector2D destPoint, RenderInfo info) {
+		draw(KIND_QUAD, info);
+	}
+
+	@Override
+	public void drawRectangle(RenderInfo info) {
+		draw(KIND_QUAD, info);
+	}
+
+	@Override
+	public void drawRectangle(Rectangle rectangle, RenderInfo info) {
+		draw(KIND_QUAD, info);
+	}
+
+	@Override
+	public void drawCircle(RenderInfo info) {
+		draw(KIND_QUAD, info);
+	}
+
+	@Override
+	public void drawCircle(float minRadius, float maxRadius, float maxAngle, RenderInfo info) {
+		draw(KIND_QUAD, info);
+	}
+
+	@Override
+	public void drawString(Font font, String text, RenderInfo info, StringAlignment alignment) {
+		draw(KIND_TEXT, font != null ? font.getTextureName() : null, info == null || info.useLights);
+	}
+
+	@Override
+	public void drawString(Font font, String text, RenderInfo info) {
+		draw(KIND_TEXT, font != null ? font.getTextureName() : null, info == null || info.useLights);
+	}
+
+	@Override
+	public void drawText(TextMesh text, RenderInfo info, StringAlignment alignment) {
+		draw(KIND_TEXT, text.getFont() != null ? text.getFont().getTextureName() : null, info == null || info.useLights);
+	}
+
+	@Override
+	public void drawShape(Vertex[] shape, RenderInfo info) {
+		draw(KIND_SHAPE, info);
+	}
+
+	@Override
+	public void drawInstances(InstanceBatch batch) {
+		draw(KIND_INSTANCES, batch.textureName, batch.useLights);
+	}
+
+	@Override
+	public void drawStaticMesh(StaticMesh mesh, RenderInfo info) {
+		draw(KIND_STATIC_MESH, info);
+	}
+
+	@Override
+	public void setLight(int index, Light light) {
+
+	}
+
+	@Override
+	public void setLightCount(int count) {
+
+	}
+
+	@Override
+	public boolean shouldClose() {
+		return false;
+	}
+
+	@Override
+	public void cleanup() {
+
+	}
+}
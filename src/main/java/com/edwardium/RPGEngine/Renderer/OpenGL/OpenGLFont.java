@@ -22,10 +22,20 @@ import static org.lwjgl.system.MemoryStack.stackPush;
 //import static org.lwjgl.stb.STBImageWrite.*;
 
 public class OpenGLFont extends Font {
+	private static final int FIRST_CHARACTER = 32;
+	private static final int CHARACTER_COUNT = 96;
+	// drawn for characters that are not baked
+	private static final int MISSING_CHARACTER = '?';
+	// x0, y0, x1, y1, xoff, yoff, xadvance
+	private static final int GLYPH_FLOATS = 7;
+
 	private final ByteBuffer ttf;
 	private final STBTTFontinfo info;
 
 	private STBTTBakedChar.Buffer bakedBuffer = null;
+	private ByteBuffer bakedBitmap = null;
+	// baked character data copied out of bakedBuffer, so that text layout does not call into stb
+	private float[] glyphs = null;
 	private int bakedWidth;
 	private int bakedHeight;
 
@@ -70,13 +80,26 @@ public class OpenGLFont extends Font {
 	@Override
 	public void bakeBuffer(int bitmapWidth, int bitmapHeight) {
 		this.textureID = glGenTextures();
-		this.bakedBuffer = STBTTBakedChar.malloc(96);
+		this.bakedBuffer = STBTTBakedChar.malloc(CHARACTER_COUNT);
 
 		this.bakedWidth = bitmapWidth;
 		this.bakedHeight = bitmapHeight;
 
 		ByteBuffer bitmap = BufferUtils.createByteBuffer(this.bakedWidth * this.bakedHeight);
-		stbtt_BakeFontBitmap(ttf, fontHeight, bitmap, this.bakedWidth, this.bakedHeight, 32, this.bakedBuffer);
+		stbtt_BakeFontBitmap(ttf, fontHeight, bitmap, this.bakedWidth, this.bakedHeight, FIRST_CHARACTER, this.bakedBuffer);
+		this.bakedBitmap = bitmap;
+
+		this.glyphs = new float[CHARACTER_COUNT * GLYPH_FLOATS];
+		for (int i = 0; i < CHARACTER_COUNT; i++) {
+			STBTTBakedChar bakedChar = bakedBuffer.get(i);
+			glyphs[i * GLYPH_FLOATS] = bakedChar.x0();
+			glyphs[i * GLYPH_FLOATS + 1] = bakedChar.y0();
+			glyphs[i * GLYPH_FLOATS + 2] = bakedChar.x1();
+			glyphs[i * GLYPH_FLOATS + 3] = bakedChar.y1();
+			glyphs[i * GLYPH_FLOATS + 4] = bakedChar.xoff();
+			glyphs[i * GLYPH_FLOATS + 5] = bakedChar.yoff();
+			glyphs[i * GLYPH_FLOATS + 6] = bakedChar.xadvance();
+		}
 
 		glBindTexture(GL_TEXTURE_2D, textureID);
 
@@ -87,6 +110,33 @@ public class OpenGLFont extends Font {
 		glBindTexture(GL_TEXTURE_2D, 0);
 	}
 
+	@Override
+	public float getGlyph(int codePoint, float penX, float[] quad) {
+		if (glyphs == null)
+			throw new IllegalStateException("Font is not baked!");
+
+		int index = codePoint - FIRST_CHARACTER;
+		if (index < 0 || index >= CHARACTER_COUNT)
+			index = MISSING_CHARACTER - FIRST_CHARACTER;
+		int offset = index * GLYPH_FLOATS;
+
+		// same rounding as stbtt_GetBakedQuad with opengl fill rule
+		float x = (float)Math.floor(penX + glyphs[offset + 4] + 0.5f);
+		float y = (float)Math.floor(glyphs[offset + 5] + 0.5f);
+
+		quad[0] = x;
+		quad[1] = y;
+		quad[2] = x + glyphs[offset + 2] - glyphs[offset];
+		quad[3] = y + glyphs[offset + 3] - glyphs[offset + 1];
+
+		quad[4] = glyphs[offset] / bakedWidth;
+		quad[5] = glyphs[offset + 1] / bakedHeight;
+		quad[6] = glyphs[offset + 2] / bakedWidth;
+		quad[7] = glyphs[offset + 3] / bakedHeight;
+
+		return glyphs[offset + 6];
+	}
+
 	@Override
 	public FontVertices generateVertices(String text, Vector2D scale) {
 		if (this.bakedBuffer == null)
@@ -148,6 +198,17 @@ public class OpenGLFont extends Font {
 		return this.textureID;
 	}
 
+	/**
+	 * @return Single channel bitmap of the baked characters, null if not baked yet.
+	 */
+	public ByteBuffer getBakedBitmap() {
+		return this.bakedBitmap;
+	}
+
+	public int getFontHeight() {
+		return this.fontHeight;
+	}
+
 	@Override
 	public void setTextureName(String name) {
 		this.textureName = name;
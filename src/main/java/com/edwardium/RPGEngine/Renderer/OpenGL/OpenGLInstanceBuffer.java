@@ -0,0 +1,184 @@
+package com.edwardium.RPGEngine.Renderer.OpenGL;
+
+import com.edwardium.RPGEngine.Renderer.InstanceBatch;
+import com.edwardium.RPGEngine.Renderer.Vertex;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.ARBDrawInstanced;
+import org.lwjgl.opengl.ARBInstancedArrays;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.glDrawArraysInstanced;
+import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
+
+/**
+ * Draws an {@code InstanceBatch} with one instanced draw call of the unit square.
+ *
+ * Each instance is a 2x2 matrix and an offset that place the square, its color and its texture subspace, read from
+ * a per instance vertex buffer. Circle info and flags are the same for all instances and are set as constant
+ * vertex attributes. The shader takes per draw parameters from vertex data like for the sprite batch, and the
+ * instance transform attributes are left at identity for all other draws.
+ */
+class OpenGLInstanceBuffer {
+	// axes, offset, color, texture subspace
+	private static final int INSTANCE_FLOATS = 4 + 2 + 4 + 4;
+	private static final int STRIDE = INSTANCE_FLOATS * 4;
+
+	private final boolean coreInstancing;
+
+	private final int vao;
+	private final int vbo;
+
+	private FloatBuffer instances;
+	private final float[] subtexture = new float[4];
+
+	/**
+	 * @return Whether instanced drawing is supported by the current context.
+	 */
+	static boolean isSupported() {
+		GLCapabilities capabilities = GL.getCapabilities();
+		return capabilities.OpenGL33 || (capabilities.GL_ARB_instanced_arrays && (capabilities.OpenGL31 || capabilities.GL_ARB_draw_instanced));
+	}
+
+	/**
+	 * @param squareVBO Vertex buffer of the unit square, in {@code Vertex} layout.
+	 * @param initialInstances Number of instances the buffer is created for, it grows if more are drawn.
+	 */
+	OpenGLInstanceBuffer(int squareVBO, int initialInstances) {
+		GLCapabilities capabilities = GL.getCapabilities();
+		coreInstancing = capabilities.OpenGL33;
+
+		instances = BufferUtils.createFloatBuffer(initialInstances * INSTANCE_FLOATS);
+
+		vao = glGenVertexArrays();
+		glBindVertexArray(vao);
+
+		// per vertex
+		glBindBuffer(GL_ARRAY_BUFFER, squareVBO);
+		glVertexAttribPointer(OpenGLShaderBasic.attribute_position, Vertex.positionElementCount, GL_FLOAT, false, Vertex.stride, Vertex.positionPointerOffset);
+		glVertexAttribPointer(OpenGLShaderBasic.attribute_textureCoord, Vertex.textureCoordElementCount, GL_FLOAT, false, Vertex.stride, Vertex.texturePointerOffset);
+		glEnableVertexAttribArray(OpenGLShaderBasic.attribute_position);
+		glEnableVertexAttribArray(OpenGLShaderBasic.attribute_textureCoord);
+
+		// per instance
+		vbo = glGenBuffers();
+		glBindBuffer(GL_ARRAY_BUFFER, vbo);
+		glBufferData(GL_ARRAY_BUFFER, (long)instances.capacity() * 4, GL_STREAM_DRAW);
+		instanceAttribute(OpenGLShaderBasic.attribute_instanceAxes, 4, 0);
+		instanceAttribute(OpenGLShaderBasic.attribute_instanceOffset, 2, 4);
+		instanceAttribute(OpenGLShaderBasic.attribute_vertexColor, 4, 4 + 2);
+		instanceAttribute(OpenGLShaderBasic.attribute_textureSubspace, 4, 4 + 2 + 4);
+
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+		glBindVertexArray(0);
+	}
+
+	private void instanceAttribute(int attribute, int size, int offset) {
+		glVertexAttribPointer(attribute, size, GL_FLOAT, false, STRIDE, offset * 4);
+		glEnableVertexAttribArray(attribute);
+		if (coreInstancing)
+			glVertexAttribDivisor(attribute, 1);
+		else
+			ARBInstancedArrays.glVertexAttribDivisorARB(attribute, 1);
+	}
+
+	/**
+	 * Sets the instance transform attributes to identity, for draws that do not have them in vertex data.
+	 * Has to be called once even if instancing is not supported.
+	 */
+	static void resetInstanceTransform() {
+		glVertexAttrib4f(OpenGLShaderBasic.attribute_instanceAxes, 1, 0, 0, 1);
+		glVertexAttrib2f(OpenGLShaderBasic.attribute_instanceOffset, 0, 0);
+	}
+
+	/**
+	 * Draws all instances of batch with the transform that is currently uploaded to the shader.
+	 *
+	 * @param circleInfo Circle info of all instances.
+	 * @return Number of instances drawn.
+	 */
+	int draw(OpenGLShaderBasic shader, OpenGLTexture texture, InstanceBatch batch, float[] circleInfo) {
+		int count = batch.size();
+		if (count == 0)
+			return 0;
+
+		fill(texture, batch);
+
+		glUseProgram(shader.getProgramID());
+		shader.fillUniformBatched(true);
+
+		glBindVertexArray(vao);
+		glBindBuffer(GL_ARRAY_BUFFER, vbo);
+		// orphan the old storage so the driver does not wait for the previous draw from it
+		glBufferData(GL_ARRAY_BUFFER, (long)instances.capacity() * 4, GL_STREAM_DRAW);
+		glBufferSubData(GL_ARRAY_BUFFER, 0, instances);
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+		glVertexAttrib3f(OpenGLShaderBasic.attribute_circleInfo, circleInfo[0], circleInfo[1], circleInfo[2]);
+		glVertexAttrib2f(OpenGLShaderBasic.attribute_flags, 0, batch.useLights ? 1 : 0);
+
+		glActiveTexture(texture.getTextureUnit());
+		glBindTexture(GL_TEXTURE_2D, texture.getTextureID());
+		shader.fillUniformTexture(texture.getTextureUnit());
+
+		if (coreInstancing)
+			glDrawArraysInstanced(GL_TRIANGLE_FAN, 0, 4, count);
+		else
+			ARBDrawInstanced.glDrawArraysInstancedARB(GL_TRIANGLE_FAN, 0, 4, count);
+
+		glBindVertexArray(0);
+
+		// the current values of attributes read from arrays are undefined after a draw on older versions
+		resetInstanceTransform();
+
+		return count;
+	}
+
+	private void fill(OpenGLTexture texture, InstanceBatch batch) {
+		int count = batch.size();
+		if (instances.capacity() < count * INSTANCE_FLOATS) {
+			int capacity = instances.capacity();
+			while (capacity < count * INSTANCE_FLOATS)
+				capacity *= 2;
+			instances = BufferUtils.createFloatBuffer(capacity);
+		}
+
+		// circles are scaled by their radius
+		float scaleMultiplier = batch.primitive == InstanceBatch.Primitive.CIRCLE ? 2 : 1;
+
+		float[] data = batch.getData();
+		instances.clear();
+		for (int i = 0; i < count; i++) {
+			int offset = i * InstanceBatch.INSTANCE_FLOATS;
+			float x = data[offset];
+			float y = data[offset + 1];
+			float rotation = data[offset + 2];
+			float scaleX = data[offset + 3] * scaleMultiplier;
+			float scaleY = data[offset + 4] * scaleMultiplier;
+
+			// same as translate, rotate and scale on the transform stack
+			float cos = rotation != 0 ? (float)Math.cos(rotation) : 1;
+			float sin = rotation != 0 ? (float)Math.sin(rotation) : 0;
+			instances.put(cos * scaleX).put(sin * scaleX).put(-sin * scaleY).put(cos * scaleY);
+			instances.put(x).put(y);
+
+			instances.put(data, offset + 5, 4);
+
+			texture.computeSubtexture(data[offset + 9], data[offset + 10], data[offset + 11], data[offset + 12], subtexture, 0);
+			instances.put(subtexture);
+		}
+		instances.flip();
+	}
+
+	void cleanup() {
+		glDeleteBuffers(vbo);
+		glDeleteVertexArrays(vao);
+	}
+}
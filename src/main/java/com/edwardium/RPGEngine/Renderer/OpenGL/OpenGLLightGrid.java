@@ -0,0 +1,315 @@
+package com.edwardium.RPGEngine.Renderer.OpenGL;
+
+import com.edwardium.RPGEngine.Renderer.Light;
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.GL_CLAMP_TO_EDGE;
+import static org.lwjgl.opengl.GL13.*;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Tiled light culling. The window is split into square tiles and each light is binned into the tiles its radius touches,
+ * so that a fragment only loops over the lights of its own tile instead of over all of them.
+ *
+ * The lights, the per tile (first index, count) pairs and the light index lists are uploaded into three float textures.
+ * Ambient lights (power &lt;= 0) light every fragment the same and are summed into one color instead.
+ */
+class OpenGLLightGrid {
+	// tile size in pixels
+	static final int TILE_SIZE = 32;
+
+	// floats per light, (x, y, power, radius) and color
+	private static final int LIGHT_FLOATS = 8;
+	// lights in one row of the light texture
+	private static final int LIGHTS_PER_ROW = 256;
+	// indices in one row of the index texture
+	private static final int INDICES_PER_ROW = 1024;
+
+	private final int lightDataUnit;
+	private final int tileUnit;
+	private final int indexUnit;
+
+	private final int lightDataTexture;
+	private final int tileTexture;
+	private final int indexTexture;
+
+	private final int maxTextureSize;
+
+	private float[] lights = new float[LIGHT_FLOATS * 64];
+	private int lightCount = 0;
+	private final float[] ambient = new float[4];
+
+	private int tilesX = 0;
+	private int tilesY = 0;
+	// per tile (first index, count)
+	private float[] tiles = new float[0];
+	private int[] tileCounts = new int[0];
+	private float[] indices = new float[INDICES_PER_ROW];
+	private int indexCount = 0;
+
+	private FloatBuffer uploadBuffer = BufferUtils.createFloatBuffer(INDICES_PER_ROW);
+
+	// allocated texture sizes
+	private int lightDataRows = 0;
+	private int indexRows = 0;
+	private int tileTextureWidth = 0;
+	private int tileTextureHeight = 0;
+
+	private boolean dirty = true;
+
+	/**
+	 * Creates the textures. Needs a current OpenGL context.
+	 *
+	 * @param firstTextureUnit First of the three consecutive texture units the textures stay bound to.
+	 */
+	OpenGLLightGrid(int firstTextureUnit) {
+		lightDataUnit = firstTextureUnit;
+		tileUnit = firstTextureUnit + 1;
+		indexUnit = firstTextureUnit + 2;
+
+		maxTextureSize = glGetInteger(GL_MAX_TEXTURE_SIZE);
+
+		lightDataTexture = createTexture(lightDataUnit);
+		tileTexture = createTexture(tileUnit);
+		indexTexture = createTexture(indexUnit);
+		glActiveTexture(GL_TEXTURE0);
+	}
+
+	private static int createTexture(int textureUnit) {
+		glActiveTexture(textureUnit);
+
+		int texture = glGenTextures();
+		glBindTexture(GL_TEXTURE_2D, texture);
+
+		// texels are data, not colors
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+
+		return texture;
+	}
+
+	int getLightDataUnit() {
+		return lightDataUnit - GL_TEXTURE0;
+	}
+
+	int getTileUnit() {
+		return tileUnit - GL_TEXTURE0;
+	}
+
+	int getIndexUnit() {
+		return indexUnit - GL_TEXTURE0;
+	}
+
+	/**
+	 * @param index Index of the light, lights past the light count are kept but not used.
+	 * @param light Light with position in window coordinates with the origin in the bottom left corner. Null turns the light off.
+	 */
+	void setLight(int index, Light light) {
+		if ((index + 1) * LIGHT_FLOATS > lights.length)
+			lights = Arrays.copyOf(lights, Math.max(lights.length * 2, (index + 1) * LIGHT_FLOATS));
+
+		int offset = index * LIGHT_FLOATS;
+		if (light != null) {
+			lights[offset] = light.position.getX();
+			lights[offset + 1] = light.position.getY();
+			lights[offset + 2] = light.power;
+			lights[offset + 3] = light.getRadius();
+			lights[offset + 4] = light.color.R();
+			lights[offset + 5] = light.color.G();
+			lights[offset + 6] = light.color.B();
+			lights[offset + 7] = light.color.A();
+		} else {
+			Arrays.fill(lights, offset, offset + LIGHT_FLOATS, 0);
+		}
+
+		dirty = true;
+	}
+
+	void setLightCount(int count) {
+		if (count * LIGHT_FLOATS > lights.length)
+			lights = Arrays.copyOf(lights, Math.max(lights.length * 2, count * LIGHT_FLOATS));
+
+		lightCount = count;
+		dirty = true;
+	}
+
+	/**
+	 * Bins the lights into tiles of a window of the given size and uploads the textures if anything changed.
+	 */
+	void update(int windowWidth, int windowHeight, OpenGLShaderBasic shader) {
+		int newTilesX = (windowWidth + TILE_SIZE - 1) / TILE_SIZE;
+		int newTilesY = (windowHeight + TILE_SIZE - 1) / TILE_SIZE;
+		if (newTilesX != tilesX || newTilesY != tilesY) {
+			tilesX = newTilesX;
+			tilesY = newTilesY;
+			tiles = new float[tilesX * tilesY * 2];
+			tileCounts = new int[tilesX * tilesY];
+			dirty = true;
+		}
+
+		if (!dirty)
+			return;
+
+		bin();
+		upload();
+
+		shader.fillUniformLightGrid(ambient, TILE_SIZE, tilesX, tilesY, LIGHTS_PER_ROW * 2, lightDataRows, INDICES_PER_ROW, indexRows);
+		dirty = false;
+	}
+
+	/**
+	 * Sums the ambient lights and builds the tile lists with a counting sort, first counting the lights of each tile
+	 * and then filling the lists in place.
+	 */
+	private void bin() {
+		Arrays.fill(ambient, 0);
+		Arrays.fill(tileCounts, 0);
+
+		for (int i = 0; i < lightCount; i++) {
+			int offset = i * LIGHT_FLOATS;
+			if (lights[offset + 2] <= 0) {
+				for (int c = 0; c < 4; c++) {
+					ambient[c] += lights[offset + 4 + c];
+				}
+			} else {
+				forEachTile(i, -1);
+			}
+		}
+
+		int total = 0;
+		for (int tile = 0; tile < tileCounts.length; tile++) {
+			tiles[tile * 2] = total;
+			tiles[tile * 2 + 1] = tileCounts[tile];
+			total += tileCounts[tile];
+			// counts are refilled while the lists are written
+			tileCounts[tile] = 0;
+		}
+
+		int maxIndices = INDICES_PER_ROW * maxTextureSize;
+		if (total > maxIndices) {
+			System.err.println("Warning: Too many lights in view, " + (total - maxIndices) + " tile entries dropped!");
+			clampTiles(maxIndices);
+			total = maxIndices;
+		}
+
+		if (total > indices.length)
+			indices = new float[Math.max(indices.length * 2, total)];
+		indexCount = total;
+
+		for (int i = 0; i < lightCount; i++) {
+			if (lights[i * LIGHT_FLOATS + 2] > 0)
+				forEachTile(i, i);
+		}
+	}
+
+	/**
+	 * Visits the tiles the radius of light touches. Only counts the light if write is negative, otherwise writes
+	 * write into the list of each tile.
+	 */
+	private void forEachTile(int light, int write) {
+		int offset = light * LIGHT_FLOATS;
+		float x = lights[offset];
+		float y = lights[offset + 1];
+		float radius = lights[offset + 3];
+
+		int minX = Math.max(0, (int)Math.floor((x - radius) / TILE_SIZE));
+		int maxX = Math.min(tilesX - 1, (int)Math.floor((x + radius) / TILE_SIZE));
+		int minY = Math.max(0, (int)Math.floor((y - radius) / TILE_SIZE));
+		int maxY = Math.min(tilesY - 1, (int)Math.floor((y + radius) / TILE_SIZE));
+
+		for (int ty = minY; ty <= maxY; ty++) {
+			float dy = Math.max(ty * TILE_SIZE - y, Math.max(0, y - (ty + 1) * TILE_SIZE));
+			for (int tx = minX; tx <= maxX; tx++) {
+				float dx = Math.max(tx * TILE_SIZE - x, Math.max(0, x - (tx + 1) * TILE_SIZE));
+				// corner tiles of the bounding square can be out of the circle
+				if (dx * dx + dy * dy > radius * radius)
+					continue;
+
+				int tile = ty * tilesX + tx;
+				if (write < 0) {
+					tileCounts[tile]++;
+				} else if (tileCounts[tile] < tiles[tile * 2 + 1]) {
+					indices[(int)tiles[tile * 2] + tileCounts[tile]] = write;
+					tileCounts[tile]++;
+				}
+			}
+		}
+	}
+
+	private void clampTiles(int maxIndices) {
+		for (int tile = 0; tile < tileCounts.length; tile++) {
+			int first = (int)tiles[tile * 2];
+			int count = (int)tiles[tile * 2 + 1];
+			tiles[tile * 2] = Math.min(first, maxIndices);
+			tiles[tile * 2 + 1] = Math.max(0, Math.min(count, maxIndices - first));
+		}
+	}
+
+	private void upload() {
+		// light data
+		int rows = Math.max(1, (lightCount + LIGHTS_PER_ROW - 1) / LIGHTS_PER_ROW);
+		FloatBuffer buffer = fill(lights, lightCount * LIGHT_FLOATS, rows * LIGHTS_PER_ROW * LIGHT_FLOATS);
+		glActiveTexture(lightDataUnit);
+		glBindTexture(GL_TEXTURE_2D, lightDataTexture);
+		if (rows != lightDataRows) {
+			glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA32F, LIGHTS_PER_ROW * 2, rows, 0, GL_RGBA, GL_FLOAT, buffer);
+			lightDataRows = rows;
+		} else {
+			glTexSubImage2D(GL_TEXTURE_2D, 0, 0, 0, LIGHTS_PER_ROW * 2, rows, GL_RGBA, GL_FLOAT, buffer);
+		}
+
+		// tiles
+		buffer = fill(tiles, tiles.length, tiles.length);
+		glActiveTexture(tileUnit);
+		glBindTexture(GL_TEXTURE_2D, tileTexture);
+		if (tilesX != tileTextureWidth || tilesY != tileTextureHeight) {
+			glTexImage2D(GL_TEXTURE_2D, 0, GL_RG32F, tilesX, tilesY, 0, GL_RG, GL_FLOAT, buffer);
+			tileTextureWidth = tilesX;
+			tileTextureHeight = tilesY;
+		} else {
+			glTexSubImage2D(GL_TEXTURE_2D, 0, 0, 0, tilesX, tilesY, GL_RG, GL_FLOAT, buffer);
+		}
+
+		// indices, only the rows in use are uploaded
+		rows = Math.max(1, (indexCount + INDICES_PER_ROW - 1) / INDICES_PER_ROW);
+		buffer = fill(indices, indexCount, rows * INDICES_PER_ROW);
+		glActiveTexture(indexUnit);
+		glBindTexture(GL_TEXTURE_2D, indexTexture);
+		if (rows > indexRows) {
+			glTexImage2D(GL_TEXTURE_2D, 0, GL_R32F, INDICES_PER_ROW, rows, 0, GL_RED, GL_FLOAT, buffer);
+			indexRows = rows;
+		} else {
+			glTexSubImage2D(GL_TEXTURE_2D, 0, 0, 0, INDICES_PER_ROW, rows, GL_RED, GL_FLOAT, buffer);
+		}
+
+		glActiveTexture(GL_TEXTURE0);
+	}
+
+	/**
+	 * @return The shared upload buffer with count floats of data, padded with zeros to size.
+	 */
+	private FloatBuffer fill(float[] data, int count, int size) {
+		if (uploadBuffer.capacity() < size)
+			uploadBuffer = BufferUtils.createFloatBuffer(Math.max(uploadBuffer.capacity() * 2, size));
+
+		uploadBuffer.clear();
+		uploadBuffer.put(data, 0, count);
+		while (uploadBuffer.position() < size)
+			uploadBuffer.put(0);
+		uploadBuffer.flip();
+
+		return uploadBuffer;
+	}
+
+	void cleanup() {
+		glDeleteTextures(lightDataTexture);
+		glDeleteTextures(tileTexture);
+		glDeleteTextures(indexTexture);
+	}
+}
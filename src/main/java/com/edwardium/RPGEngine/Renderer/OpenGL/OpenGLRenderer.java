@@ -1,5 +1,7 @@
 package com.edwardium.RPGEngine.Renderer.OpenGL;
 
+import com.edwardium.RPGEngine.Control.Metrics;
+import com.edwardium.RPGEngine.IO.IOUtil;
 import com.edwardium.RPGEngine.Renderer.*;
 import com.edwardium.RPGEngine.Utility.Rectangle;
 import com.edwardium.RPGEngine.Utility.Vector2D;
@@ -9,14 +11,19 @@ import org.lwjgl.glfw.GLFWWindowSizeCallback;
 import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL20;
 
+import java.io.File;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 
 import static org.lwjgl.glfw.Callbacks.glfwFreeCallbacks;
 import static org.lwjgl.glfw.GLFW.*;
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE1;
 import static org.lwjgl.opengl.GL13.glActiveTexture;
 import static org.lwjgl.opengl.GL15.*;
 import static org.lwjgl.opengl.GL20.*;
@@ -24,6 +31,26 @@ import static org.lwjgl.opengl.GL30.*;
 import static org.lwjgl.system.MemoryUtil.NULL;
 
 public class OpenGLRenderer extends Renderer {
+	private static class StaticMeshBuffers {
+		final int vao;
+		final int vbo;
+		int lastDrawnFrame;
+
+		StaticMeshBuffers(int vao, int vbo) {
+			this.vao = vao;
+			this.vbo = vbo;
+		}
+	}
+
+	private static final Metrics.Counter drawCallCounter = Metrics.counter("draw calls");
+	private static final Metrics.Counter batchedQuadCounter = Metrics.counter("batched quads");
+	private static final Metrics.Counter instanceCounter = Metrics.counter("instances");
+
+	// quads in one batch
+	private static final int BATCH_SIZE = 2048;
+	private static final float[] DEFAULT_CIRCLE_INFO = { 0f, 1f, 4f };
+	private static final float[] CIRCLE_INFO = { 0f, 0.5f, 4f };
+
 	private final float[] defaultColor = new float[] { 1f, 1f, 1f, 1f };
 	private final String defaultTexture = "default";
 
@@ -34,35 +61,55 @@ public class OpenGLRenderer extends Renderer {
 	private int squareVBO;
 	private int squareIBO;
 
-	// font buffers
-	private int fontVAO;
-	private int fontVBO;
-	private int fontIBO;
+	// text and shape vertices are streamed through this
+	private OpenGLStreamBuffer streamBuffer;
+
+	// instances of rectangles and circles, null if instancing is not supported
+	private OpenGLInstanceBuffer instanceBuffer = null;
+	// instances the instance buffer is created for
+	private static final int INSTANCE_BUFFER_SIZE = 1024;
+
+	// buffers of static meshes drawn in the last frames, deleted when not drawn for a while
+	private final IdentityHashMap<StaticMesh, StaticMeshBuffers> staticMeshes = new IdentityHashMap<>();
+	private static final int STATIC_MESH_TIMEOUT_FRAMES = 600;
+	private int frame = 0;
 
-	// shape buffers
-	private int shapeVAO;
-	private int shapeVBO;
-	private int shapeIBO;
+	// lights binned into screen tiles
+	private OpenGLLightGrid lightGrid;
 
 	// frame buffer for shadow pass
 	private int shadowFBO;
 
-	// in case we get a string that is longer, we will either need to
-	// split it and render is separately, or, even better, ignore it and
-	// leave the only trace of the reason here in this comment
-	private final int fontMaxCharacters = 10;
-	private final int fontMaxVertices = fontMaxCharacters * 4;
+	// vertices in one region of the stream buffer
+	private static final int STREAM_REGION_VERTICES = 16384;
+	// text is baked bigger than it is drawn
+	private static final float TEXT_SCALE = 0.66f;
 
-	// after this, we will need to split
-	private final int shapeMaxVertices = 16;
+	private static final String TEXTURE_DIRECTORY = "Assets/Textures";
+	private static final String ATLAS_CACHE_DIRECTORY = "cache";
+	private static final int ATLAS_MAX_PAGE_SIZE = 2048;
+	// names textures were known by before they were loaded from the atlas, alias to file name
+	private static final String[][] TEXTURE_ALIASES = { { "debug", "debug1" } };
+	private static final String FONT_PATH = "Assets/Fonts/NotoSans-Medium.ttf";
+	private static final int FONT_BITMAP_SIZE = 512;
 
 	private boolean vsyncStatus = true;
 
 	// shader
 	private OpenGLShaderBasic basicShader;
 
+	// projection and model view transforms, applied in the shader
+	private final TransformStack transform = new TransformStack();
+	private final float[] transformMatrix = new float[9];
+
+	// collects rectangles, circles and lines, null if they are drawn one by one
+	private OpenGLSpriteBatch spriteBatch = null;
+	private final float[] circleInfo = new float[3];
+	private final float[] textureSubspace = new float[4];
+
 	// textures
 	private HashMap<String, OpenGLTexture> gameTextures;
+	private OpenGLTextureAtlas textureAtlas;
 
 	public OpenGLRenderer(String title, int width, int height) {
 		super(title, width, height);
@@ -122,9 +169,11 @@ public class OpenGLRenderer extends Renderer {
 
 		setupPrimitives();
 		setupShaders();
-		setupTextures();
 		setupFonts();
-		setupShapes();
+		setupTextures();
+		setupStreamBuffer();
+		setupInstancing();
+		setupLights();
 	}
 
 	public long getWindowHandle() {
@@ -171,61 +220,127 @@ public class OpenGLRenderer extends Renderer {
 
 	private void setupTextures() {
 		gameTextures = new HashMap<>();
-		gameTextures.put("default", new OpenGLTexture("Assets/Textures/default.png", GL_TEXTURE0));
-		gameTextures.put("debug", new OpenGLTexture("Assets/Textures/debug1.png", GL_TEXTURE0));
 
-		gameTextures.put("editor", new OpenGLTexture("Assets/Textures/editor.png", GL_TEXTURE0));
-		gameTextures.put("sheet1", new OpenGLTexture("Assets/Textures/sheet1.png", GL_TEXTURE0));
+		// everything in the textures directory and the font share one atlas so that they can be batched together
+		textureAtlas = new OpenGLTextureAtlas(ATLAS_CACHE_DIRECTORY, Math.min(ATLAS_MAX_PAGE_SIZE, glGetInteger(GL_MAX_TEXTURE_SIZE)));
 
+		File[] textureFiles = new File(TEXTURE_DIRECTORY).listFiles((dir, name) -> name.toLowerCase().endsWith(".png"));
+		if (textureFiles != null) {
+			// sorted so that the cache key does not depend on the directory order
+			Arrays.sort(textureFiles);
+			for (File file : textureFiles) {
+				textureAtlas.addImage(IOUtil.fileSplitExtension(file)[0], file.getPath());
+			}
+		}
+
+		OpenGLFont font = (OpenGLFont) basicFont;
+		textureAtlas.addAlphaBitmap(font.getTextureName(), font.getBakedBitmap(), FONT_BITMAP_SIZE, FONT_BITMAP_SIZE,
+				OpenGLTextureAtlas.fileKey(FONT_PATH) + ":" + font.getFontHeight() + ":" + FONT_BITMAP_SIZE);
+
+		textureAtlas.build(GL_TEXTURE0);
+		gameTextures.putAll(textureAtlas.getTextures());
+
+		for (String[] alias : TEXTURE_ALIASES) {
+			if (gameTextures.containsKey(alias[1]))
+				gameTextures.put(alias[0], gameTextures.get(alias[1]));
+		}
+
+		// the splash is only shown once and too big to share a page
 		gameTextures.put("initsplash", new OpenGLTexture("Assets/splash.png", GL_TEXTURE0));
 
 		glEnable(GL_TEXTURE_2D);
 	}
 
 	private void setupFonts() {
-		String fontPath = "Assets/Fonts/NotoSans-Medium.ttf";
-		basicFont = new OpenGLFont(fontPath, 30);
-
-		fontVAO = glGenVertexArrays();
-		glBindVertexArray(fontVAO);
-
-		fontVBO = createVBO(new Vertex[fontMaxVertices], GL_DYNAMIC_DRAW);
+		basicFont = new OpenGLFont(FONT_PATH, 30);
 
 		glActiveTexture(GL_TEXTURE0);
-		basicFont.bakeBuffer(512, 512);
+		basicFont.bakeBuffer(FONT_BITMAP_SIZE, FONT_BITMAP_SIZE);
 
+		// the font is drawn from the atlas
 		basicFont.setTextureName("basicFontTexture");
-		gameTextures.put(basicFont.getTextureName(), new OpenGLTexture(GL_TEXTURE0, basicFont.getBakedTextureID(), 512, 512));
 		glActiveTexture(0);
+	}
 
-		glBindVertexArray(0);
+	private void setupStreamBuffer() {
+		streamBuffer = new OpenGLStreamBuffer(STREAM_REGION_VERTICES);
+	}
 
-		// we can create a static indices buffer, because the indices never change
-		int[] indices = new int[fontMaxCharacters];
-		for (int i = 0; i < indices.length; i++) {
-			indices[i] = i;
-		}
-		fontIBO = createIBO(indices, GL_STATIC_DRAW);
+	private void setupInstancing() {
+		OpenGLInstanceBuffer.resetInstanceTransform();
+
+		if (OpenGLInstanceBuffer.isSupported())
+			instanceBuffer = new OpenGLInstanceBuffer(squareVBO, INSTANCE_BUFFER_SIZE);
+		else
+			System.err.println("Warning: Instanced drawing not supported, instances will be drawn one by one!");
 	}
 
-	private void setupShapes() {
-		shapeVAO = glGenVertexArrays();
-		glBindVertexArray(shapeVAO);
+	private void setupLights() {
+		// texture unit 0 is used by the textures that are drawn
+		lightGrid = new OpenGLLightGrid(GL_TEXTURE1);
+		basicShader.fillUniformLightTextures(lightGrid.getLightDataUnit(), lightGrid.getTileUnit(), lightGrid.getIndexUnit());
+	}
 
-		shapeVBO = createVBO(new Vertex[shapeMaxVertices], GL_DYNAMIC_DRAW);
+	private void setupStages() {
+		shadowFBO = glGenFramebuffers();
+	}
 
-		glBindVertexArray(0);
+	/**
+	 * @return Whether rectangles, circles and lines are batched.
+	 */
+	public boolean getBatching() {
+		return spriteBatch != null;
+	}
 
-		// we can create a static indices buffer, because the indices never change, same as in fonts
-		int[] indices = new int[fontMaxCharacters];
-		for (int i = 0; i < indices.length; i++) {
-			indices[i] = i;
+	/**
+	 * In batching mode consecutive rectangles, circles and lines with the same texture are collected
+	 * and drawn with one draw call, until something else is drawn.
+	 *
+	 * @param value Whether to batch.
+	 */
+	public void setBatching(boolean value) {
+		if (value == getBatching())
+			return;
+
+		if (value) {
+			spriteBatch = new OpenGLSpriteBatch(BATCH_SIZE);
+		} else {
+			flushBatch();
+			spriteBatch.cleanup();
+			spriteBatch = null;
 		}
-		shapeIBO = createIBO(indices, GL_STATIC_DRAW);
 	}
 
-	private void setupStages() {
-		shadowFBO = glGenFramebuffers();
+	/**
+	 * Draws everything collected in the sprite batch. Has to be called before anything that the batch depends on changes.
+	 */
+	private void flushBatch() {
+		if (spriteBatch == null || spriteBatch.isEmpty())
+			return;
+
+		updateLights();
+		batchedQuadCounter.add(spriteBatch.flush(basicShader));
+		drawCallCounter.increment();
+	}
+
+	/**
+	 * Bins and uploads the lights if they changed. Has to be called before each draw call.
+	 */
+	private void updateLights() {
+		lightGrid.update(windowWidth, windowHeight, basicShader);
+	}
+
+	private OpenGLTexture getTexture(TextureInfo textureInfo) {
+		if (textureInfo.textureName != null && gameTextures.containsKey(textureInfo.textureName))
+			return gameTextures.get(textureInfo.textureName);
+		else
+			return gameTextures.get(defaultTexture);
+	}
+
+	private void batchQuad(float x, float y, float rotation, float scaleX, float scaleY, RenderInfo info, float[] circleInfo) {
+		OpenGLTexture texture = getTexture(info.textureInfo);
+		spriteBatch.addQuad(basicShader, texture, transform, x, y, rotation, scaleX, scaleY, info.textureInfo.textureColor,
+				texture.computeSubtexture(info.textureInfo.textureOffset, info.textureInfo.textureSize), circleInfo, false, info.useLights);
 	}
 
 	@Override
@@ -256,12 +371,12 @@ public class OpenGLRenderer extends Renderer {
 		glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT | GL_STENCIL_BUFFER_BIT);
 
 		glViewport(0, 0, windowWidth, windowHeight);
-		glMatrixMode(GL_PROJECTION);
-		glLoadIdentity();
 
 		Rectangle viewport = new Rectangle(new Vector2D(-windowWidth / 2f, - windowHeight / 2f), new Vector2D(windowWidth / 2f, windowHeight / 2f));
 
-		glOrtho(viewport.getTopLeft().getX(), viewport.getBottomRight().getX(), viewport.getBottomRight().getY(), viewport.getTopLeft().getY(), 0.0f, 1.0f);
+		// orthographic projection with the origin in the center of the window and y pointing down
+		transform.reset();
+		transform.scale(2f / windowWidth, -2f / windowHeight);
 
 		// for lights
 		drawShape(Vertex.shapeFromVector2D(new Vector2D[] {
@@ -274,6 +389,11 @@ public class OpenGLRenderer extends Renderer {
 
 	@Override
 	public void afterLoop() {
+		flushBatch();
+
+		frame++;
+		deleteUnusedStaticMeshes(false);
+
 		// swap buffers
 		glfwSwapBuffers(window);
 
@@ -283,26 +403,39 @@ public class OpenGLRenderer extends Renderer {
 
 	@Override
 	public void pushTransformMatrix() {
-		glMatrixMode(GL_MODELVIEW);
-		glPushMatrix();
+		transform.push();
 	}
 	@Override
 	public void applyTransformMatrix(Vector2D scale, Float rotation, Vector2D translation) {
 		if (translation != null)
-			glTranslatef(translation.getX(), translation.getY(), 0f);
+			transform.translate(translation.getX(), translation.getY());
 
 		if (rotation != null)
-			glRotatef(rotation / (float)Math.PI * 180, 0f, 0f, 1f);
+			transform.rotate(rotation);
 
 		if (scale != null)
-			glScalef(scale.getX(), scale.getY(), 1f);
+			transform.scale(scale.getX(), scale.getY());
 	}
 	@Override
 	public void popTransformMatrix() {
-		glPopMatrix();
+		transform.pop();
 	}
 
-	private void beginDraw(int vao, int vbo, int ibo, RenderInfo info, OpenGLShaderBasic.CircleInfoStruct circleInfo, boolean overrideTextureColor) {
+	/**
+	 * Uploads the current transform to the shader. Has to be called before each unbatched draw call.
+	 */
+	private void uploadTransform() {
+		basicShader.fillUniformTransform(transform.getMatrix3(transformMatrix));
+	}
+
+	/**
+	 * @param circleInfo Min radius, max radius and max angle of the circle to cut out of the drawn shape, null for none.
+	 */
+	private void beginDraw(int vao, int vbo, int ibo, RenderInfo info, float[] circleInfo, boolean overrideTextureColor) {
+		// batched draws have to come before this one
+		flushBatch();
+		updateLights();
+
 		glBindVertexArray(vao);
 		glEnableVertexAttribArray(0);
 		glEnableVertexAttribArray(1);
@@ -313,37 +446,36 @@ public class OpenGLRenderer extends Renderer {
 
 		// default values on null
 		if (circleInfo == null) {
-			circleInfo = new OpenGLShaderBasic.CircleInfoStruct(0f, 1f, 4f);
+			circleInfo = DEFAULT_CIRCLE_INFO;
 		}
 
-		OpenGLTexture currentTexture;
-		if (info.textureInfo.textureName != null && gameTextures.containsKey(info.textureInfo.textureName))
-			currentTexture = gameTextures.get(info.textureInfo.textureName);
-		else
-			currentTexture = gameTextures.get(defaultTexture);
+		OpenGLTexture currentTexture = getTexture(info.textureInfo);
 
-		OpenGLShaderBasic.TextureInfoStruct texInfoStruct = new OpenGLShaderBasic.TextureInfoStruct(currentTexture.getTextureUnit(),
-				currentTexture.computeSubtexture(info.textureInfo.textureOffset, info.textureInfo.textureSize), overrideTextureColor);
+		TextureInfo textureInfo = info.textureInfo;
+		currentTexture.computeSubtexture(textureInfo.textureOffset.getX(), textureInfo.textureOffset.getY(),
+				textureInfo.textureSize != null ? textureInfo.textureSize.getX() : -1, textureInfo.textureSize != null ? textureInfo.textureSize.getY() : -1,
+				textureSubspace, 0);
 
 		// use shader program
 		glUseProgram(basicShader.getProgramID());
 
 		glActiveTexture(currentTexture.getTextureUnit());
 		glBindTexture(GL_TEXTURE_2D, currentTexture.getTextureID());
-		basicShader.fillUniformGlobalColor(info.textureInfo.textureColor);
-		basicShader.fillUniformCircleInfo(circleInfo);
-		basicShader.fillUnitformTextureInfo(texInfoStruct);
+		// only uniforms that changed since the last draw are uploaded
+		basicShader.fillUniformBatched(false);
+		basicShader.fillUniformGlobalColor(textureInfo.textureColor);
+		basicShader.fillUniformCircleInfo(circleInfo[0], circleInfo[1], circleInfo[2]);
+		basicShader.fillUniformTextureInfo(currentTexture.getTextureUnit(), textureSubspace, overrideTextureColor);
 		basicShader.fillUniformUseLights(info.useLights);
 
 		// push model matrix
 		// a.k.a. only do transforms for this model
-		glMatrixMode(GL_MODELVIEW);
-		glPushMatrix();
+		transform.push();
 	}
 
 	private void endDraw() {
 		// pop model matrix
-		glPopMatrix();
+		transform.pop();
 
 		// unbind stuff
 		glBindBuffer(GL_ARRAY_BUFFER, 0);
@@ -362,26 +494,41 @@ public class OpenGLRenderer extends Renderer {
 
 		Vector2D directionVector = Vector2D.subtract(to, info.position);
 
+		if (spriteBatch != null) {
+			batchQuad(info.position.getX() + directionVector.getX() / 2, info.position.getY() + directionVector.getY() / 2,
+					directionVector.getAngle(), directionVector.getMagnitude(), info.scale.getX(), info, DEFAULT_CIRCLE_INFO);
+			return;
+		}
+
 		beginDraw(squareVAO, squareVBO, squareIBO, info, null, false);
 
 		// transforms
-		glTranslatef(info.position.getX() + directionVector.getX() / 2, info.position.getY() + directionVector.getY() / 2, 0); // translate
-		glRotatef(directionVector.getAngle() / (float)Math.PI * 180, 0, 0, 1f); // rotate around z axis
-		glScalef(directionVector.getMagnitude(), info.scale.getX() , 1); // scale
+		transform.translate(info.position.getX() + directionVector.getX() / 2, info.position.getY() + directionVector.getY() / 2);
+		transform.rotate(directionVector.getAngle());
+		transform.scale(directionVector.getMagnitude(), info.scale.getX());
 
-		glDrawArrays(GL_QUADS, 0, 4);
+		uploadTransform();
+		glDrawArrays(GL_TRIANGLE_FAN, 0, 4);
+		drawCallCounter.increment();
 
 		endDraw();
 	}
 
 	@Override
 	public void drawRectangle(RenderInfo info) {
+		if (spriteBatch != null) {
+			batchQuad(info.position.getX(), info.position.getY(), info.rotation, info.scale.getX(), info.scale.getY(), info, DEFAULT_CIRCLE_INFO);
+			return;
+		}
+
 		beginDraw(squareVAO, squareVBO, squareIBO, info, null, false);
 
 		// transforms
 		applyTransformMatrix(info.scale, info.rotation, info.position);
 
-		glDrawArrays(GL_QUADS, 0, 4);
+		uploadTransform();
+		glDrawArrays(GL_TRIANGLE_FAN, 0, 4);
+		drawCallCounter.increment();
 
 		endDraw();
 	}
@@ -395,25 +542,41 @@ public class OpenGLRenderer extends Renderer {
 
 	@Override
 	public void drawCircle(RenderInfo info) {
-		beginDraw(squareVAO, squareVBO, squareIBO, info, new OpenGLShaderBasic.CircleInfoStruct(0f, 0.5f, 4f), false);
+		if (spriteBatch != null) {
+			batchQuad(info.position.getX(), info.position.getY(), 0, info.scale.getX() * 2, info.scale.getY() * 2, info, CIRCLE_INFO);
+			return;
+		}
+
+		beginDraw(squareVAO, squareVBO, squareIBO, info, CIRCLE_INFO, false);
 
 		// transforms
 		applyTransformMatrix(new Vector2D(info.scale.getX() * 2, info.scale.getY() * 2), null, info.position);
 
-		glDrawArrays(GL_QUADS, 0, 4);
+		uploadTransform();
+		glDrawArrays(GL_TRIANGLE_FAN, 0, 4);
+		drawCallCounter.increment();
 
 		endDraw();
 	}
 
 	@Override
 	public void drawCircle(float minRadius, float maxRadius, float maxAngle, RenderInfo info) {
-		float unitMinRadius = minRadius / (2 * maxRadius);
-		beginDraw(squareVAO, squareVBO, squareIBO, info, new OpenGLShaderBasic.CircleInfoStruct(unitMinRadius, 0.5f, maxAngle), false);
+		circleInfo[0] = minRadius / (2 * maxRadius);
+		circleInfo[1] = 0.5f;
+		circleInfo[2] = maxAngle;
+		if (spriteBatch != null) {
+			batchQuad(info.position.getX(), info.position.getY(), 0, maxRadius * 2, maxRadius * 2, info, circleInfo);
+			return;
+		}
+
+		beginDraw(squareVAO, squareVBO, squareIBO, info, circleInfo, false);
 
 		// transforms
 		applyTransformMatrix(new Vector2D(maxRadius * 2, maxRadius * 2), null, info.position);
 
-		glDrawArrays(GL_QUADS, 0, 4);
+		uploadTransform();
+		glDrawArrays(GL_TRIANGLE_FAN, 0, 4);
+		drawCallCounter.increment();
 
 		endDraw();
 	}
@@ -423,9 +586,21 @@ public class OpenGLRenderer extends Renderer {
 		if (text.isEmpty())
 			return;
 
-		beginDraw(fontVAO, fontVBO, fontIBO, new RenderInfo(info.position, info.scale, info.rotation, new TextureInfo(font.getTextureName(), info.textureInfo.textureColor), info.useLights), null, true);
+		drawText(font.getTextMesh(text), info, alignment);
+	}
+	@Override
+	public void drawText(TextMesh text, RenderInfo info, StringAlignment alignment) {
+		if (text.length() == 0)
+			return;
 
-		Font.FontVertices fontVertices = font.generateVertices(text, info.scale.scale(0.66f));
+		int vertexCount = text.getVertexCount();
+		int first = streamBuffer.begin(vertexCount);
+		streamBuffer.put(text.getElements(), vertexCount * Vertex.elementCount);
+		streamBuffer.end();
+
+		beginDraw(streamBuffer.getVAO(), streamBuffer.getVBO(), 0, new RenderInfo(info.position, info.scale, info.rotation, new TextureInfo(text.getFont().getTextureName(), info.textureInfo.textureColor), info.useLights), null, true);
+
+		Vector2D scale = Vector2D.scale(info.scale, TEXT_SCALE, TEXT_SCALE);
 
 		// do transforms
 		// text alignment is funky
@@ -434,33 +609,27 @@ public class OpenGLRenderer extends Renderer {
 		Vector2D alignedPosition = new Vector2D(info.position);
 		switch (alignment) {
 			case TOPLEFT:
-				alignedPosition.subtract(0, -fontVertices.baseline);
+				alignedPosition.subtract(0, -text.getBaseline());
 				break;
 			case TOPRIGHT:
-				alignedPosition.subtract(fontVertices.size.getX() * info.scale.getX(), -fontVertices.baseline);
+				alignedPosition.subtract(text.getWidth() * scale.getX(), -text.getBaseline());
 				break;
 			case CENTER:
-				alignedPosition.subtract(fontVertices.size.getX() / 2 * info.scale.getX(),
-						(fontVertices.size.getY() / 2 - fontVertices.baseline) * info.scale.getY());
+				alignedPosition.subtract(text.getWidth() / 2 * scale.getX(),
+						(text.getHeight() / 2 - text.getBaseline()) * scale.getY());
 				break;
 			case BOTTOMLEFT:
 				break;
 			case BOTTOMRIGHT:
-				alignedPosition.subtract(fontVertices.size.getX() * info.scale.getX(), 0);
+				alignedPosition.subtract(text.getWidth() * scale.getX(), 0);
 				break;
 		}
-		applyTransformMatrix(info.scale, info.rotation, alignedPosition);
-
-		Vertex[][] splitVertices = Vertex.splitArrayByLength(fontVertices.vertices, fontMaxVertices);
-		for (Vertex[] subVertices : splitVertices) {
-			FloatBuffer verticesBuffer = Vertex.verticesToBuffer(subVertices);
+		applyTransformMatrix(scale, info.rotation, alignedPosition);
 
-			// upload new data
-			glBufferSubData(GL_ARRAY_BUFFER, 0, verticesBuffer);
+		uploadTransform();
 
-			// draw
-			glDrawArrays(GL_QUADS, 0, subVertices.length);
-		}
+		glDrawArrays(GL_TRIANGLES, first, vertexCount);
+		drawCallCounter.increment();
 
 		endDraw();
 	}
@@ -471,32 +640,118 @@ public class OpenGLRenderer extends Renderer {
 
 	@Override
 	public void drawShape(Vertex[] shape, RenderInfo info) {
-		beginDraw(shapeVAO, shapeVBO, shapeIBO, info, null, true);
+		int first = streamBuffer.begin(shape.length);
+		for (Vertex vertex : shape) {
+			streamBuffer.put(vertex);
+		}
+		streamBuffer.end();
+
+		beginDraw(streamBuffer.getVAO(), streamBuffer.getVBO(), 0, info, null, true);
 
 		applyTransformMatrix(null, info.rotation, info.position);
 
-		Vertex[][] splitVertices = Vertex.splitArrayByLength(shape, shapeMaxVertices);
-		for (Vertex[] subVertices : splitVertices) {
-			FloatBuffer verticesBuffer = Vertex.verticesToBuffer(subVertices);
+		uploadTransform();
 
-			// upload new data
-			glBufferSubData(GL_ARRAY_BUFFER, 0, verticesBuffer);
+		glDrawArrays(GL_TRIANGLE_FAN, first, shape.length);
+		drawCallCounter.increment();
+
+		endDraw();
+	}
 
-			// draw
-			glDrawArrays(GL_TRIANGLE_FAN, 0, subVertices.length);
+	@Override
+	public void drawInstances(InstanceBatch batch) {
+		if (batch.size() == 0)
+			return;
+
+		if (instanceBuffer == null) {
+			drawInstancesOneByOne(batch);
+			return;
+		}
+
+		flushBatch();
+		updateLights();
+
+		uploadTransform();
+		OpenGLTexture texture = getTexture(new TextureInfo(batch.textureName));
+		float[] circleInfo = batch.primitive == InstanceBatch.Primitive.CIRCLE ? CIRCLE_INFO : DEFAULT_CIRCLE_INFO;
+		instanceCounter.add(instanceBuffer.draw(basicShader, texture, batch, circleInfo));
+		drawCallCounter.increment();
+	}
+
+	private void drawInstancesOneByOne(InstanceBatch batch) {
+		float[] data = batch.getData();
+		for (int i = 0; i < batch.size(); i++) {
+			int offset = i * InstanceBatch.INSTANCE_FLOATS;
+			Vector2D textureSize = data[offset + 11] >= 0 ? new Vector2D(data[offset + 11], data[offset + 12]) : null;
+			TextureInfo textureInfo = new TextureInfo(batch.textureName, new Color(data[offset + 5], data[offset + 6], data[offset + 7], data[offset + 8]),
+					new Vector2D(data[offset + 9], data[offset + 10]), textureSize);
+			RenderInfo info = new RenderInfo(new Vector2D(data[offset], data[offset + 1]), new Vector2D(data[offset + 3], data[offset + 4]),
+					data[offset + 2], textureInfo, batch.useLights);
+
+			if (batch.primitive == InstanceBatch.Primitive.CIRCLE)
+				drawCircle(info);
+			else
+				drawRectangle(info);
+		}
+	}
+
+	@Override
+	public void drawStaticMesh(StaticMesh mesh, RenderInfo info) {
+		if (mesh.getVertexCount() == 0)
+			return;
+
+		StaticMeshBuffers buffers = staticMeshes.get(mesh);
+		if (buffers == null) {
+			int vao = glGenVertexArrays();
+			glBindVertexArray(vao);
+
+			FloatBuffer elements = BufferUtils.createFloatBuffer(mesh.getVertexCount() * Vertex.elementCount);
+			elements.put(mesh.getElements(), 0, elements.capacity()).flip();
+			int vbo = createVBO(elements, GL_STATIC_DRAW);
+
+			glBindVertexArray(0);
+
+			buffers = new StaticMeshBuffers(vao, vbo);
+			staticMeshes.put(mesh, buffers);
 		}
+		buffers.lastDrawnFrame = frame;
+
+		beginDraw(buffers.vao, buffers.vbo, 0, info, null, false);
+
+		applyTransformMatrix(info.scale, info.rotation, info.position);
+
+		uploadTransform();
+		glDrawArrays(GL_TRIANGLES, 0, mesh.getVertexCount());
+		drawCallCounter.increment();
 
 		endDraw();
 	}
 
+	/**
+	 * @param all Whether to delete buffers of all static meshes, not just of the ones that have not been drawn for a while.
+	 */
+	private void deleteUnusedStaticMeshes(boolean all) {
+		Iterator<StaticMeshBuffers> iterator = staticMeshes.values().iterator();
+		while (iterator.hasNext()) {
+			StaticMeshBuffers buffers = iterator.next();
+			if (all || frame - buffers.lastDrawnFrame > STATIC_MESH_TIMEOUT_FRAMES) {
+				glDeleteBuffers(buffers.vbo);
+				glDeleteVertexArrays(buffers.vao);
+				iterator.remove();
+			}
+		}
+	}
+
 	@Override
 	public void setLight(int index, Light light) {
-		basicShader.fillUniformLightInfo(index, light);
+		flushBatch();
+		lightGrid.setLight(index, light);
 	}
 
 	@Override
 	public void setLightCount(int count) {
-		basicShader.fillUniformLightCount(count);
+		flushBatch();
+		lightGrid.setLightCount(count);
 	}
 
 	@Override
@@ -510,6 +765,14 @@ public class OpenGLRenderer extends Renderer {
 			// Delete the shaders
 			GL20.glUseProgram(0);
 
+			if (spriteBatch != null)
+				spriteBatch.cleanup();
+			streamBuffer.cleanup();
+			if (instanceBuffer != null)
+				instanceBuffer.cleanup();
+			lightGrid.cleanup();
+			deleteUnusedStaticMeshes(true);
+			textureAtlas.cleanup();
 			basicShader.cleanup();
 			basicFont.cleanup();
 
@@ -526,8 +789,13 @@ public class OpenGLRenderer extends Renderer {
 	}
 
 	private static int createVBO(Vertex[] vertices, int vboFlags) {
-		FloatBuffer verticesBuffer = Vertex.verticesToBuffer(vertices);
+		return createVBO(Vertex.verticesToBuffer(vertices), vboFlags);
+	}
 
+	/**
+	 * @param verticesBuffer Vertex elements in {@code Vertex} layout.
+	 */
+	private static int createVBO(FloatBuffer verticesBuffer, int vboFlags) {
 		int vboID = glGenBuffers();
 		glBindBuffer(GL_ARRAY_BUFFER, vboID);
 		glBufferData(GL_ARRAY_BUFFER, verticesBuffer, vboFlags);
@@ -1,8 +1,8 @@
 package com.edwardium.RPGEngine.Renderer.OpenGL;
 
+import com.edwardium.RPGEngine.Control.Metrics;
 import com.edwardium.RPGEngine.IO.IOUtil;
 import com.edwardium.RPGEngine.Renderer.Color;
-import com.edwardium.RPGEngine.Renderer.Light;
 import com.edwardium.RPGEngine.Utility.Vector2D;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.PointerBuffer;
@@ -16,33 +16,54 @@ import static org.lwjgl.system.MemoryUtil.memUTF8;
 
 public class OpenGLShaderBasic {
 
-	public static class CircleInfoStruct {
-		public final Float minRadius;
-		public final Float maxRadius;
-		public final Float maxAngle;
-
-		public CircleInfoStruct(Float minRadius, Float maxRadius, Float maxAngle) {
-			this.minRadius = minRadius;
-			this.maxRadius = maxRadius;
-			this.maxAngle = maxAngle;
-		}
-	}
-
-	public static class TextureInfoStruct {
-		public final Integer textureUnit;
-		public final float[] textureSubs;
-		public final Boolean overrideColor;
-
-		public TextureInfoStruct(Integer textureUnit, float[] textureSubs, Boolean overrideColor) {
-			this.textureUnit = textureUnit;
-			this.textureSubs = textureSubs;
-			this.overrideColor = overrideColor;
-		}
-	}
-
 	public static final int attribute_position = 0;
 	public static final int attribute_vertexColor = 1;
 	public static final int attribute_textureCoord = 2;
+	// only used by batched draws
+	public static final int attribute_textureSubspace = 3;
+	public static final int attribute_circleInfo = 4;
+	public static final int attribute_flags = 5;
+	// only used by instanced draws
+	public static final int attribute_instanceAxes = 6;
+	public static final int attribute_instanceOffset = 7;
+
+	private static final Metrics.Counter uniformUploadCounter = Metrics.counter("uniform uploads");
+
+	// uniforms, indices into UNIFORM_NAMES
+	private static final int UNIFORM_TRANSFORM = 0;
+	private static final int UNIFORM_GLOBAL_COLOR = 1;
+	private static final int UNIFORM_CIRCLE_MIN_RADIUS = 2;
+	private static final int UNIFORM_CIRCLE_MAX_RADIUS = 3;
+	private static final int UNIFORM_CIRCLE_MAX_ANGLE = 4;
+	private static final int UNIFORM_TEXTURE = 5;
+	private static final int UNIFORM_TEXTURE_SUBSPACE = 6;
+	private static final int UNIFORM_OVERRIDE_COLOR = 7;
+	private static final int UNIFORM_AMBIENT_LIGHT = 8;
+	private static final int UNIFORM_LIGHT_TILE_SIZE = 9;
+	private static final int UNIFORM_LIGHT_TILE_COUNT = 10;
+	private static final int UNIFORM_LIGHT_DATA_SIZE = 11;
+	private static final int UNIFORM_LIGHT_INDICES_SIZE = 12;
+	private static final int UNIFORM_LIGHT_DATA = 13;
+	private static final int UNIFORM_LIGHT_TILES = 14;
+	private static final int UNIFORM_LIGHT_INDICES = 15;
+	private static final int UNIFORM_VIEWPORT_SIZE = 16;
+	private static final int UNIFORM_BATCHED = 17;
+	private static final int UNIFORM_USE_LIGHTS = 18;
+	private static final String[] UNIFORM_NAMES = {
+			"un_transform", "un_globalColor",
+			"un_circleInfo.minRadius", "un_circleInfo.maxRadius", "un_circleInfo.maxAngle",
+			"un_textureInfo.tex", "un_textureInfo.textureSubspace", "un_textureInfo.overrideColor",
+			"un_ambientLight", "un_lightTileSize", "un_lightTileCount", "un_lightDataSize", "un_lightIndicesSize",
+			"un_lightData", "un_lightTiles", "un_lightIndices",
+			"un_viewportSize", "un_batched", "un_useLights"
+	};
+	// floats of the largest uniform, the transform matrix
+	private static final int CACHE_FLOATS = 9;
+
+	// uniforms are looked up once after linking, and their last uploaded values are kept so unchanged ones are skipped
+	private final int[] uniformLocations = new int[UNIFORM_NAMES.length];
+	private final float[] uniformCache = new float[UNIFORM_NAMES.length * CACHE_FLOATS];
+	private final boolean[] uniformCached = new boolean[UNIFORM_NAMES.length];
 
 	private Integer program_id;
 	private int shader_vertex;
@@ -131,6 +152,11 @@ public class OpenGLShaderBasic {
 		glBindAttribLocation(program_id, attribute_position, "in_Position");
 		glBindAttribLocation(program_id, attribute_vertexColor, "in_VertexColor");
 		glBindAttribLocation(program_id, attribute_textureCoord, "in_TextureCoord");
+		glBindAttribLocation(program_id, attribute_textureSubspace, "in_TextureSubspace");
+		glBindAttribLocation(program_id, attribute_circleInfo, "in_CircleInfo");
+		glBindAttribLocation(program_id, attribute_flags, "in_Flags");
+		glBindAttribLocation(program_id, attribute_instanceAxes, "in_InstanceAxes");
+		glBindAttribLocation(program_id, attribute_instanceOffset, "in_InstanceOffset");
 
 		glLinkProgram(program_id);
 
@@ -143,6 +169,10 @@ public class OpenGLShaderBasic {
 			throw new AssertionError("Could not link program");
 		}
 
+		for (int i = 0; i < UNIFORM_NAMES.length; i++) {
+			uniformLocations[i] = glGetUniformLocation(program_id, UNIFORM_NAMES[i]);
+		}
+
 		return program_id;
 	}
 
@@ -150,72 +180,143 @@ public class OpenGLShaderBasic {
 		return program_id;
 	}
 
-	public void fillUniformGlobalColor(Color color) {
-		int globalColorLoc = glGetUniformLocation(getProgramID(), "un_globalColor");
-		glUniform4fv(globalColorLoc, color.getAsArray());
-	}
+	/**
+	 * @param matrix Column major 3x3 matrix transforming vertex positions to clip space.
+	 */
+	public void fillUniformTransform(float[] matrix) {
+		if (isCached(UNIFORM_TRANSFORM, matrix, 9))
+			return;
 
-	public void fillUniformCircleInfo(CircleInfoStruct circleInfo) {
-		if (circleInfo.minRadius != null) {
-			int circleMinRadiusLoc = glGetUniformLocation(getProgramID(), "un_circleInfo.minRadius");
-			glUniform1f(circleMinRadiusLoc, circleInfo.minRadius);
-		}
-		if (circleInfo.maxRadius != null) {
-			int circleMaxRadiusLoc = glGetUniformLocation(getProgramID(), "un_circleInfo.maxRadius");
-			glUniform1f(circleMaxRadiusLoc, circleInfo.maxRadius);
-		}
-		if (circleInfo.maxAngle != null) {
-			int circleMaxAngleLoc = glGetUniformLocation(getProgramID(), "un_circleInfo.maxAngle");
-			glUniform1f(circleMaxAngleLoc, circleInfo.maxAngle);
-		}
+		glUniformMatrix3fv(uniformLocations[UNIFORM_TRANSFORM], false, matrix);
 	}
 
-	public void fillUnitformTextureInfo(TextureInfoStruct textureInfo) {
-		if (textureInfo.textureUnit != null) {
-			int textureIDLoc = glGetUniformLocation(getProgramID(), "un_textureInfo.tex");
-			glUniform1i(textureIDLoc, textureInfo.textureUnit);
-		}
+	public void fillUniformGlobalColor(Color color) {
+		if (isCached(UNIFORM_GLOBAL_COLOR, color.R(), color.G(), color.B(), color.A()))
+			return;
 
-		if (textureInfo.textureSubs != null) {
-			int textureSubsLoc = glGetUniformLocation(getProgramID(), "un_textureInfo.textureSubspace");
-			glUniform4fv(textureSubsLoc, textureInfo.textureSubs);
-		}
+		glUniform4f(uniformLocations[UNIFORM_GLOBAL_COLOR], color.R(), color.G(), color.B(), color.A());
+	}
 
-		if (textureInfo.overrideColor != null) {
-			int overrideColorLoc = glGetUniformLocation(getProgramID(), "un_textureInfo.overrideColor");
-			glUniform1i(overrideColorLoc, textureInfo.overrideColor ? 1 : 0);
-		}
+	public void fillUniformCircleInfo(float minRadius, float maxRadius, float maxAngle) {
+		fillUniform1f(UNIFORM_CIRCLE_MIN_RADIUS, minRadius);
+		fillUniform1f(UNIFORM_CIRCLE_MAX_RADIUS, maxRadius);
+		fillUniform1f(UNIFORM_CIRCLE_MAX_ANGLE, maxAngle);
 	}
 
-	public void fillUniformLightInfo(int index, Light light) {
-		String arrBase = "un_Lights[" + index + "]";
+	public void fillUniformTexture(int textureUnit) {
+		fillUniform1i(UNIFORM_TEXTURE, textureUnit);
+	}
 
-		int positionLoc = glGetUniformLocation(getProgramID(), arrBase + ".position");
-		glUniform4f(positionLoc, light.position.getX(), light.position.getY(), 0f, 1f);
+	/**
+	 * @param textureSubspace Offset and size of the drawn part of the texture, as computed by {@code OpenGLTexture.computeSubtexture}.
+	 * @param overrideColor Whether the texture only gives alpha and the color is the global color.
+	 */
+	public void fillUniformTextureInfo(int textureUnit, float[] textureSubspace, boolean overrideColor) {
+		fillUniformTexture(textureUnit);
 
-		int colorLoc = glGetUniformLocation(getProgramID(), arrBase + ".color");
-		glUniform4fv(colorLoc, light.color.getAsArray());
+		if (!isCached(UNIFORM_TEXTURE_SUBSPACE, textureSubspace, 4))
+			glUniform4fv(uniformLocations[UNIFORM_TEXTURE_SUBSPACE], textureSubspace);
 
-		int powerLoc = glGetUniformLocation(getProgramID(), arrBase + ".power");
-		glUniform1f(powerLoc, light.power);
+		fillUniform1i(UNIFORM_OVERRIDE_COLOR, overrideColor ? 1 : 0);
+	}
 
-		int cutoffLoc = glGetUniformLocation(getProgramID(), arrBase + ".cutoff");
-		glUniform1f(cutoffLoc, light.cutoff);
+	/**
+	 * @param ambient Summed color of the ambient lights.
+	 * @param tileSize Size of a light tile in pixels.
+	 * @param tilesX Number of tile columns, which is the width of the tile texture.
+	 * @param tilesY Number of tile rows, which is the height of the tile texture.
+	 */
+	public void fillUniformLightGrid(float[] ambient, int tileSize, int tilesX, int tilesY, int lightDataWidth, int lightDataHeight, int indicesWidth, int indicesHeight) {
+		if (!isCached(UNIFORM_AMBIENT_LIGHT, ambient, 4))
+			glUniform4fv(uniformLocations[UNIFORM_AMBIENT_LIGHT], ambient);
+
+		fillUniform1f(UNIFORM_LIGHT_TILE_SIZE, tileSize);
+		fillUniform2f(UNIFORM_LIGHT_TILE_COUNT, tilesX, tilesY);
+		fillUniform2f(UNIFORM_LIGHT_DATA_SIZE, lightDataWidth, lightDataHeight);
+		fillUniform2f(UNIFORM_LIGHT_INDICES_SIZE, indicesWidth, indicesHeight);
+	}
+
+	/**
+	 * @param lightDataUnit Texture unit number (not GL_TEXTUREi) of the light data texture.
+	 * @param tileUnit Texture unit number of the light tile texture.
+	 * @param indexUnit Texture unit number of the light index texture.
+	 */
+	public void fillUniformLightTextures(int lightDataUnit, int tileUnit, int indexUnit) {
+		fillUniform1i(UNIFORM_LIGHT_DATA, lightDataUnit);
+		fillUniform1i(UNIFORM_LIGHT_TILES, tileUnit);
+		fillUniform1i(UNIFORM_LIGHT_INDICES, indexUnit);
 	}
 
 	public void fillViewportSize(Vector2D size) {
-		int viewportSizeLoc = glGetUniformLocation(getProgramID(), "un_viewportSize");
-		glUniform2f(viewportSizeLoc, size.getX(), size.getY());
+		fillUniform2f(UNIFORM_VIEWPORT_SIZE, size.getX(), size.getY());
 	}
 
-	public void fillUniformLightCount(int count) {
-		int countLoc = glGetUniformLocation(getProgramID(), "un_lightCount");
-		glUniform1i(countLoc, count);
+	/**
+	 * @param batched Whether color, circle info, texture subspace and flags are taken from vertex data instead of uniforms.
+	 */
+	public void fillUniformBatched(boolean batched) {
+		fillUniform1i(UNIFORM_BATCHED, batched ? 1 : 0);
 	}
 
 	public void fillUniformUseLights(boolean useLights) {
-		int boolLoc = glGetUniformLocation(getProgramID(), "un_useLights");
-		glUniform1i(boolLoc, useLights ? 1 : 0);
+		fillUniform1i(UNIFORM_USE_LIGHTS, useLights ? 1 : 0);
+	}
+
+	private void fillUniform1i(int uniform, int value) {
+		// ints used as uniforms are small enough to be exact as floats
+		if (!isCached(uniform, value, 0, 0, 0))
+			glUniform1i(uniformLocations[uniform], value);
+	}
+
+	private void fillUniform1f(int uniform, float value) {
+		if (!isCached(uniform, value, 0, 0, 0))
+			glUniform1f(uniformLocations[uniform], value);
+	}
+
+	private void fillUniform2f(int uniform, float x, float y) {
+		if (!isCached(uniform, x, y, 0, 0))
+			glUniform2f(uniformLocations[uniform], x, y);
+	}
+
+	/**
+	 * Compares the value with the last uploaded value of uniform and remembers it if it is different.
+	 * Counts an upload if it is.
+	 *
+	 * @return Whether the value is already uploaded.
+	 */
+	private boolean isCached(int uniform, float x, float y, float z, float w) {
+		int offset = uniform * CACHE_FLOATS;
+		if (uniformCached[uniform] && uniformCache[offset] == x && uniformCache[offset + 1] == y
+				&& uniformCache[offset + 2] == z && uniformCache[offset + 3] == w)
+			return true;
+
+		uniformCache[offset] = x;
+		uniformCache[offset + 1] = y;
+		uniformCache[offset + 2] = z;
+		uniformCache[offset + 3] = w;
+		uniformCached[uniform] = true;
+		uniformUploadCounter.increment();
+
+		return false;
+	}
+
+	private boolean isCached(int uniform, float[] value, int length) {
+		int offset = uniform * CACHE_FLOATS;
+		if (uniformCached[uniform]) {
+			boolean same = true;
+			for (int i = 0; i < length && same; i++) {
+				same = uniformCache[offset + i] == value[i];
+			}
+
+			if (same)
+				return true;
+		}
+
+		System.arraycopy(value, 0, uniformCache, offset, length);
+		uniformCached[uniform] = true;
+		uniformUploadCounter.increment();
+
+		return false;
 	}
 
 	public void cleanup() {
@@ -0,0 +1,184 @@
+package com.edwardium.RPGEngine.Renderer.OpenGL;
+
+import com.edwardium.RPGEngine.Renderer.Color;
+import com.edwardium.RPGEngine.Renderer.TransformStack;
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.glBindVertexArray;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
+
+/**
+ * Collects textured quads into one streaming vertex buffer and draws them with a single {@code glDrawElements} call.
+ *
+ * Quads are transformed on the CPU and carry everything the basic shader otherwise takes from per draw uniforms
+ * (color, subtexture, circle info, flags) as vertex attributes. Positions are baked with the whole transform
+ * at the time the quad is added, so the batch does not have to be flushed when the transform changes.
+ * Quads are drawn in the order they were added, a batch only spans quads with the same texture so that
+ * overlapping transparent quads still blend in order.
+ */
+class OpenGLSpriteBatch {
+	// x, y, color, texture coord, texture subspace, circle info, flags
+	static final int VERTEX_FLOATS = 2 + 4 + 2 + 4 + 3 + 2;
+	private static final int STRIDE = VERTEX_FLOATS * 4;
+
+	// corners of the unit quad and their texture coordinates, in the same order as the square buffer
+	private static final float[] CORNERS = { -0.5f, -0.5f, 0.5f, -0.5f, 0.5f, 0.5f, -0.5f, 0.5f };
+	private static final float[] TEXTURE_COORDS = { 0, 0, 1, 0, 1, 1, 0, 1 };
+	// vertices are already in clip space
+	private static final float[] IDENTITY = { 1, 0, 0, 0, 1, 0, 0, 0, 1 };
+
+	private final int maxQuads;
+
+	private final int vao;
+	private final int vbo;
+	private final int ibo;
+
+	private final FloatBuffer vertices;
+	private int quadCount = 0;
+	private OpenGLTexture texture = null;
+
+	/**
+	 * @param maxQuads Number of quads after which the batch is flushed.
+	 */
+	OpenGLSpriteBatch(int maxQuads) {
+		this.maxQuads = maxQuads;
+		vertices = BufferUtils.createFloatBuffer(maxQuads * 4 * VERTEX_FLOATS);
+
+		vao = glGenVertexArrays();
+		glBindVertexArray(vao);
+
+		vbo = glGenBuffers();
+		glBindBuffer(GL_ARRAY_BUFFER, vbo);
+		glBufferData(GL_ARRAY_BUFFER, (long)vertices.capacity() * 4, GL_STREAM_DRAW);
+
+		int offset = 0;
+		glVertexAttribPointer(OpenGLShaderBasic.attribute_position, 2, GL_FLOAT, false, STRIDE, offset);
+		offset += 2 * 4;
+		glVertexAttribPointer(OpenGLShaderBasic.attribute_vertexColor, 4, GL_FLOAT, false, STRIDE, offset);
+		offset += 4 * 4;
+		glVertexAttribPointer(OpenGLShaderBasic.attribute_textureCoord, 2, GL_FLOAT, false, STRIDE, offset);
+		offset += 2 * 4;
+		glVertexAttribPointer(OpenGLShaderBasic.attribute_textureSubspace, 4, GL_FLOAT, false, STRIDE, offset);
+		offset += 4 * 4;
+		glVertexAttribPointer(OpenGLShaderBasic.attribute_circleInfo, 3, GL_FLOAT, false, STRIDE, offset);
+		offset += 3 * 4;
+		glVertexAttribPointer(OpenGLShaderBasic.attribute_flags, 2, GL_FLOAT, false, STRIDE, offset);
+
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+		glBindVertexArray(0);
+
+		// two triangles per quad, indices never change
+		IntBuffer indices = BufferUtils.createIntBuffer(maxQuads * 6);
+		for (int i = 0; i < maxQuads; i++) {
+			int first = i * 4;
+			indices.put(first).put(first + 1).put(first + 2);
+			indices.put(first + 2).put(first + 3).put(first);
+		}
+		indices.flip();
+
+		ibo = glGenBuffers();
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ibo);
+		glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+	}
+
+	boolean isEmpty() {
+		return quadCount == 0;
+	}
+
+	/**
+	 * Adds the unit quad transformed by translation, rotation and scale, in this order (same as {@code applyTransformMatrix}),
+	 * and then by the top of transform. Flushes the batch first if it is full or uses a different texture.
+	 *
+	 * @param textureSubspace Subtexture as (x, y, width, height) in texture coordinates.
+	 * @param circleInfo Circle min radius, max radius and max angle, as in the shader.
+	 */
+	void addQuad(OpenGLShaderBasic shader, OpenGLTexture texture, TransformStack transform, float x, float y, float rotation, float scaleX, float scaleY,
+				 Color color, float[] textureSubspace, float[] circleInfo, boolean overrideColor, boolean useLights) {
+		// textures in the same atlas page can share a batch
+		if (quadCount == maxQuads || (quadCount > 0 && this.texture.getTextureID() != texture.getTextureID()))
+			flush(shader);
+		this.texture = texture;
+
+		float cos = (float)Math.cos(rotation);
+		float sin = (float)Math.sin(rotation);
+
+		for (int i = 0; i < 4; i++) {
+			float localX = CORNERS[i * 2] * scaleX;
+			float localY = CORNERS[i * 2 + 1] * scaleY;
+
+			float quadX = x + cos * localX - sin * localY;
+			float quadY = y + sin * localX + cos * localY;
+
+			vertices.put(transform.transformX(quadX, quadY));
+			vertices.put(transform.transformY(quadX, quadY));
+			vertices.put(color.R()).put(color.G()).put(color.B()).put(color.A());
+			vertices.put(TEXTURE_COORDS[i * 2]).put(TEXTURE_COORDS[i * 2 + 1]);
+			vertices.put(textureSubspace[0]).put(textureSubspace[1]).put(textureSubspace[2]).put(textureSubspace[3]);
+			vertices.put(circleInfo[0]).put(circleInfo[1]).put(circleInfo[2]);
+			vertices.put(overrideColor ? 1 : 0).put(useLights ? 1 : 0);
+		}
+
+		quadCount++;
+	}
+
+	/**
+	 * Draws all added quads and empties the batch.
+	 *
+	 * @return Number of quads drawn.
+	 */
+	int flush(OpenGLShaderBasic shader) {
+		if (quadCount == 0)
+			return 0;
+
+		vertices.flip();
+
+		glUseProgram(shader.getProgramID());
+		shader.fillUniformBatched(true);
+		shader.fillUniformTransform(IDENTITY);
+
+		glBindVertexArray(vao);
+		for (int attribute = 0; attribute <= OpenGLShaderBasic.attribute_flags; attribute++) {
+			glEnableVertexAttribArray(attribute);
+		}
+
+		glBindBuffer(GL_ARRAY_BUFFER, vbo);
+		// orphan the old storage so the driver does not wait for the previous draw from it
+		glBufferData(GL_ARRAY_BUFFER, (long)vertices.capacity() * 4, GL_STREAM_DRAW);
+		glBufferSubData(GL_ARRAY_BUFFER, 0, vertices);
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ibo);
+
+		glActiveTexture(texture.getTextureUnit());
+		glBindTexture(GL_TEXTURE_2D, texture.getTextureID());
+		shader.fillUniformTexture(texture.getTextureUnit());
+
+		glDrawElements(GL_TRIANGLES, quadCount * 6, GL_UNSIGNED_INT, 0);
+
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+		for (int attribute = OpenGLShaderBasic.attribute_flags; attribute >= 0; attribute--) {
+			glDisableVertexAttribArray(attribute);
+		}
+		glBindVertexArray(0);
+
+		int drawn = quadCount;
+		vertices.clear();
+		quadCount = 0;
+
+		return drawn;
+	}
+
+	void cleanup() {
+		glDeleteBuffers(vbo);
+		glDeleteBuffers(ibo);
+		glDeleteVertexArrays(vao);
+	}
+}
@@ -0,0 +1,205 @@
+package com.edwardium.RPGEngine.Renderer.OpenGL;
+
+import com.edwardium.RPGEngine.Renderer.Vertex;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL32.*;
+import static org.lwjgl.opengl.GL44.GL_MAP_COHERENT_BIT;
+import static org.lwjgl.opengl.GL44.GL_MAP_PERSISTENT_BIT;
+import static org.lwjgl.opengl.GL44.glBufferStorage;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * One large vertex buffer that vertices generated each frame (text, shapes) are streamed into.
+ *
+ * The buffer is used as a ring split into three regions. Vertices are written to the current region until it is full,
+ * then a fence is placed after the draws from it and writing moves on to the next region, waiting for its fence first.
+ * That way the GPU can still be reading two regions while the third one is written without any implicit synchronization.
+ *
+ * If buffer storage is supported, the buffer is mapped once and written directly. Otherwise vertices are written
+ * to an off-heap copy of the buffer and uploaded with {@code glBufferSubData}.
+ */
+class OpenGLStreamBuffer {
+	private static final int REGION_COUNT = 3;
+	// how long to wait for a fence before giving up, in nanoseconds
+	private static final long FENCE_TIMEOUT = 1_000_000_000L;
+
+	private final boolean persistent;
+	private final boolean fenced;
+
+	private int regionVertices;
+
+	private int vao;
+	private int vbo;
+	// address of the mapped buffer or of the off-heap copy
+	private long memory = NULL;
+
+	private final long[] fences = new long[REGION_COUNT];
+	private int region = 0;
+	// next free vertex in the ring
+	private int next = 0;
+
+	// current write
+	private int writeFirst = 0;
+	private int writeCount = 0;
+	private long writeAddress = NULL;
+
+	/**
+	 * Creates the buffer with the vertex layout bound to its own vertex array. Needs a current OpenGL context.
+	 *
+	 * @param regionVertices Number of vertices in one region. The buffer grows if more are needed at once.
+	 */
+	OpenGLStreamBuffer(int regionVertices) {
+		GLCapabilities capabilities = GL.getCapabilities();
+		persistent = capabilities.OpenGL44 || capabilities.GL_ARB_buffer_storage;
+		fenced = capabilities.OpenGL32 || capabilities.GL_ARB_sync;
+
+		allocate(regionVertices);
+	}
+
+	private void allocate(int regionVertices) {
+		this.regionVertices = regionVertices;
+		long size = (long)regionVertices * REGION_COUNT * Vertex.stride;
+
+		vao = glGenVertexArrays();
+		glBindVertexArray(vao);
+
+		vbo = glGenBuffers();
+		glBindBuffer(GL_ARRAY_BUFFER, vbo);
+		if (persistent) {
+			int flags = GL_MAP_WRITE_BIT | GL_MAP_PERSISTENT_BIT | GL_MAP_COHERENT_BIT;
+			glBufferStorage(GL_ARRAY_BUFFER, size, flags);
+			memory = nglMapBufferRange(GL_ARRAY_BUFFER, 0, size, flags);
+		} else {
+			glBufferData(GL_ARRAY_BUFFER, size, GL_STREAM_DRAW);
+			memory = nmemAllocChecked(size);
+		}
+
+		glVertexAttribPointer(OpenGLShaderBasic.attribute_position, Vertex.positionElementCount, GL_FLOAT, false, Vertex.stride, Vertex.positionPointerOffset);
+		glVertexAttribPointer(OpenGLShaderBasic.attribute_vertexColor, Vertex.colorElementCount, GL_FLOAT, false, Vertex.stride, Vertex.colorPointerOffset);
+		glVertexAttribPointer(OpenGLShaderBasic.attribute_textureCoord, Vertex.textureCoordElementCount, GL_FLOAT, false, Vertex.stride, Vertex.texturePointerOffset);
+
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+		glBindVertexArray(0);
+
+		region = 0;
+		next = 0;
+	}
+
+	private void release() {
+		for (int i = 0; i < REGION_COUNT; i++) {
+			waitFence(i);
+		}
+
+		if (persistent) {
+			glBindBuffer(GL_ARRAY_BUFFER, vbo);
+			glUnmapBuffer(GL_ARRAY_BUFFER);
+			glBindBuffer(GL_ARRAY_BUFFER, 0);
+		} else {
+			nmemFree(memory);
+		}
+		memory = NULL;
+
+		glDeleteBuffers(vbo);
+		glDeleteVertexArrays(vao);
+	}
+
+	int getVAO() {
+		return vao;
+	}
+
+	int getVBO() {
+		return vbo;
+	}
+
+	/**
+	 * Reserves space for count vertices, which then have to be written with {@code put} and finished with {@code end}.
+	 * Can switch the vertex array and buffer if the buffer has to grow, so they have to be bound after this.
+	 *
+	 * @param count Number of vertices.
+	 * @return Index of the first vertex, to draw from.
+	 */
+	int begin(int count) {
+		if (count > regionVertices) {
+			release();
+
+			int newRegionVertices = regionVertices;
+			while (newRegionVertices < count)
+				newRegionVertices *= 2;
+			allocate(newRegionVertices);
+		}
+
+		if (next + count > (region + 1) * regionVertices) {
+			placeFence(region);
+			region = (region + 1) % REGION_COUNT;
+			waitFence(region);
+			next = region * regionVertices;
+		}
+
+		writeFirst = next;
+		writeCount = count;
+		writeAddress = memory + (long)next * Vertex.stride;
+		next += count;
+
+		return writeFirst;
+	}
+
+	void put(Vertex vertex) {
+		writeAddress = vertex.putElements(writeAddress);
+	}
+
+	/**
+	 * @param elements Vertex elements in {@code Vertex} layout.
+	 * @param count Number of floats to write from elements.
+	 */
+	void put(float[] elements, int count) {
+		for (int i = 0; i < count; i++) {
+			memPutFloat(writeAddress, elements[i]);
+			writeAddress += 4;
+		}
+	}
+
+	/**
+	 * Makes the written vertices available for drawing.
+	 */
+	void end() {
+		if (!persistent) {
+			long offset = (long)writeFirst * Vertex.stride;
+
+			glBindBuffer(GL_ARRAY_BUFFER, vbo);
+			nglBufferSubData(GL_ARRAY_BUFFER, offset, (long)writeCount * Vertex.stride, memory + offset);
+		}
+
+		writeCount = 0;
+	}
+
+	private void placeFence(int index) {
+		if (!fenced)
+			return;
+
+		if (fences[index] != NULL)
+			glDeleteSync(fences[index]);
+		fences[index] = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+	}
+
+	private void waitFence(int index) {
+		if (fences[index] == NULL)
+			return;
+
+		int result = glClientWaitSync(fences[index], GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_TIMEOUT);
+		if (result == GL_TIMEOUT_EXPIRED || result == GL_WAIT_FAILED)
+			System.err.println("Warning: Stream buffer fence " + (result == GL_WAIT_FAILED ? "failed" : "timed out") + "!");
+
+		glDeleteSync(fences[index]);
+		fences[index] = NULL;
+	}
+
+	void cleanup() {
+		release();
+	}
+}
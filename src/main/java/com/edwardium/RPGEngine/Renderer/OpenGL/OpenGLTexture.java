@@ -21,6 +21,12 @@ public class OpenGLTexture extends Texture {
 	private final int textureWidth;
 	private final int textureHeight;
 
+	// region of the OpenGL texture this texture covers, the whole texture unless it is in an atlas
+	private final int regionX;
+	private final int regionY;
+	private final int pageWidth;
+	private final int pageHeight;
+
 	public OpenGLTexture(String path, int textureUnit) {
 		this.textureUnit = textureUnit;
 
@@ -29,12 +35,17 @@ public class OpenGLTexture extends Texture {
 		IntBuffer pChannels = BufferUtils.createIntBuffer(1);
 
 		ByteBuffer data = stbi_load(path, pWidth, pHeight, pChannels, 4);
+		this.regionX = 0;
+		this.regionY = 0;
+
 		if (data == null) {
 			isLoaded = false;
 			textureID = -1;
 
 			this.textureWidth = 0;
 			this.textureHeight = 0;
+			this.pageWidth = 1;
+			this.pageHeight = 1;
 
 			return;
 		} else {
@@ -43,6 +54,8 @@ public class OpenGLTexture extends Texture {
 
 		this.textureWidth = pWidth.get();
 		this.textureHeight = pHeight.get();
+		this.pageWidth = textureWidth;
+		this.pageHeight = textureHeight;
 
 		// init texture
 		glActiveTexture(textureUnit);
@@ -68,9 +81,31 @@ public class OpenGLTexture extends Texture {
 		this.textureWidth = textureWidth;
 		this.textureHeight = textureHeight;
 
+		this.regionX = 0;
+		this.regionY = 0;
+		this.pageWidth = textureWidth;
+		this.pageHeight = textureHeight;
+
 		this.isLoaded = true;
 	}
 
+	/**
+	 * Creates a texture for a region of an atlas page. Offsets and sizes are then in pixels of the region.
+	 */
+	public OpenGLTexture(OpenGLTexture page, int regionX, int regionY, int width, int height) {
+		this.textureUnit = page.textureUnit;
+		this.textureID = page.textureID;
+		this.textureWidth = width;
+		this.textureHeight = height;
+
+		this.regionX = regionX;
+		this.regionY = regionY;
+		this.pageWidth = page.textureWidth;
+		this.pageHeight = page.textureHeight;
+
+		this.isLoaded = page.isLoaded;
+	}
+
 	@Override
 	public boolean isLoaded() {
 		return this.isLoaded;
@@ -93,13 +128,31 @@ public class OpenGLTexture extends Texture {
 
 	@Override
 	public float[] computeSubtexture(Vector2D offset, Vector2D size) {
-		float offsetX = offset != null ? offset.getX() / textureWidth : 0;
-		float offsetY = offset != null ? offset.getY() / textureHeight : 0;
+		float offsetX = offset != null ? offset.getX() : 0;
+		float offsetY = offset != null ? offset.getY() : 0;
 
-		float width = size != null ? size.getX() / textureWidth : (1 - offsetX);
-		float height = size != null ? size.getY() / textureHeight : (1 - offsetY);
+		return computeSubtexture(offsetX, offsetY, size != null ? size.getX() : -1, size != null ? size.getY() : -1, new float[4], 0);
+	}
 
-		return new float[] { offsetX, offsetY, width, height };
+	/**
+	 * Same as {@code computeSubtexture(Vector2D, Vector2D)}, but writes into out instead of allocating.
+	 *
+	 * @param width Width of the subtexture, negative to use the texture from offsetX to the end.
+	 * @param height Height of the subtexture, negative to use the texture from offsetY to the end.
+	 * @return out
+	 */
+	public float[] computeSubtexture(float offsetX, float offsetY, float width, float height, float[] out, int outOffset) {
+		if (width < 0)
+			width = textureWidth - offsetX;
+		if (height < 0)
+			height = textureHeight - offsetY;
+
+		out[outOffset] = (regionX + offsetX) / pageWidth;
+		out[outOffset + 1] = (regionY + offsetY) / pageHeight;
+		out[outOffset + 2] = width / pageWidth;
+		out[outOffset + 3] = height / pageHeight;
+
+		return out;
 	}
 
 
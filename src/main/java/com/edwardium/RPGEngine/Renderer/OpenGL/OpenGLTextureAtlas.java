@@ -0,0 +1,411 @@
+package com.edwardium.RPGEngine.Renderer.OpenGL;
+
+import com.edwardium.RPGEngine.IO.JsonBuilder;
+
+import javax.json.*;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.GL_CLAMP_TO_EDGE;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.stb.STBImage.stbi_image_free;
+import static org.lwjgl.stb.STBImage.stbi_load;
+import static org.lwjgl.stb.STBImageWrite.stbi_write_png;
+import static org.lwjgl.system.MemoryUtil.memAlloc;
+import static org.lwjgl.system.MemoryUtil.memCalloc;
+import static org.lwjgl.system.MemoryUtil.memFree;
+
+/**
+ * Packs images into as few textures (pages) as possible, so that draws with different images can share one batch.
+ *
+ * Each image gets an {@code OpenGLTexture} under its name that maps offsets and sizes in pixels of the original image
+ * into its region of the page, so existing {@code TextureInfo}s keep working unchanged. Regions are padded
+ * by repeating their edge pixels so that linear filtering does not bleed in the neighbours.
+ *
+ * Packed pages are cached on disk as PNGs together with the region table. The cache is used as long as
+ * the sources did not change (paths, sizes and modification times).
+ */
+public class OpenGLTextureAtlas {
+	private static final int PADDING = 2;
+	// change when packing or the cache format changes
+	private static final int VERSION = 1;
+
+	private static class Source {
+		final String name;
+		// null for bitmaps given in memory
+		final String path;
+		final String key;
+
+		// RGBA pixels, only present while packing
+		ByteBuffer pixels = null;
+		boolean fromSTB = false;
+		int width;
+		int height;
+
+		// placement
+		int page = -1;
+		int x;
+		int y;
+
+		Source(String name, String path, String key) {
+			this.name = name;
+			this.path = path;
+			this.key = key;
+		}
+	}
+
+	private final String cacheDirectory;
+	private final int maxPageSize;
+
+	private final ArrayList<Source> sources = new ArrayList<>();
+	private final ArrayList<OpenGLTexture> pages = new ArrayList<>();
+	private final HashMap<String, OpenGLTexture> textures = new HashMap<>();
+
+	/**
+	 * @param cacheDirectory Directory to cache the packed pages in, null not to cache.
+	 * @param maxPageSize Maximum width and height of one page. Images bigger than this are left out.
+	 */
+	public OpenGLTextureAtlas(String cacheDirectory, int maxPageSize) {
+		this.cacheDirectory = cacheDirectory;
+		this.maxPageSize = maxPageSize;
+	}
+
+	/**
+	 * @param path Path to a file.
+	 * @return String that changes when the file changes, for cache keys.
+	 */
+	public static String fileKey(String path) {
+		File file = new File(path);
+		return path + ":" + file.length() + ":" + file.lastModified();
+	}
+
+	/**
+	 * Adds an image file. It is only loaded if the atlas has to be packed.
+	 */
+	public void addImage(String name, String path) {
+		sources.add(new Source(name, path, fileKey(path)));
+	}
+
+	/**
+	 * Adds a single channel bitmap, such as a baked font. It is stored as white with the bitmap as alpha.
+	 *
+	 * @param key String that changes whenever the contents of the bitmap change, for the cache.
+	 */
+	public void addAlphaBitmap(String name, ByteBuffer bitmap, int width, int height, String key) {
+		Source source = new Source(name, null, key);
+		source.width = width;
+		source.height = height;
+
+		source.pixels = memAlloc(width * height * 4);
+		for (int i = 0; i < width * height; i++) {
+			source.pixels.put(i * 4, (byte) 0xFF);
+			source.pixels.put(i * 4 + 1, (byte) 0xFF);
+			source.pixels.put(i * 4 + 2, (byte) 0xFF);
+			source.pixels.put(i * 4 + 3, bitmap.get(i));
+		}
+
+		sources.add(source);
+	}
+
+	/**
+	 * Loads the pages from the cache if it is up to date, or packs all added images and caches the result.
+	 *
+	 * @param textureUnit Texture unit of the pages.
+	 */
+	public void build(int textureUnit) {
+		String key = getCacheKey();
+		if (!loadCache(key, textureUnit)) {
+			int[] pageSizes = pack();
+			ByteBuffer[] pagePixels = compose(pageSizes);
+
+			for (int i = 0; i < pagePixels.length; i++) {
+				pages.add(upload(textureUnit, pagePixels[i], pageSizes[i * 2], pageSizes[i * 2 + 1]));
+			}
+			createTextures();
+
+			if (cacheDirectory != null)
+				writeCache(key, pagePixels, pageSizes);
+
+			for (ByteBuffer pixels : pagePixels) {
+				memFree(pixels);
+			}
+		}
+
+		for (Source source : sources) {
+			freePixels(source);
+		}
+	}
+
+	/**
+	 * @return Textures of the packed images by their names.
+	 */
+	public HashMap<String, OpenGLTexture> getTextures() {
+		return textures;
+	}
+
+	public int getPageCount() {
+		return pages.size();
+	}
+
+	public void cleanup() {
+		for (OpenGLTexture page : pages) {
+			glDeleteTextures(page.getTextureID());
+		}
+		pages.clear();
+		textures.clear();
+	}
+
+	private String getCacheKey() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(VERSION).append(";").append(maxPageSize);
+		for (Source source : sources) {
+			builder.append(";").append(source.name).append("=").append(source.key);
+		}
+
+		return builder.toString();
+	}
+
+	private void freePixels(Source source) {
+		if (source.pixels == null)
+			return;
+
+		if (source.fromSTB)
+			stbi_image_free(source.pixels);
+		else
+			memFree(source.pixels);
+		source.pixels = null;
+	}
+
+	/**
+	 * Loads images and places them on shelves, tallest first.
+	 *
+	 * @return Width and height of each page.
+	 */
+	private int[] pack() {
+		ArrayList<Source> placed = new ArrayList<>();
+		for (Source source : sources) {
+			if (source.pixels == null) {
+				int[] width = new int[1], height = new int[1], channels = new int[1];
+				source.pixels = stbi_load(source.path, width, height, channels, 4);
+				if (source.pixels == null) {
+					System.err.println("Error: Could not load texture " + source.path + "!");
+					continue;
+				}
+				source.fromSTB = true;
+				source.width = width[0];
+				source.height = height[0];
+			}
+
+			if (source.width + 2 * PADDING > maxPageSize || source.height + 2 * PADDING > maxPageSize) {
+				System.err.println("Error: Texture " + source.name + " does not fit into an atlas page!");
+				continue;
+			}
+
+			placed.add(source);
+		}
+		placed.sort((a, b) -> Integer.compare(b.height, a.height));
+
+		ArrayList<Integer> pageSizes = new ArrayList<>();
+		int page = 0, x = 0, y = 0, shelfHeight = 0;
+		int usedWidth = 0, usedHeight = 0;
+		for (Source source : placed) {
+			int width = source.width + 2 * PADDING;
+			int height = source.height + 2 * PADDING;
+
+			// next shelf
+			if (x + width > maxPageSize) {
+				x = 0;
+				y += shelfHeight;
+				shelfHeight = 0;
+			}
+			// next page
+			if (y + height > maxPageSize) {
+				pageSizes.add(usedWidth);
+				pageSizes.add(usedHeight);
+
+				page++;
+				x = 0;
+				y = 0;
+				shelfHeight = 0;
+				usedWidth = 0;
+				usedHeight = 0;
+			}
+
+			source.page = page;
+			source.x = x + PADDING;
+			source.y = y + PADDING;
+
+			x += width;
+			shelfHeight = Math.max(shelfHeight, height);
+			usedWidth = Math.max(usedWidth, x);
+			usedHeight = Math.max(usedHeight, y + height);
+		}
+		if (!placed.isEmpty()) {
+			pageSizes.add(usedWidth);
+			pageSizes.add(usedHeight);
+		}
+
+		int[] result = new int[pageSizes.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = nextPowerOfTwo(pageSizes.get(i));
+		}
+
+		return result;
+	}
+
+	private ByteBuffer[] compose(int[] pageSizes) {
+		ByteBuffer[] pagePixels = new ByteBuffer[pageSizes.length / 2];
+		for (int i = 0; i < pagePixels.length; i++) {
+			pagePixels[i] = memCalloc(pageSizes[i * 2] * pageSizes[i * 2 + 1] * 4);
+		}
+
+		for (Source source : sources) {
+			if (source.page < 0)
+				continue;
+
+			ByteBuffer target = pagePixels[source.page];
+			int pageWidth = pageSizes[source.page * 2];
+
+			// copy with the edges repeated into the padding
+			for (int row = -PADDING; row < source.height + PADDING; row++) {
+				int sourceRow = Math.max(0, Math.min(source.height - 1, row));
+				for (int column = -PADDING; column < source.width + PADDING; column++) {
+					int sourceColumn = Math.max(0, Math.min(source.width - 1, column));
+
+					int pixel = source.pixels.getInt((sourceRow * source.width + sourceColumn) * 4);
+					target.putInt(((source.y + row) * pageWidth + source.x + column) * 4, pixel);
+				}
+			}
+		}
+
+		return pagePixels;
+	}
+
+	private static OpenGLTexture upload(int textureUnit, ByteBuffer pixels, int width, int height) {
+		glActiveTexture(textureUnit);
+
+		int textureID = glGenTextures();
+		glBindTexture(GL_TEXTURE_2D, textureID);
+
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_EDGE);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_EDGE);
+		glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, pixels);
+
+		glBindTexture(GL_TEXTURE_2D, 0);
+		glActiveTexture(0);
+
+		return new OpenGLTexture(textureUnit, textureID, width, height);
+	}
+
+	private void createTextures() {
+		for (Source source : sources) {
+			if (source.page >= 0)
+				textures.put(source.name, new OpenGLTexture(pages.get(source.page), source.x, source.y, source.width, source.height));
+		}
+	}
+
+	private boolean loadCache(String key, int textureUnit) {
+		if (cacheDirectory == null)
+			return false;
+
+		File cacheFile = new File(cacheDirectory, "atlas.json");
+		if (!cacheFile.exists())
+			return false;
+
+		try (JsonReader reader = Json.createReader(new FileReader(cacheFile))) {
+			JsonObject root = reader.readObject();
+			if (root.getInt("version") != VERSION || !root.getString("key").equals(key))
+				return false;
+
+			for (JsonValue value : root.getJsonArray("pages")) {
+				JsonObject pageObject = (JsonObject) value;
+				String path = new File(cacheDirectory, pageObject.getString("file")).getPath();
+
+				int[] width = new int[1], height = new int[1], channels = new int[1];
+				ByteBuffer pixels = stbi_load(path, width, height, channels, 4);
+				if (pixels == null || width[0] != pageObject.getInt("width") || height[0] != pageObject.getInt("height")) {
+					if (pixels != null)
+						stbi_image_free(pixels);
+					cleanup();
+					return false;
+				}
+
+				pages.add(upload(textureUnit, pixels, width[0], height[0]));
+				stbi_image_free(pixels);
+			}
+
+			for (JsonValue value : root.getJsonArray("regions")) {
+				JsonObject region = (JsonObject) value;
+				for (Source source : sources) {
+					if (source.name.equals(region.getString("name"))) {
+						source.page = region.getInt("page");
+						source.x = region.getInt("x");
+						source.y = region.getInt("y");
+						source.width = region.getInt("width");
+						source.height = region.getInt("height");
+					}
+				}
+			}
+			createTextures();
+		} catch (IOException | JsonException | NullPointerException | ClassCastException | IndexOutOfBoundsException ex) {
+			System.err.println("Warning: Could not load texture atlas cache: " + ex.getMessage());
+			cleanup();
+			return false;
+		}
+
+		return true;
+	}
+
+	private void writeCache(String key, ByteBuffer[] pagePixels, int[] pageSizes) {
+		File directory = new File(cacheDirectory);
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			System.err.println("Warning: Could not create texture atlas cache directory " + cacheDirectory + "!");
+			return;
+		}
+
+		JsonArrayBuilder pagesArray = Json.createArrayBuilder();
+		for (int i = 0; i < pagePixels.length; i++) {
+			String fileName = "atlas" + i + ".png";
+			if (!stbi_write_png(new File(directory, fileName).getPath(), pageSizes[i * 2], pageSizes[i * 2 + 1], 4, pagePixels[i], pageSizes[i * 2] * 4)) {
+				System.err.println("Warning: Could not write texture atlas cache!");
+				return;
+			}
+
+			pagesArray.add(new JsonBuilder().add("file", fileName).add("width", pageSizes[i * 2]).add("height", pageSizes[i * 2 + 1]).build());
+		}
+
+		JsonArrayBuilder regionsArray = Json.createArrayBuilder();
+		for (Source source : sources) {
+			if (source.page < 0)
+				continue;
+
+			regionsArray.add(new JsonBuilder().add("name", source.name).add("page", source.page)
+					.add("x", source.x).add("y", source.y).add("width", source.width).add("height", source.height).build());
+		}
+
+		JsonObject root = new JsonBuilder().add("version", VERSION).add("key", key)
+				.add("pages", pagesArray.build()).add("regions", regionsArray.build()).build();
+
+		try (JsonWriter writer = Json.createWriter(new FileWriter(new File(directory, "atlas.json")))) {
+			writer.writeObject(root);
+		} catch (IOException ex) {
+			System.err.println("Warning: Could not write texture atlas cache: " + ex.getMessage());
+		}
+	}
+
+	private static int nextPowerOfTwo(int value) {
+		int result = 1;
+		while (result < value)
+			result *= 2;
+
+		return result;
+	}
+}
@@ -0,0 +1,625 @@
+package com.edwardium.RPGEngine.Renderer;
+
+import com.edwardium.RPGEngine.Utility.Rectangle;
+import com.edwardium.RPGEngine.Utility.Vector2D;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Renderer that records draw calls instead of executing them, so they can be replayed on the target renderer later,
+ * possibly from another thread.
+ *
+ * Commands are recorded into primitive arrays, with their arguments copied as floats, so a recording is a snapshot
+ * that does not change when the game objects that recorded it do. Only immutable arguments (strings, fonts, meshes)
+ * and copies (shapes, instance batches, laid out text) are kept as references.
+ *
+ * Before the replay, commands are sorted by a key of transform segment, layer, draw state and recording order.
+ * Transform and light commands split the recording into segments that are never reordered. Inside a segment,
+ * higher layers are drawn over lower ones, and draws of layers that are not ordered are grouped by their state
+ * (kind of draw, texture, lights) so the target can batch them.
+ *
+ * Arguments are replayed through instances that are reused for every command, renderers do not keep them.
+ *
+ * Window calls are recorded too and replayed on the target in order, so they run on the thread that replays.
+ * Frame boundaries ({@code beforeLoop}, {@code afterLoop}) are left to whoever replays the recording.
+ */
+public class RecordingRenderer extends Renderer {
+	public enum CommandType {
+		PUSH_TRANSFORM, APPLY_TRANSFORM, POP_TRANSFORM,
+		LINE, RECTANGLE, RECTANGLE_AREA, CIRCLE, CIRCLE_SECTOR, STRING, TEXT, SHAPE, INSTANCES, STATIC_MESH,
+		LIGHT, LIGHT_COUNT,
+		SHOW, HIDE, SET_VSYNC
+	}
+	private static final CommandType[] COMMAND_TYPES = CommandType.values();
+
+	// type, float offset, reference offset, int argument
+	private static final int COMMAND_INTS = 4;
+	// present, position, scale, rotation, color, texture offset, texture size, lights
+	private static final int INFO_FLOATS = 1 + 2 + 2 + 1 + 4 + 2 + 2 + 1;
+
+	// sort key, from the highest bits: segment, layer, state, index
+	private static final int INDEX_BITS = 23;
+	private static final int STATE_BITS = 16;
+	private static final int LAYER_BITS = 8;
+	private static final int SEGMENT_BITS = 16;
+	private static final int STATE_SHIFT = INDEX_BITS;
+	private static final int LAYER_SHIFT = STATE_SHIFT + STATE_BITS;
+	private static final int SEGMENT_SHIFT = LAYER_SHIFT + LAYER_BITS;
+	private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+	// draw state, from the highest bits: kind, texture, lights
+	private static final int KIND_BATCHED = 0;
+	private static final int KIND_STATIC_MESH = 1;
+	private static final int KIND_SHAPE = 2;
+	private static final int KIND_INSTANCES = 3;
+	private static final int KIND_TEXT = 4;
+	private static final int TEXTURE_BITS = 12;
+	private static final int MAX_TEXTURE_ID = (1 << TEXTURE_BITS) - 1;
+
+	private final Renderer target;
+
+	private int[] commands = new int[COMMAND_INTS * 256];
+	private long[] keys = new long[256];
+	private float[] floats = new float[INFO_FLOATS * 256];
+	private Object[] references = new Object[256];
+	private int commandCount = 0;
+	private int floatCount = 0;
+	private int referenceCount = 0;
+
+	private int segment = 0;
+	// whether the last command was a transform or light command
+	private boolean inBarrier = false;
+	// false if the keys overflowed, the recording is then replayed in the recorded order
+	private boolean sortable = true;
+
+	private long[] sortedKeys = new long[256];
+	private boolean sortedValid = false;
+
+	// texture ids are kept between recordings so keys are stable across frames
+	private final HashMap<String, Integer> textureIds = new HashMap<>();
+
+	// arguments of replayed commands are written into these
+	private final Vector2D replayVector = new Vector2D();
+	private final Vector2D replayOtherVector = new Vector2D();
+	private final Vector2D replayTextureSize = new Vector2D();
+	private final Rectangle replayRectangle = new Rectangle(null, null);
+	private final RenderInfo replayInfo = new RenderInfo(new Vector2D(), new Vector2D(), 0f, new TextureInfo(null), true);
+	private final Light replayLight = new Light(new Vector2D(), new Color(), 0f, 0f);
+
+	// copies of recorded shapes, text meshes and instance batches, kept between recordings so their arrays are reused
+	private final ArrayList<Vertex[]> shapeCopies = new ArrayList<>();
+	private int shapeCopyCount = 0;
+	private final ArrayList<TextMesh> textCopies = new ArrayList<>();
+	private int textCopyCount = 0;
+	private final ArrayList<InstanceBatch> batchCopies = new ArrayList<>();
+	private int batchCopyCount = 0;
+
+	/**
+	 * @param target Renderer recorded calls are replayed on. Window size, vsync status and fonts are taken from it.
+	 */
+	public RecordingRenderer(Renderer target) {
+		this.target = target;
+		this.basicFont = target.basicFont;
+	}
+
+	/**
+	 * Removes all recorded calls and resets the layer.
+	 */
+	public void clear() {
+		Arrays.fill(references, 0, referenceCount, null);
+		commandCount = 0;
+		floatCount = 0;
+		referenceCount = 0;
+		shapeCopyCount = 0;
+		textCopyCount = 0;
+		batchCopyCount = 0;
+
+		segment = 0;
+		inBarrier = false;
+		sortable = true;
+		sortedValid = false;
+
+		setLayer(DEFAULT_LAYER, true);
+	}
+
+	/**
+	 * Executes all recorded calls on the target renderer, in the sorted order.
+	 */
+	public void replay() {
+		sort();
+		for (int i = 0; i < commandCount; i++) {
+			replay(sortable ? (int)(sortedKeys[i] & INDEX_MASK) : i);
+		}
+	}
+
+	/**
+	 * @return Number of recorded calls.
+	 */
+	public int size() {
+		return commandCount;
+	}
+
+	/**
+	 * @param index Index of the call in the recorded order.
+	 * @return Type of the recorded call.
+	 */
+	public CommandType getCommandType(int index) {
+		if (index < 0 || index >= commandCount)
+			throw new IndexOutOfBoundsException("Index: " + index);
+
+		return COMMAND_TYPES[commands[index * COMMAND_INTS]];
+	}
+
+	/**
+	 * @return Indices of the recorded calls in the order they are replayed in.
+	 */
+	public int[] getReplayOrder() {
+		sort();
+
+		int[] order = new int[commandCount];
+		for (int i = 0; i < commandCount; i++) {
+			order[i] = sortable ? (int)(sortedKeys[i] & INDEX_MASK) : i;
+		}
+
+		return order;
+	}
+
+	private void sort() {
+		if (sortedValid || !sortable)
+			return;
+
+		if (sortedKeys.length < commandCount)
+			sortedKeys = new long[keys.length];
+		System.arraycopy(keys, 0, sortedKeys, 0, commandCount);
+		Arrays.sort(sortedKeys, 0, commandCount);
+
+		sortedValid = true;
+	}
+
+	@Override
+	public void setLayer(int layer, boolean ordered) {
+		if (layer < 0 || layer >= 1 << LAYER_BITS)
+			throw new IllegalArgumentException("Layer has to be between 0 and " + ((1 << LAYER_BITS) - 1) + "!");
+
+		super.setLayer(layer, ordered);
+	}
+
+	@Override
+	protected void init() {
+
+	}
+
+	@Override
+	public long getWindowHandle() {
+		return target.getWindowHandle();
+	}
+
+	@Override
+	public Vector2D getWindowSize() {
+		return target.getWindowSize();
+	}
+
+	@Override
+	public void show() {
+		addBarrier(CommandType.SHOW, 0);
+	}
+
+	@Override
+	public void hide() {
+		addBarrier(CommandType.HIDE, 0);
+	}
+
+	@Override
+	public boolean getVSync() {
+		return target.getVSync();
+	}
+
+	@Override
+	public void setVSync(boolean value) {
+		addBarrier(CommandType.SET_VSYNC, value ? 1 : 0);
+	}
+
+	@Override
+	public void beforeLoop() {
+
+	}
+
+	@Override
+	public void afterLoop() {
+
+	}
+
+	@Override
+	public void pushTransformMatrix() {
+		addBarrier(CommandType.PUSH_TRANSFORM, 0);
+	}
+
+	@Override
+	public void applyTransformMatrix(Vector2D scale, Float rotation, Vector2D translation) {
+		addBarrier(CommandType.APPLY_TRANSFORM, 0);
+		putVector(scale);
+		putFloat(rotation != null ? rotation : Float.NaN);
+		putVector(translation);
+	}
+
+	@Override
+	public void popTransformMatrix() {
+		addBarrier(CommandType.POP_TRANSFORM, 0);
+	}
+
+	@Override
+	public void drawLine(Vector2D destPoint, RenderInfo info) {
+		addDraw(CommandType.LINE, KIND_BATCHED, info);
+		putVector(destPoint);
+		putInfo(info);
+	}
+
+	@Override
+	public void drawRectangle(RenderInfo info) {
+		addDraw(CommandType.RECTANGLE, KIND_BATCHED, info);
+		putInfo(info);
+	}
+
+	@Override
+	public void drawRectangle(Rectangle rectangle, RenderInfo info) {
+		addDraw(CommandType.RECTANGLE_AREA, KIND_BATCHED, info);
+		putVector(rectangle != null ? rectangle.getTopLeft() : null);
+		putVector(rectangle != null ? rectangle.getBottomRight() : null);
+		putInfo(info);
+	}
+
+	@Override
+	public void drawCircle(RenderInfo info) {
+		addDraw(CommandType.CIRCLE, KIND_BATCHED, info);
+		putInfo(info);
+	}
+
+	@Override
+	public void drawCircle(float minRadius, float maxRadius, float maxAngle, RenderInfo info) {
+		addDraw(CommandType.CIRCLE_SECTOR, KIND_BATCHED, info);
+		putFloat(minRadius);
+		putFloat(maxRadius);
+		putFloat(maxAngle);
+		putInfo(info);
+	}
+
+	@Override
+	public void drawString(Font font, String text, RenderInfo info, StringAlignment alignment) {
+		addDraw(CommandType.STRING, KIND_TEXT, font != null ? font.getTextureName() : null, info == null || info.useLights);
+		putReference(font);
+		putReference(text);
+		putReference(alignment);
+		putInfo(info);
+	}
+
+	@Override
+	public void drawString(Font font, String text, RenderInfo info) {
+		drawString(font, text, info, null);
+	}
+
+	@Override
+	public void drawText(TextMesh text, RenderInfo info, StringAlignment alignment) {
+		Font font = text.getFont();
+		addDraw(CommandType.TEXT, KIND_TEXT, font != null ? font.getTextureName() : null, info == null || info.useLights);
+		// the mesh can change before the replay, its laid out elements are copied
+		putReference(copyText(text));
+		putReference(alignment);
+		putInfo(info);
+	}
+
+	@Override
+	public void drawShape(Vertex[] shape, RenderInfo info) {
+		addDraw(CommandType.SHAPE, KIND_SHAPE, info);
+		putReference(shape != null ? copyShape(shape) : null);
+		putInfo(info);
+	}
+
+	@Override
+	public void drawInstances(InstanceBatch batch) {
+		addDraw(CommandType.INSTANCES, KIND_INSTANCES, batch.textureName, batch.useLights);
+		putReference(copyBatch(batch));
+	}
+
+	@Override
+	public void drawStaticMesh(StaticMesh mesh, RenderInfo info) {
+		addDraw(CommandType.STATIC_MESH, KIND_STATIC_MESH, info);
+		// meshes cannot be changed, the reference is enough
+		putReference(mesh);
+		putInfo(info);
+	}
+
+	@Override
+	public void setLight(int index, Light light) {
+		addBarrier(CommandType.LIGHT, index);
+		putFloat(light != null ? 1 : 0);
+		putVector(light != null ? light.position : null);
+		putColor(light != null ? light.color : null);
+		putFloat(light != null ? light.power : 0);
+		putFloat(light != null ? light.cutoff : 0);
+	}
+
+	@Override
+	public void setLightCount(int count) {
+		addBarrier(CommandType.LIGHT_COUNT, count);
+	}
+
+	@Override
+	public boolean shouldClose() {
+		return false;
+	}
+
+	@Override
+	public void cleanup() {
+		clear();
+	}
+
+	/**
+	 * Adds a command that no draw can be reordered across.
+	 */
+	private void addBarrier(CommandType type, int argument) {
+		if (!inBarrier) {
+			segment++;
+			inBarrier = true;
+		}
+
+		addCommand(type, argument, 0, 0);
+	}
+
+	private void addDraw(CommandType type, int kind, RenderInfo info) {
+		addDraw(type, kind, info != null ? info.textureInfo.textureName : null, info == null || info.useLights);
+	}
+
+	private void addDraw(CommandType type, int kind, String textureName, boolean useLights) {
+		if (inBarrier) {
+			segment++;
+			inBarrier = false;
+		}
+
+		int state = 0;
+		if (!layerOrdered)
+			state = (kind << (TEXTURE_BITS + 1)) | (getTextureId(textureName) << 1) | (useLights ? 1 : 0);
+
+		addCommand(type, 0, layer, state);
+	}
+
+	private void addCommand(CommandType type, int argument, int layer, int state) {
+		if (commandCount >= 1 << INDEX_BITS || segment >= 1 << SEGMENT_BITS)
+			sortable = false;
+
+		if ((commandCount + 1) * COMMAND_INTS > commands.length) {
+			commands = Arrays.copyOf(commands, commands.length * 2);
+			keys = Arrays.copyOf(keys, keys.length * 2);
+		}
+
+		int offset = commandCount * COMMAND_INTS;
+		commands[offset] = type.ordinal();
+		commands[offset + 1] = floatCount;
+		commands[offset + 2] = referenceCount;
+		commands[offset + 3] = argument;
+
+		keys[commandCount] = ((long)segment << SEGMENT_SHIFT) | ((long)layer << LAYER_SHIFT) | ((long)state << STATE_SHIFT) | commandCount;
+
+		commandCount++;
+		sortedValid = false;
+	}
+
+	private int getTextureId(String textureName) {
+		Integer id = textureIds.get(textureName);
+		if (id == null) {
+			id = Math.min(textureIds.size(), MAX_TEXTURE_ID);
+			textureIds.put(textureName, id);
+		}
+
+		return id;
+	}
+
+	private void putFloat(float value) {
+		if (floatCount == floats.length)
+			floats = Arrays.copyOf(floats, floats.length * 2);
+
+		floats[floatCount++] = value;
+	}
+
+	private void putVector(Vector2D vector) {
+		// NaN stands for null
+		putFloat(vector != null ? vector.getX() : Float.NaN);
+		putFloat(vector != null ? vector.getY() : Float.NaN);
+	}
+
+	private void putColor(Color color) {
+		putFloat(color != null ? color.R() : 1);
+		putFloat(color != null ? color.G() : 1);
+		putFloat(color != null ? color.B() : 1);
+		putFloat(color != null ? color.A() : 1);
+	}
+
+	private void putInfo(RenderInfo info) {
+		if (info == null) {
+			for (int i = 0; i < INFO_FLOATS; i++)
+				putFloat(0);
+			putReference(null);
+			return;
+		}
+
+		TextureInfo textureInfo = info.textureInfo;
+		putFloat(1);
+		putVector(info.position);
+		putVector(info.scale);
+		putFloat(info.rotation);
+		putColor(textureInfo.textureColor);
+		putVector(textureInfo.textureOffset);
+		putVector(textureInfo.textureSize);
+		putFloat(info.useLights ? 1 : 0);
+		putReference(textureInfo.textureName);
+	}
+
+	private Vertex[] copyShape(Vertex[] shape) {
+		Vertex[] copy = shapeCopyCount < shapeCopies.size() ? shapeCopies.get(shapeCopyCount) : null;
+		if (copy == null || copy.length != shape.length) {
+			copy = new Vertex[shape.length];
+			if (shapeCopyCount < shapeCopies.size())
+				shapeCopies.set(shapeCopyCount, copy);
+			else
+				shapeCopies.add(copy);
+		}
+		shapeCopyCount++;
+
+		// vertices cannot be changed, copying the array is enough
+		System.arraycopy(shape, 0, copy, 0, shape.length);
+		return copy;
+	}
+
+	private TextMesh copyText(TextMesh text) {
+		TextMesh copy = textCopyCount < textCopies.size() ? textCopies.get(textCopyCount) : null;
+		if (copy == null || copy.getFont() != text.getFont()) {
+			copy = new TextMesh(text.getFont());
+			if (textCopyCount < textCopies.size())
+				textCopies.set(textCopyCount, copy);
+			else
+				textCopies.add(copy);
+		}
+		textCopyCount++;
+
+		return copy.copyFrom(text);
+	}
+
+	private InstanceBatch copyBatch(InstanceBatch batch) {
+		InstanceBatch copy = batchCopyCount < batchCopies.size() ? batchCopies.get(batchCopyCount) : null;
+		if (copy == null || copy.primitive != batch.primitive || !copy.textureName.equals(batch.textureName) || copy.useLights != batch.useLights) {
+			copy = new InstanceBatch(batch.primitive, batch.textureName, batch.useLights);
+			if (batchCopyCount < batchCopies.size())
+				batchCopies.set(batchCopyCount, copy);
+			else
+				batchCopies.add(copy);
+		}
+		batchCopyCount++;
+
+		return copy.copyFrom(batch);
+	}
+
+	private void putReference(Object reference) {
+		if (referenceCount == references.length)
+			references = Arrays.copyOf(references, references.length * 2);
+
+		references[referenceCount++] = reference;
+	}
+
+	private void replay(int index) {
+		int offset = index * COMMAND_INTS;
+		int f = commands[offset + 1];
+		int r = commands[offset + 2];
+		int argument = commands[offset + 3];
+
+		switch (COMMAND_TYPES[commands[offset]]) {
+			case PUSH_TRANSFORM:
+				target.pushTransformMatrix();
+				break;
+			case APPLY_TRANSFORM:
+				target.applyTransformMatrix(getVector(f, replayVector), Float.isNaN(floats[f + 2]) ? null : floats[f + 2],
+						getVector(f + 3, replayOtherVector));
+				break;
+			case POP_TRANSFORM:
+				target.popTransformMatrix();
+				break;
+			case LINE:
+				target.drawLine(getVector(f, replayVector), getInfo(f + 2, r));
+				break;
+			case RECTANGLE:
+				target.drawRectangle(getInfo(f, r));
+				break;
+			case RECTANGLE_AREA:
+				Rectangle rectangle = null;
+				if (!Float.isNaN(floats[f])) {
+					rectangle = replayRectangle;
+					rectangle.setTopLeft(getVector(f, replayVector));
+					rectangle.setBottomRight(getVector(f + 2, replayOtherVector));
+				}
+				target.drawRectangle(rectangle, getInfo(f + 4, r));
+				break;
+			case CIRCLE:
+				target.drawCircle(getInfo(f, r));
+				break;
+			case CIRCLE_SECTOR:
+				target.drawCircle(floats[f], floats[f + 1], floats[f + 2], getInfo(f + 3, r));
+				break;
+			case STRING:
+				Font font = (Font) references[r];
+				String text = (String) references[r + 1];
+				StringAlignment alignment = (StringAlignment) references[r + 2];
+				if (alignment != null)
+					target.drawString(font, text, getInfo(f, r + 3), alignment);
+				else
+					target.drawString(font, text, getInfo(f, r + 3));
+				break;
+			case TEXT:
+				target.drawText((TextMesh) references[r], getInfo(f, r + 2), (StringAlignment) references[r + 1]);
+				break;
+			case SHAPE:
+				target.drawShape((Vertex[]) references[r], getInfo(f, r + 1));
+				break;
+			case INSTANCES:
+				target.drawInstances((InstanceBatch) references[r]);
+				break;
+			case STATIC_MESH:
+				target.drawStaticMesh((StaticMesh) references[r], getInfo(f, r + 1));
+				break;
+			case LIGHT:
+				Light light = null;
+				if (floats[f] != 0) {
+					light = replayLight;
+					if (getVector(f + 1, light.position) == null)
+						light.position.set(0, 0);
+					getColor(f + 3, light.color);
+					light.power = floats[f + 7];
+					light.cutoff = floats[f + 8];
+				}
+				target.setLight(argument, light);
+				break;
+			case LIGHT_COUNT:
+				target.setLightCount(argument);
+				break;
+			case SHOW:
+				target.show();
+				break;
+			case HIDE:
+				target.hide();
+				break;
+			case SET_VSYNC:
+				target.setVSync(argument != 0);
+				break;
+		}
+	}
+
+	/**
+	 * @return Vector set to the recorded values, or null if null was recorded.
+	 */
+	private Vector2D getVector(int offset, Vector2D vector) {
+		return Float.isNaN(floats[offset]) ? null : vector.set(floats[offset], floats[offset + 1]);
+	}
+
+	private Color getColor(int offset, Color color) {
+		return color.setR(floats[offset]).setG(floats[offset + 1]).setB(floats[offset + 2]).setA(floats[offset + 3]);
+	}
+
+	private RenderInfo getInfo(int offset, int referenceOffset) {
+		if (floats[offset] == 0)
+			return null;
+
+		// position, scale and texture offset are never null, the constructors default them
+		RenderInfo info = replayInfo;
+		info.position.set(floats[offset + 1], floats[offset + 2]);
+		info.scale.set(floats[offset + 3], floats[offset + 4]);
+		info.rotation = floats[offset + 5];
+		info.useLights = floats[offset + 14] != 0;
+
+		TextureInfo textureInfo = info.textureInfo;
+		textureInfo.textureName = (String) references[referenceOffset];
+		getColor(offset + 6, textureInfo.textureColor);
+		textureInfo.textureOffset.set(floats[offset + 10], floats[offset + 11]);
+		textureInfo.textureSize = getVector(offset + 12, replayTextureSize);
+
+		return info;
+	}
+}
@@ -0,0 +1,165 @@
+package com.edwardium.RPGEngine.Renderer;
+
+import com.edwardium.RPGEngine.Utility.Vector2D;
+
+import java.util.Arrays;
+
+/**
+ * Checks the order {@code RecordingRenderer} replays calls in, without a window or GPU.
+ * Run with {@code --check-recorder}, every failed check is printed and the exit code is the number of failed checks.
+ */
+public class RecordingRendererCheck {
+	private final RecordingRenderer recorder = new RecordingRenderer(new NullRenderer(800, 600));
+	private int failures = 0;
+
+	/**
+	 * @return Number of failed checks.
+	 */
+	public static int run() {
+		RecordingRendererCheck check = new RecordingRendererCheck();
+		check.checkBarriers();
+		check.checkOrderedLayer();
+		check.checkLayers();
+		check.checkUnorderedLayer();
+		check.checkOverflow();
+
+		if (check.failures == 0)
+			System.out.println("Recording renderer checks passed.");
+
+		return check.failures;
+	}
+
+	/**
+	 * Draws are grouped inside segments, but never moved across transform and light calls.
+	 */
+	private void checkBarriers() {
+		recorder.clear();
+		recorder.setLayer(1, false);
+		draw("a"); // 0
+		draw("b"); // 1
+		draw("a"); // 2
+		recorder.pushTransformMatrix(); // 3
+		draw("b"); // 4
+		draw("a"); // 5
+		recorder.setLight(0, new Light(new Vector2D(), new Color(), 1f)); // 6
+		recorder.setLightCount(1); // 7
+		draw("b"); // 8
+		draw("a"); // 9
+		recorder.popTransformMatrix(); // 10
+
+		expectOrder("barriers", 0, 2, 1, 3, 5, 4, 6, 7, 9, 8, 10);
+	}
+
+	/**
+	 * Draws of an ordered layer are replayed in the recorded order, even if they could be grouped.
+	 */
+	private void checkOrderedLayer() {
+		recorder.clear();
+		recorder.setLayer(1, true);
+		draw("a");
+		draw("b");
+		draw("a");
+		draw("b");
+
+		expectOrder("ordered layer", 0, 1, 2, 3);
+	}
+
+	/**
+	 * Higher layers are drawn over lower ones inside a segment, the default layer is drawn first.
+	 */
+	private void checkLayers() {
+		recorder.clear();
+		recorder.setLayer(3, true);
+		draw("a"); // 0
+		recorder.setLayer(1, true);
+		draw("a"); // 1
+		recorder.setLayer(Renderer.DEFAULT_LAYER, true);
+		draw("a"); // 2
+		recorder.setLayer(3, true);
+		draw("a"); // 3
+		recorder.setLayer(1, true);
+		draw("a"); // 4
+
+		expectOrder("layers", 2, 1, 4, 0, 3);
+	}
+
+	/**
+	 * Draws of a layer that is not ordered are grouped by kind, texture and lights, in the recorded order inside a group.
+	 */
+	private void checkUnorderedLayer() {
+		recorder.clear();
+		recorder.setLayer(2, false);
+		draw("a"); // 0
+		draw("b"); // 1
+		recorder.drawCircle(info("a", true)); // 2, same state as 0
+		draw("a", false); // 3
+		draw("a"); // 4
+		recorder.drawString(null, "text", info("a", true)); // 5
+		draw("b"); // 6
+		draw("a", false); // 7
+
+		// texture ids are given in the order textures are first recorded, lights are the lowest bit of the state
+		expectOrder("unordered layer", 3, 7, 0, 2, 4, 1, 6, 5);
+	}
+
+	/**
+	 * When there are too many segments for the sort key, the recording is replayed in the recorded order.
+	 */
+	private void checkOverflow() {
+		recorder.clear();
+		recorder.setLayer(2, false);
+		draw("b");
+		draw("a");
+
+		// every barrier after a draw and every draw after a barrier starts a new segment
+		for (int i = 0; i < 1 << 15; i++) {
+			recorder.pushTransformMatrix();
+			draw("a");
+		}
+
+		int[] order = recorder.getReplayOrder();
+		boolean recorded = order.length == recorder.size();
+		for (int i = 0; recorded && i < order.length; i++) {
+			recorded = order[i] == i;
+		}
+		check(recorded, "overflow: calls are not replayed in the recorded order");
+
+		try {
+			recorder.replay();
+		} catch (RuntimeException ex) {
+			check(false, "overflow: replay failed with " + ex);
+		}
+
+		// clearing resets the segments
+		recorder.clear();
+		recorder.setLayer(2, false);
+		draw("b");
+		draw("a");
+		draw("b");
+		expectOrder("after overflow", 1, 0, 2);
+	}
+
+	private void draw(String texture) {
+		draw(texture, true);
+	}
+
+	private void draw(String texture, boolean useLights) {
+		recorder.drawRectangle(info(texture, useLights));
+	}
+
+	private static Renderer.RenderInfo info(String texture, boolean useLights) {
+		return new Renderer.RenderInfo(new Vector2D(), 1f, 0f, new TextureInfo(texture), useLights);
+	}
+
+	private void expectOrder(String name, int... expected) {
+		int[] order = recorder.getReplayOrder();
+		check(Arrays.equals(order, expected), name + ": expected order " + Arrays.toString(expected) + ", got " + Arrays.toString(order));
+	}
+
+	private void check(boolean condition, String message) {
+		if (!condition) {
+			System.err.println("Error: Recording renderer check failed, " + message);
+			failures++;
+		}
+	}
+}
@@ -5,13 +5,14 @@ import com.edwardium.RPGEngine.Utility.Vector2D;
 
 // A Renderer takes care of all the window and graphics context initialization and cleanup.
 // Also provides methods to render stuff.
+// Renderers must not keep the arguments of draw calls after the call returns, callers can reuse them.
 public abstract class Renderer {
 	public static class RenderInfo {
 		public final Vector2D position;
 		public final Vector2D scale;
-		public final float rotation;
+		public float rotation;
 		public final TextureInfo textureInfo;
-		public final boolean useLights;
+		public boolean useLights;
 
 		public RenderInfo(Vector2D position, Vector2D scale, Float rotation, TextureInfo textureInfo, Boolean useLights) {
 			this.position = position != null ? position : new Vector2D();
@@ -38,7 +39,11 @@ public abstract class Renderer {
 
 	public enum StringAlignment { TOPLEFT, TOPRIGHT, CENTER, BOTTOMLEFT, BOTTOMRIGHT }
 
-	public static final int MAX_LIGHTS = 64;
+	// lights are culled per screen tile, so this only bounds the memory used for them
+	public static final int MAX_LIGHTS = 1024;
+
+	// layer draws are recorded in if none is set
+	public static final int DEFAULT_LAYER = 0;
 
 	protected String windowTitle;
 	protected int windowWidth;
@@ -46,6 +51,9 @@ public abstract class Renderer {
 
 	public Font basicFont;
 
+	protected int layer = DEFAULT_LAYER;
+	protected boolean layerOrdered = true;
+
 	protected Renderer() {
 		this("Window");
 	}
@@ -88,9 +96,44 @@ public abstract class Renderer {
 
 	public abstract void drawString(Font font, String text, RenderInfo info, StringAlignment alignment);
 	public abstract void drawString(Font font, String text, RenderInfo info);
+	/**
+	 * Draws text that is already laid out, with its font. Same as {@code drawString} but the text can be updated in place.
+	 */
+	public abstract void drawText(TextMesh text, RenderInfo info, StringAlignment alignment);
 
 	public abstract void drawShape(Vertex[] shape, RenderInfo info);
 
+	/**
+	 * Draws all instances in batch with the current transform, in one call if the renderer supports it.
+	 */
+	public abstract void drawInstances(InstanceBatch batch);
+
+	/**
+	 * Draws a mesh that does not change between frames, transformed by info.
+	 */
+	public abstract void drawStaticMesh(StaticMesh mesh, RenderInfo info);
+
+	/**
+	 * Sets the layer following draws are in. Renderers that buffer draws draw higher layers over lower ones
+	 * (up to the next transform or light change), others draw immediately and ignore layers.
+	 *
+	 * @param layer Layer from 0 to 255.
+	 * @param ordered Whether draws in the layer have to be drawn in the order they were made. If not, they may be
+	 *                grouped by texture and other state. A layer should always be used with the same value.
+	 */
+	public void setLayer(int layer, boolean ordered) {
+		this.layer = layer;
+		this.layerOrdered = ordered;
+	}
+
+	public int getLayer() {
+		return layer;
+	}
+
+	public boolean isLayerOrdered() {
+		return layerOrdered;
+	}
+
 	public abstract void setLight(int index, Light light);
 	public abstract void setLightCount(int count);
 
@@ -0,0 +1,30 @@
+package com.edwardium.RPGEngine.Renderer;
+
+/**
+ * Triangles that do not change, such as level geometry. Renderers can keep a mesh on the GPU and draw it without
+ * uploading its vertices again. A mesh cannot be modified, so changed geometry needs a new mesh.
+ */
+public class StaticMesh {
+	private final float[] elements;
+	private final int vertexCount;
+
+	/**
+	 * @param elements Vertex elements in {@code Vertex} layout, as triangles. Not copied, must not be changed after.
+	 * @param vertexCount Number of vertices in elements.
+	 */
+	public StaticMesh(float[] elements, int vertexCount) {
+		this.elements = elements;
+		this.vertexCount = vertexCount;
+	}
+
+	/**
+	 * @return Vertex elements, only the first {@code getVertexCount() * Vertex.elementCount} floats are valid.
+	 */
+	public float[] getElements() {
+		return elements;
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+}
@@ -0,0 +1,288 @@
+package com.edwardium.RPGEngine.Renderer;
+
+import java.util.Arrays;
+
+/**
+ * Text laid out into triangles with a font, ready to be streamed to the GPU.
+ *
+ * The text is mutable and is laid out lazily, starting from the first character that changed since the last layout.
+ * Text that is rebuilt every frame with {@code clear} and {@code append} (such as counters) only lays out
+ * the characters that actually changed, and numbers are appended without formatting them to a string first.
+ */
+public class TextMesh implements CharSequence {
+	public static final int VERTICES_PER_CHARACTER = 6;
+	// order in which the corners of a character quad are used as two triangles
+	private static final int[] QUAD_TRIANGLES = { 0, 1, 2, 2, 3, 0 };
+	private static final int CHARACTER_FLOATS = VERTICES_PER_CHARACTER * Vertex.elementCount;
+
+	private final Font font;
+
+	private char[] characters = new char[16];
+	private int count = 0;
+
+	// number of characters from the start that are laid out in elements
+	private int laidOut = 0;
+	private boolean boundsValid = false;
+
+	// pen position before each character
+	private float[] penPositions = new float[characters.length + 1];
+	private float[] elements = new float[characters.length * CHARACTER_FLOATS];
+	private final float[] quad = new float[8];
+
+	private float minX, maxX, minY, maxY;
+
+	public TextMesh(Font font) {
+		this.font = font;
+	}
+
+	public TextMesh(Font font, CharSequence text) {
+		this(font);
+		append(text);
+	}
+
+	public Font getFont() {
+		return font;
+	}
+
+	/**
+	 * Removes all characters. Laid out characters are kept and reused if the same ones are appended again.
+	 *
+	 * @return This reference.
+	 */
+	public TextMesh clear() {
+		count = 0;
+		boundsValid = false;
+
+		return this;
+	}
+
+	/**
+	 * Replaces the text with text.
+	 *
+	 * @return This reference.
+	 */
+	public TextMesh set(CharSequence text) {
+		return clear().append(text);
+	}
+
+	/**
+	 * Replaces the text with the text of other, copying its laid out elements, so the copy does not have to be laid out
+	 * again and does not change when other does. Both meshes have to use the same font.
+	 *
+	 * @return This reference.
+	 */
+	public TextMesh copyFrom(TextMesh other) {
+		if (other.font != font)
+			throw new IllegalArgumentException("Text meshes have to use the same font!");
+
+		if (font != null)
+			other.layout();
+
+		if (characters.length < other.count)
+			grow(other.characters.length);
+
+		int copiedLayout = Math.min(other.laidOut, other.count);
+		System.arraycopy(other.characters, 0, characters, 0, other.count);
+		System.arraycopy(other.penPositions, 0, penPositions, 0, copiedLayout + 1);
+		System.arraycopy(other.elements, 0, elements, 0, copiedLayout * CHARACTER_FLOATS);
+
+		count = other.count;
+		laidOut = copiedLayout;
+		minX = other.minX;
+		maxX = other.maxX;
+		minY = other.minY;
+		maxY = other.maxY;
+		boundsValid = other.boundsValid;
+
+		return this;
+	}
+
+	public TextMesh append(char c) {
+		if (count == characters.length)
+			grow(characters.length * 2);
+
+		if (count < laidOut && characters[count] != c)
+			laidOut = count;
+		characters[count++] = c;
+		boundsValid = false;
+
+		return this;
+	}
+
+	public TextMesh append(CharSequence text) {
+		for (int i = 0; i < text.length(); i++) {
+			append(text.charAt(i));
+		}
+
+		return this;
+	}
+
+	/**
+	 * Appends the decimal representation of value without allocating.
+	 *
+	 * @return This reference.
+	 */
+	public TextMesh append(long value) {
+		if (value < 0) {
+			append('-');
+		} else {
+			// digits are computed on the negative value, which also covers Long.MIN_VALUE
+			value = -value;
+		}
+
+		long divisor = 1;
+		while (value / divisor <= -10)
+			divisor *= 10;
+
+		while (divisor != 0) {
+			append((char) ('0' - value / divisor));
+			value %= divisor;
+			divisor /= 10;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Appends value rounded to the given number of decimal places without allocating, like {@code String.format("%.Nf")},
+	 * except that values that round to zero never have a sign.
+	 *
+	 * @return This reference.
+	 */
+	public TextMesh append(double value, int decimals) {
+		if (Double.isNaN(value))
+			return append("NaN");
+		if (Double.isInfinite(value))
+			return append(value > 0 ? "Infinity" : "-Infinity");
+
+		long multiplier = 1;
+		for (int i = 0; i < decimals; i++)
+			multiplier *= 10;
+
+		long scaled = Math.round(Math.abs(value) * multiplier);
+		if (value < 0 && scaled != 0)
+			append('-');
+
+		append(scaled / multiplier);
+		if (decimals > 0) {
+			append('.');
+
+			long fraction = scaled % multiplier;
+			for (long digit = multiplier / 10; digit > 0; digit /= 10) {
+				append((char) ('0' + fraction / digit % 10));
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * @return Number of vertices in {@code getElements}.
+	 */
+	public int getVertexCount() {
+		return count * VERTICES_PER_CHARACTER;
+	}
+
+	/**
+	 * @return Vertex elements of the laid out text, in {@code Vertex} layout, as triangles.
+	 * Only the first {@code getVertexCount() * Vertex.elementCount} floats are valid.
+	 */
+	public float[] getElements() {
+		layout();
+		return elements;
+	}
+
+	public float getWidth() {
+		layout();
+		return maxX - minX;
+	}
+
+	public float getHeight() {
+		layout();
+		return maxY - minY;
+	}
+
+	/**
+	 * @return Distance from the top of the text to the baseline.
+	 */
+	public float getBaseline() {
+		layout();
+		return Math.abs(minY);
+	}
+
+	private void grow(int capacity) {
+		characters = Arrays.copyOf(characters, capacity);
+		penPositions = Arrays.copyOf(penPositions, capacity + 1);
+		elements = Arrays.copyOf(elements, capacity * CHARACTER_FLOATS);
+	}
+
+	private void layout() {
+		if (laidOut < count) {
+			for (int i = laidOut; i < count; i++) {
+				float advance = font.getGlyph(characters[i], penPositions[i], quad);
+				penPositions[i + 1] = penPositions[i] + advance;
+
+				int offset = i * CHARACTER_FLOATS;
+				for (int corner : QUAD_TRIANGLES) {
+					// corners go (x0, y0), (x1, y0), (x1, y1), (x0, y1)
+					boolean right = corner == 1 || corner == 2;
+					boolean bottom = corner >= 2;
+
+					elements[offset++] = right ? quad[2] : quad[0];
+					elements[offset++] = bottom ? quad[3] : quad[1];
+					elements[offset++] = 0;
+					elements[offset++] = 1;
+
+					elements[offset++] = 1;
+					elements[offset++] = 1;
+					elements[offset++] = 1;
+					elements[offset++] = 1;
+
+					elements[offset++] = right ? quad[6] : quad[4];
+					elements[offset++] = bottom ? quad[7] : quad[5];
+				}
+			}
+			laidOut = count;
+		}
+
+		if (!boundsValid) {
+			minX = minY = Float.POSITIVE_INFINITY;
+			maxX = maxY = Float.NEGATIVE_INFINITY;
+			for (int i = 0; i < count; i++) {
+				// first vertex is the top left corner, third one the bottom right
+				int offset = i * CHARACTER_FLOATS;
+				minX = Math.min(minX, elements[offset]);
+				minY = Math.min(minY, elements[offset + 1]);
+				maxX = Math.max(maxX, elements[offset + 2 * Vertex.elementCount]);
+				maxY = Math.max(maxY, elements[offset + 2 * Vertex.elementCount + 1]);
+			}
+			if (count == 0)
+				minX = maxX = minY = maxY = 0;
+
+			boundsValid = true;
+		}
+	}
+
+	@Override
+	public int length() {
+		return count;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= count)
+			throw new IndexOutOfBoundsException("Index: " + index);
+
+		return characters[index];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return toString().substring(start, end);
+	}
+
+	@Override
+	public String toString() {
+		return new String(characters, 0, count);
+	}
+}
@@ -4,10 +4,10 @@ import com.edwardium.RPGEngine.Utility.Vector2D;
 
 public class TextureInfo {
 
-	public final String textureName;
+	public String textureName;
 
 	public final Vector2D textureOffset;
-	public final Vector2D textureSize;
+	public Vector2D textureSize;
 
 	public final Color textureColor;
 
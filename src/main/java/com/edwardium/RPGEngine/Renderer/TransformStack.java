@@ -0,0 +1,125 @@
+package com.edwardium.RPGEngine.Renderer;
+
+import java.util.Arrays;
+
+/**
+ * Stack of 2D affine transforms kept in a primitive array, as a replacement for the fixed function matrix stack.
+ *
+ * A transform (a, b, c, d, tx, ty) maps (x, y) to (a * x + c * y + tx, b * x + d * y + ty). Like in OpenGL,
+ * translate, rotate and scale multiply the top transform from the right, so the last one applied is the first
+ * one to act on vertices.
+ */
+public class TransformStack {
+	private static final int SIZE = 6;
+
+	private float[] stack = new float[SIZE * 16];
+	// offset of the top transform
+	private int top = 0;
+
+	public TransformStack() {
+		loadIdentity();
+	}
+
+	/**
+	 * Pops all transforms and sets the remaining one to identity.
+	 */
+	public void reset() {
+		top = 0;
+		loadIdentity();
+	}
+
+	/**
+	 * Pushes a copy of the top transform.
+	 */
+	public void push() {
+		if (top + 2 * SIZE > stack.length)
+			stack = Arrays.copyOf(stack, stack.length * 2);
+
+		System.arraycopy(stack, top, stack, top + SIZE, SIZE);
+		top += SIZE;
+	}
+
+	public void pop() {
+		if (top == 0)
+			throw new IllegalStateException("Transform stack underflow!");
+
+		top -= SIZE;
+	}
+
+	public void loadIdentity() {
+		stack[top] = 1;
+		stack[top + 1] = 0;
+		stack[top + 2] = 0;
+		stack[top + 3] = 1;
+		stack[top + 4] = 0;
+		stack[top + 5] = 0;
+	}
+
+	public void translate(float x, float y) {
+		stack[top + 4] += stack[top] * x + stack[top + 2] * y;
+		stack[top + 5] += stack[top + 1] * x + stack[top + 3] * y;
+	}
+
+	/**
+	 * @param angle Angle in radians.
+	 */
+	public void rotate(float angle) {
+		if (angle == 0)
+			return;
+
+		float cos = (float)Math.cos(angle);
+		float sin = (float)Math.sin(angle);
+
+		float a = stack[top], b = stack[top + 1], c = stack[top + 2], d = stack[top + 3];
+		stack[top] = a * cos + c * sin;
+		stack[top + 1] = b * cos + d * sin;
+		stack[top + 2] = c * cos - a * sin;
+		stack[top + 3] = d * cos - b * sin;
+	}
+
+	public void scale(float x, float y) {
+		stack[top] *= x;
+		stack[top + 1] *= x;
+		stack[top + 2] *= y;
+		stack[top + 3] *= y;
+	}
+
+	/**
+	 * @return X coordinate of (x, y) transformed by the top transform.
+	 */
+	public float transformX(float x, float y) {
+		return stack[top] * x + stack[top + 2] * y + stack[top + 4];
+	}
+
+	/**
+	 * @return Y coordinate of (x, y) transformed by the top transform.
+	 */
+	public float transformY(float x, float y) {
+		return stack[top + 1] * x + stack[top + 3] * y + stack[top + 5];
+	}
+
+	/**
+	 * @param out Array of at least 9 floats the top transform is written to as a column major 3x3 matrix.
+	 * @return out
+	 */
+	public float[] getMatrix3(float[] out) {
+		out[0] = stack[top];
+		out[1] = stack[top + 1];
+		out[2] = 0;
+		out[3] = stack[top + 2];
+		out[4] = stack[top + 3];
+		out[5] = 0;
+		out[6] = stack[top + 4];
+		out[7] = stack[top + 5];
+		out[8] = 1;
+
+		return out;
+	}
+
+	/**
+	 * @return Number of transforms pushed over the bottom one.
+	 */
+	public int getDepth() {
+		return top / SIZE;
+	}
+}
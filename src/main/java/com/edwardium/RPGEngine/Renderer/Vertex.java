@@ -4,7 +4,8 @@ import com.edwardium.RPGEngine.Utility.Vector2D;
 import org.lwjgl.BufferUtils;
 
 import java.nio.FloatBuffer;
-import java.util.Arrays;
+
+import static org.lwjgl.system.MemoryUtil.memPutFloat;
 
 public class Vertex {
 
@@ -51,6 +52,29 @@ public class Vertex {
 				textureCoord[0], textureCoord[1]};
 	}
 
+	/**
+	 * Writes the elements to off-heap memory, in the same order as {@code getElements}, without allocating.
+	 *
+	 * @param address Address to write to.
+	 * @return Address right after the written elements.
+	 */
+	public long putElements(long address) {
+		for (float element : position) {
+			memPutFloat(address, element);
+			address += 4;
+		}
+		for (float element : color) {
+			memPutFloat(address, element);
+			address += 4;
+		}
+		for (float element : textureCoord) {
+			memPutFloat(address, element);
+			address += 4;
+		}
+
+		return address;
+	}
+
 	public static FloatBuffer verticesToBuffer(Vertex[] vertices) {
 		FloatBuffer verticesBuffer = BufferUtils.createFloatBuffer(vertices.length * Vertex.elementCount);
 		for (Vertex vertex : vertices) {
@@ -64,21 +88,6 @@ public class Vertex {
 		return verticesBuffer;
 	}
 
-	public static Vertex[][] splitArrayByLength(Vertex[] array, int size) {
-		int splitCount = (int)Math.ceil((float)array.length / size);
-
-		Vertex[][] result = new Vertex[splitCount][];
-
-		int lastOffset = 0;
-		for (int i = 0;  i < result.length; i++) {
-			int newEnd = Math.min(lastOffset + size, array.length);
-			result[i] = Arrays.copyOfRange(array, lastOffset, newEnd);
-			lastOffset = newEnd;
-		}
-
-		return result;
-	}
-
 	public static Vertex[] shapeFromVector2D(Vector2D[] sourceArray) {
 		Vector2D topCorner = new Vector2D();
 		Vector2D bottomCorner = new Vector2D();
@@ -8,6 +8,10 @@ import java.util.Objects;
 
 /**
  * Class representing a coordinate in 2D space.
+ *
+ * Static arithmetic methods come in two variants. The plain ones return a new vector, the ones with an {@code out}
+ * parameter store the result in it and return it, so they do not allocate. {@code out} can be one of the arguments.
+ * For temporary vectors in hot paths, see {@link VectorPool}.
  */
 public class Vector2D implements GameSerializable {
 	private float posX;
@@ -22,6 +26,16 @@ public class Vector2D implements GameSerializable {
 		return new Vector2D(1, 0).setAngle(angle).setMagnitude(magnitude);
 	}
 
+	/**
+	 * @param angle Angle.
+	 * @param magnitude Magnitude.
+	 * @param out Vector to store the result in.
+	 * @return out set to angle and magnitude.
+	 */
+	public static Vector2D fromAM(float angle, float magnitude, Vector2D out) {
+		return out.set(1, 0).setAngle(angle).setMagnitude(magnitude);
+	}
+
 	/**
 	 * @param a Vector to rotate.
 	 * @param angle Angle.
@@ -31,6 +45,16 @@ public class Vector2D implements GameSerializable {
 		return new Vector2D(a).rotateBy(angle);
 	}
 
+	/**
+	 * @param a Vector to rotate.
+	 * @param angle Angle.
+	 * @param out Vector to store the result in.
+	 * @return out set to a rotation of a by angle.
+	 */
+	public static Vector2D rotatedBy(Vector2D a, float angle, Vector2D out) {
+		return out.set(a).rotateBy(angle);
+	}
+
 	/**
 	 * @param array Vectors to rotate
 	 * @param angle Angle.
@@ -54,6 +78,15 @@ public class Vector2D implements GameSerializable {
 		return new Vector2D(a).inverse();
 	}
 
+	/**
+	 * @param a Vector to inverse.
+	 * @param out Vector to store the result in.
+	 * @return out set to an inversion of a.
+	 */
+	public static Vector2D inverse(Vector2D a, Vector2D out) {
+		return out.set(a).inverse();
+	}
+
 	/**
 	 * @param a Vector to absolutize.
 	 * @return New vectors that is the absolutization fo a.
@@ -62,6 +95,15 @@ public class Vector2D implements GameSerializable {
 		return new Vector2D(a).absolutize();
 	}
 
+	/**
+	 * @param a Vector to absolutize.
+	 * @param out Vector to store the result in.
+	 * @return out set to the absolutization of a.
+	 */
+	public static Vector2D absolutize(Vector2D a, Vector2D out) {
+		return out.set(a).absolutize();
+	}
+
 	/**
 	 * @param a Vector to add.
 	 * @param b Vector to add.
@@ -71,6 +113,16 @@ public class Vector2D implements GameSerializable {
 		return new Vector2D(a).add(b);
 	}
 
+	/**
+	 * @param a Vector to add.
+	 * @param b Vector to add.
+	 * @param out Vector to store the result in.
+	 * @return out set to an addition of a and b.
+	 */
+	public static Vector2D add(Vector2D a, Vector2D b, Vector2D out) {
+		return out.set(a.posX + b.posX, a.posY + b.posY);
+	}
+
 	/**
 	 * @param a Vector to add.
 	 * @param x The x change.
@@ -81,6 +133,17 @@ public class Vector2D implements GameSerializable {
 		return new Vector2D(a).add(x, y);
 	}
 
+	/**
+	 * @param a Vector to add.
+	 * @param x The x change.
+	 * @param y The y change.
+	 * @param out Vector to store the result in.
+	 * @return out set to an addition of a and (x, y).
+	 */
+	public static Vector2D add(Vector2D a, float x, float y, Vector2D out) {
+		return out.set(a.posX + x, a.posY + y);
+	}
+
 	/**
 	 * @param array Vectors to add to.
 	 * @param shift Vector to add.
@@ -104,6 +167,16 @@ public class Vector2D implements GameSerializable {
 		return new Vector2D(a).subtract(b);
 	}
 
+	/**
+	 * @param a Vectors to subtract from.
+	 * @param b Vector to subtract.
+	 * @param out Vector to store the result in.
+	 * @return out set to a subtraction of b from a.
+	 */
+	public static Vector2D subtract(Vector2D a, Vector2D b, Vector2D out) {
+		return out.set(a.posX - b.posX, a.posY - b.posY);
+	}
+
 	/**
 	 * @param a Vector a.
 	 * @param x The x change.
@@ -114,6 +187,17 @@ public class Vector2D implements GameSerializable {
 		return new Vector2D(a).subtract(x, y);
 	}
 
+	/**
+	 * @param a Vector a.
+	 * @param x The x change.
+	 * @param y The y change.
+	 * @param out Vector to store the result in.
+	 * @return out set to a subtraction of (x, y) from a.
+	 */
+	public static Vector2D subtract(Vector2D a, float x, float y, Vector2D out) {
+		return out.set(a.posX - x, a.posY - y);
+	}
+
 	/**
 	 * @param a Vector to divide.
 	 * @param d Factor.
@@ -123,6 +207,16 @@ public class Vector2D implements GameSerializable {
 		return new Vector2D(a).divide(d);
 	}
 
+	/**
+	 * @param a Vector to divide.
+	 * @param d Factor.
+	 * @param out Vector to store the result in.
+	 * @return out set to a divided by d.
+	 */
+	public static Vector2D divide(Vector2D a, float d, Vector2D out) {
+		return out.set(a).divide(d);
+	}
+
 	/**
 	 * @param a Vector to limit.
 	 * @param limit Limit.
@@ -132,6 +226,16 @@ public class Vector2D implements GameSerializable {
 		return new Vector2D(a).limit(limit);
 	}
 
+	/**
+	 * @param a Vector to limit.
+	 * @param limit Limit.
+	 * @param out Vector to store the result in.
+	 * @return out set to a limited by limit.
+	 */
+	public static Vector2D limit(Vector2D a, float limit, Vector2D out) {
+		return out.set(a).limit(limit);
+	}
+
 	/**
 	 * @param a Vector to normalize.
 	 * @return New vector that is a normalization of a.
@@ -140,6 +244,15 @@ public class Vector2D implements GameSerializable {
 		return new Vector2D(a).normalize();
 	}
 
+	/**
+	 * @param a Vector to normalize.
+	 * @param out Vector to store the result in.
+	 * @return out set to a normalization of a.
+	 */
+	public static Vector2D normalize(Vector2D a, Vector2D out) {
+		return out.set(a).normalize();
+	}
+
 	/**
 	 * @see Vector2D#scale(float)
 	 *
@@ -149,6 +262,16 @@ public class Vector2D implements GameSerializable {
 	 */
 	public static Vector2D scale(Vector2D a, float s) { return new Vector2D(a).scale(s); }
 
+	/**
+	 * @see Vector2D#scale(float)
+	 *
+	 * @param a Vector to scale.
+	 * @param s Factor by which to scale.
+	 * @param out Vector to store the result in.
+	 * @return out set to a scaled by s.
+	 */
+	public static Vector2D scale(Vector2D a, float s, Vector2D out) { return out.set(a).scale(s); }
+
 	/**
 	 * @see Vector2D#scale(float, float)
 	 *
@@ -159,6 +282,17 @@ public class Vector2D implements GameSerializable {
 	 */
 	public static Vector2D scale(Vector2D a, float x, float y) { return new Vector2D(a).scale(x, y); }
 
+	/**
+	 * @see Vector2D#scale(float, float)
+	 *
+	 * @param a Vector to scale.
+	 * @param x Factor by which to scale x coordinate.
+	 * @param y Factor by which to scale y coordinate.
+	 * @param out Vector to store the result in.
+	 * @return out set to a scaled by x and y.
+	 */
+	public static Vector2D scale(Vector2D a, float x, float y, Vector2D out) { return out.set(a).scale(x, y); }
+
 	/**
 	 * @see Vector2D#scale(Vector2D)
 	 *
@@ -168,6 +302,16 @@ public class Vector2D implements GameSerializable {
 	 */
 	public static Vector2D scale(Vector2D a, Vector2D scaleVector) { return new Vector2D(a).scale(scaleVector); }
 
+	/**
+	 * @see Vector2D#scale(Vector2D)
+	 *
+	 * @param a Vector to scale.
+	 * @param scaleVector Vector by which's coordinates to scale x coordinate.
+	 * @param out Vector to store the result in.
+	 * @return out set to a scaled by {@code scaleVector.getX()} and {@code scaleVector.getY()}.
+	 */
+	public static Vector2D scale(Vector2D a, Vector2D scaleVector, Vector2D out) { return out.set(a.posX * scaleVector.posX, a.posY * scaleVector.posY); }
+
 	/**
 	 * Equivalent to calling {@code a.distance(b)}
 	 * @see Vector2D#distance(Vector2D)
@@ -188,17 +332,39 @@ public class Vector2D implements GameSerializable {
 	 */
 	public static Vector2D center(Vector2D a, Vector2D b) { return a.center(b); }
 
+	/**
+	 * @param a Vector a.
+	 * @param b Vector b.
+	 * @param out Vector to store the result in.
+	 * @return out set to the center between a and b.
+	 */
+	public static Vector2D center(Vector2D a, Vector2D b, Vector2D out) {
+		return out.set(a.posX + b.posX, a.posY + b.posY).divide(2);
+	}
+
 	/**
 	 * @param vectors Array of vectors.
 	 * @return New vector that points to the average of {@code vectors}.
 	 */
 	public static Vector2D center(Vector2D[] vectors) {
-		Vector2D centerVector = new Vector2D();
+		return center(vectors, new Vector2D());
+	}
+
+	/**
+	 * @param vectors Array of vectors.
+	 * @param out Vector to store the result in.
+	 * @return out set to the average of {@code vectors}.
+	 */
+	public static Vector2D center(Vector2D[] vectors, Vector2D out) {
+		// summed into locals, out can be one of the vectors
+		float sumX = 0;
+		float sumY = 0;
 		for (Vector2D vec : vectors) {
-			centerVector.add(vec);
+			sumX += vec.posX;
+			sumY += vec.posY;
 		}
 
-		return centerVector.divide(vectors.length);
+		return out.set(sumX, sumY).divide(vectors.length);
 	}
 
 	/**
@@ -246,6 +412,20 @@ public class Vector2D implements GameSerializable {
 		return a.projection(axis);
 	}
 
+	/**
+	 * @see Vector2D#projection(Vector2D)
+	 *
+	 * @param a Vector a.
+	 * @param axis Axis vector.
+	 * @param out Vector to store the result in.
+	 * @return out set to a projection of a onto axis.
+	 */
+	public static Vector2D projection(Vector2D a, Vector2D axis, Vector2D out) {
+		float projectionFactor = a.dot(axis) / axis.getMagnitude();
+
+		return out.set(axis).setMagnitude(projectionFactor);
+	}
+
 	/**
 	 * Equivalent to calling {@code a.rejection(axis)}
 	 * @see Vector2D#rejection(Vector2D)
@@ -258,6 +438,22 @@ public class Vector2D implements GameSerializable {
 		return a.rejection(axis);
 	}
 
+	/**
+	 * @see Vector2D#rejection(Vector2D)
+	 *
+	 * @param a Vector a.
+	 * @param axis Axis vector.
+	 * @param out Vector to store the result in.
+	 * @return out set to a rejection of a from axis.
+	 */
+	public static Vector2D rejection(Vector2D a, Vector2D axis, Vector2D out) {
+		// out can be a, which is overwritten by the projection
+		float x = a.posX;
+		float y = a.posY;
+
+		return projection(a, axis, out).inverse().add(x, y);
+	}
+
 	/**
 	 * Empty constructor. Same as {@code new Vector2D(0, 0)}.
 	 */
@@ -418,6 +614,15 @@ public class Vector2D implements GameSerializable {
 		return new Vector2D(this.posY, -this.posX);
 	}
 
+	/**
+	 * @param out Vector to store the result in.
+	 * @return out set to a vector orthogonal to this vector.
+	 */
+	@SuppressWarnings("SuspiciousNameCombination")
+	public Vector2D getNormal(Vector2D out) {
+		return out.set(this.posY, -this.posX);
+	}
+
 	/**
 	 * Multiplies this by -1.
 	 *
@@ -552,13 +757,15 @@ public class Vector2D implements GameSerializable {
 	}
 
 	/**
-	 * The distance is calculated by constructing a new vector that is a subtraction of other from this and then computing magnitude.
+	 * The distance is calculated as the magnitude of a subtraction of other from this.
 	 *
 	 * @param other Vector to which to measure distance.
 	 * @return Distance to other.
 	 */
 	public float distance(Vector2D other) {
-		return Vector2D.subtract(this, other).getMagnitude();
+		float distanceX = this.posX - other.posX;
+		float distanceY = this.posY - other.posY;
+		return (float)Math.sqrt(distanceX * distanceX + distanceY * distanceY);
 	}
 
 	/**
@@ -566,7 +773,7 @@ public class Vector2D implements GameSerializable {
 	 * @return New vector that points to the center between this and other.
 	 */
 	public Vector2D center(Vector2D other) {
-		return new Vector2D(this).add(other).divide(2);
+		return center(this, other, new Vector2D());
 	}
 
 	/**
@@ -601,9 +808,7 @@ public class Vector2D implements GameSerializable {
 	 * @return New vector that is a projection of this onto axis.
 	 */
 	public Vector2D projection(Vector2D axis) {
-		float projectionFactor = dot(axis) / axis.getMagnitude();
-
-		return new Vector2D(axis).setMagnitude(projectionFactor);
+		return projection(this, axis, new Vector2D());
 	}
 
 	/**
@@ -614,8 +819,7 @@ public class Vector2D implements GameSerializable {
 	 * @return New vector that is a rejection of this onto axis.
 	 */
 	public Vector2D rejection(Vector2D axis) {
-		Vector2D projectionVector = projection(axis);
-		return projectionVector.inverse().add(this);
+		return rejection(this, axis, new Vector2D());
 	}
 
 	/**
@@ -0,0 +1,90 @@
+package com.edwardium.RPGEngine.Utility;
+
+import java.util.Arrays;
+
+/**
+ * Per thread pool of scratch vectors for hot paths that need temporary vectors.
+ *
+ * Vectors are taken inside a scope and all of them are returned when the scope closes:
+ * <pre>
+ * try (VectorPool pool = VectorPool.open()) {
+ *     Vector2D force = Vector2D.scale(direction, strength, pool.take());
+ *     ...
+ * }
+ * </pre>
+ * Vectors taken from the pool must not be kept after their scope closes. Scopes can be nested and neither opening
+ * a scope nor taking a vector allocates once the pool has grown to the deepest use.
+ */
+public final class VectorPool implements AutoCloseable {
+	private static final ThreadLocal<VectorPool> POOLS = ThreadLocal.withInitial(VectorPool::new);
+
+	private Vector2D[] vectors = new Vector2D[16];
+	private int used = 0;
+
+	// used count at the start of each open scope
+	private int[] scopes = new int[8];
+	private int depth = 0;
+
+	private VectorPool() {
+
+	}
+
+	/**
+	 * Opens a new scope on the pool of the calling thread.
+	 *
+	 * @return Pool of the calling thread. Has to be closed on the same thread.
+	 */
+	public static VectorPool open() {
+		VectorPool pool = POOLS.get();
+		if (pool.depth == pool.scopes.length)
+			pool.scopes = Arrays.copyOf(pool.scopes, pool.depth * 2);
+
+		pool.scopes[pool.depth++] = pool.used;
+		return pool;
+	}
+
+	/**
+	 * @return Vector (0, 0) that is valid until the current scope closes.
+	 */
+	public Vector2D take() {
+		if (depth == 0)
+			throw new IllegalStateException("Vector pool has no open scope!");
+
+		if (used == vectors.length)
+			vectors = Arrays.copyOf(vectors, used * 2);
+
+		Vector2D vector = vectors[used];
+		if (vector == null) {
+			vector = new Vector2D();
+			vectors[used] = vector;
+		}
+		used++;
+
+		return vector.set(0, 0);
+	}
+
+	/**
+	 * @param x The x coordinate.
+	 * @param y The y coordinate.
+	 * @return Vector (x, y) that is valid until the current scope closes.
+	 */
+	public Vector2D take(float x, float y) {
+		return take().set(x, y);
+	}
+
+	/**
+	 * @param copy Vector to copy.
+	 * @return Copy of copy that is valid until the current scope closes.
+	 */
+	public Vector2D take(Vector2D copy) {
+		return take().set(copy);
+	}
+
+	/**
+	 * Closes the current scope, returning all vectors taken in it.
+	 */
+	@Override
+	public void close() {
+		used = scopes[--depth];
+	}
+}